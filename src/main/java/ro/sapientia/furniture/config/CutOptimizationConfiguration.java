@@ -0,0 +1,42 @@
+package ro.sapientia.furniture.config;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class CutOptimizationConfiguration {
+
+    /**
+     * Pool for the parallel parts of the cut optimization, sized by {@code furniture.cut.parallelism}
+     * so a single large order cannot take every core of the host.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool cutOptimizationPool(CutOptimizationProperties properties) {
+        return new ForkJoinPool(Math.max(1, properties.getParallelism()));
+    }
+
+    /**
+     * Threads of the {@code furniture.cut.job-workers} cut job workers, which claim jobs from the
+     * shared job queue; there is no room for further tasks.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor cutJobExecutor(CutOptimizationProperties properties) {
+        int workers = Math.max(1, properties.getJobWorkers());
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cut-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
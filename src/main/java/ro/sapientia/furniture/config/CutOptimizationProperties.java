@@ -0,0 +1,336 @@
+package ro.sapientia.furniture.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+
+/**
+ * Tuning knobs of the cut optimization, bound from the {@code furniture.cut.*} properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "furniture.cut")
+public class CutOptimizationProperties {
+
+    /**
+     * How thoroughly finished layouts are checked for overlaps and sheet bounds.
+     */
+    public enum ValidationMode {
+        /** Check every layout. */
+        FULL,
+        /** Check bounds on every layout and overlaps on a fraction of them. */
+        SAMPLED,
+        /** Trust the packer. */
+        OFF
+    }
+
+    private PackingAlgorithm defaultAlgorithm = PackingAlgorithm.FFDH;
+
+    private ValidationMode validationMode = ValidationMode.FULL;
+
+    private double validationSampleRate = 0.1;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private int parallelValidationThreshold = 20_000;
+
+    private int parallelPackingThreshold = 5_000;
+
+    private int partitionThreshold = 50_000;
+
+    private int maxParts = 500_000;
+
+    private int portfolioConcurrency = 4;
+
+    private long portfolioTimeBudgetMillis = 1_000;
+
+    private long maxSearchMillis = 10_000;
+
+    private long localSearchSeed = 42;
+
+    private long exactTimeBudgetMillis = 2_000;
+
+    private long exactMaxNodes = 5_000_000;
+
+    private int remnantMinSide = 100;
+
+    private long remnantRefreshMillis = 60_000;
+
+    private int sessionMaxOpenSheets = 2;
+
+    private long sessionIdleTimeoutMillis = 1_800_000;
+
+    private long sessionSweepMillis = 60_000;
+
+    private int panelThickness = 18;
+
+    private int bodyCacheSize = 10_000;
+
+    private int jobWorkers = 2;
+
+    private int jobQueueCapacity = 100;
+
+    private long jobRetentionMillis = 3_600_000;
+
+    private long jobLeaseMillis = 300_000;
+
+    private int jobMaxAttempts = 3;
+
+    private long jobPollMillis = 1_000;
+
+    private int batchMaxOrders = 500;
+
+    private long progressIntervalMillis = 500;
+
+    private String progressRelayHost;
+
+    private int progressRelayPort = 61613;
+
+    public PackingAlgorithm getDefaultAlgorithm() {
+        return defaultAlgorithm;
+    }
+
+    public void setDefaultAlgorithm(PackingAlgorithm defaultAlgorithm) {
+        this.defaultAlgorithm = defaultAlgorithm;
+    }
+
+    public ValidationMode getValidationMode() {
+        return validationMode;
+    }
+
+    public void setValidationMode(ValidationMode validationMode) {
+        this.validationMode = validationMode;
+    }
+
+    public double getValidationSampleRate() {
+        return validationSampleRate;
+    }
+
+    public void setValidationSampleRate(double validationSampleRate) {
+        this.validationSampleRate = validationSampleRate;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelValidationThreshold() {
+        return parallelValidationThreshold;
+    }
+
+    public void setParallelValidationThreshold(int parallelValidationThreshold) {
+        this.parallelValidationThreshold = parallelValidationThreshold;
+    }
+
+    public int getParallelPackingThreshold() {
+        return parallelPackingThreshold;
+    }
+
+    public void setParallelPackingThreshold(int parallelPackingThreshold) {
+        this.parallelPackingThreshold = parallelPackingThreshold;
+    }
+
+    public int getPartitionThreshold() {
+        return partitionThreshold;
+    }
+
+    public void setPartitionThreshold(int partitionThreshold) {
+        this.partitionThreshold = partitionThreshold;
+    }
+
+    public int getMaxParts() {
+        return maxParts;
+    }
+
+    public void setMaxParts(int maxParts) {
+        this.maxParts = maxParts;
+    }
+
+    public int getPortfolioConcurrency() {
+        return portfolioConcurrency;
+    }
+
+    public void setPortfolioConcurrency(int portfolioConcurrency) {
+        this.portfolioConcurrency = portfolioConcurrency;
+    }
+
+    public long getPortfolioTimeBudgetMillis() {
+        return portfolioTimeBudgetMillis;
+    }
+
+    public void setPortfolioTimeBudgetMillis(long portfolioTimeBudgetMillis) {
+        this.portfolioTimeBudgetMillis = portfolioTimeBudgetMillis;
+    }
+
+    public long getMaxSearchMillis() {
+        return maxSearchMillis;
+    }
+
+    public void setMaxSearchMillis(long maxSearchMillis) {
+        this.maxSearchMillis = maxSearchMillis;
+    }
+
+    public long getLocalSearchSeed() {
+        return localSearchSeed;
+    }
+
+    public void setLocalSearchSeed(long localSearchSeed) {
+        this.localSearchSeed = localSearchSeed;
+    }
+
+    public long getExactTimeBudgetMillis() {
+        return exactTimeBudgetMillis;
+    }
+
+    public void setExactTimeBudgetMillis(long exactTimeBudgetMillis) {
+        this.exactTimeBudgetMillis = exactTimeBudgetMillis;
+    }
+
+    public long getExactMaxNodes() {
+        return exactMaxNodes;
+    }
+
+    public void setExactMaxNodes(long exactMaxNodes) {
+        this.exactMaxNodes = exactMaxNodes;
+    }
+
+    public int getRemnantMinSide() {
+        return remnantMinSide;
+    }
+
+    public void setRemnantMinSide(int remnantMinSide) {
+        this.remnantMinSide = remnantMinSide;
+    }
+
+    public long getRemnantRefreshMillis() {
+        return remnantRefreshMillis;
+    }
+
+    public void setRemnantRefreshMillis(long remnantRefreshMillis) {
+        this.remnantRefreshMillis = remnantRefreshMillis;
+    }
+
+    public int getSessionMaxOpenSheets() {
+        return sessionMaxOpenSheets;
+    }
+
+    public void setSessionMaxOpenSheets(int sessionMaxOpenSheets) {
+        this.sessionMaxOpenSheets = sessionMaxOpenSheets;
+    }
+
+    public long getSessionIdleTimeoutMillis() {
+        return sessionIdleTimeoutMillis;
+    }
+
+    public void setSessionIdleTimeoutMillis(long sessionIdleTimeoutMillis) {
+        this.sessionIdleTimeoutMillis = sessionIdleTimeoutMillis;
+    }
+
+    public long getSessionSweepMillis() {
+        return sessionSweepMillis;
+    }
+
+    public void setSessionSweepMillis(long sessionSweepMillis) {
+        this.sessionSweepMillis = sessionSweepMillis;
+    }
+
+    public int getPanelThickness() {
+        return panelThickness;
+    }
+
+    public void setPanelThickness(int panelThickness) {
+        this.panelThickness = panelThickness;
+    }
+
+    public int getBodyCacheSize() {
+        return bodyCacheSize;
+    }
+
+    public void setBodyCacheSize(int bodyCacheSize) {
+        this.bodyCacheSize = bodyCacheSize;
+    }
+
+    public int getJobWorkers() {
+        return jobWorkers;
+    }
+
+    public void setJobWorkers(int jobWorkers) {
+        this.jobWorkers = jobWorkers;
+    }
+
+    public int getJobQueueCapacity() {
+        return jobQueueCapacity;
+    }
+
+    public void setJobQueueCapacity(int jobQueueCapacity) {
+        this.jobQueueCapacity = jobQueueCapacity;
+    }
+
+    public long getJobRetentionMillis() {
+        return jobRetentionMillis;
+    }
+
+    public void setJobRetentionMillis(long jobRetentionMillis) {
+        this.jobRetentionMillis = jobRetentionMillis;
+    }
+
+    public long getJobLeaseMillis() {
+        return jobLeaseMillis;
+    }
+
+    public void setJobLeaseMillis(long jobLeaseMillis) {
+        this.jobLeaseMillis = jobLeaseMillis;
+    }
+
+    public int getJobMaxAttempts() {
+        return jobMaxAttempts;
+    }
+
+    public void setJobMaxAttempts(int jobMaxAttempts) {
+        this.jobMaxAttempts = jobMaxAttempts;
+    }
+
+    public long getJobPollMillis() {
+        return jobPollMillis;
+    }
+
+    public void setJobPollMillis(long jobPollMillis) {
+        this.jobPollMillis = jobPollMillis;
+    }
+
+    public int getBatchMaxOrders() {
+        return batchMaxOrders;
+    }
+
+    public void setBatchMaxOrders(int batchMaxOrders) {
+        this.batchMaxOrders = batchMaxOrders;
+    }
+
+    public long getProgressIntervalMillis() {
+        return progressIntervalMillis;
+    }
+
+    public void setProgressIntervalMillis(long progressIntervalMillis) {
+        this.progressIntervalMillis = progressIntervalMillis;
+    }
+
+    public String getProgressRelayHost() {
+        return progressRelayHost;
+    }
+
+    public void setProgressRelayHost(String progressRelayHost) {
+        this.progressRelayHost = progressRelayHost;
+    }
+
+    public int getProgressRelayPort() {
+        return progressRelayPort;
+    }
+
+    public void setProgressRelayPort(int progressRelayPort) {
+        this.progressRelayPort = progressRelayPort;
+    }
+}
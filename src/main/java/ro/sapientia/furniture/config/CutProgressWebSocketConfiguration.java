@@ -0,0 +1,41 @@
+package ro.sapientia.furniture.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * STOMP over WebSocket at {@code /furniture/ws}, where clients subscribe to
+ * {@code /topic/cut-jobs/{jobId}} for the progress of a cut job. The topics live in the
+ * in-memory broker of the instance, or in the external broker at
+ * {@code furniture.cut.progress-relay-host} when several instances share the job queue.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class CutProgressWebSocketConfiguration implements WebSocketMessageBrokerConfigurer {
+
+    private final CutOptimizationProperties properties;
+
+    public CutProgressWebSocketConfiguration(CutOptimizationProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/furniture/ws").setAllowedOriginPatterns("*");
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        String relayHost = properties.getProgressRelayHost();
+        if (relayHost != null && !relayHost.isEmpty()) {
+            registry.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(properties.getProgressRelayPort());
+        } else {
+            registry.enableSimpleBroker("/topic");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ro.sapientia.furniture.controller;
+
+import javax.validation.Valid;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import ro.sapientia.furniture.model.dto.CutJobDTO;
+import ro.sapientia.furniture.model.dto.CutRequestDTO;
+import ro.sapientia.furniture.model.dto.CutResponseDTO;
+import ro.sapientia.furniture.service.CutJobService;
+
+@RestController
+@RequestMapping("/furniture/cut/jobs")
+public class CutJobController {
+
+	private final CutJobService cutJobService;
+
+	public CutJobController(final CutJobService cutJobService) {
+		this.cutJobService = cutJobService;
+	}
+
+	@PostMapping
+	public ResponseEntity<CutJobDTO> submitJob(@Valid @RequestBody CutRequestDTO cutRequestDTO){
+		final CutJobDTO cutJobDTO = cutJobService.submit(cutRequestDTO);
+		return new ResponseEntity<>(cutJobDTO, HttpStatus.ACCEPTED);
+	}
+
+	@GetMapping("/{id}")
+	public ResponseEntity<CutJobDTO> getJob(@PathVariable("id") String id){
+		final CutJobDTO cutJobDTO = cutJobService.status(id);
+		return new ResponseEntity<>(cutJobDTO, HttpStatus.OK);
+	}
+
+	@GetMapping("/{id}/result")
+	public ResponseEntity<CutResponseDTO> getJobResult(@PathVariable("id") String id){
+		final CutResponseDTO cutResponseDTO = cutJobService.result(id);
+		return new ResponseEntity<>(cutResponseDTO, HttpStatus.OK);
+	}
+}
@@ -0,0 +1,45 @@
+package ro.sapientia.furniture.controller;
+
+import javax.validation.Valid;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import ro.sapientia.furniture.model.dto.CutSessionDTO;
+import ro.sapientia.furniture.model.dto.CutSessionPartsDTO;
+import ro.sapientia.furniture.model.dto.CutSessionRequestDTO;
+import ro.sapientia.furniture.service.CutSessionService;
+
+@RestController
+@RequestMapping("/furniture/cut/sessions")
+public class CutSessionController {
+
+	private final CutSessionService cutSessionService;
+
+	public CutSessionController(final CutSessionService cutSessionService) {
+		this.cutSessionService = cutSessionService;
+	}
+
+	@PostMapping
+	public ResponseEntity<CutSessionDTO> openSession(@Valid @RequestBody CutSessionRequestDTO cutSessionRequestDTO){
+		final CutSessionDTO cutSessionDTO = cutSessionService.open(cutSessionRequestDTO);
+		return new ResponseEntity<>(cutSessionDTO, HttpStatus.CREATED);
+	}
+
+	@PostMapping("/{id}/parts")
+	public ResponseEntity<CutSessionDTO> addParts(@PathVariable("id") String id, @Valid @RequestBody CutSessionPartsDTO partsDTO){
+		final CutSessionDTO cutSessionDTO = cutSessionService.addParts(id, partsDTO.getElements());
+		return new ResponseEntity<>(cutSessionDTO, HttpStatus.OK);
+	}
+
+	@PostMapping("/{id}/close")
+	public ResponseEntity<CutSessionDTO> closeSession(@PathVariable("id") String id){
+		final CutSessionDTO cutSessionDTO = cutSessionService.close(id);
+		return new ResponseEntity<>(cutSessionDTO, HttpStatus.OK);
+	}
+}
@@ -0,0 +1,47 @@
+package ro.sapientia.furniture.controller;
+
+import javax.validation.Valid;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import ro.sapientia.furniture.model.dto.CuttingSheetDTO;
+import ro.sapientia.furniture.model.dto.SheetAdditionDTO;
+import ro.sapientia.furniture.model.dto.SheetChangeDTO;
+import ro.sapientia.furniture.model.dto.SheetRemovalDTO;
+import ro.sapientia.furniture.service.SheetEditService;
+
+@RestController
+@RequestMapping("/furniture/cut/sheets")
+public class CuttingSheetController {
+
+	private final SheetEditService sheetEditService;
+
+	public CuttingSheetController(final SheetEditService sheetEditService) {
+		this.sheetEditService = sheetEditService;
+	}
+
+	@GetMapping("/{id}")
+	public ResponseEntity<CuttingSheetDTO> getSheet(@PathVariable("id") Long id){
+		final CuttingSheetDTO cuttingSheetDTO = sheetEditService.findSheet(id);
+		return new ResponseEntity<>(cuttingSheetDTO, HttpStatus.OK);
+	}
+
+	@PostMapping("/{id}/add")
+	public ResponseEntity<SheetChangeDTO> addElements(@PathVariable("id") Long id, @Valid @RequestBody SheetAdditionDTO additionDTO){
+		final SheetChangeDTO sheetChangeDTO = sheetEditService.addElements(id, additionDTO.getElements());
+		return new ResponseEntity<>(sheetChangeDTO, HttpStatus.OK);
+	}
+
+	@PostMapping("/{id}/remove")
+	public ResponseEntity<SheetChangeDTO> removePlacements(@PathVariable("id") Long id, @Valid @RequestBody SheetRemovalDTO removalDTO){
+		final SheetChangeDTO sheetChangeDTO = sheetEditService.removePlacements(id, removalDTO.getPlacementIds());
+		return new ResponseEntity<>(sheetChangeDTO, HttpStatus.OK);
+	}
+}
@@ -2,6 +2,7 @@ package ro.sapientia.furniture.controller;
 
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import org.springframework.http.HttpStatus;
@@ -13,6 +14,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ro.sapientia.furniture.model.dto.CutBatchRequestDTO;
+import ro.sapientia.furniture.model.dto.CutBatchResponseDTO;
 import ro.sapientia.furniture.model.dto.CutRequestDTO;
 import ro.sapientia.furniture.model.dto.CutResponseDTO;
 import ro.sapientia.furniture.model.dto.FurnitureBodyDTO;
@@ -28,11 +33,14 @@ public class FurnitureController {
 
 	private final FurnitureBodyService furnitureBodyService;
 	private final CutOptimizationService cutOptimizationService;
+	private final ObjectMapper objectMapper;
 
 	public FurnitureController(final FurnitureBodyService furnitureBodyService,
-							   final CutOptimizationService cutOptimizationService) {
+							   final CutOptimizationService cutOptimizationService,
+							   final ObjectMapper objectMapper) {
 		this.furnitureBodyService = furnitureBodyService;
 		this.cutOptimizationService = cutOptimizationService;
+		this.objectMapper = objectMapper;
 	}
 	
 	@GetMapping("/all")
@@ -70,4 +78,37 @@ public class FurnitureController {
 		final CutResponseDTO cutResponseDTO = cutOptimizationService.optimizeCutting(cutRequestDTO);
 		return new ResponseEntity<>(cutResponseDTO, HttpStatus.OK);
 	}
+
+	/**
+	 * Cutting plan as newline-delimited JSON: one PlacedElementDTO per line, sheet by sheet, as
+	 * soon as the plan is made, then the CutResponseDTO without placements once the sheets are
+	 * saved. No transaction is open while the placements are written. A stream without that
+	 * last line failed after it started, and nothing of it was saved.
+	 */
+	@PostMapping("/cut/stream")
+	public void optimizeCutStream(@Valid @RequestBody CutRequestDTO cutRequestDTO, HttpServletResponse response){
+		final NdjsonWriter writer = new NdjsonWriter(objectMapper, response);
+		final CutOptimizationService.PendingPlan plan = cutOptimizationService.streamCutting(cutRequestDTO, writer::write, writer::flush);
+		try {
+			writer.write(cutOptimizationService.save(plan));
+			writer.flush();
+		} finally {
+			cutOptimizationService.discard(plan);
+		}
+	}
+
+	/**
+	 * The orders are planned without a transaction; only saving the sheets of the planned ones
+	 * opens one. If the save fails, nothing of the batch is kept.
+	 */
+	@PostMapping("/cut/batch")
+	public ResponseEntity<CutBatchResponseDTO> optimizeCutBatch(@Valid @RequestBody CutBatchRequestDTO cutBatchRequestDTO){
+		final CutOptimizationService.PendingBatch batch = cutOptimizationService.planBatch(cutBatchRequestDTO.getOrders());
+		try {
+			final CutBatchResponseDTO cutBatchResponseDTO = cutOptimizationService.saveBatch(batch);
+			return new ResponseEntity<>(cutBatchResponseDTO, HttpStatus.OK);
+		} finally {
+			cutOptimizationService.discardBatch(batch);
+		}
+	}
 }
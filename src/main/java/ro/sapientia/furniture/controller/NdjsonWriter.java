@@ -0,0 +1,60 @@
+package ro.sapientia.furniture.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes values to the response as newline-delimited JSON, one value per line.
+ *
+ * The response is only committed by the first value, so errors raised before it still get
+ * a regular error response. The first line is flushed at once; after it the container
+ * buffer decides when bytes go out, and {@link #flush()} sends the rest.
+ */
+final class NdjsonWriter {
+
+	private final ObjectWriter objectWriter;
+	private final HttpServletResponse response;
+	private JsonGenerator generator;
+
+	NdjsonWriter(ObjectMapper objectMapper, HttpServletResponse response) {
+		this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.response = response;
+	}
+
+	void write(Object value) {
+		try {
+			boolean first = generator == null;
+			if (first) {
+				response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+				generator = objectWriter.getFactory().createGenerator(response.getOutputStream());
+				generator.setRootValueSeparator(null);
+			}
+			objectWriter.writeValue(generator, value);
+			generator.writeRaw('\n');
+			if (first) {
+				generator.flush();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	void flush() {
+		try {
+			if (generator != null) {
+				generator.flush();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package ro.sapientia.furniture.exception;
+
+/**
+ * Machine-readable reasons a cutting request is rejected as infeasible, sent as the
+ * {@code code} of the {@link ErrorResponse}.
+ */
+public enum CutErrorCode {
+
+    /**
+     * An element fits on the sheet, or on any stock board of its depth, in neither orientation.
+     */
+    ELEMENT_TOO_LARGE,
+
+    /**
+     * The stock of the request has no board for the depth of an element.
+     */
+    NO_STOCK_FOR_DEPTH,
+
+    /**
+     * The elements of a depth cover more area than the single sheet they must share.
+     */
+    AREA_EXCEEDS_SHEET,
+
+    /**
+     * The elements of a depth cover more area than all stock boards of that depth together.
+     */
+    AREA_EXCEEDS_STOCK,
+
+    /**
+     * The elements wider than half the sheet, which can only stand above one another, are
+     * higher together than the sheet.
+     */
+    WIDE_ELEMENTS_EXCEED_HEIGHT,
+
+    /**
+     * The elements taller than half the sheet, which can only stand side by side, are wider
+     * together than the sheet.
+     */
+    TALL_ELEMENTS_EXCEED_WIDTH
+}
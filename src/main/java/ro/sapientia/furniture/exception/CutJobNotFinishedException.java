@@ -0,0 +1,13 @@
+package ro.sapientia.furniture.exception;
+
+import ro.sapientia.furniture.model.dto.CutJobStatus;
+
+/**
+ * Thrown when the result of a cut job is asked for before the job has finished.
+ */
+public class CutJobNotFinishedException extends CutOptimizationException {
+
+    public CutJobNotFinishedException(String jobId, CutJobStatus status) {
+        super("Cut job " + jobId + " has not finished yet, it is " + status, false);
+    }
+}
@@ -0,0 +1,11 @@
+package ro.sapientia.furniture.exception;
+
+/**
+ * Thrown when a cut job does not exist or its result is no longer kept.
+ */
+public class CutJobNotFoundException extends CutOptimizationException {
+
+    public CutJobNotFoundException(String jobId) {
+        super("Cut job " + jobId + " does not exist or has expired");
+    }
+}
@@ -0,0 +1,11 @@
+package ro.sapientia.furniture.exception;
+
+/**
+ * Thrown when a cut job cannot be accepted because the job queue is full.
+ */
+public class CutJobRejectedException extends CutOptimizationException {
+
+    public CutJobRejectedException(int queued) {
+        super("The cut job queue is full with " + queued + " waiting job(s); try again later", false);
+    }
+}
@@ -9,4 +9,11 @@ public class CutOptimizationException extends RuntimeException{
     public CutOptimizationException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * For expected business failures that need no stack trace.
+     */
+    protected CutOptimizationException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
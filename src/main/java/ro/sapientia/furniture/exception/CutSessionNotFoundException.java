@@ -0,0 +1,11 @@
+package ro.sapientia.furniture.exception;
+
+/**
+ * Thrown when an online cutting session does not exist, was closed or expired.
+ */
+public class CutSessionNotFoundException extends CutOptimizationException {
+
+    public CutSessionNotFoundException(String sessionId) {
+        super("Cutting session " + sessionId + " does not exist or was closed");
+    }
+}
@@ -0,0 +1,11 @@
+package ro.sapientia.furniture.exception;
+
+/**
+ * Thrown when a saved cutting sheet does not exist.
+ */
+public class CuttingSheetNotFoundException extends CutOptimizationException {
+
+    public CuttingSheetNotFoundException(Long sheetId) {
+        super("Cutting sheet not found with id: " + sheetId);
+    }
+}
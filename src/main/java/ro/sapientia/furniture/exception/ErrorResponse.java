@@ -2,6 +2,8 @@ package ro.sapientia.furniture.exception;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * Standard error response model.
  */
@@ -9,6 +11,8 @@ public class ErrorResponse {
 
     private int status;
     private String message;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String code;
     private LocalDateTime timestamp;
 
     public ErrorResponse() {
@@ -21,6 +25,11 @@ public class ErrorResponse {
         this.timestamp = LocalDateTime.now();
     }
 
+    public ErrorResponse(int status, String message, String code) {
+        this(status, message);
+        this.code = code;
+    }
+
     public int getStatus() {
         return status;
     }
@@ -37,6 +46,17 @@ public class ErrorResponse {
         this.message = message;
     }
 
+    /**
+     * Reason of the failure, for the errors that have one; see {@link CutErrorCode}.
+     */
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
@@ -35,6 +35,60 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handle requests for cutting sessions that were closed or never opened, for cutting sheets that do not exist
+     * and for cut jobs that do not exist or expired.
+     */
+    @ExceptionHandler({CutSessionNotFoundException.class, CuttingSheetNotFoundException.class, CutJobNotFoundException.class})
+    public ResponseEntity<ErrorResponse> handleCutNotFoundException(CutOptimizationException ex) {
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.NOT_FOUND.value(),
+                ex.getMessage()
+        );
+
+        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handle requests for the result of a cut job that is still queued or running.
+     */
+    @ExceptionHandler(CutJobNotFinishedException.class)
+    public ResponseEntity<ErrorResponse> handleCutJobNotFinishedException(CutJobNotFinishedException ex) {
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage()
+        );
+
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handle cut jobs turned away because the job queue is full.
+     */
+    @ExceptionHandler(CutJobRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleCutJobRejectedException(CutJobRejectedException ex) {
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getMessage()
+        );
+
+        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Handle requests rejected as infeasible before packing, with the reason as error code.
+     */
+    @ExceptionHandler(InfeasibleCutException.class)
+    public ResponseEntity<ErrorResponse> handleInfeasibleCutException(InfeasibleCutException ex) {
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                ex.getMessage(),
+                ex.getCode().name()
+        );
+
+        return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
     /**
      * Handle cutting optimization failures.
      */
@@ -0,0 +1,37 @@
+package ro.sapientia.furniture.exception;
+
+/**
+ * Thrown when a cutting request can be shown impossible before it is packed.
+ *
+ * Rejecting such a request is an expected outcome rather than a fault, so the exception
+ * records no stack trace and formats its message only when it is read.
+ */
+public class InfeasibleCutException extends CutOptimizationException {
+
+    private final CutErrorCode code;
+
+    private final String format;
+
+    private final transient Object[] args;
+
+    private String message;
+
+    public InfeasibleCutException(CutErrorCode code, String format, Object... args) {
+        super(null, false);
+        this.code = code;
+        this.format = format;
+        this.args = args;
+    }
+
+    public CutErrorCode getCode() {
+        return code;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = String.format(format, args);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,36 @@
+package ro.sapientia.furniture.model.dto;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+
+/**
+ * Independent cutting orders optimized in one call; every order is planned and saved on its own sheets.
+ */
+public class CutBatchRequestDTO {
+
+    @NotEmpty(message = "Orders list cannot be empty")
+    @Valid
+    private List<CutRequestDTO> orders;
+
+    public CutBatchRequestDTO() {
+    }
+
+    public CutBatchRequestDTO(List<CutRequestDTO> orders) {
+        this.orders = orders;
+    }
+
+    public List<CutRequestDTO> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<CutRequestDTO> orders) {
+        this.orders = orders;
+    }
+
+    @Override
+    public String toString() {
+        return "CutBatchRequest [orders=" + (orders != null ? orders.size() : 0) + "]";
+    }
+}
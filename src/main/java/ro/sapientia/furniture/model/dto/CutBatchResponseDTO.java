@@ -0,0 +1,48 @@
+package ro.sapientia.furniture.model.dto;
+
+import java.util.List;
+
+/**
+ * Response of a batch cut request: one result per order, in request order.
+ */
+public class CutBatchResponseDTO {
+
+    private List<CutBatchResultDTO> results;
+
+    private int succeeded;
+
+    private int failed;
+
+    public CutBatchResponseDTO() {
+    }
+
+    public CutBatchResponseDTO(List<CutBatchResultDTO> results, int succeeded, int failed) {
+        this.results = results;
+        this.succeeded = succeeded;
+        this.failed = failed;
+    }
+
+    public List<CutBatchResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<CutBatchResultDTO> results) {
+        this.results = results;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+}
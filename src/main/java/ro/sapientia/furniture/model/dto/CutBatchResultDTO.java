@@ -0,0 +1,73 @@
+package ro.sapientia.furniture.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one order of a batch: its cutting plan, or the error that stopped it.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CutBatchResultDTO {
+
+    /**
+     * Position of the order in the batch request.
+     */
+    private int index;
+
+    private CutResponseDTO result;
+
+    /**
+     * Error message of an order that could not be planned.
+     */
+    private String error;
+
+    /**
+     * Reason of an order rejected as infeasible, as in the {@code code} of an error response.
+     */
+    private String code;
+
+    public CutBatchResultDTO() {
+    }
+
+    public CutBatchResultDTO(int index, CutResponseDTO result) {
+        this.index = index;
+        this.result = result;
+    }
+
+    public CutBatchResultDTO(int index, String error, String code) {
+        this.index = index;
+        this.error = error;
+        this.code = code;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public CutResponseDTO getResult() {
+        return result;
+    }
+
+    public void setResult(CutResponseDTO result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+}
@@ -0,0 +1,57 @@
+package ro.sapientia.furniture.model.dto;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A stored furniture body to cut, by id; the server explodes it into its panels.
+ */
+public class CutBodyDTO {
+
+    @NotNull(message = "Furniture body ID is required")
+    private Long id;
+
+    /**
+     * Number of bodies to cut; one when not given.
+     */
+    @Min(value = 1, message = "Quantity must be positive")
+    @Max(value = CutElementDTO.MAX_QUANTITY, message = "Quantity must be at most " + CutElementDTO.MAX_QUANTITY)
+    private Integer quantity;
+
+    public CutBodyDTO() {
+    }
+
+    public CutBodyDTO(Long id, Integer quantity) {
+        this.id = id;
+        this.quantity = quantity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    /**
+     * Number of bodies to cut, counting a missing quantity as one.
+     */
+    public int copies() {
+        return quantity != null ? quantity : 1;
+    }
+
+    @Override
+    public String toString() {
+        return "CutBody [id=" + id + ", quantity=" + quantity + "]";
+    }
+}
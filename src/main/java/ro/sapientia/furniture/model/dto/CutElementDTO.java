@@ -0,0 +1,101 @@
+package ro.sapientia.furniture.model.dto;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A part to cut, given by its dimensions, with the number of identical copies wanted.
+ * Used for cutting requests, online sessions and sheet edits; stored furniture bodies are
+ * described by {@link FurnitureBodyDTO}.
+ */
+public class CutElementDTO {
+
+    /**
+     * Largest quantity of one element; {@code furniture.cut.max-parts} further limits the parts of a request.
+     */
+    public static final int MAX_QUANTITY = 100_000;
+
+    @NotNull(message = "Furniture element ID is required")
+    private Long id;
+
+    @Min(value = 1, message = "Width must be positive")
+    private int width;
+
+    @Min(value = 1, message = "Height must be positive")
+    private int height;
+
+    @Min(value = 0, message = "Depth cannot be negative")
+    private int depth;
+
+    /**
+     * Number of identical copies of the element; one when not given.
+     */
+    @Min(value = 1, message = "Quantity must be positive")
+    @Max(value = MAX_QUANTITY, message = "Quantity must be at most " + MAX_QUANTITY)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer quantity;
+
+    public CutElementDTO() {
+    }
+
+    public CutElementDTO(Long id, int width, int height) {
+        this.id = id;
+        this.width = width;
+        this.height = height;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    /**
+     * Number of copies to cut, counting a missing quantity as one.
+     */
+    public int copies() {
+        return quantity != null ? quantity : 1;
+    }
+
+    @Override
+    public String toString() {
+        return "CutElement [id=" + id + ", width=" + width + ", height=" + height + ", depth=" + depth + ", quantity=" + quantity + "]";
+    }
+}
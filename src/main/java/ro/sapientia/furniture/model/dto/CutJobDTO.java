@@ -0,0 +1,128 @@
+package ro.sapientia.furniture.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * State of an asynchronous cut job. The cutting plan itself is fetched separately once the
+ * job is {@link CutJobStatus#DONE}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CutJobDTO {
+
+    private String jobId;
+    private CutJobStatus status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    /**
+     * Times the job was claimed by a worker; above one when a worker died while running it.
+     */
+    private Integer attempts;
+
+    /**
+     * Worker that runs or ran the job, as instance id and worker number.
+     */
+    private String workerId;
+
+    /**
+     * Cutting sheets saved by a finished job, in sheet order.
+     */
+    private List<Long> cuttingSheetIds;
+
+    /**
+     * Error message of a failed job.
+     */
+    private String error;
+
+    /**
+     * Reason of a job that failed as infeasible, as in the {@code code} of an error response.
+     */
+    private String code;
+
+    public CutJobDTO() {
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public CutJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(CutJobStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    public void setWorkerId(String workerId) {
+        this.workerId = workerId;
+    }
+
+    public List<Long> getCuttingSheetIds() {
+        return cuttingSheetIds;
+    }
+
+    public void setCuttingSheetIds(List<Long> cuttingSheetIds) {
+        this.cuttingSheetIds = cuttingSheetIds;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+}
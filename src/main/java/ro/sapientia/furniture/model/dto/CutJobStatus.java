@@ -0,0 +1,15 @@
+package ro.sapientia.furniture.model.dto;
+
+/**
+ * Life cycle of an asynchronous cut job.
+ */
+public enum CutJobStatus {
+    /** Waiting for a worker. */
+    QUEUED,
+    /** Being packed and saved. */
+    RUNNING,
+    /** Finished; the result can be fetched. */
+    DONE,
+    /** Ended with an error. */
+    FAILED
+}
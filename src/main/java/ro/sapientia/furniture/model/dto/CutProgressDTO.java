@@ -0,0 +1,164 @@
+package ro.sapientia.furniture.model.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Progress message of a cut job, sent to the clients subscribed to the job: a change of its
+ * status, or the best layout a search has found so far for one depth group of the order.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CutProgressDTO {
+
+    private String jobId;
+    private CutJobStatus status;
+
+    /**
+     * Milliseconds since the worker started the job.
+     */
+    private Long elapsedMillis;
+
+    /**
+     * Depth group the layout belongs to.
+     */
+    private Integer depth;
+
+    /**
+     * Share of its time budget the search has used, from 0 to 1.
+     */
+    private Double budgetUsed;
+
+    private Integer placedCount;
+    private Integer sheetCount;
+
+    /**
+     * Height up to which the last sheet of the layout is used.
+     */
+    private Integer usedHeight;
+
+    /**
+     * Placed area over the area of the sheets used, the last one up to its used height.
+     */
+    private Double utilization;
+
+    /**
+     * The best layout so far of the depth group; sheet indexes count the sheets of the group.
+     * Not sent when the search improved without a layout at hand.
+     */
+    private List<PlacedElementDTO> placements;
+
+    /**
+     * Error message of a failed job.
+     */
+    private String error;
+
+    /**
+     * Reason of a job that failed as infeasible, as in the {@code code} of an error response.
+     */
+    private String code;
+
+    public CutProgressDTO() {
+    }
+
+    public CutProgressDTO(String jobId, CutJobStatus status) {
+        this.jobId = jobId;
+        this.status = status;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public CutJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(CutJobStatus status) {
+        this.status = status;
+    }
+
+    public Long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(Long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    public Double getBudgetUsed() {
+        return budgetUsed;
+    }
+
+    public void setBudgetUsed(Double budgetUsed) {
+        this.budgetUsed = budgetUsed;
+    }
+
+    public Integer getPlacedCount() {
+        return placedCount;
+    }
+
+    public void setPlacedCount(Integer placedCount) {
+        this.placedCount = placedCount;
+    }
+
+    public Integer getSheetCount() {
+        return sheetCount;
+    }
+
+    public void setSheetCount(Integer sheetCount) {
+        this.sheetCount = sheetCount;
+    }
+
+    public Integer getUsedHeight() {
+        return usedHeight;
+    }
+
+    public void setUsedHeight(Integer usedHeight) {
+        this.usedHeight = usedHeight;
+    }
+
+    public Double getUtilization() {
+        return utilization;
+    }
+
+    public void setUtilization(Double utilization) {
+        this.utilization = utilization;
+    }
+
+    public List<PlacedElementDTO> getPlacements() {
+        return placements;
+    }
+
+    public void setPlacements(List<PlacedElementDTO> placements) {
+        this.placements = placements;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+}
@@ -2,32 +2,83 @@ package ro.sapientia.furniture.model.dto;
 
 import java.util.List;
 import javax.validation.Valid;
+import javax.validation.constraints.AssertTrue;
 import javax.validation.constraints.Min;
-import javax.validation.constraints.NotEmpty;
-import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
  * Request model for the cutting optimization endpoint.
- * Contains the sheet dimensions and elements to be placed.
+ * Contains the sheet dimensions, or the board sizes in stock, and the elements to be placed,
+ * given by their dimensions or as stored furniture bodies.
  */
 public class CutRequestDTO {
 
-    @NotNull(message = "Sheet width is required")
     @Min(value = 1, message = "Sheet width must be positive")
     private Integer sheetWidth;
 
-    @NotNull(message = "Sheet height is required")
     @Min(value = 1, message = "Sheet height must be positive")
     private Integer sheetHeight;
 
-    @NotEmpty(message = "Elements list cannot be empty")
+    /**
+     * Board sizes to choose from instead of the single sheet size; the cheapest combination is used.
+     */
+    @Valid
+    private List<StockSheetDTO> stock;
+
+    @Valid
+    private List<CutElementDTO> elements;
+
+    /**
+     * Stored furniture bodies to cut, exploded into their panels on the server next to the elements.
+     */
     @Valid
-    private List<FurnitureBodyDTO> elements;
+    private List<CutBodyDTO> bodies;
+
+    /**
+     * Board thickness in millimeters of the panels of {@code bodies}; {@code furniture.cut.panel-thickness} when not given.
+     */
+    @Min(value = 1, message = "Panel thickness must be positive")
+    private Integer panelThickness;
+
+    /**
+     * When true, elements that do not fit on one sheet spill onto additional sheets
+     * instead of failing the request.
+     */
+    private Boolean multiSheet;
+
+    /**
+     * When true, offcuts left in stock by earlier plans are filled before new boards are opened.
+     */
+    private Boolean useRemnants;
+
+    /**
+     * Packing engine to use; the configured default when not given.
+     */
+    private PackingAlgorithm algorithm;
+
+    /**
+     * Blade thickness in millimeters, left between neighbouring parts by the GUILLOTINE engine.
+     */
+    @Min(value = 0, message = "Kerf cannot be negative")
+    private Integer kerf;
+
+    /**
+     * Strip in millimeters trimmed from every sheet edge by the GUILLOTINE engine.
+     */
+    @Min(value = 0, message = "Edge trim cannot be negative")
+    private Integer edgeTrim;
+
+    /**
+     * Milliseconds the optimizer may spend improving the layout by search; no search when not given.
+     */
+    @Min(value = 0, message = "Search time cannot be negative")
+    private Integer maxMillis;
 
     public CutRequestDTO() {
     }
 
-    public CutRequestDTO(Integer sheetWidth, Integer sheetHeight, List<FurnitureBodyDTO> elements) {
+    public CutRequestDTO(Integer sheetWidth, Integer sheetHeight, List<CutElementDTO> elements) {
         this.sheetWidth = sheetWidth;
         this.sheetHeight = sheetHeight;
         this.elements = elements;
@@ -49,16 +100,121 @@ public class CutRequestDTO {
         this.sheetHeight = sheetHeight;
     }
 
-    public List<FurnitureBodyDTO> getElements() {
+    public List<CutBodyDTO> getBodies() {
+        return bodies;
+    }
+
+    public void setBodies(List<CutBodyDTO> bodies) {
+        this.bodies = bodies;
+    }
+
+    public Integer getPanelThickness() {
+        return panelThickness;
+    }
+
+    public void setPanelThickness(Integer panelThickness) {
+        this.panelThickness = panelThickness;
+    }
+
+    public List<StockSheetDTO> getStock() {
+        return stock;
+    }
+
+    public void setStock(List<StockSheetDTO> stock) {
+        this.stock = stock;
+    }
+
+    /**
+     * Whether the request lists board sizes in stock.
+     */
+    @JsonIgnore
+    public boolean hasStock() {
+        return stock != null && !stock.isEmpty();
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Sheet width is required")
+    public boolean isSheetWidthGiven() {
+        return sheetWidth != null || hasStock();
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Sheet height is required")
+    public boolean isSheetHeightGiven() {
+        return sheetHeight != null || hasStock();
+    }
+
+    public boolean hasBodies() {
+        return bodies != null && !bodies.isEmpty();
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Elements list cannot be empty")
+    public boolean isElementsGiven() {
+        return elements != null && !elements.isEmpty() || hasBodies();
+    }
+
+    public List<CutElementDTO> getElements() {
         return elements;
     }
 
-    public void setElements(List<FurnitureBodyDTO> elements) {
+    public void setElements(List<CutElementDTO> elements) {
         this.elements = elements;
     }
 
+    public Boolean getMultiSheet() {
+        return multiSheet;
+    }
+
+    public void setMultiSheet(Boolean multiSheet) {
+        this.multiSheet = multiSheet;
+    }
+
+    public Boolean getUseRemnants() {
+        return useRemnants;
+    }
+
+    public void setUseRemnants(Boolean useRemnants) {
+        this.useRemnants = useRemnants;
+    }
+
+    public PackingAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(PackingAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public Integer getKerf() {
+        return kerf;
+    }
+
+    public void setKerf(Integer kerf) {
+        this.kerf = kerf;
+    }
+
+    public Integer getEdgeTrim() {
+        return edgeTrim;
+    }
+
+    public void setEdgeTrim(Integer edgeTrim) {
+        this.edgeTrim = edgeTrim;
+    }
+
+    public Integer getMaxMillis() {
+        return maxMillis;
+    }
+
+    public void setMaxMillis(Integer maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+
     @Override
     public String toString() {
-        return "CutRequest [sheetWidth=" + sheetWidth + ", sheetHeight=" + sheetHeight + ", elements=" + elements + "]";
+        return "CutRequest [sheetWidth=" + sheetWidth + ", sheetHeight=" + sheetHeight + ", stock=" + stock + ", elements=" + elements +
+               ", bodies=" + bodies + ", panelThickness=" + panelThickness +
+               ", multiSheet=" + multiSheet + ", useRemnants=" + useRemnants + ", algorithm=" + algorithm + ", kerf=" + kerf + ", edgeTrim=" + edgeTrim +
+               ", maxMillis=" + maxMillis + "]";
     }
 }
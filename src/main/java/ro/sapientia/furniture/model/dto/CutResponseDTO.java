@@ -4,12 +4,42 @@ import java.util.List;
 
 /**
  * Response model for the cutting optimization endpoint.
- * Contains the optimized placement of elements.
+ * Contains the optimized placement of elements, a summary of every sheet used, the plan
+ * of every depth (board thickness), lower bounds with the gap the layout leaves to them and,
+ * for guillotine plans, the saw cuts.
  */
 public class CutResponseDTO {
     
     private List<PlacedElementDTO> placements;
     
+    private List<SheetSummaryDTO> sheets;
+    
+    private List<GuillotineCutDTO> cuts;
+    
+    private List<MaterialGroupDTO> groups;
+    
+    /**
+     * Fewest sheets any layout of the elements needs, summed over the depth groups.
+     */
+    private Integer sheetCountLowerBound;
+    
+    /**
+     * Least height any layout of the elements needs on a strip of the sheet width; the largest
+     * over the depth groups.
+     */
+    private Integer heightLowerBound;
+    
+    /**
+     * Relative gap to the bound of what the plan minimizes: sheet count for multi-sheet plans,
+     * used height of the sheet otherwise. The largest over the depth groups; 0 means the layout is optimal.
+     */
+    private Double optimalityGap;
+    
+    /**
+     * Total price of the boards chosen from the stock of the request; only for stock requests.
+     */
+    private Double stockCost;
+    
     public CutResponseDTO() {
     }
     
@@ -17,6 +47,11 @@ public class CutResponseDTO {
         this.placements = placements;
     }
     
+    public CutResponseDTO(List<PlacedElementDTO> placements, List<SheetSummaryDTO> sheets) {
+        this.placements = placements;
+        this.sheets = sheets;
+    }
+    
     public List<PlacedElementDTO> getPlacements() {
         return placements;
     }
@@ -25,8 +60,66 @@ public class CutResponseDTO {
         this.placements = placements;
     }
     
+    public List<SheetSummaryDTO> getSheets() {
+        return sheets;
+    }
+    
+    public void setSheets(List<SheetSummaryDTO> sheets) {
+        this.sheets = sheets;
+    }
+    
+    public List<GuillotineCutDTO> getCuts() {
+        return cuts;
+    }
+    
+    public void setCuts(List<GuillotineCutDTO> cuts) {
+        this.cuts = cuts;
+    }
+    
+    public List<MaterialGroupDTO> getGroups() {
+        return groups;
+    }
+    
+    public void setGroups(List<MaterialGroupDTO> groups) {
+        this.groups = groups;
+    }
+    
+    public Integer getSheetCountLowerBound() {
+        return sheetCountLowerBound;
+    }
+    
+    public void setSheetCountLowerBound(Integer sheetCountLowerBound) {
+        this.sheetCountLowerBound = sheetCountLowerBound;
+    }
+    
+    public Integer getHeightLowerBound() {
+        return heightLowerBound;
+    }
+    
+    public void setHeightLowerBound(Integer heightLowerBound) {
+        this.heightLowerBound = heightLowerBound;
+    }
+    
+    public Double getOptimalityGap() {
+        return optimalityGap;
+    }
+    
+    public void setOptimalityGap(Double optimalityGap) {
+        this.optimalityGap = optimalityGap;
+    }
+    
+    public Double getStockCost() {
+        return stockCost;
+    }
+    
+    public void setStockCost(Double stockCost) {
+        this.stockCost = stockCost;
+    }
+    
     @Override
     public String toString() {
-        return "CutResponse [placements=" + placements + "]";
+        return "CutResponse [placements=" + placements + ", sheets=" + sheets + ", cuts=" + cuts + ", groups=" + groups +
+               ", sheetCountLowerBound=" + sheetCountLowerBound + ", heightLowerBound=" + heightLowerBound +
+               ", optimalityGap=" + optimalityGap + ", stockCost=" + stockCost + "]";
     }
 }
@@ -0,0 +1,111 @@
+package ro.sapientia.furniture.model.dto;
+
+import java.util.List;
+
+/**
+ * State of an online cutting session after a call: the placements of the parts just pushed
+ * and the sheets that were closed and saved by it.
+ */
+public class CutSessionDTO {
+
+    private String sessionId;
+    private Integer sheetWidth;
+    private Integer sheetHeight;
+    private Integer depth;
+
+    /**
+     * Placements of the parts of this call; {@code sheetIndex} numbers the sheets of the whole session.
+     */
+    private List<PlacedElementDTO> placements;
+
+    /**
+     * Sheets closed and saved during this call, indexed like the placements.
+     */
+    private List<SheetSummaryDTO> closedSheets;
+
+    private Integer openSheetCount;
+    private Integer placedCount;
+    private Boolean closed;
+
+    public CutSessionDTO() {
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public Integer getSheetWidth() {
+        return sheetWidth;
+    }
+
+    public void setSheetWidth(Integer sheetWidth) {
+        this.sheetWidth = sheetWidth;
+    }
+
+    public Integer getSheetHeight() {
+        return sheetHeight;
+    }
+
+    public void setSheetHeight(Integer sheetHeight) {
+        this.sheetHeight = sheetHeight;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    public List<PlacedElementDTO> getPlacements() {
+        return placements;
+    }
+
+    public void setPlacements(List<PlacedElementDTO> placements) {
+        this.placements = placements;
+    }
+
+    public List<SheetSummaryDTO> getClosedSheets() {
+        return closedSheets;
+    }
+
+    public void setClosedSheets(List<SheetSummaryDTO> closedSheets) {
+        this.closedSheets = closedSheets;
+    }
+
+    public Integer getOpenSheetCount() {
+        return openSheetCount;
+    }
+
+    public void setOpenSheetCount(Integer openSheetCount) {
+        this.openSheetCount = openSheetCount;
+    }
+
+    public Integer getPlacedCount() {
+        return placedCount;
+    }
+
+    public void setPlacedCount(Integer placedCount) {
+        this.placedCount = placedCount;
+    }
+
+    public Boolean getClosed() {
+        return closed;
+    }
+
+    public void setClosed(Boolean closed) {
+        this.closed = closed;
+    }
+
+    @Override
+    public String toString() {
+        return "CutSession [sessionId=" + sessionId + ", placements=" + (placements != null ? placements.size() : 0) +
+               ", closedSheets=" + (closedSheets != null ? closedSheets.size() : 0) + ", openSheetCount=" + openSheetCount +
+               ", placedCount=" + placedCount + ", closed=" + closed + "]";
+    }
+}
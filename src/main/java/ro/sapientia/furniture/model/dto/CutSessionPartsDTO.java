@@ -0,0 +1,36 @@
+package ro.sapientia.furniture.model.dto;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+
+/**
+ * Parts pushed into an online cutting session, placed in the given order.
+ */
+public class CutSessionPartsDTO {
+
+    @NotEmpty(message = "Elements list cannot be empty")
+    @Valid
+    private List<CutElementDTO> elements;
+
+    public CutSessionPartsDTO() {
+    }
+
+    public CutSessionPartsDTO(List<CutElementDTO> elements) {
+        this.elements = elements;
+    }
+
+    public List<CutElementDTO> getElements() {
+        return elements;
+    }
+
+    public void setElements(List<CutElementDTO> elements) {
+        this.elements = elements;
+    }
+
+    @Override
+    public String toString() {
+        return "CutSessionParts [elements=" + (elements != null ? elements.size() : 0) + "]";
+    }
+}
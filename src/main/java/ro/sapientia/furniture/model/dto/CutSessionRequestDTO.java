@@ -0,0 +1,61 @@
+package ro.sapientia.furniture.model.dto;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Request model for opening an online cutting session: the sheet every part of the session is cut from.
+ */
+public class CutSessionRequestDTO {
+
+    @NotNull(message = "Sheet width is required")
+    @Min(value = 1, message = "Sheet width must be positive")
+    private Integer sheetWidth;
+
+    @NotNull(message = "Sheet height is required")
+    @Min(value = 1, message = "Sheet height must be positive")
+    private Integer sheetHeight;
+
+    /**
+     * Board thickness of the session; parts of other depths are rejected. Zero when not given.
+     */
+    @Min(value = 0, message = "Depth cannot be negative")
+    private Integer depth;
+
+    public CutSessionRequestDTO() {
+    }
+
+    public CutSessionRequestDTO(Integer sheetWidth, Integer sheetHeight) {
+        this.sheetWidth = sheetWidth;
+        this.sheetHeight = sheetHeight;
+    }
+
+    public Integer getSheetWidth() {
+        return sheetWidth;
+    }
+
+    public void setSheetWidth(Integer sheetWidth) {
+        this.sheetWidth = sheetWidth;
+    }
+
+    public Integer getSheetHeight() {
+        return sheetHeight;
+    }
+
+    public void setSheetHeight(Integer sheetHeight) {
+        this.sheetHeight = sheetHeight;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    @Override
+    public String toString() {
+        return "CutSessionRequest [sheetWidth=" + sheetWidth + ", sheetHeight=" + sheetHeight + ", depth=" + depth + "]";
+    }
+}
@@ -0,0 +1,42 @@
+package ro.sapientia.furniture.model.dto;
+
+import java.util.List;
+
+/**
+ * A saved cutting sheet with every placement on it, each with its placement id.
+ */
+public class CuttingSheetDTO {
+
+    private SheetSummaryDTO sheet;
+
+    private List<PlacedElementDTO> placements;
+
+    public CuttingSheetDTO() {
+    }
+
+    public CuttingSheetDTO(SheetSummaryDTO sheet, List<PlacedElementDTO> placements) {
+        this.sheet = sheet;
+        this.placements = placements;
+    }
+
+    public SheetSummaryDTO getSheet() {
+        return sheet;
+    }
+
+    public void setSheet(SheetSummaryDTO sheet) {
+        this.sheet = sheet;
+    }
+
+    public List<PlacedElementDTO> getPlacements() {
+        return placements;
+    }
+
+    public void setPlacements(List<PlacedElementDTO> placements) {
+        this.placements = placements;
+    }
+
+    @Override
+    public String toString() {
+        return "CuttingSheet [sheet=" + sheet + ", placements=" + (placements != null ? placements.size() : 0) + "]";
+    }
+}
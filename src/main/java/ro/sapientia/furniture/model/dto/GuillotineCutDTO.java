@@ -0,0 +1,103 @@
+package ro.sapientia.furniture.model.dto;
+
+/**
+ * One edge-to-edge saw cut of a guillotine cutting plan.
+ * Cuts are listed in the order they are made; {@code parentIndex} points to the cut that
+ * produced the panel this cut divides, so the list describes the cut tree of every sheet.
+ */
+public class GuillotineCutDTO {
+
+    /**
+     * Direction of the blade.
+     */
+    public enum Orientation {
+        /** Along the x axis, at a fixed y. */
+        HORIZONTAL,
+        /** Along the y axis, at a fixed x. */
+        VERTICAL
+    }
+
+    private Integer index;
+    private Integer parentIndex;
+    private Integer sheetIndex;
+    private Orientation orientation;
+    private Integer position;
+    private Integer from;
+    private Integer to;
+
+    public GuillotineCutDTO() {
+    }
+
+    public GuillotineCutDTO(Integer index, Integer parentIndex, Integer sheetIndex, Orientation orientation,
+                            Integer position, Integer from, Integer to) {
+        this.index = index;
+        this.parentIndex = parentIndex;
+        this.sheetIndex = sheetIndex;
+        this.orientation = orientation;
+        this.position = position;
+        this.from = from;
+        this.to = to;
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    public Integer getParentIndex() {
+        return parentIndex;
+    }
+
+    public void setParentIndex(Integer parentIndex) {
+        this.parentIndex = parentIndex;
+    }
+
+    public Integer getSheetIndex() {
+        return sheetIndex;
+    }
+
+    public void setSheetIndex(Integer sheetIndex) {
+        this.sheetIndex = sheetIndex;
+    }
+
+    public Orientation getOrientation() {
+        return orientation;
+    }
+
+    public void setOrientation(Orientation orientation) {
+        this.orientation = orientation;
+    }
+
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
+    public Integer getFrom() {
+        return from;
+    }
+
+    public void setFrom(Integer from) {
+        this.from = from;
+    }
+
+    public Integer getTo() {
+        return to;
+    }
+
+    public void setTo(Integer to) {
+        this.to = to;
+    }
+
+    @Override
+    public String toString() {
+        return "GuillotineCut [index=" + index + ", parentIndex=" + parentIndex + ", sheetIndex=" + sheetIndex +
+               ", orientation=" + orientation + ", position=" + position + ", from=" + from + ", to=" + to + "]";
+    }
+}
@@ -0,0 +1,90 @@
+package ro.sapientia.furniture.model.dto;
+
+import java.util.List;
+
+/**
+ * The part of a cutting plan for the elements of one depth (board thickness).
+ * Each group is packed onto sheets of its own.
+ */
+public class MaterialGroupDTO {
+
+    private Integer depth;
+    private Integer placedCount;
+    private List<Integer> sheetIndexes;
+    private Integer sheetCountLowerBound;
+    private Integer heightLowerBound;
+    private Double optimalityGap;
+    private Double stockCost;
+
+    public MaterialGroupDTO() {
+    }
+
+    public MaterialGroupDTO(Integer depth, Integer placedCount, List<Integer> sheetIndexes) {
+        this.depth = depth;
+        this.placedCount = placedCount;
+        this.sheetIndexes = sheetIndexes;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    public Integer getPlacedCount() {
+        return placedCount;
+    }
+
+    public void setPlacedCount(Integer placedCount) {
+        this.placedCount = placedCount;
+    }
+
+    public List<Integer> getSheetIndexes() {
+        return sheetIndexes;
+    }
+
+    public void setSheetIndexes(List<Integer> sheetIndexes) {
+        this.sheetIndexes = sheetIndexes;
+    }
+
+    public Integer getSheetCountLowerBound() {
+        return sheetCountLowerBound;
+    }
+
+    public void setSheetCountLowerBound(Integer sheetCountLowerBound) {
+        this.sheetCountLowerBound = sheetCountLowerBound;
+    }
+
+    public Integer getHeightLowerBound() {
+        return heightLowerBound;
+    }
+
+    public void setHeightLowerBound(Integer heightLowerBound) {
+        this.heightLowerBound = heightLowerBound;
+    }
+
+    public Double getOptimalityGap() {
+        return optimalityGap;
+    }
+
+    public void setOptimalityGap(Double optimalityGap) {
+        this.optimalityGap = optimalityGap;
+    }
+
+    public Double getStockCost() {
+        return stockCost;
+    }
+
+    public void setStockCost(Double stockCost) {
+        this.stockCost = stockCost;
+    }
+
+    @Override
+    public String toString() {
+        return "MaterialGroup [depth=" + depth + ", placedCount=" + placedCount + ", sheetIndexes=" + sheetIndexes +
+               ", sheetCountLowerBound=" + sheetCountLowerBound + ", heightLowerBound=" + heightLowerBound +
+               ", optimalityGap=" + optimalityGap + ", stockCost=" + stockCost + "]";
+    }
+}
@@ -0,0 +1,25 @@
+package ro.sapientia.furniture.model.dto;
+
+/**
+ * Packing engine used for a cutting request.
+ */
+public enum PackingAlgorithm {
+    /** First Fit Decreasing Height shelf packing. */
+    FFDH,
+    /** Best Fit Decreasing Height: shelf packing onto the level left with the least free width. */
+    BFDH,
+    /** MaxRects, choosing the free rectangle with the shortest leftover side. */
+    MAXRECTS_BSSF,
+    /** MaxRects, choosing the free rectangle with the smallest leftover area. */
+    MAXRECTS_BAF,
+    /** Skyline, placing every element as low as possible, then as far left as possible. */
+    SKYLINE_BL,
+    /** Skyline, placing every element where it leaves the least unusable area below it. */
+    SKYLINE_MIN_WASTE,
+    /** Edge-to-edge cuts only, honouring kerf and edge trim; the response lists the cuts. */
+    GUILLOTINE,
+    /** Run several engines and sort orders concurrently within a time budget and keep the best layout. */
+    PORTFOLIO,
+    /** Branch and bound from the FFDH layout to a proven optimum for orders of at most 25 elements, within a node and time budget. */
+    EXACT
+}
@@ -1,5 +1,7 @@
 package ro.sapientia.furniture.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * Represents a furniture element with its calculated position on the cutting sheet.
  */
@@ -10,6 +12,13 @@ public class PlacedElementDTO {
     private Integer y;
     private Integer width;
     private Integer height;
+    private Integer sheetIndex;
+
+    /**
+     * Id of the placement on a saved cutting sheet, which removes it from the sheet; only set for saved sheets.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long placementId;
     
     public PlacedElementDTO() {
     }
@@ -22,6 +31,11 @@ public class PlacedElementDTO {
         this.height = height;
     }
     
+    public PlacedElementDTO(Long id, Integer x, Integer y, Integer width, Integer height, Integer sheetIndex) {
+        this(id, x, y, width, height);
+        this.sheetIndex = sheetIndex;
+    }
+    
     public Long getId() {
         return id;
     }
@@ -62,9 +76,25 @@ public class PlacedElementDTO {
         this.height = height;
     }
     
+    public Integer getSheetIndex() {
+        return sheetIndex;
+    }
+    
+    public void setSheetIndex(Integer sheetIndex) {
+        this.sheetIndex = sheetIndex;
+    }
+    
+    public Long getPlacementId() {
+        return placementId;
+    }
+    
+    public void setPlacementId(Long placementId) {
+        this.placementId = placementId;
+    }
+    
     @Override
     public String toString() {
         return "PlacedElement [id=" + id + ", x=" + x + ", y=" + y +
-               ", width=" + width + ", height=" + height + "]";
+               ", width=" + width + ", height=" + height + ", sheetIndex=" + sheetIndex + "]";
     }
 }
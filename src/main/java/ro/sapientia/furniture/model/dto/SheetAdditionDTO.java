@@ -0,0 +1,36 @@
+package ro.sapientia.furniture.model.dto;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+
+/**
+ * Elements to add to a saved cutting sheet.
+ */
+public class SheetAdditionDTO {
+
+    @NotEmpty(message = "Elements list cannot be empty")
+    @Valid
+    private List<CutElementDTO> elements;
+
+    public SheetAdditionDTO() {
+    }
+
+    public SheetAdditionDTO(List<CutElementDTO> elements) {
+        this.elements = elements;
+    }
+
+    public List<CutElementDTO> getElements() {
+        return elements;
+    }
+
+    public void setElements(List<CutElementDTO> elements) {
+        this.elements = elements;
+    }
+
+    @Override
+    public String toString() {
+        return "SheetAddition [elements=" + (elements != null ? elements.size() : 0) + "]";
+    }
+}
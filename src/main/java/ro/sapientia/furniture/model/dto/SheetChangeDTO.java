@@ -0,0 +1,92 @@
+package ro.sapientia.furniture.model.dto;
+
+import java.util.List;
+
+/**
+ * Result of adding elements to or removing elements from a saved cutting sheet: only the
+ * placements that changed are listed.
+ */
+public class SheetChangeDTO {
+
+    private SheetSummaryDTO sheet;
+
+    /**
+     * Placements of the added elements.
+     */
+    private List<PlacedElementDTO> added;
+
+    /**
+     * Elements already on the sheet that got a new position; only when the sheet was repacked.
+     */
+    private List<PlacedElementDTO> moved;
+
+    private Integer removedCount;
+
+    /**
+     * Whether the added elements did not fit into the free space and the whole sheet was repacked.
+     */
+    private Boolean repacked;
+
+    /**
+     * The saw cuts of a repacked guillotine sheet, in cutting order; they replace the cuts planned before.
+     */
+    private List<GuillotineCutDTO> cuts;
+
+    public SheetChangeDTO() {
+    }
+
+    public SheetSummaryDTO getSheet() {
+        return sheet;
+    }
+
+    public void setSheet(SheetSummaryDTO sheet) {
+        this.sheet = sheet;
+    }
+
+    public List<PlacedElementDTO> getAdded() {
+        return added;
+    }
+
+    public void setAdded(List<PlacedElementDTO> added) {
+        this.added = added;
+    }
+
+    public List<PlacedElementDTO> getMoved() {
+        return moved;
+    }
+
+    public void setMoved(List<PlacedElementDTO> moved) {
+        this.moved = moved;
+    }
+
+    public Integer getRemovedCount() {
+        return removedCount;
+    }
+
+    public void setRemovedCount(Integer removedCount) {
+        this.removedCount = removedCount;
+    }
+
+    public Boolean getRepacked() {
+        return repacked;
+    }
+
+    public void setRepacked(Boolean repacked) {
+        this.repacked = repacked;
+    }
+
+    public List<GuillotineCutDTO> getCuts() {
+        return cuts;
+    }
+
+    public void setCuts(List<GuillotineCutDTO> cuts) {
+        this.cuts = cuts;
+    }
+
+    @Override
+    public String toString() {
+        return "SheetChange [sheet=" + sheet + ", added=" + (added != null ? added.size() : 0) +
+               ", moved=" + (moved != null ? moved.size() : 0) + ", removedCount=" + removedCount + ", repacked=" + repacked +
+               ", cuts=" + (cuts != null ? cuts.size() : 0) + "]";
+    }
+}
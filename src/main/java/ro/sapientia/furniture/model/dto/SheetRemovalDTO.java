@@ -0,0 +1,34 @@
+package ro.sapientia.furniture.model.dto;
+
+import java.util.List;
+
+import javax.validation.constraints.NotEmpty;
+
+/**
+ * Placements to take off a saved cutting sheet, by the placement ids the sheet lists.
+ */
+public class SheetRemovalDTO {
+
+    @NotEmpty(message = "Placement id list cannot be empty")
+    private List<Long> placementIds;
+
+    public SheetRemovalDTO() {
+    }
+
+    public SheetRemovalDTO(List<Long> placementIds) {
+        this.placementIds = placementIds;
+    }
+
+    public List<Long> getPlacementIds() {
+        return placementIds;
+    }
+
+    public void setPlacementIds(List<Long> placementIds) {
+        this.placementIds = placementIds;
+    }
+
+    @Override
+    public String toString() {
+        return "SheetRemoval [placementIds=" + placementIds + "]";
+    }
+}
@@ -0,0 +1,106 @@
+package ro.sapientia.furniture.model.dto;
+
+/**
+ * Summary of one cutting sheet used by a cutting plan.
+ * Every sheet holds elements of a single depth (board thickness).
+ */
+public class SheetSummaryDTO {
+
+    private Integer index;
+    private Long cuttingSheetId;
+    private Integer width;
+    private Integer height;
+    private Integer depth;
+    private Integer placedCount;
+    private Double utilization;
+
+    /**
+     * Remnant from stock the sheet is cut from; {@code null} for a new board.
+     */
+    private Long remnantId;
+
+    public SheetSummaryDTO() {
+    }
+
+    public SheetSummaryDTO(Integer index, Long cuttingSheetId, Integer width, Integer height, Integer depth,
+                           Integer placedCount, Double utilization) {
+        this.index = index;
+        this.cuttingSheetId = cuttingSheetId;
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+        this.placedCount = placedCount;
+        this.utilization = utilization;
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    public Long getCuttingSheetId() {
+        return cuttingSheetId;
+    }
+
+    public void setCuttingSheetId(Long cuttingSheetId) {
+        this.cuttingSheetId = cuttingSheetId;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    public Integer getPlacedCount() {
+        return placedCount;
+    }
+
+    public void setPlacedCount(Integer placedCount) {
+        this.placedCount = placedCount;
+    }
+
+    public Double getUtilization() {
+        return utilization;
+    }
+
+    public void setUtilization(Double utilization) {
+        this.utilization = utilization;
+    }
+
+    public Long getRemnantId() {
+        return remnantId;
+    }
+
+    public void setRemnantId(Long remnantId) {
+        this.remnantId = remnantId;
+    }
+
+    @Override
+    public String toString() {
+        return "SheetSummary [index=" + index + ", cuttingSheetId=" + cuttingSheetId + ", width=" + width +
+               ", height=" + height + ", depth=" + depth + ", placedCount=" + placedCount + ", utilization=" + utilization +
+               ", remnantId=" + remnantId + "]";
+    }
+}
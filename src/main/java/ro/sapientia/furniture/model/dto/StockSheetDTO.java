@@ -0,0 +1,91 @@
+package ro.sapientia.furniture.model.dto;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+
+/**
+ * A board size available in stock for a cutting request.
+ */
+public class StockSheetDTO {
+
+    @NotNull(message = "Stock sheet width is required")
+    @Min(value = 1, message = "Stock sheet width must be positive")
+    private Integer width;
+
+    @NotNull(message = "Stock sheet height is required")
+    @Min(value = 1, message = "Stock sheet height must be positive")
+    private Integer height;
+
+    /**
+     * Board thickness the size is stocked in; usable for every depth when not given.
+     */
+    @Min(value = 0, message = "Stock sheet depth cannot be negative")
+    private Integer depth;
+
+    /**
+     * Boards of this size available; unlimited when not given.
+     */
+    @Min(value = 0, message = "Stock sheet count cannot be negative")
+    private Integer count;
+
+    /**
+     * Price of one board; its area in square meters when not given.
+     */
+    @PositiveOrZero(message = "Stock sheet cost cannot be negative")
+    private Double cost;
+
+    public StockSheetDTO() {
+    }
+
+    public StockSheetDTO(Integer width, Integer height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    public Double getCost() {
+        return cost;
+    }
+
+    public void setCost(Double cost) {
+        this.cost = cost;
+    }
+
+    @Override
+    public String toString() {
+        return "StockSheet [width=" + width + ", height=" + height + ", depth=" + depth + ", count=" + count +
+               ", cost=" + cost + "]";
+    }
+}
@@ -0,0 +1,102 @@
+package ro.sapientia.furniture.model.entities;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import ro.sapientia.furniture.model.dto.CutJobStatus;
+
+/**
+ * Cutting request queued for the job workers of any instance. A worker claims the job by
+ * setting itself as {@code workerId} and holding a lease until {@code leaseExpiresAt}; a job
+ * whose lease ran out while still running is claimed again by another worker.
+ */
+@Entity(name = "cut_job")
+public class CutJob implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private CutJobStatus status;
+
+    /**
+     * The cutting request, as JSON.
+     */
+    @Column(name = "request", nullable = false, columnDefinition = "text")
+    private String request;
+
+    /**
+     * The cutting plan of a finished job, as JSON.
+     */
+    @Column(name = "result", columnDefinition = "text")
+    private String result;
+
+    @Column(name = "worker_id", length = 64)
+    private String workerId;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    @Column(name = "error_code", length = 32)
+    private String errorCode;
+
+    public CutJob() {
+    }
+
+    public CutJob(String id, String request, LocalDateTime submittedAt) {
+        this.id = id;
+        this.request = request;
+        this.submittedAt = submittedAt;
+        this.status = CutJobStatus.QUEUED;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public CutJobStatus getStatus() { return status; }
+    public void setStatus(CutJobStatus status) { this.status = status; }
+    public String getRequest() { return request; }
+    public void setRequest(String request) { this.request = request; }
+    public String getResult() { return result; }
+    public void setResult(String result) { this.result = result; }
+    public String getWorkerId() { return workerId; }
+    public void setWorkerId(String workerId) { this.workerId = workerId; }
+    public LocalDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public String getErrorCode() { return errorCode; }
+    public void setErrorCode(String errorCode) { this.errorCode = errorCode; }
+
+    @Override
+    public String toString() {
+        return "CutJob [id=" + id + ", status=" + status + ", workerId=" + workerId +
+               ", leaseExpiresAt=" + leaseExpiresAt + ", attempts=" + attempts + "]";
+    }
+}
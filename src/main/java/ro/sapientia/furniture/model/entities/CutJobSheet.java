@@ -0,0 +1,45 @@
+package ro.sapientia.furniture.model.entities;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Result row of a cut job: one cutting sheet its plan produced.
+ */
+@Entity(name = "cut_job_sheet")
+public class CutJobSheet implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cut_job_id", nullable = false)
+    private CutJob job;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cutting_sheet_id", nullable = false)
+    private CuttingSheet cuttingSheet;
+
+    @Column(name = "sheet_index")
+    private int sheetIndex;
+
+    public CutJobSheet() {
+    }
+
+    public CutJobSheet(CutJob job, CuttingSheet cuttingSheet, int sheetIndex) {
+        this.job = job;
+        this.cuttingSheet = cuttingSheet;
+        this.sheetIndex = sheetIndex;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public CutJob getJob() { return job; }
+    public void setJob(CutJob job) { this.job = job; }
+    public CuttingSheet getCuttingSheet() { return cuttingSheet; }
+    public void setCuttingSheet(CuttingSheet cuttingSheet) { this.cuttingSheet = cuttingSheet; }
+    public int getSheetIndex() { return sheetIndex; }
+    public void setSheetIndex(int sheetIndex) { this.sheetIndex = sheetIndex; }
+}
@@ -1,6 +1,6 @@
 package ro.sapientia.furniture.model.entities;
 
-import ro.sapientia.furniture.model.dto.FurnitureBodyDTO;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,13 +13,13 @@ public class CutRequest {
 
     private Integer sheetWidth;
     private Integer sheetHeight;
-    private List<FurnitureBodyDTO> elements;
+    private List<CutElementDTO> elements;
 
     public CutRequest() {
         this.elements = new ArrayList<>();
     }
 
-    public CutRequest(Integer sheetWidth, Integer sheetHeight, List<FurnitureBodyDTO> elements) {
+    public CutRequest(Integer sheetWidth, Integer sheetHeight, List<CutElementDTO> elements) {
         this.sheetWidth = sheetWidth;
         this.sheetHeight = sheetHeight;
         this.elements = elements != null ? elements : new ArrayList<>();
@@ -41,11 +41,11 @@ public class CutRequest {
         this.sheetHeight = sheetHeight;
     }
 
-    public List<FurnitureBodyDTO> getElements() {
+    public List<CutElementDTO> getElements() {
         return elements;
     }
 
-    public void setElements(List<FurnitureBodyDTO> elements) {
+    public void setElements(List<CutElementDTO> elements) {
         this.elements = elements;
     }
 
@@ -5,6 +5,8 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+
 @Entity(name = "cutting_sheet")
 public class CuttingSheet implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -19,6 +21,31 @@ public class CuttingSheet implements Serializable {
     @Column(name = "sheet_height")
     private int height;
 
+    @Column(name = "sheet_depth")
+    private int depth;
+
+    @Column(name = "remnant_id")
+    private Long remnantId;
+
+    /**
+     * Engine that planned the sheet; edits of a GUILLOTINE sheet keep it cuttable edge to edge.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "algorithm", length = 24)
+    private PackingAlgorithm algorithm;
+
+    /**
+     * Blade thickness the sheet was planned with.
+     */
+    @Column(name = "kerf", nullable = false, columnDefinition = "integer default 0")
+    private int kerf;
+
+    /**
+     * Strip trimmed from every edge of the sheet when it was planned.
+     */
+    @Column(name = "edge_trim", nullable = false, columnDefinition = "integer default 0")
+    private int edgeTrim;
+
     @OneToMany(mappedBy = "cuttingSheet", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PlacedElement> placedElements = new ArrayList<>();
 
@@ -33,6 +60,16 @@ public class CuttingSheet implements Serializable {
     public void setWidth(int width) { this.width = width; }
     public int getHeight() { return height; }
     public void setHeight(int height) { this.height = height; }
+    public int getDepth() { return depth; }
+    public void setDepth(int depth) { this.depth = depth; }
+    public Long getRemnantId() { return remnantId; }
+    public void setRemnantId(Long remnantId) { this.remnantId = remnantId; }
+    public PackingAlgorithm getAlgorithm() { return algorithm; }
+    public void setAlgorithm(PackingAlgorithm algorithm) { this.algorithm = algorithm; }
+    public int getKerf() { return kerf; }
+    public void setKerf(int kerf) { this.kerf = kerf; }
+    public int getEdgeTrim() { return edgeTrim; }
+    public void setEdgeTrim(int edgeTrim) { this.edgeTrim = edgeTrim; }
     public List<PlacedElement> getPlacedElements() { return placedElements; }
     public void setPlacedElements(List<PlacedElement> placedElements) { this.placedElements = placedElements; }
 }
@@ -0,0 +1,73 @@
+package ro.sapientia.furniture.model.entities;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Offcut left over on a cutting sheet, kept in stock so later cutting plans can use it
+ * before opening a new board.
+ */
+@Entity(name = "remnant")
+public class Remnant implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(name = "remnant_width")
+    private int width;
+
+    @Column(name = "remnant_height")
+    private int height;
+
+    @Column(name = "remnant_depth")
+    private int depth;
+
+    @Column(name = "source_sheet_id")
+    private Long sourceSheetId;
+
+    @Column(name = "pos_x")
+    private int x;
+
+    @Column(name = "pos_y")
+    private int y;
+
+    /**
+     * Set once a cutting plan is cut from the remnant; the row stays so the area is known to be gone from its source sheet.
+     */
+    @Column(name = "used", nullable = false, columnDefinition = "boolean default false")
+    private boolean used;
+
+    public Remnant() {
+    }
+
+    public Remnant(int width, int height, int depth) {
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public int getWidth() { return width; }
+    public void setWidth(int width) { this.width = width; }
+    public int getHeight() { return height; }
+    public void setHeight(int height) { this.height = height; }
+    public int getDepth() { return depth; }
+    public void setDepth(int depth) { this.depth = depth; }
+    public Long getSourceSheetId() { return sourceSheetId; }
+    public void setSourceSheetId(Long sourceSheetId) { this.sourceSheetId = sourceSheetId; }
+    public int getX() { return x; }
+    public void setX(int x) { this.x = x; }
+    public int getY() { return y; }
+    public void setY(int y) { this.y = y; }
+    public boolean isUsed() { return used; }
+    public void setUsed(boolean used) { this.used = used; }
+
+    @Override
+    public String toString() {
+        return "Remnant [id=" + id + ", width=" + width + ", height=" + height + ", depth=" + depth +
+               ", sourceSheetId=" + sourceSheetId + ", x=" + x + ", y=" + y + ", used=" + used + "]";
+    }
+}
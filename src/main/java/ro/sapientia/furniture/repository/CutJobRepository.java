@@ -0,0 +1,40 @@
+package ro.sapientia.furniture.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import ro.sapientia.furniture.model.dto.CutJobStatus;
+import ro.sapientia.furniture.model.entities.CutJob;
+
+public interface CutJobRepository extends JpaRepository<CutJob, String> {
+
+    /**
+     * The oldest job a worker may take, queued or running on an expired lease, locked for the
+     * calling transaction. Rows locked by other workers are skipped rather than waited for, so
+     * concurrent workers never claim the same job.
+     */
+    @Query(value = "SELECT * FROM {h-schema}cut_job WHERE status = 'QUEUED' OR (status = 'RUNNING' AND lease_expires_at < :now)"
+            + " ORDER BY submitted_at LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<CutJob> findClaimable(@Param("now") LocalDateTime now);
+
+    /**
+     * The job, locked for the calling transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM cut_job j WHERE j.id = :id")
+    Optional<CutJob> findLocked(@Param("id") String id);
+
+    long countByStatus(CutJobStatus status);
+
+    @Modifying
+    @Query("DELETE FROM cut_job j WHERE j.finishedAt < :before")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,20 @@
+package ro.sapientia.furniture.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import ro.sapientia.furniture.model.entities.CutJobSheet;
+
+public interface CutJobSheetRepository extends JpaRepository<CutJobSheet, Long> {
+
+    List<CutJobSheet> findByJobIdOrderBySheetIndex(String jobId);
+
+    @Modifying
+    @Query("DELETE FROM cut_job_sheet s WHERE s.job.id IN (SELECT j.id FROM cut_job j WHERE j.finishedAt < :before)")
+    int deleteForJobsFinishedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,7 +1,22 @@
 package ro.sapientia.furniture.repository;
 
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import ro.sapientia.furniture.model.entities.CuttingSheet;
 
-public interface CuttingSheetRepository extends JpaRepository<CuttingSheet, Long> {
+public interface CuttingSheetRepository extends JpaRepository<CuttingSheet, Long>, CuttingSheetWriter {
+
+    /**
+     * The sheet, locked for the calling transaction, so concurrent edits of it run one after the other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM cutting_sheet s WHERE s.id = :id")
+    Optional<CuttingSheet> findLocked(@Param("id") Long id);
 }
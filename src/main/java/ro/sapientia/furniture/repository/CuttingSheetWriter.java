@@ -0,0 +1,15 @@
+package ro.sapientia.furniture.repository;
+
+import ro.sapientia.furniture.model.entities.CuttingSheet;
+
+/**
+ * Writes cutting sheets without keeping them in the persistence context, for plans too large
+ * to hold the placements of all their sheets at once.
+ */
+public interface CuttingSheetWriter {
+
+    /**
+     * Insert a new sheet with its placements in the current transaction and detach both at once.
+     */
+    void insertAndDetach(CuttingSheet sheet);
+}
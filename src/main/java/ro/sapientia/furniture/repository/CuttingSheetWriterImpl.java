@@ -0,0 +1,20 @@
+package ro.sapientia.furniture.repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import ro.sapientia.furniture.model.entities.CuttingSheet;
+
+class CuttingSheetWriterImpl implements CuttingSheetWriter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAndDetach(CuttingSheet sheet) {
+        entityManager.persist(sheet);
+        entityManager.flush();
+        // Cascades to the placements; the rest of the persistence context is left alone
+        entityManager.detach(sheet);
+    }
+}
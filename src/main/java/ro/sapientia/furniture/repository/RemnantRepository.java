@@ -0,0 +1,38 @@
+package ro.sapientia.furniture.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import ro.sapientia.furniture.model.entities.Remnant;
+
+public interface RemnantRepository extends JpaRepository<Remnant, Long> {
+
+    List<Remnant> findByUsedFalse();
+
+    List<Remnant> findBySourceSheetId(Long sourceSheetId);
+
+    /**
+     * Take a remnant out of stock, committed at once so no other instance can take it as well.
+     *
+     * @return 1 if the remnant was in stock, 0 if another instance used or deleted it first
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE remnant r SET r.used = true WHERE r.id = :id AND r.used = false")
+    int markUsed(@Param("id") Long id);
+
+    /**
+     * Put taken remnants back into stock, committed at once; also safe after the calling transaction completed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE remnant r SET r.used = false WHERE r.id IN :ids")
+    int markUnused(@Param("ids") Collection<Long> ids);
+}
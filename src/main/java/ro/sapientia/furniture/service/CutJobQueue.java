@@ -0,0 +1,261 @@
+package ro.sapientia.furniture.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ro.sapientia.furniture.config.CutOptimizationProperties;
+import ro.sapientia.furniture.exception.CutJobRejectedException;
+import ro.sapientia.furniture.exception.CutOptimizationException;
+import ro.sapientia.furniture.exception.InfeasibleCutException;
+import ro.sapientia.furniture.model.dto.CutJobStatus;
+import ro.sapientia.furniture.model.dto.CutRequestDTO;
+import ro.sapientia.furniture.model.dto.CutResponseDTO;
+import ro.sapientia.furniture.model.dto.SheetSummaryDTO;
+import ro.sapientia.furniture.model.entities.CutJob;
+import ro.sapientia.furniture.model.entities.CutJobSheet;
+import ro.sapientia.furniture.repository.CutJobRepository;
+import ro.sapientia.furniture.repository.CutJobSheetRepository;
+import ro.sapientia.furniture.repository.CuttingSheetRepository;
+import ro.sapientia.furniture.util.AppLogger;
+
+/**
+ * The {@code cut_job} table as a work queue shared by every instance using the database.
+ *
+ * A worker claims the oldest claimable job with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so
+ * that concurrent workers skip each other's rows instead of blocking or double-claiming, and
+ * holds it on a lease of {@code furniture.cut.job-lease-millis}. The claim is committed at
+ * once; the plan is computed without a transaction while the worker renews the lease, and only
+ * saving it locks the job row again, to check that the worker still holds the job. The plan,
+ * the result rows linking the job to its cutting sheets and the final status are committed in
+ * one transaction. A job whose worker died keeps its expired lease and is claimed again, up to
+ * {@code furniture.cut.job-max-attempts} times.
+ */
+@Service
+public class CutJobQueue {
+
+    private static final AppLogger logger = AppLogger.getLogger(CutJobQueue.class);
+
+    private final CutJobRepository cutJobRepository;
+
+    private final CutJobSheetRepository cutJobSheetRepository;
+
+    private final CuttingSheetRepository cuttingSheetRepository;
+
+    private final CutOptimizationService cutOptimizationService;
+
+    private final ObjectMapper objectMapper;
+
+    private final CutOptimizationProperties properties;
+
+    public CutJobQueue(CutJobRepository cutJobRepository, CutJobSheetRepository cutJobSheetRepository,
+                       CuttingSheetRepository cuttingSheetRepository, CutOptimizationService cutOptimizationService,
+                       ObjectMapper objectMapper, CutOptimizationProperties properties) {
+        this.cutJobRepository = cutJobRepository;
+        this.cutJobSheetRepository = cutJobSheetRepository;
+        this.cuttingSheetRepository = cuttingSheetRepository;
+        this.cutOptimizationService = cutOptimizationService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Store a request as a queued job.
+     *
+     * @throws CutJobRejectedException if {@code furniture.cut.job-queue-capacity} jobs are already queued
+     */
+    @Transactional
+    public CutJob enqueue(CutRequestDTO request) {
+        long queued = cutJobRepository.countByStatus(CutJobStatus.QUEUED);
+        if (queued >= properties.getJobQueueCapacity()) {
+            throw new CutJobRejectedException((int) Math.min(Integer.MAX_VALUE, queued));
+        }
+        return cutJobRepository.save(new CutJob(UUID.randomUUID().toString(), toJson(request), LocalDateTime.now()));
+    }
+
+    /**
+     * Claim the oldest queued job, or a running one whose lease has expired, for the worker.
+     * Jobs that have used up their attempts fail instead.
+     *
+     * @return the claimed job, or empty if there is none
+     */
+    @Transactional
+    public Optional<CutJob> claim(String workerId) {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            Optional<CutJob> claimable = cutJobRepository.findClaimable(now);
+            if (claimable.isEmpty()) {
+                return claimable;
+            }
+            CutJob job = claimable.get();
+            if (job.getStatus() == CutJobStatus.RUNNING) {
+                logger.warn("Lease of cut job {} held by {} expired at {}", job.getId(), job.getWorkerId(), job.getLeaseExpiresAt());
+                if (job.getAttempts() >= properties.getJobMaxAttempts()) {
+                    finish(job, CutJobStatus.FAILED);
+                    job.setError("Cut job abandoned after " + job.getAttempts() + " attempt(s)");
+                    continue;
+                }
+            }
+            job.setStatus(CutJobStatus.RUNNING);
+            job.setWorkerId(workerId);
+            job.setLeaseExpiresAt(now.plusNanos(properties.getJobLeaseMillis() * 1_000_000));
+            job.setAttempts(job.getAttempts() + 1);
+            job.setStartedAt(now);
+            return Optional.of(job);
+        }
+    }
+
+    /**
+     * Compute the plan of a claimed job without a transaction or a lock on its row. The searches
+     * of the plan report their best layouts to {@code progress}. The plan must be passed to
+     * {@link #complete} or {@link #discard}.
+     *
+     * @throws CutOptimizationException if the plan fails
+     */
+    public CutOptimizationService.PendingPlan plan(CutJob job, CutProgress progress) {
+        return cutOptimizationService.plan(fromJson(job.getRequest(), CutRequestDTO.class), progress);
+    }
+
+    /**
+     * Extend the lease of a job the worker holds by {@code furniture.cut.job-lease-millis}.
+     *
+     * @return false if the worker no longer holds the job
+     */
+    @Transactional
+    public boolean renewLease(String jobId, String workerId) {
+        CutJob job = cutJobRepository.findLocked(jobId).orElse(null);
+        if (!isHeldBy(job, workerId)) {
+            return false;
+        }
+        job.setLeaseExpiresAt(LocalDateTime.now().plusNanos(properties.getJobLeaseMillis() * 1_000_000));
+        return true;
+    }
+
+    /**
+     * Save the plan of a job the worker still holds and record it with the result rows of its
+     * sheets. The job row is locked only for this transaction.
+     *
+     * @return false if the worker no longer holds the job, which then is left untouched and the plan discarded
+     */
+    @Transactional
+    public boolean complete(String jobId, String workerId, CutOptimizationService.PendingPlan plan) {
+        CutJob job = cutJobRepository.findLocked(jobId).orElse(null);
+        if (!isHeldBy(job, workerId)) {
+            logger.warn("Cut job {} is no longer held by {}", jobId, workerId);
+            cutOptimizationService.discard(plan);
+            return false;
+        }
+        CutResponseDTO response = cutOptimizationService.save(plan);
+
+        List<CutJobSheet> links = new ArrayList<>();
+        for (SheetSummaryDTO sheet : response.getSheets()) {
+            if (sheet.getCuttingSheetId() != null) {
+                links.add(new CutJobSheet(job, cuttingSheetRepository.getReferenceById(sheet.getCuttingSheetId()), sheet.getIndex()));
+            }
+        }
+        cutJobSheetRepository.saveAll(links);
+        job.setResult(toJson(response));
+        finish(job, CutJobStatus.DONE);
+        return true;
+    }
+
+    /**
+     * Give back what a plan that will not be saved holds; does nothing once it was saved.
+     */
+    public void discard(CutOptimizationService.PendingPlan plan) {
+        cutOptimizationService.discard(plan);
+    }
+
+    /**
+     * Record the failure of a job the worker holds. Cutting failures are final; other errors
+     * put the job back into the queue while it has attempts left.
+     *
+     * @return the new status of the job, {@code null} if the worker no longer holds it
+     */
+    @Transactional
+    public CutJobStatus fail(String jobId, String workerId, RuntimeException failure) {
+        CutJob job = cutJobRepository.findLocked(jobId).orElse(null);
+        if (!isHeldBy(job, workerId)) {
+            return null;
+        }
+        if (!(failure instanceof CutOptimizationException) && job.getAttempts() < properties.getJobMaxAttempts()) {
+            job.setStatus(CutJobStatus.QUEUED);
+            job.setWorkerId(null);
+            job.setLeaseExpiresAt(null);
+            return CutJobStatus.QUEUED;
+        }
+        finish(job, CutJobStatus.FAILED);
+        job.setError(failure instanceof CutOptimizationException
+                ? failure.getMessage() : "An unexpected error occurred during processing");
+        if (failure instanceof InfeasibleCutException) {
+            job.setErrorCode(((InfeasibleCutException) failure).getCode().name());
+        }
+        return CutJobStatus.FAILED;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<CutJob> find(String jobId) {
+        return cutJobRepository.findById(jobId);
+    }
+
+    /**
+     * Ids of the cutting sheets a finished job produced, in sheet order.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> cuttingSheetIds(String jobId) {
+        List<Long> ids = new ArrayList<>();
+        for (CutJobSheet link : cutJobSheetRepository.findByJobIdOrderBySheetIndex(jobId)) {
+            ids.add(link.getCuttingSheet().getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Delete the jobs that finished before the given time, with their result rows; their cutting sheets stay.
+     *
+     * @return the number of jobs deleted
+     */
+    @Transactional
+    public int purgeFinishedBefore(LocalDateTime before) {
+        cutJobSheetRepository.deleteForJobsFinishedBefore(before);
+        return cutJobRepository.deleteFinishedBefore(before);
+    }
+
+    CutResponseDTO readResult(CutJob job) {
+        return fromJson(job.getResult(), CutResponseDTO.class);
+    }
+
+    private static boolean isHeldBy(CutJob job, String workerId) {
+        return job != null && job.getStatus() == CutJobStatus.RUNNING && workerId.equals(job.getWorkerId());
+    }
+
+    private static void finish(CutJob job, CutJobStatus status) {
+        job.setStatus(status);
+        job.setFinishedAt(LocalDateTime.now());
+        job.setLeaseExpiresAt(null);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot write " + value.getClass().getSimpleName() + " as JSON", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read " + type.getSimpleName() + " from JSON", e);
+        }
+    }
+}
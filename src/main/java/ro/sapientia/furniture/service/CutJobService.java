@@ -0,0 +1,292 @@
+package ro.sapientia.furniture.service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Service;
+
+import ro.sapientia.furniture.config.CutOptimizationProperties;
+import ro.sapientia.furniture.exception.CutErrorCode;
+import ro.sapientia.furniture.exception.CutJobNotFinishedException;
+import ro.sapientia.furniture.exception.CutJobNotFoundException;
+import ro.sapientia.furniture.exception.CutJobRejectedException;
+import ro.sapientia.furniture.exception.CutOptimizationException;
+import ro.sapientia.furniture.exception.InfeasibleCutException;
+import ro.sapientia.furniture.model.dto.CutJobDTO;
+import ro.sapientia.furniture.model.dto.CutJobStatus;
+import ro.sapientia.furniture.model.dto.CutRequestDTO;
+import ro.sapientia.furniture.model.dto.CutResponseDTO;
+import ro.sapientia.furniture.model.entities.CutJob;
+import ro.sapientia.furniture.util.AppLogger;
+
+/**
+ * Asynchronous cut jobs: a cutting request is stored in the {@link CutJobQueue} and answered
+ * with a job id at once, then planned and saved off the request threads by the job workers of
+ * whichever instance claims it first. Every instance runs {@code furniture.cut.job-workers}
+ * workers on the bounded cut job executor; idle workers poll the queue every
+ * {@code furniture.cut.job-poll-millis} and are woken at once by jobs submitted on their own
+ * instance. While a job is planned, its lease is renewed every third of
+ * {@code furniture.cut.job-lease-millis}. Jobs that finished more than
+ * {@code furniture.cut.job-retention-millis} ago are deleted the next time a job is submitted. The {@link CutProgressPublisher} announces every
+ * run to the clients subscribed to the job, with the best layouts of its searches.
+ */
+@Service
+public class CutJobService {
+
+    private static final AppLogger logger = AppLogger.getLogger(CutJobService.class);
+
+    private final CutJobQueue cutJobQueue;
+
+    private final ThreadPoolExecutor executor;
+
+    private final CutProgressPublisher progressPublisher;
+
+    private final CutOptimizationProperties properties;
+
+    // Identifies this instance in the worker ids of the jobs it claims
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Object wakeUp = new Object();
+
+    // Renews the leases of the jobs the workers of this instance are planning; jobs still
+    // running when the workers stop keep renewing until they end, then the last worker to
+    // return shuts it down
+    private final ScheduledExecutorService leaseRenewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cut-job-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean running;
+
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+
+    public CutJobService(CutJobQueue cutJobQueue, ThreadPoolExecutor cutJobExecutor, CutProgressPublisher progressPublisher,
+                         CutOptimizationProperties properties) {
+        this.cutJobQueue = cutJobQueue;
+        this.executor = cutJobExecutor;
+        this.progressPublisher = progressPublisher;
+        this.properties = properties;
+    }
+
+    /**
+     * Start the job workers of this instance; with {@code furniture.cut.job-workers} at 0 it only
+     * accepts jobs, for the workers of other instances.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        int workers = Math.min(properties.getJobWorkers(), executor.getMaximumPoolSize());
+        for (int i = 0; i < workers; i++) {
+            String workerId = instanceId + "-" + i;
+            activeWorkers.incrementAndGet();
+            executor.execute(() -> work(workerId));
+        }
+        logger.info("Started {} cut job worker(s) on instance {}", workers, instanceId);
+    }
+
+    /**
+     * Stop the workers; jobs they are running finish first. The lease renewer is shut down once
+     * the last worker has returned.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        synchronized (wakeUp) {
+            wakeUp.notifyAll();
+        }
+        if (activeWorkers.get() == 0) {
+            leaseRenewer.shutdown();
+        }
+    }
+
+    boolean isLeaseRenewerShutDown() {
+        return leaseRenewer.isShutdown();
+    }
+
+    /**
+     * Queue a cutting request.
+     *
+     * @return the queued job
+     * @throws CutJobRejectedException if the job queue is full
+     */
+    public CutJobDTO submit(CutRequestDTO request) {
+        purgeExpiredJobs();
+
+        CutJob job;
+        try {
+            job = cutJobQueue.enqueue(request);
+        } catch (CutJobRejectedException e) {
+            logger.warn("Rejected cut job: {}", e.getMessage());
+            throw e;
+        }
+        synchronized (wakeUp) {
+            wakeUp.notify();
+        }
+        logger.info("Queued cut job {} for {} elements", job.getId(),
+                request.getElements() != null ? request.getElements().size() : 0);
+        return toDTO(job);
+    }
+
+    /**
+     * @throws CutJobNotFoundException if the job does not exist or has expired
+     */
+    public CutJobDTO status(String jobId) {
+        CutJobDTO dto = toDTO(find(jobId));
+        if (dto.getStatus() == CutJobStatus.DONE) {
+            dto.setCuttingSheetIds(cutJobQueue.cuttingSheetIds(jobId));
+        }
+        return dto;
+    }
+
+    /**
+     * The cutting plan of a finished job.
+     *
+     * @throws CutJobNotFoundException if the job does not exist or has expired
+     * @throws CutJobNotFinishedException if the job is still queued or running
+     * @throws CutOptimizationException the error the job failed with
+     */
+    public CutResponseDTO result(String jobId) {
+        CutJob job = find(jobId);
+        switch (job.getStatus()) {
+            case DONE:
+                return cutJobQueue.readResult(job);
+            case FAILED:
+                if (job.getErrorCode() != null) {
+                    throw new InfeasibleCutException(CutErrorCode.valueOf(job.getErrorCode()), "%s", job.getError());
+                }
+                throw new CutOptimizationException(job.getError());
+            default:
+                throw new CutJobNotFinishedException(jobId, job.getStatus());
+        }
+    }
+
+    /**
+     * Claim and run jobs until the service stops.
+     */
+    private void work(String workerId) {
+        try {
+            poll(workerId);
+        } finally {
+            // Either this worker or stop() sees both the service stopped and no worker left
+            if (activeWorkers.decrementAndGet() == 0 && !running) {
+                leaseRenewer.shutdown();
+            }
+        }
+    }
+
+    private void poll(String workerId) {
+        while (running) {
+            try {
+                Optional<CutJob> claimed = cutJobQueue.claim(workerId);
+                if (claimed.isPresent()) {
+                    run(claimed.get(), workerId);
+                } else {
+                    synchronized (wakeUp) {
+                        if (running) {
+                            wakeUp.wait(Math.max(1, properties.getJobPollMillis()));
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The database may be unreachable; back off before polling again
+                logger.error("Cut job worker " + workerId + " could not poll the job queue", e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(Math.max(1, properties.getJobPollMillis()));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void run(CutJob job, String workerId) {
+        logger.info("Worker {} runs cut job {} (attempt {})", workerId, job.getId(), job.getAttempts());
+        CutProgress progress = progressPublisher.started(job.getId());
+        long renewMillis = Math.max(1, properties.getJobLeaseMillis() / 3);
+        ScheduledFuture<?> heartbeat = leaseRenewer.scheduleWithFixedDelay(() -> renewLease(job.getId(), workerId),
+                renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+        CutOptimizationService.PendingPlan plan = null;
+        CutJobStatus status = null;
+        RuntimeException failure = null;
+        try {
+            plan = cutJobQueue.plan(job, progress);
+            heartbeat.cancel(false);
+            if (cutJobQueue.complete(job.getId(), workerId, plan)) {
+                status = CutJobStatus.DONE;
+                logger.info("Cut job {} completed", job.getId());
+            }
+        } catch (CutOptimizationException e) {
+            failure = e;
+            status = cutJobQueue.fail(job.getId(), workerId, e);
+            logger.info("Cut job {} failed: {}", job.getId(), e.getMessage());
+        } catch (RuntimeException e) {
+            failure = e;
+            status = cutJobQueue.fail(job.getId(), workerId, e);
+            logger.error("Cut job " + job.getId() + " failed unexpectedly", e);
+        } finally {
+            heartbeat.cancel(false);
+            if (plan != null) {
+                cutJobQueue.discard(plan);
+            }
+        }
+        // A job the worker lost belongs to the worker that took it over
+        if (status != null) {
+            progressPublisher.finished(progress, status, failure);
+        }
+    }
+
+    private void renewLease(String jobId, String workerId) {
+        try {
+            if (!cutJobQueue.renewLease(jobId, workerId)) {
+                logger.warn("Worker {} lost the lease of cut job {}", workerId, jobId);
+            }
+        } catch (RuntimeException e) {
+            // The lease stays as it was; the next renewal may get through
+            logger.error("Could not renew the lease of cut job " + jobId, e);
+        }
+    }
+
+    private CutJob find(String jobId) {
+        return cutJobQueue.find(jobId).orElseThrow(() -> new CutJobNotFoundException(jobId));
+    }
+
+    private void purgeExpiredJobs() {
+        long retention = properties.getJobRetentionMillis();
+        if (retention <= 0) {
+            return;
+        }
+        int purged = cutJobQueue.purgeFinishedBefore(LocalDateTime.now().minusNanos(retention * 1_000_000));
+        if (purged > 0) {
+            logger.info("Deleted {} expired cut job(s)", purged);
+        }
+    }
+
+    private static CutJobDTO toDTO(CutJob job) {
+        CutJobDTO dto = new CutJobDTO();
+        dto.setJobId(job.getId());
+        dto.setStatus(job.getStatus());
+        dto.setSubmittedAt(job.getSubmittedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        dto.setAttempts(job.getAttempts());
+        dto.setWorkerId(job.getWorkerId());
+        dto.setError(job.getError());
+        dto.setCode(job.getErrorCode());
+        return dto;
+    }
+}
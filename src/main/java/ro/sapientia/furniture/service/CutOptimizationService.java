@@ -3,295 +3,1373 @@ package ro.sapientia.furniture.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ro.sapientia.furniture.config.CutOptimizationProperties;
 
 import ro.sapientia.furniture.exception.CutOptimizationException;
+import ro.sapientia.furniture.exception.InfeasibleCutException;
+import ro.sapientia.furniture.model.dto.CutBatchResponseDTO;
+import ro.sapientia.furniture.model.dto.CutBatchResultDTO;
+import ro.sapientia.furniture.model.dto.CutBodyDTO;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
 import ro.sapientia.furniture.model.dto.CutRequestDTO;
 import ro.sapientia.furniture.model.dto.CutResponseDTO;
-import ro.sapientia.furniture.model.dto.FurnitureBodyDTO;
+import ro.sapientia.furniture.model.dto.GuillotineCutDTO;
+import ro.sapientia.furniture.model.dto.MaterialGroupDTO;
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
 import ro.sapientia.furniture.model.dto.PlacedElementDTO;
+import ro.sapientia.furniture.model.dto.SheetSummaryDTO;
+import ro.sapientia.furniture.model.dto.StockSheetDTO;
 import ro.sapientia.furniture.model.entities.CuttingSheet;
 import ro.sapientia.furniture.model.entities.PlacedElement;
+import ro.sapientia.furniture.model.entities.Remnant;
 import ro.sapientia.furniture.repository.CuttingSheetRepository;
-import ro.sapientia.furniture.repository.FurnitureBodyRepository;
 
 import ro.sapientia.furniture.util.AppLogger;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Service for optimizing furniture element placement on cutting sheets.
- * Uses a First Fit Decreasing Height (FFDH) bin packing algorithm.
+ * Uses a First Fit Decreasing Height (FFDH) bin packing algorithm by default, or the
+ * MaxRects, skyline or guillotine engine when the request selects it; the portfolio mode
+ * runs several of them concurrently and keeps the best layout, and the exact mode proves small
+ * orders optimal by branch and bound. Shelf layouts and multi-sheet strips can be improved
+ * by a local search within the time the request allows.
+ * Packing runs on primitive arrays held in a per-thread {@link PackingWorkspace};
+ * DTOs and entities are only created for the final result. Multi-sheet requests spill
+ * elements onto further sheets with the {@link MultiSheetPacker}. Very large FFDH orders are
+ * packed in parallel height bands by the {@link PartitionedStripPacker}. Elements of different
+ * depths are packed as separate groups on the cut optimization pool and merged into one plan.
+ * The offcuts of every saved sheet go into the {@link RemnantInventory}, and requests can
+ * have remnants filled before new boards are opened. Stored furniture bodies named by id are
+ * exploded into their panels by {@link PanelExplosion}, looked up through the {@link FurnitureBodyCatalog}.
+ * Requests the {@link FeasibilityScreen} shows impossible are rejected before any packing.
+ * Batches of orders are planned concurrently, one order per pool task, and saved together.
+ * Long searches can report their best layouts so far to the {@link CutProgress} of a cut job.
  */
 @Service
 public class CutOptimizationService {
 
     private static final AppLogger logger = AppLogger.getLogger(CutOptimizationService.class);
 
-    private final FurnitureBodyRepository furnitureBodyRepository;
+    private final FurnitureBodyCatalog furnitureBodyCatalog;
 
     private final CuttingSheetRepository cuttingSheetRepository;
-    public CutOptimizationService(CuttingSheetRepository cuttingSheetRepository, FurnitureBodyRepository furnitureBodyRepository) {
+
+    private final CutOptimizationProperties properties;
+
+    private final ForkJoinPool pool;
+
+    private final PlacementValidator placementValidator;
+
+    private final MultiSheetPacker multiSheetPacker;
+
+    private final PortfolioSolver portfolioSolver;
+
+    private final PartitionedStripPacker partitionedStripPacker;
+
+    private final StockSelector stockSelector;
+
+    private final RemnantInventory remnantInventory;
+
+    private final AtomicLong validationCounter = new AtomicLong();
+
+    public CutOptimizationService(CuttingSheetRepository cuttingSheetRepository, FurnitureBodyCatalog furnitureBodyCatalog,
+                                  RemnantInventory remnantInventory, CutOptimizationProperties properties,
+                                  ForkJoinPool cutOptimizationPool) {
         this.cuttingSheetRepository = cuttingSheetRepository;
-        this.furnitureBodyRepository = furnitureBodyRepository;
+        this.furnitureBodyCatalog = furnitureBodyCatalog;
+        this.remnantInventory = remnantInventory;
+        this.properties = properties;
+        this.pool = cutOptimizationPool;
+        this.placementValidator = new PlacementValidator(cutOptimizationPool, properties.getParallelValidationThreshold());
+        this.multiSheetPacker = new MultiSheetPacker(cutOptimizationPool, properties.getParallelPackingThreshold(),
+                properties.getPartitionThreshold());
+        this.partitionedStripPacker = new PartitionedStripPacker(cutOptimizationPool);
+        this.stockSelector = new StockSelector(cutOptimizationPool);
+        this.portfolioSolver = new PortfolioSolver(cutOptimizationPool, multiSheetPacker, properties.getPortfolioConcurrency());
     }
 
     /**
-     * Internal class to track occupied areas on the sheet.
+     * Optimize the placement of furniture elements on a cutting sheet, or on as many
+     * sheets as needed when the request allows it. Elements of different depths (board
+     * thicknesses) never share a sheet: every depth is packed onto sheets of its own, the
+     * depths concurrently. All sheets of a plan are saved together.
+     *
+     * @param request The cutting request containing sheet dimensions and elements
+     * @return CutResponse with optimized placements, per-sheet summaries and per-depth groups
+     * @throws InfeasibleCutException if the request is shown impossible before packing
+     * @throws CutOptimizationException if elements cannot fit on the sheet
      */
-    private static class Level {
-        int y;          // Y position of this level
-        int height;     // Height of the level
-        int x;          // Current X position in this level
+    @Transactional
+    public CutResponseDTO optimizeCutting(CutRequestDTO request) {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            OrderPlan order = planOrder(workspace, request, null);
+            remnantInventory.consume(claimedRemnants(order.plans));
+            return saveOrders(workspace, List.of(order)).get(0);
+        } finally {
+            workspace.release();
+        }
+    }
 
-        Level(int y, int height) {
-            this.y = y;
-            this.height = height;
-            this.x = 0;
+    /**
+     * Plan an order like {@link #optimizeCutting(CutRequestDTO)} without saving it and outside
+     * any transaction, so no connection or row lock is held while it is packed. The best layouts
+     * of long searches (portfolio, exact and local search) are reported to {@code progress}, if
+     * given, as they improve. The plan keeps the remnants it claimed until it is
+     * {@link #save saved} or {@link #discard discarded}.
+     *
+     * @throws InfeasibleCutException if the request is shown impossible before packing
+     * @throws CutOptimizationException if elements cannot fit on the sheet
+     */
+    public PendingPlan plan(CutRequestDTO request, CutProgress progress) {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            return new PendingPlan(planOrder(workspace, request, progress).detach());
+        } finally {
+            workspace.release();
         }
     }
 
     /**
-     * Optimize the placement of furniture elements on a cutting sheet.
+     * Save a plan made by {@link #plan} in the current transaction. A plan made by
+     * {@link #streamCutting} is saved sheet by sheet, and its response leaves out the placements
+     * the client already got.
      *
-     * @param request The cutting request containing sheet dimensions and elements
-     * @return CutResponse with optimized placements
+     * @throws IllegalStateException if the plan was already saved or discarded
+     */
+    @Transactional
+    public CutResponseDTO save(PendingPlan plan) {
+        if (!plan.settle()) {
+            throw new IllegalStateException("The cutting plan was already saved or discarded");
+        }
+        remnantInventory.consume(claimedRemnants(plan.order.plans));
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            return plan.streamed ? saveSheetBySheet(workspace, plan.order) : saveOrders(workspace, List.of(plan.order)).get(0);
+        } finally {
+            workspace.release();
+        }
+    }
+
+    /**
+     * Give back the remnants claimed by a plan that will not be saved; a plan that was saved or
+     * discarded already is left alone.
+     */
+    public void discard(PendingPlan plan) {
+        if (plan.settle()) {
+            remnantInventory.release(claimedRemnants(plan.order.plans));
+        }
+    }
+
+    /**
+     * Plan an order like {@link #plan} and hand its placements to the consumer sheet by sheet,
+     * running {@code sheetEnd} after the placements of every sheet, so a client gets the plan
+     * without it being collected in a response. Nothing is saved and no transaction is open
+     * while the placements are handed out; the caller then {@link #save saves} the plan, and
+     * {@link #discard discards} it if that does not happen. The consumer gets the same
+     * {@link PlacedElementDTO} instance every time, only valid during the call.
+     *
+     * @return the plan, still to be saved or discarded; a plan whose streaming failed is discarded
+     * @throws InfeasibleCutException if the request is shown impossible before packing
      * @throws CutOptimizationException if elements cannot fit on the sheet
      */
-    public CutResponseDTO optimizeCutting(CutRequestDTO request) {
+    public PendingPlan streamCutting(CutRequestDTO request, Consumer<PlacedElementDTO> placements, Runnable sheetEnd) {
+        PendingPlan plan = plan(request, null);
+        plan.streamed = true;
+        try {
+            PackingInput input = plan.order.input;
+            PackingLayout layout = plan.order.layout;
+            int sheetCount = layout.sheetCount();
+            int[] firstOfSheet = new int[sheetCount + 1];
+            int[] bySheet = placementsBySheet(layout, firstOfSheet);
+
+            PlacedElementDTO placement = new PlacedElementDTO();
+            for (int sheet = 0; sheet < sheetCount; sheet++) {
+                for (int k = firstOfSheet[sheet]; k < firstOfSheet[sheet + 1]; k++) {
+                    int i = bySheet[k];
+                    placement.setId(input.boxedId(layout.element(i)));
+                    placement.setX(layout.x(i));
+                    placement.setY(layout.y(i));
+                    placement.setWidth(layout.width(i));
+                    placement.setHeight(layout.height(i));
+                    placement.setSheetIndex(sheet);
+                    placements.accept(placement);
+                }
+                sheetEnd.run();
+            }
+            return plan;
+        } catch (RuntimeException e) {
+            discard(plan);
+            throw e;
+        }
+    }
+
+    /**
+     * Plan several independent orders in one call. Every order is planned in its own task on
+     * the cut optimization pool, so at most as many orders are packed at a time as the pool has
+     * workers. An order that cannot be planned gets its error in its result without affecting
+     * the others. Nothing is saved and no transaction is open while the orders are packed; the
+     * caller then {@link #saveBatch saves} the batch, and {@link #discardBatch discards} it if
+     * that does not happen.
+     *
+     * @param requests the orders, each planned as by {@link #optimizeCutting}
+     * @return the batch, still to be saved or discarded
+     * @throws CutOptimizationException if the batch has more than {@code furniture.cut.batch-max-orders} orders
+     */
+    public PendingBatch planBatch(List<CutRequestDTO> requests) {
+        if (requests.size() > properties.getBatchMaxOrders()) {
+            throw new CutOptimizationException(String.format(
+                    "A batch holds at most %d orders, got %d", properties.getBatchMaxOrders(), requests.size()));
+        }
+        logger.info("Starting batch cut optimization for {} orders", requests.size());
+
+        List<ForkJoinTask<OrderPlan>> tasks = new ArrayList<>(requests.size());
+        for (CutRequestDTO request : requests) {
+            tasks.add(ForkJoinTask.adapt(() -> {
+                PackingWorkspace workspace = PackingWorkspace.acquire();
+                try {
+                    return planOrder(workspace, request, null).detach();
+                } catch (RuntimeException e) {
+                    return new OrderPlan(e);
+                } finally {
+                    workspace.release();
+                }
+            }));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        List<CutBatchResultDTO> results = new ArrayList<>(tasks.size());
+        List<OrderPlan> planned = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            OrderPlan order = tasks.get(i).join();
+            results.add(order.failure != null ? failedOrder(i, order.failure) : null);
+            if (order.failure == null) {
+                planned.add(order);
+            }
+        }
+        return new PendingBatch(results, planned);
+    }
+
+    /**
+     * Save the sheets of all orders of a batch made by {@link #planBatch} that could be planned,
+     * together in the current transaction.
+     *
+     * @return one result per order, in request order
+     * @throws IllegalStateException if the batch was already saved or discarded
+     */
+    @Transactional
+    public CutBatchResponseDTO saveBatch(PendingBatch batch) {
+        if (!batch.settle()) {
+            throw new IllegalStateException("The cutting batch was already saved or discarded");
+        }
+        remnantInventory.consume(batch.claimedRemnants());
+
+        List<CutResponseDTO> responses;
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            responses = saveOrders(workspace, batch.planned);
+        } finally {
+            workspace.release();
+        }
+        List<CutBatchResultDTO> results = new ArrayList<>(batch.results);
+        int next = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, new CutBatchResultDTO(i, responses.get(next++)));
+            }
+        }
+        logger.info("Batch cut optimization completed: {} of {} orders planned", batch.planned.size(), results.size());
+        return new CutBatchResponseDTO(results, batch.planned.size(), results.size() - batch.planned.size());
+    }
+
+    /**
+     * Give back the remnants claimed by the orders of a batch that will not be saved; a batch
+     * that was saved or discarded already is left alone.
+     */
+    public void discardBatch(PendingBatch batch) {
+        if (batch.settle()) {
+            remnantInventory.release(batch.claimedRemnants());
+        }
+    }
+
+    /**
+     * The result of a batch order that could not be planned, with the message and code its
+     * own request would have been rejected with.
+     */
+    private static CutBatchResultDTO failedOrder(int index, RuntimeException failure) {
+        if (failure instanceof InfeasibleCutException) {
+            return new CutBatchResultDTO(index, failure.getMessage(), ((InfeasibleCutException) failure).getCode().name());
+        }
+        if (failure instanceof CutOptimizationException) {
+            return new CutBatchResultDTO(index, failure.getMessage(), null);
+        }
+        logger.error("Unexpected error in order " + index + " of a batch", failure);
+        return new CutBatchResultDTO(index, "An unexpected error occurred during processing", null);
+    }
+
+    /**
+     * Plan one order in the given workspace, without saving anything. The plan refers to the
+     * input and layout of the workspace; remnants it claimed are released again if it fails.
+     *
+     * @throws InfeasibleCutException if the request is shown impossible before packing
+     * @throws CutOptimizationException if elements cannot fit on the sheet
+     */
+    private OrderPlan planOrder(PackingWorkspace workspace, CutRequestDTO request, CutProgress progress) {
+        if (request.hasBodies()) {
+            addBodyPanels(request);
+        }
         logger.info("Starting cut optimization for {} elements on {}x{} sheet",
                 request.getElements().size(), request.getSheetWidth(), request.getSheetHeight());
 
         // Validate input
         validateRequest(request);
 
-        // Sort elements by height (descending) for better packing
-        List<FurnitureBodyDTO> sortedElements = new ArrayList<>(request.getElements());
-        // DTO has a typo: method is getHeight()
-        sortedElements.sort(Comparator.comparingInt(FurnitureBodyDTO::getHeight).reversed());
-
-        // Perform optimization using FFDH algorithm
-        List<PlacedElementDTO> placements = performFFDHPacking(
-                sortedElements,
-                request.getSheetWidth(),
-                request.getSheetHeight()
-        );
+        PackingAlgorithm algorithm = request.getAlgorithm() != null ? request.getAlgorithm() : properties.getDefaultAlgorithm();
+        long searchMillis = searchMillis(request);
+        List<List<CutElementDTO>> groups = groupByDepth(request.getElements());
+        FeasibilityScreen.check(request, groups);
 
-        // Validate that all elements were placed
-        if (placements.size() != request.getElements().size()) {
-            throw new CutOptimizationException(
-                    "Failed to place all elements. " +
-                            placements.size() + " of " + request.getElements().size() + " elements were placed."
-            );
+        PackingInput input = workspace.input();
+        PackingLayout layout = workspace.layout();
+        List<GroupPlan> plans;
+        if (groups.size() == 1) {
+            plans = List.of(planGroup(workspace, request, groups.get(0), algorithm, searchMillis, progress));
+        } else {
+            plans = planGroupsConcurrently(request, groups, algorithm, searchMillis, progress);
+            mergePlans(plans, input, layout);
         }
+        try {
+            validatePlacements(input, layout);
+        } catch (RuntimeException e) {
+            remnantInventory.release(claimedRemnants(plans));
+            throw e;
+        }
+        return new OrderPlan(request, algorithm, input, layout, plans);
+    }
 
-        validatePlacements(placements, request.getSheetWidth(), request.getSheetHeight());
+    /**
+     * Save the sheets of all planned orders in one call to the repository and record their
+     * offcuts as remnants; the remnants the orders claimed must already be consumed.
+     *
+     * @return the response of every order, in order
+     */
+    private List<CutResponseDTO> saveOrders(PackingWorkspace workspace, List<OrderPlan> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> existingIds = existingIds(orders);
 
-        logger.info("Cut optimization completed successfully. Placed {} elements", placements.size());
+        List<CuttingSheet> sheets = new ArrayList<>();
+        for (OrderPlan order : orders) {
+            sheets.addAll(toCuttingSheets(order, existingIds));
+        }
+        cuttingSheetRepository.saveAll(sheets);
 
-        return new CutResponseDTO(placements);
+        List<CutResponseDTO> responses = new ArrayList<>(orders.size());
+        List<Remnant> offcuts = new ArrayList<>();
+        int firstSheet = 0;
+        for (OrderPlan order : orders) {
+            List<CuttingSheet> orderSheets = sheets.subList(firstSheet, firstSheet + order.layout.sheetCount());
+            firstSheet += order.layout.sheetCount();
+            offcuts.addAll(remnantInventory.offcuts(workspace, order.layout, orderSheets, properties.getRemnantMinSide()));
+            responses.add(toResponse(order, orderSheets, toPlacementDTOs(order.input, order.layout)));
+        }
+        remnantInventory.store(offcuts);
+        return responses;
     }
 
     /**
-     * Validate the cutting request.
+     * Save the sheets of a streamed order one at a time, each detached once it is written, so
+     * the persistence context never holds the placements of more than one sheet however large
+     * the plan; then record the offcuts as remnants. The response leaves out the placements.
      */
-    private void validateRequest(CutRequestDTO request) {
-        if (request.getElements() == null || request.getElements().isEmpty()) {
-            throw new CutOptimizationException("No elements provided for cutting");
+    private CutResponseDTO saveSheetBySheet(PackingWorkspace workspace, OrderPlan order) {
+        Set<Long> existingIds = existingIds(List.of(order));
+        List<CuttingSheet> sheets = newSheets(order);
+        int[] firstOfSheet = new int[order.layout.sheetCount() + 1];
+        int[] bySheet = placementsBySheet(order.layout, firstOfSheet);
+        for (int s = 0; s < sheets.size(); s++) {
+            CuttingSheet sheet = sheets.get(s);
+            for (int k = firstOfSheet[s]; k < firstOfSheet[s + 1]; k++) {
+                sheet.addPlacedElement(toPlacedElement(order.input, order.layout, bySheet[k], existingIds));
+            }
+            cuttingSheetRepository.insertAndDetach(sheet);
+            // Only the id of the written sheet is needed from here on
+            sheet.setPlacedElements(new ArrayList<>());
         }
+        remnantInventory.store(remnantInventory.offcuts(workspace, order.layout, sheets, properties.getRemnantMinSide()));
+        return toResponse(order, sheets, null);
+    }
 
-        // Check if any element is larger than the sheet in both dimensions (cannot fit either orientation)
-        for (FurnitureBodyDTO element : request.getElements()) {
-            if (element.getWidth() > request.getSheetWidth() &&
-                    element.getHeight() > request.getSheetHeight()) {
-                throw new CutOptimizationException(
-                        "Element " + element.getId() + " (" + element.getWidth() + "x" + element.getHeight() +
-                                ") is too large to fit on the sheet (" + request.getSheetWidth() + "x" + request.getSheetHeight() + ")"
-                );
+    /**
+     * The ids of the placed elements of all orders that are stored furniture bodies.
+     */
+    private Set<Long> existingIds(List<OrderPlan> orders) {
+        Set<Long> incomingIds = new HashSet<>();
+        for (OrderPlan order : orders) {
+            for (int i = 0; i < order.layout.count(); i++) {
+                incomingIds.add(order.input.boxedId(order.layout.element(i)));
             }
         }
+        return furnitureBodyCatalog.existingIds(incomingIds);
+    }
+
+    /**
+     * The response of a saved order.
+     *
+     * @param sheets the saved sheets, indexed like the layout's sheets
+     * @param placements the placements to list, or null to leave them out
+     */
+    private CutResponseDTO toResponse(OrderPlan order, List<CuttingSheet> sheets, List<PlacedElementDTO> placements) {
+        logger.info("Cut optimization completed successfully. Placed {} elements on {} sheet(s)",
+                order.layout.count(), sheets.size());
+
+        CutResponseDTO response = new CutResponseDTO(placements, toSheetSummaries(order.layout, sheets));
+        response.setGroups(toGroupDTOs(order.plans, order.request.getMultiSheet()));
+        if (order.algorithm == PackingAlgorithm.GUILLOTINE) {
+            response.setCuts(mergeCuts(order.plans));
+        }
+        setBounds(response, order.plans, Boolean.TRUE.equals(order.request.getMultiSheet()));
+        return response;
+    }
+
+    /**
+     * Pack the elements of one depth in the given workspace with the selected algorithm, on
+     * the sheet size of the request or on the cheapest boards of its stock, after filling
+     * remnants from stock when the request asks for it.
+     *
+     * @throws CutOptimizationException if an element could not be placed
+     */
+    private GroupPlan planGroup(PackingWorkspace workspace, CutRequestDTO request, List<CutElementDTO> elements,
+                                PackingAlgorithm algorithm, long searchMillis, CutProgress progress) {
+        PackingInput input = workspace.input();
+        input.load(elements);
+        int depth = elements.get(0).getDepth();
+
+        // Sort elements by height (descending) for better packing
+        workspace.sortByHeightDescending();
+
+        if (Boolean.TRUE.equals(request.getUseRemnants())) {
+            return planWithRemnants(workspace, request, algorithm, searchMillis, progress, depth);
+        }
+        return planBoards(workspace, request, algorithm, searchMillis, progress, depth);
     }
 
     /**
-     * Perform First Fit Decreasing Height (FFDH) bin packing algorithm.
-     * This is a shelf-based algorithm that creates horizontal levels.
+     * Pack the workspace input, in the workspace order, onto new boards: of the sheet size of the
+     * request or the cheapest of its stock.
+     *
+     * @throws CutOptimizationException if an element could not be placed
      */
-    private List<PlacedElementDTO> performFFDHPacking(
-            List<FurnitureBodyDTO> elements,
-            int sheetWidth,
-            int sheetHeight) {
+    private GroupPlan planBoards(PackingWorkspace workspace, CutRequestDTO request, PackingAlgorithm algorithm,
+                                 long searchMillis, CutProgress progress, int depth) {
+        PackingInput input = workspace.input();
+        int[] order = workspace.order();
 
-        List<PlacedElementDTO> placements = new ArrayList<>();
-        List<Level> levels = new ArrayList<>();
+        // Perform optimization using the selected algorithm
+        PackingLayout layout = workspace.layout();
+        boolean multiSheet = Boolean.TRUE.equals(request.getMultiSheet());
+        if (request.hasStock()) {
+            // Every candidate combination searches until the same deadline, so the stock plan as
+            // a whole stays within the time of the request
+            SearchBudget budget = searchBudget(algorithm, searchMillis, null);
+            double cost = stockSelector.select(workspace, stockFor(request, depth), multiSheet,
+                    (packingWorkspace, sheetWidth, sheetHeight, multi) -> packSheets(packingWorkspace, request, algorithm,
+                            budget != null ? budget.branch() : null, sheetWidth, sheetHeight, multi));
+            if (cost < 0) {
+                throw new CutOptimizationException("The stock cannot hold all elements of depth " + depth);
+            }
+            GroupPlan plan = new GroupPlan(depth, input, layout, null);
+            plan.stockCost = cost;
+            return plan;
+        }
+        packSheets(workspace, request, algorithm,
+                searchBudget(algorithm, searchMillis, progress != null ? progress.forGroup(depth, input) : null),
+                request.getSheetWidth(), request.getSheetHeight(), multiSheet);
 
-        for (FurnitureBodyDTO element : elements) {
-            boolean placed = false;
-            int elementWidth = element.getWidth();
-            int elementHeight = element.getHeight();
-            boolean rotated = false;
+        // Validate that all elements were placed
+        if (layout.count() != input.size()) {
+            throw unplacedElementException(input, order, layout);
+        }
 
-            // Try to place element in existing levels
-            for (Level level : levels) {
-                // Check if element fits in this level (original orientation)
-                if (elementWidth <= (sheetWidth - level.x) &&
-                        elementHeight <= level.height) {
+        GroupPlan plan = new GroupPlan(depth, input, layout,
+                LowerBounds.of(input, request.getSheetWidth(), request.getSheetHeight()));
+        if (algorithm == PackingAlgorithm.GUILLOTINE) {
+            plan.cuts = toCutDTOs(workspace.guillotinePacker());
+        }
+        return plan;
+    }
 
-                    placements.add(new PlacedElementDTO(
-                            element.getId(),
-                            level.x,
-                            level.y,
-                            elementWidth,
-                            elementHeight
-                    ));
+    /**
+     * Place what fits onto remnants from stock, then pack the rest onto new boards in a second
+     * workspace. The remnant sheets follow the new boards in the plan. Remnants claimed by a plan
+     * that fails are released again.
+     */
+    private GroupPlan planWithRemnants(PackingWorkspace workspace, CutRequestDTO request, PackingAlgorithm algorithm,
+                                       long searchMillis, CutProgress progress, int depth) {
+        PackingInput input = workspace.input();
+        int count = input.size();
+        PackingLayout onRemnants = new PackingLayout();
+        onRemnants.clear(count);
+        boolean[] placed = new boolean[count];
+        List<Remnant> claimed = fillRemnants(workspace, depth, onRemnants, placed);
+        if (claimed.isEmpty()) {
+            return planBoards(workspace, request, algorithm, searchMillis, progress, depth);
+        }
 
-                    level.x += elementWidth;
-                    placed = true;
-                    break;
+        try {
+            int[] order = workspace.order();
+            int[] rest = new int[count];
+            int restCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (!placed[order[i]]) {
+                    rest[restCount++] = order[i];
                 }
+            }
 
-                // Try rotated orientation (90 degrees)
-                if (elementHeight <= (sheetWidth - level.x) &&
-                        elementWidth <= level.height) {
-
-                    placements.add(new PlacedElementDTO(
-                            element.getId(),
-                            level.x,
-                            level.y,
-                            elementHeight,  // swapped
-                            elementWidth     // swapped
-                    ));
-
-                    level.x += elementHeight;
-                    placed = true;
-                    rotated = true;
-                    break;
+            PackingLayout layout = workspace.layout();
+            layout.clear(count);
+            Double stockCost = request.hasStock() ? 0.0 : null;
+            if (restCount > 0) {
+                PackingWorkspace restWorkspace = PackingWorkspace.acquire();
+                try {
+                    PackingInput restInput = restWorkspace.input();
+                    restInput.reset(restCount);
+                    for (int i = 0; i < restCount; i++) {
+                        restInput.set(i, input.id(rest[i]), input.width(rest[i]), input.height(rest[i]));
+                    }
+                    restWorkspace.orderAsGiven();
+                    GroupPlan restPlan = planBoards(restWorkspace, request, algorithm, searchMillis, progress, depth);
+                    PackingLayout restLayout = restPlan.layout;
+                    for (int s = 0; s < restLayout.sheetCount(); s++) {
+                        layout.addSheet(restLayout.sheetWidth(s), restLayout.sheetHeight(s));
+                    }
+                    for (int p = 0; p < restLayout.count(); p++) {
+                        layout.add(restLayout.sheet(p), rest[restLayout.element(p)], restLayout.x(p), restLayout.y(p),
+                                restLayout.width(p), restLayout.height(p));
+                    }
+                    stockCost = restPlan.stockCost;
+                } finally {
+                    restWorkspace.release();
                 }
             }
 
-            // If not placed, try to create a new level
-            if (!placed) {
-                int nextY = levels.isEmpty() ? 0 :
-                        levels.get(levels.size() - 1).y + levels.get(levels.size() - 1).height;
+            int firstRemnantSheet = layout.sheetCount();
+            for (int s = 0; s < onRemnants.sheetCount(); s++) {
+                layout.addSheet(onRemnants.sheetWidth(s), onRemnants.sheetHeight(s));
+            }
+            for (int p = 0; p < onRemnants.count(); p++) {
+                layout.add(firstRemnantSheet + onRemnants.sheet(p), onRemnants.element(p), onRemnants.x(p),
+                        onRemnants.y(p), onRemnants.width(p), onRemnants.height(p));
+            }
 
-                // Try original orientation
-                if (elementWidth <= sheetWidth &&
-                        nextY + elementHeight <= sheetHeight) {
+            GroupPlan plan = new GroupPlan(depth, input, layout, null);
+            plan.stockCost = stockCost;
+            plan.remnants = claimed;
+            plan.firstRemnantSheet = firstRemnantSheet;
+            return plan;
+        } catch (RuntimeException e) {
+            remnantInventory.release(claimed);
+            throw e;
+        }
+    }
 
-                    Level newLevel = new Level(nextY, elementHeight);
-                    levels.add(newLevel);
+    /**
+     * Go through the elements in packing order and claim, for each one that is not placed yet,
+     * the smallest remnant of its depth that holds it; the remnant is then filled with the
+     * pending elements by MaxRects best area fit, which puts the claiming element first.
+     *
+     * @return the claimed remnants, one sheet of {@code onRemnants} each
+     */
+    private List<Remnant> fillRemnants(PackingWorkspace workspace, int depth, PackingLayout onRemnants, boolean[] placed) {
+        PackingInput input = workspace.input();
+        int count = input.size();
+        int[] pending = Arrays.copyOf(workspace.order(), count);
+        int pendingCount = count;
+        PackingLayout scratch = workspace.stripLayout();
+        SheetPacker packer = workspace.packer(PackingAlgorithm.MAXRECTS_BAF);
+        List<Remnant> claimed = new ArrayList<>();
 
-                    placements.add(new PlacedElementDTO(
-                            element.getId(),
-                            0,
-                            nextY,
-                            elementWidth,
-                            elementHeight
-                    ));
+        // Elements before i fit no remnant that was in stock when they were tried; remnants released
+        // or stored by other plans meanwhile may still take some of them with a later element
+        int i = 0;
+        while (i < pendingCount) {
+            int element = pending[i];
+            Remnant remnant = remnantInventory.claim(depth, input.width(element), input.height(element));
+            if (remnant == null) {
+                i++;
+                continue;
+            }
+            claimed.add(remnant);
+            scratch.clear(pendingCount);
+            scratch.addSheet(remnant.getWidth(), remnant.getHeight());
+            packer.pack(input, pending, pendingCount, remnant.getWidth(), remnant.getHeight(), scratch);
 
-                    newLevel.x = elementWidth;
-                    placed = true;
+            int sheet = onRemnants.addSheet(remnant.getWidth(), remnant.getHeight());
+            for (int p = 0; p < scratch.count(); p++) {
+                onRemnants.add(sheet, scratch.element(p), scratch.x(p), scratch.y(p), scratch.width(p), scratch.height(p));
+                placed[scratch.element(p)] = true;
+            }
+            // Compact from the start, so an element placed from before i cannot be placed again
+            int left = 0;
+            int next = 0;
+            for (int j = 0; j < pendingCount; j++) {
+                if (j == i) {
+                    next = left;
                 }
-                // Try rotated orientation
-                else if (elementHeight <= sheetWidth &&
-                        nextY + elementWidth <= sheetHeight) {
-
-                    Level newLevel = new Level(nextY, elementWidth);
-                    levels.add(newLevel);
-
-                    placements.add(new PlacedElementDTO(
-                            element.getId(),
-                            0,
-                            nextY,
-                            elementHeight,  // swapped
-                            elementWidth     // swapped
-                    ));
-
-                    newLevel.x = elementHeight;
-                    placed = true;
-                    rotated = true;
+                if (!placed[pending[j]]) {
+                    pending[left++] = pending[j];
                 }
             }
+            i = next;
+            pendingCount = left;
+        }
+        if (!claimed.isEmpty()) {
+            logger.info("Placed {} of {} elements of depth {} on {} remnant(s)",
+                    onRemnants.count(), count, depth, claimed.size());
+        }
+        return claimed;
+    }
 
-            if (!placed) {
-                logger.warn("Failed to place element {} ({}x{})",
-                        element.getId(), elementWidth, elementHeight);
-                throw new CutOptimizationException(
-                        "Cannot fit element " + element.getId() + " (" +
-                                elementWidth + "x" + elementHeight + ") on the remaining sheet space"
-                );
+    /**
+     * The search budget of one packing: {@code searchMillis} from now, or the default budget of
+     * the exact and portfolio solvers when the request asks for no search; {@code null} when the
+     * algorithm does not search at all. Improvements are reported to {@code search}, if given.
+     */
+    private SearchBudget searchBudget(PackingAlgorithm algorithm, long searchMillis, SearchProgress search) {
+        if (algorithm == PackingAlgorithm.EXACT) {
+            return SearchBudget.ofMillis(searchMillis > 0 ? searchMillis : properties.getExactTimeBudgetMillis(), search);
+        }
+        if (algorithm == PackingAlgorithm.PORTFOLIO) {
+            return SearchBudget.ofMillis(searchMillis > 0 ? searchMillis : properties.getPortfolioTimeBudgetMillis(), search);
+        }
+        return searchMillis > 0 ? SearchBudget.ofMillis(searchMillis, search) : null;
+    }
+
+    /**
+     * Pack the workspace input, in the workspace order, onto sheets of the given size with the
+     * selected algorithm, searching for a better layout within {@code budget}, if given.
+     */
+    private void packSheets(PackingWorkspace workspace, CutRequestDTO request, PackingAlgorithm algorithm,
+                            SearchBudget budget, int sheetWidth, int sheetHeight, boolean multiSheet) {
+        PackingInput input = workspace.input();
+        PackingLayout layout = workspace.layout();
+        int[] order = workspace.order();
+        if (algorithm == PackingAlgorithm.GUILLOTINE) {
+            packGuillotine(workspace, request, sheetWidth, sheetHeight, multiSheet);
+        } else if (algorithm == PackingAlgorithm.EXACT) {
+            packExact(workspace, budget, sheetWidth, sheetHeight, multiSheet);
+        } else if (algorithm == PackingAlgorithm.PORTFOLIO) {
+            portfolioSolver.solve(workspace, multiSheet, sheetWidth, sheetHeight, budget);
+        } else if (multiSheet) {
+            multiSheetPacker.pack(workspace, algorithm, input.size(), sheetWidth, sheetHeight,
+                    budget, properties.getLocalSearchSeed());
+        } else {
+            layout.clear(input.size());
+            layout.addSheet(sheetWidth, sheetHeight);
+            if (algorithm == PackingAlgorithm.FFDH && input.size() >= properties.getPartitionThreshold()) {
+                partitionedStripPacker.packSheet(workspace, input.size(), sheetWidth, sheetHeight, layout);
+            } else {
+                workspace.packer(algorithm).pack(input, order, input.size(), sheetWidth, sheetHeight, layout);
+            }
+            if (budget != null && (algorithm == PackingAlgorithm.FFDH || algorithm == PackingAlgorithm.BFDH)) {
+                workspace.shelfImprover().improve(input, order, input.size(), layout, sheetHeight,
+                        budget, Long.MAX_VALUE, properties.getLocalSearchSeed());
             }
+        }
+    }
 
-            if (rotated) {
-                logger.debug("Element {} placed with rotation", element.getId());
+    /**
+     * The stock sizes usable for the given depth: those stocked in it and those without a depth.
+     */
+    private static List<StockSelector.Stock> stockFor(CutRequestDTO request, int depth) {
+        List<StockSelector.Stock> stock = new ArrayList<>();
+        for (StockSheetDTO sheet : request.getStock()) {
+            if (sheet.getDepth() == null || sheet.getDepth() == depth) {
+                stock.add(new StockSelector.Stock(
+                        sheet.getWidth(),
+                        sheet.getHeight(),
+                        sheet.getCount() != null ? sheet.getCount() : Integer.MAX_VALUE,
+                        sheet.getCost() != null ? sheet.getCost() : (double) sheet.getWidth() * sheet.getHeight() / 1_000_000
+                ));
             }
         }
+        if (stock.isEmpty()) {
+            throw new CutOptimizationException("No stock sheet is available for depth " + depth);
+        }
+        return stock;
+    }
 
-        CuttingSheet sheet = new CuttingSheet();
-        sheet.setWidth(sheetWidth);
-        sheet.setHeight(sheetHeight);
+    /**
+     * Plan every depth group in its own task on the cut optimization pool. The first failing
+     * group, in depth order, fails the request.
+     */
+    private List<GroupPlan> planGroupsConcurrently(CutRequestDTO request, List<List<CutElementDTO>> groups,
+                                                   PackingAlgorithm algorithm, long searchMillis, CutProgress progress) {
+        List<ForkJoinTask<GroupPlan>> tasks = new ArrayList<>(groups.size());
+        for (List<CutElementDTO> group : groups) {
+            tasks.add(ForkJoinTask.adapt(() -> {
+                PackingWorkspace workspace = PackingWorkspace.acquire();
+                try {
+                    return planGroup(workspace, request, group, algorithm, searchMillis, progress).detach();
+                } catch (RuntimeException e) {
+                    return new GroupPlan(e);
+                } finally {
+                    workspace.release();
+                }
+            }));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
 
-        List<PlacedElement> placedEntities = new ArrayList<>();
+        List<GroupPlan> plans = new ArrayList<>(tasks.size());
+        RuntimeException failure = null;
+        for (ForkJoinTask<GroupPlan> task : tasks) {
+            GroupPlan plan = task.join();
+            if (plan.failure != null) {
+                failure = failure != null ? failure : plan.failure;
+            } else {
+                plans.add(plan);
+            }
+        }
+        if (failure != null) {
+            remnantInventory.release(claimedRemnants(plans));
+            throw failure;
+        }
+        return plans;
+    }
 
-        for(PlacedElementDTO dto: placements) {
-            PlacedElement entity = new PlacedElement();
+    /**
+     * Split the elements by depth, in increasing depth order.
+     */
+    private static List<List<CutElementDTO>> groupByDepth(List<CutElementDTO> elements) {
+        Map<Integer, List<CutElementDTO>> groups = new TreeMap<>();
+        for (CutElementDTO element : elements) {
+            groups.computeIfAbsent(element.getDepth(), depth -> new ArrayList<>()).add(element);
+        }
+        return new ArrayList<>(groups.values());
+    }
 
-            Long incomingId = dto.getId();
+    /**
+     * Concatenate the group plans into one input and one layout; the sheets of every group
+     * follow those of the groups before it.
+     */
+    private static void mergePlans(List<GroupPlan> plans, PackingInput input, PackingLayout layout) {
+        int total = 0;
+        for (GroupPlan plan : plans) {
+            total += plan.input.size();
+        }
+        input.reset(total);
+        layout.clear(total);
+        int elementOffset = 0;
+        for (GroupPlan plan : plans) {
+            plan.firstSheet = layout.sheetCount();
+            for (int i = 0; i < plan.input.size(); i++) {
+                input.set(elementOffset + i, plan.input.id(i), plan.input.width(i), plan.input.height(i));
+            }
+            for (int s = 0; s < plan.layout.sheetCount(); s++) {
+                layout.addSheet(plan.layout.sheetWidth(s), plan.layout.sheetHeight(s));
+            }
+            for (int p = 0; p < plan.layout.count(); p++) {
+                layout.add(plan.firstSheet + plan.layout.sheet(p), elementOffset + plan.layout.element(p),
+                        plan.layout.x(p), plan.layout.y(p), plan.layout.width(p), plan.layout.height(p));
+            }
+            elementOffset += plan.input.size();
+        }
+    }
 
-            if (incomingId != null && furnitureBodyRepository.existsById(incomingId)) {
-                entity.setFurnitureBodyId(incomingId);
-            } else {
-                entity.setFurnitureBodyId(null);
+    /**
+     * Renumber the cuts of the group plans to the merged sheets and cut list.
+     */
+    private static List<GuillotineCutDTO> mergeCuts(List<GroupPlan> plans) {
+        List<GuillotineCutDTO> cuts = new ArrayList<>();
+        for (GroupPlan plan : plans) {
+            int cutOffset = cuts.size();
+            for (GuillotineCutDTO cut : plan.cuts) {
+                cut.setIndex(cut.getIndex() + cutOffset);
+                if (cut.getParentIndex() != null) {
+                    cut.setParentIndex(cut.getParentIndex() + cutOffset);
+                }
+                cut.setSheetIndex(cut.getSheetIndex() + plan.firstSheet);
+                cuts.add(cut);
             }
+        }
+        return cuts;
+    }
 
-            entity.setX(dto.getX());
-            entity.setY(dto.getY());
-            entity.setWidth(dto.getWidth());
-            entity.setHeight(dto.getHeight());
+    /**
+     * Add the panels of the furniture bodies of the request to its elements; all bodies are
+     * looked up at once.
+     *
+     * @throws CutOptimizationException if a body does not exist or is too small for its panels, or the
+     *         request has more than {@code furniture.cut.max-parts} parts
+     */
+    private void addBodyPanels(CutRequestDTO request) {
+        List<Long> ids = new ArrayList<>(request.getBodies().size());
+        for (CutBodyDTO requested : request.getBodies()) {
+            ids.add(requested.getId());
+        }
+        Map<Long, FurnitureBodyCatalog.Body> bodies = furnitureBodyCatalog.findAll(ids);
+        int thickness = request.getPanelThickness() != null ? request.getPanelThickness() : properties.getPanelThickness();
 
-            entity.setCuttingSheet(sheet);
-            placedEntities.add(entity);
-            logger.debug("Saving placement: FurnitureID={} at X={}, Y={}", dto.getId(), dto.getX(), dto.getY());
+        List<CutElementDTO> elements = new ArrayList<>();
+        if (request.getElements() != null) {
+            elements.addAll(request.getElements());
+        }
+        long parts = PackingInput.copyCount(elements);
+        for (CutBodyDTO requested : request.getBodies()) {
+            parts += (long) PanelExplosion.PANELS_PER_BODY * requested.copies();
         }
-        sheet.setPlacedElements(placedEntities);
+        PackingInput.checkPartCount(parts, properties.getMaxParts());
 
-        cuttingSheetRepository.save(sheet);
+        int given = elements.size();
+        for (CutBodyDTO requested : request.getBodies()) {
+            FurnitureBodyCatalog.Body body = bodies.get(requested.getId());
+            if (body == null) {
+                throw new CutOptimizationException("Furniture body not found with id: " + requested.getId());
+            }
+            elements.addAll(PanelExplosion.explode(body, requested.copies(), thickness));
+        }
+        request.setElements(elements);
+        logger.info("Exploded {} furniture bodies into {} panel elements", request.getBodies().size(), elements.size() - given);
+    }
 
-        return placements;
+    /**
+     * Validate the cutting request.
+     */
+    private void validateRequest(CutRequestDTO request) {
+        if (request.getElements() == null || request.getElements().isEmpty()) {
+            throw new CutOptimizationException("No elements provided for cutting");
+        }
+
+        if (request.hasStock() && request.getAlgorithm() == PackingAlgorithm.GUILLOTINE) {
+            throw new CutOptimizationException("Stock selection is not available for guillotine plans");
+        }
+
+        if (Boolean.TRUE.equals(request.getUseRemnants()) && request.getAlgorithm() == PackingAlgorithm.GUILLOTINE) {
+            throw new CutOptimizationException("Remnant reuse is not available for guillotine plans");
+        }
+
+        for (CutElementDTO element : request.getElements()) {
+            if (element.copies() < 1) {
+                throw new CutOptimizationException("Element " + element.getId() + " has a quantity below one");
+            }
+        }
+
+        PackingInput.checkPartCount(PackingInput.copyCount(request.getElements()), properties.getMaxParts());
     }
 
     /**
-     * Validate that placements don't overlap and are within sheet bounds.
-     * This is a safety check for the algorithm.
-     */
-    private void validatePlacements(List<PlacedElementDTO> placements, int sheetWidth, int sheetHeight) {
-        for (int i = 0; i < placements.size(); i++) {
-            PlacedElementDTO p1 = placements.get(i);
-
-            // Check bounds
-            if (p1.getX() < 0 || p1.getY() < 0 ||
-                    p1.getX() + p1.getWidth() > sheetWidth ||
-                    p1.getY() + p1.getHeight() > sheetHeight) {
-                throw new CutOptimizationException(
-                        "Element " + p1.getId() + " is out of sheet bounds"
+     * Time the request allows for improving the layout by search, capped by {@code furniture.cut.max-search-millis};
+     * 0 when it asks for none.
+     */
+    private long searchMillis(CutRequestDTO request) {
+        if (request.getMaxMillis() == null) {
+            return 0;
+        }
+        return Math.min(request.getMaxMillis(), properties.getMaxSearchMillis());
+    }
+
+    /**
+     * Pack with the guillotine engine, which places multi-sheet orders sheet by sheet itself
+     * so that every sheet gets a complete cut tree.
+     */
+    private void packGuillotine(PackingWorkspace workspace, CutRequestDTO request, int sheetWidth, int sheetHeight,
+                                boolean multiSheet) {
+        PackingInput input = workspace.input();
+        PackingLayout layout = workspace.layout();
+        GuillotinePacker packer = workspace.guillotinePacker();
+        packer.configure(
+                request.getKerf() != null ? request.getKerf() : 0,
+                request.getEdgeTrim() != null ? request.getEdgeTrim() : 0
+        );
+        layout.clear(input.size());
+        if (multiSheet) {
+            packer.packSheets(input, workspace.order(), input.size(), sheetWidth, sheetHeight, layout);
+        } else {
+            layout.addSheet(sheetWidth, sheetHeight);
+            packer.pack(input, workspace.order(), input.size(), sheetWidth, sheetHeight, layout);
+        }
+    }
+
+    /**
+     * Pack with FFDH as the incumbent and let the exact solver improve it within the node and time budget.
+     */
+    private void packExact(PackingWorkspace workspace, SearchBudget budget, int sheetWidth, int sheetHeight,
+                           boolean multiSheet) {
+        PackingInput input = workspace.input();
+        PackingLayout layout = workspace.layout();
+        if (multiSheet) {
+            multiSheetPacker.pack(workspace, PackingAlgorithm.FFDH, input.size(), sheetWidth, sheetHeight);
+        } else {
+            layout.clear(input.size());
+            layout.addSheet(sheetWidth, sheetHeight);
+            workspace.ffdhPacker().pack(input, workspace.order(), input.size(), sheetWidth, sheetHeight, layout);
+        }
+        workspace.exactSolver().solve(workspace, multiSheet, sheetWidth, sheetHeight, budget, properties.getExactMaxNodes());
+    }
+
+    /**
+     * Build the error for the first element, in packing order, that the packer had to leave out.
+     */
+    private CutOptimizationException unplacedElementException(PackingInput input, int[] order, PackingLayout layout) {
+        boolean[] placed = new boolean[input.size()];
+        for (int i = 0; i < layout.count(); i++) {
+            placed[layout.element(i)] = true;
+        }
+        for (int i = 0; i < input.size(); i++) {
+            int element = order[i];
+            if (!placed[element]) {
+                logger.warn("Failed to place element {} ({}x{})",
+                        input.boxedId(element), input.width(element), input.height(element));
+                return new CutOptimizationException(
+                        "Cannot fit element " + input.boxedId(element) + " (" +
+                                input.width(element) + "x" + input.height(element) + ") on the remaining sheet space"
                 );
             }
+        }
+        return new CutOptimizationException(
+                "Failed to place all elements. " +
+                        layout.count() + " of " + input.size() + " elements were placed."
+        );
+    }
+
+    /**
+     * Materialize the placements of a layout as DTOs, in placement order.
+     */
+    private List<PlacedElementDTO> toPlacementDTOs(PackingInput input, PackingLayout layout) {
+        List<PlacedElementDTO> placements = new ArrayList<>(layout.count());
+        for (int i = 0; i < layout.count(); i++) {
+            placements.add(new PlacedElementDTO(
+                    input.boxedId(layout.element(i)),
+                    layout.x(i),
+                    layout.y(i),
+                    layout.width(i),
+                    layout.height(i),
+                    layout.sheet(i)
+            ));
+        }
+        return placements;
+    }
+
+    /**
+     * Materialize the cuts recorded by the guillotine engine as DTOs, in cutting order.
+     */
+    static List<GuillotineCutDTO> toCutDTOs(GuillotinePacker packer) {
+        List<GuillotineCutDTO> cuts = new ArrayList<>(packer.cutCount());
+        for (int c = 0; c < packer.cutCount(); c++) {
+            int parent = packer.cutParent(c);
+            cuts.add(new GuillotineCutDTO(
+                    c,
+                    parent >= 0 ? parent : null,
+                    packer.cutSheet(c),
+                    packer.cutOrientation(c) == GuillotinePacker.HORIZONTAL
+                            ? GuillotineCutDTO.Orientation.HORIZONTAL : GuillotineCutDTO.Orientation.VERTICAL,
+                    packer.cutPosition(c),
+                    packer.cutFrom(c),
+                    packer.cutTo(c)
+            ));
+        }
+        return cuts;
+    }
+
+    /**
+     * Summarize every sheet of the layout: placed count and the share of its area covered by placements.
+     */
+    private List<SheetSummaryDTO> toSheetSummaries(PackingLayout layout, List<CuttingSheet> sheets) {
+        int[] placedCount = new int[layout.sheetCount()];
+        long[] placedArea = new long[layout.sheetCount()];
+        for (int i = 0; i < layout.count(); i++) {
+            placedCount[layout.sheet(i)]++;
+            placedArea[layout.sheet(i)] += (long) layout.width(i) * layout.height(i);
+        }
 
-            // Check overlaps
-            for (int j = i + 1; j < placements.size(); j++) {
-                PlacedElementDTO p2 = placements.get(j);
+        List<SheetSummaryDTO> summaries = new ArrayList<>(layout.sheetCount());
+        for (int s = 0; s < layout.sheetCount(); s++) {
+            long sheetArea = (long) layout.sheetWidth(s) * layout.sheetHeight(s);
+            summaries.add(new SheetSummaryDTO(
+                    s,
+                    sheets.get(s).getId(),
+                    layout.sheetWidth(s),
+                    layout.sheetHeight(s),
+                    sheets.get(s).getDepth(),
+                    placedCount[s],
+                    sheetArea > 0 ? (double) placedArea[s] / sheetArea : 0.0
+            ));
+            summaries.get(s).setRemnantId(sheets.get(s).getRemnantId());
+        }
+        return summaries;
+    }
+
+    /**
+     * Describe the plan of every depth group: its sheets and how far it is from its lower bounds.
+     */
+    private List<MaterialGroupDTO> toGroupDTOs(List<GroupPlan> plans, Boolean multiSheet) {
+        List<MaterialGroupDTO> groups = new ArrayList<>(plans.size());
+        for (GroupPlan plan : plans) {
+            List<Integer> sheetIndexes = new ArrayList<>(plan.layout.sheetCount());
+            for (int s = 0; s < plan.layout.sheetCount(); s++) {
+                sheetIndexes.add(plan.firstSheet + s);
+            }
+            MaterialGroupDTO group = new MaterialGroupDTO(plan.depth, plan.layout.count(), sheetIndexes);
+            if (plan.bounds != null) {
+                group.setSheetCountLowerBound(plan.bounds.sheetCount());
+                group.setHeightLowerBound(plan.bounds.stripHeight());
+                group.setOptimalityGap(plan.gap(Boolean.TRUE.equals(multiSheet)));
+            }
+            group.setStockCost(plan.stockCost);
+            groups.add(group);
+        }
+        return groups;
+    }
 
-                boolean overlap = !(p1.getX() + p1.getWidth() <= p2.getX() ||
-                        p2.getX() + p2.getWidth() <= p1.getX() ||
-                        p1.getY() + p1.getHeight() <= p2.getY() ||
-                        p2.getY() + p2.getHeight() <= p1.getY());
+    /**
+     * Report the lower bounds of the order and how far the layout is from them: the sheet
+     * bounds of the depth groups add up, the height bound and the gap are the largest of any group.
+     * Plans on stock boards or remnants have no bounds; stock plans report their total cost instead.
+     */
+    private void setBounds(CutResponseDTO response, List<GroupPlan> plans, boolean multiSheet) {
+        Double cost = null;
+        boolean bounded = true;
+        for (GroupPlan plan : plans) {
+            if (plan.stockCost != null) {
+                cost = (cost != null ? cost : 0) + plan.stockCost;
+            }
+            bounded &= plan.bounds != null;
+        }
+        response.setStockCost(cost);
+        if (!bounded) {
+            return;
+        }
+        int sheetCount = 0;
+        int stripHeight = 0;
+        double gap = 0;
+        for (GroupPlan plan : plans) {
+            sheetCount += plan.bounds.sheetCount();
+            stripHeight = Math.max(stripHeight, plan.bounds.stripHeight());
+            gap = Math.max(gap, plan.gap(multiSheet));
+        }
+        response.setSheetCountLowerBound(sheetCount);
+        response.setHeightLowerBound(stripHeight);
+        response.setOptimalityGap(gap);
+    }
 
-                if (overlap) {
-                    throw new CutOptimizationException(
-                            "Elements " + p1.getId() + " and " + p2.getId() + " overlap"
-                    );
+    /**
+     * Counting sort of the placements of the layout by sheet, keeping their order on each sheet.
+     *
+     * @param firstOfSheet filled with the position of the first placement of every sheet in the
+     *        result, and the placement count at the end; {@code sheetCount() + 1} long
+     * @return the placement indexes, sheet by sheet
+     */
+    private static int[] placementsBySheet(PackingLayout layout, int[] firstOfSheet) {
+        int sheetCount = layout.sheetCount();
+        for (int i = 0; i < layout.count(); i++) {
+            firstOfSheet[layout.sheet(i) + 1]++;
+        }
+        for (int sheet = 0; sheet < sheetCount; sheet++) {
+            firstOfSheet[sheet + 1] += firstOfSheet[sheet];
+        }
+        int[] next = Arrays.copyOf(firstOfSheet, sheetCount);
+        int[] bySheet = new int[layout.count()];
+        for (int i = 0; i < layout.count(); i++) {
+            bySheet[next[layout.sheet(i)]++] = i;
+        }
+        return bySheet;
+    }
+
+    /**
+     * Build the entity of every sheet of the order's layout with its placed elements.
+     *
+     * @param existingIds ids of the placed elements that are stored furniture bodies
+     * @return the sheets, indexed like the layout's sheets
+     */
+    private List<CuttingSheet> toCuttingSheets(OrderPlan order, Set<Long> existingIds) {
+        List<CuttingSheet> sheets = newSheets(order);
+        for (int i = 0; i < order.layout.count(); i++) {
+            sheets.get(order.layout.sheet(i)).addPlacedElement(toPlacedElement(order.input, order.layout, i, existingIds));
+        }
+        return sheets;
+    }
+
+    /**
+     * Build the entity of every sheet of the order's layout, with the depth of its group and the
+     * engine and cut settings it was planned with, but without placed elements.
+     *
+     * @return the sheets, indexed like the layout's sheets
+     */
+    private static List<CuttingSheet> newSheets(OrderPlan order) {
+        PackingLayout layout = order.layout;
+        boolean guillotine = order.algorithm == PackingAlgorithm.GUILLOTINE;
+        List<CuttingSheet> sheets = new ArrayList<>(layout.sheetCount());
+        for (GroupPlan plan : order.plans) {
+            for (int s = plan.firstSheet; s < plan.firstSheet + plan.layout.sheetCount(); s++) {
+                CuttingSheet sheet = new CuttingSheet();
+                sheet.setWidth(layout.sheetWidth(s));
+                sheet.setHeight(layout.sheetHeight(s));
+                sheet.setDepth(plan.depth);
+                sheet.setAlgorithm(order.algorithm);
+                if (guillotine) {
+                    sheet.setKerf(order.request.getKerf() != null ? order.request.getKerf() : 0);
+                    sheet.setEdgeTrim(order.request.getEdgeTrim() != null ? order.request.getEdgeTrim() : 0);
+                }
+                int remnant = s - plan.firstSheet - plan.firstRemnantSheet;
+                if (remnant >= 0) {
+                    sheet.setRemnantId(plan.remnants.get(remnant).getId());
                 }
+                sheets.add(sheet);
             }
         }
+        return sheets;
+    }
+
+    /**
+     * The entity of placement {@code i} of the layout.
+     *
+     * @param existingIds ids of the placed elements that are stored furniture bodies
+     */
+    private static PlacedElement toPlacedElement(PackingInput input, PackingLayout layout, int i, Set<Long> existingIds) {
+        PlacedElement entity = new PlacedElement();
+
+        Long incomingId = input.boxedId(layout.element(i));
+
+        if (existingIds.contains(incomingId)) {
+            entity.setFurnitureBodyId(incomingId);
+        } else {
+            entity.setFurnitureBodyId(null);
+        }
+
+        entity.setX(layout.x(i));
+        entity.setY(layout.y(i));
+        entity.setWidth(layout.width(i));
+        entity.setHeight(layout.height(i));
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Saving placement: FurnitureID={} on sheet {} at X={}, Y={}",
+                    incomingId, layout.sheet(i), layout.x(i), layout.y(i));
+        }
+        return entity;
+    }
+
+    /**
+     * The remnants claimed by all plans.
+     */
+    private static List<Remnant> claimedRemnants(List<GroupPlan> plans) {
+        List<Remnant> remnants = new ArrayList<>();
+        for (GroupPlan plan : plans) {
+            remnants.addAll(plan.remnants);
+        }
+        return remnants;
+    }
+
+    /**
+     * Validate that placements don't overlap and are within sheet bounds.
+     * This is a safety check for the algorithm; how much of it runs depends on
+     * {@code furniture.cut.validation-mode}.
+     */
+    private void validatePlacements(PackingInput input, PackingLayout layout) {
+        switch (properties.getValidationMode()) {
+            case OFF:
+                return;
+            case SAMPLED:
+                placementValidator.validateBounds(input, layout);
+                if (isSampled()) {
+                    placementValidator.validateOverlaps(input, layout);
+                }
+                return;
+            default:
+                placementValidator.validate(input, layout);
+        }
+    }
+
+    /**
+     * Decide whether the current layout is part of the overlap-checked sample.
+     */
+    private boolean isSampled() {
+        double rate = properties.getValidationSampleRate();
+        if (rate <= 0) {
+            return false;
+        }
+        long interval = Math.max(1, Math.round(1 / rate));
+        return validationCounter.getAndIncrement() % interval == 0;
+    }
+
+    /**
+     * A cutting plan made by {@link #plan} that is still to be saved or discarded, exactly once.
+     */
+    public static final class PendingPlan {
+        private final OrderPlan order;
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private boolean streamed;
+
+        private PendingPlan(OrderPlan order) {
+            this.order = order;
+        }
+
+        /**
+         * @return false if the plan was saved or discarded before
+         */
+        private boolean settle() {
+            return settled.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * The orders of a batch made by {@link #planBatch} that are still to be saved or discarded, exactly once.
+     */
+    public static final class PendingBatch {
+        // The result of every order that could not be planned, null for the planned ones
+        private final List<CutBatchResultDTO> results;
+        private final List<OrderPlan> planned;
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private PendingBatch(List<CutBatchResultDTO> results, List<OrderPlan> planned) {
+            this.results = results;
+            this.planned = planned;
+        }
+
+        private List<Remnant> claimedRemnants() {
+            List<Remnant> claimed = new ArrayList<>();
+            for (OrderPlan order : planned) {
+                claimed.addAll(CutOptimizationService.claimedRemnants(order.plans));
+            }
+            return claimed;
+        }
+
+        /**
+         * @return false if the batch was saved or discarded before
+         */
+        private boolean settle() {
+            return settled.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * Packing result of one order before it is saved. Plans of batch orders are detached
+     * from the workspace of the pool worker that made them.
+     */
+    private static final class OrderPlan {
+        final CutRequestDTO request;
+        final PackingAlgorithm algorithm;
+        final PackingInput input;
+        final PackingLayout layout;
+        final List<GroupPlan> plans;
+        final RuntimeException failure;
+
+        OrderPlan(CutRequestDTO request, PackingAlgorithm algorithm, PackingInput input, PackingLayout layout,
+                  List<GroupPlan> plans) {
+            this.request = request;
+            this.algorithm = algorithm;
+            this.input = input;
+            this.layout = layout;
+            this.plans = plans;
+            this.failure = null;
+        }
+
+        OrderPlan(RuntimeException failure) {
+            this.request = null;
+            this.algorithm = null;
+            this.input = null;
+            this.layout = null;
+            this.plans = List.of();
+            this.failure = failure;
+        }
+
+        /**
+         * A copy that no longer refers to the buffers of a workspace.
+         */
+        OrderPlan detach() {
+            PackingInput inputCopy = new PackingInput();
+            inputCopy.copyFrom(input);
+            PackingLayout layoutCopy = new PackingLayout();
+            layoutCopy.copyFrom(layout);
+            List<GroupPlan> planCopies = new ArrayList<>(plans.size());
+            for (GroupPlan plan : plans) {
+                GroupPlan copy = plan.detach();
+                copy.firstSheet = plan.firstSheet;
+                planCopies.add(copy);
+            }
+            return new OrderPlan(request, algorithm, inputCopy, layoutCopy, planCopies);
+        }
+    }
+
+    /**
+     * Packing result of the elements of one depth. Plans made on pool workers hold copies of
+     * the worker's input and layout.
+     */
+    private static final class GroupPlan {
+        final int depth;
+        final PackingInput input;
+        final PackingLayout layout;
+        final LowerBounds bounds;
+        final RuntimeException failure;
+        List<GuillotineCutDTO> cuts;
+        Double stockCost;
+        List<Remnant> remnants = List.of();
+        int firstRemnantSheet = Integer.MAX_VALUE;
+        int firstSheet;
+
+        /**
+         * @param bounds lower bounds of the group, {@code null} for plans on stock boards of several sizes or on remnants
+         */
+        GroupPlan(int depth, PackingInput input, PackingLayout layout, LowerBounds bounds) {
+            this.depth = depth;
+            this.input = input;
+            this.layout = layout;
+            this.bounds = bounds;
+            this.failure = null;
+        }
+
+        GroupPlan(RuntimeException failure) {
+            this.depth = 0;
+            this.input = null;
+            this.layout = null;
+            this.bounds = null;
+            this.failure = failure;
+        }
+
+        /**
+         * A copy that no longer refers to the buffers of a workspace.
+         */
+        GroupPlan detach() {
+            PackingInput inputCopy = new PackingInput();
+            inputCopy.copyFrom(input);
+            PackingLayout layoutCopy = new PackingLayout();
+            layoutCopy.copyFrom(layout);
+            GroupPlan copy = new GroupPlan(depth, inputCopy, layoutCopy, bounds);
+            copy.cuts = cuts;
+            copy.stockCost = stockCost;
+            copy.remnants = remnants;
+            copy.firstRemnantSheet = firstRemnantSheet;
+            return copy;
+        }
+
+        double gap(boolean multiSheet) {
+            return bounds.gap(PackingScore.of(layout), multiSheet);
+        }
     }
-}
\ No newline at end of file
+}
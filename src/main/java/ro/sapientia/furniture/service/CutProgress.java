@@ -0,0 +1,95 @@
+package ro.sapientia.furniture.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import ro.sapientia.furniture.model.dto.CutJobStatus;
+import ro.sapientia.furniture.model.dto.CutProgressDTO;
+import ro.sapientia.furniture.model.dto.PlacedElementDTO;
+
+/**
+ * Progress of one running cut job. The searches of every depth group report their improvements
+ * here; at most one report per interval is turned into a {@link CutProgressDTO} and handed to
+ * the sink, the others are dropped, so searches that improve many times a second cost a
+ * timestamp check per improvement. A published layout is copied into its message before the
+ * search goes on. Safe to use from the threads of concurrent group searches.
+ */
+public final class CutProgress {
+
+    private final String jobId;
+
+    private final long intervalNanos;
+
+    private final Consumer<CutProgressDTO> sink;
+
+    private final long start = System.nanoTime();
+
+    private final AtomicLong nextDue = new AtomicLong(start);
+
+    CutProgress(String jobId, long intervalMillis, Consumer<CutProgressDTO> sink) {
+        this.jobId = jobId;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, intervalMillis));
+        this.sink = sink;
+    }
+
+    String jobId() {
+        return jobId;
+    }
+
+    long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * The progress of the search for one depth group, whose layouts refer to the elements of {@code input}.
+     */
+    SearchProgress forGroup(int depth, PackingInput input) {
+        return new SearchProgress() {
+            @Override
+            public boolean isDue() {
+                return System.nanoTime() - nextDue.get() >= 0;
+            }
+
+            @Override
+            public void improved(PackingLayout best, double budgetUsed) {
+                long due = nextDue.get();
+                long now = System.nanoTime();
+                if (now - due < 0 || !nextDue.compareAndSet(due, now + intervalNanos)) {
+                    return;
+                }
+                sink.accept(toDTO(depth, input, best, budgetUsed));
+            }
+        };
+    }
+
+    private CutProgressDTO toDTO(int depth, PackingInput input, PackingLayout best, double budgetUsed) {
+        CutProgressDTO dto = new CutProgressDTO(jobId, CutJobStatus.RUNNING);
+        dto.setElapsedMillis(elapsedMillis());
+        dto.setDepth(depth);
+        dto.setBudgetUsed(budgetUsed);
+        if (best == null) {
+            return dto;
+        }
+        PackingScore score = PackingScore.of(best);
+        long placedArea = 0;
+        List<PlacedElementDTO> placements = new ArrayList<>(best.count());
+        for (int i = 0; i < best.count(); i++) {
+            placedArea += (long) best.width(i) * best.height(i);
+            placements.add(new PlacedElementDTO(input.boxedId(best.element(i)), best.x(i), best.y(i),
+                    best.width(i), best.height(i), best.sheet(i)));
+        }
+        long usedArea = 0;
+        for (int s = 0; s < score.sheetCount(); s++) {
+            usedArea += (long) best.sheetWidth(s) * (s < score.sheetCount() - 1 ? best.sheetHeight(s) : score.lastSheetHeight());
+        }
+        dto.setPlacedCount(score.placedCount());
+        dto.setSheetCount(score.sheetCount());
+        dto.setUsedHeight(score.lastSheetHeight());
+        dto.setUtilization(usedArea > 0 ? (double) placedArea / usedArea : 0.0);
+        dto.setPlacements(placements);
+        return dto;
+    }
+}
@@ -0,0 +1,68 @@
+package ro.sapientia.furniture.service;
+
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import ro.sapientia.furniture.config.CutOptimizationProperties;
+import ro.sapientia.furniture.exception.CutOptimizationException;
+import ro.sapientia.furniture.exception.InfeasibleCutException;
+import ro.sapientia.furniture.model.dto.CutJobStatus;
+import ro.sapientia.furniture.model.dto.CutProgressDTO;
+import ro.sapientia.furniture.util.AppLogger;
+
+/**
+ * Sends the progress of cut jobs over STOMP to {@code /topic/cut-jobs/{jobId}}: the status
+ * changes of a job and, while it runs, the best layouts of its searches at most once per
+ * {@code furniture.cut.progress-interval-millis}. Messages nobody subscribed to are dropped by
+ * the broker, and a broker that fails never fails the job.
+ */
+@Service
+public class CutProgressPublisher {
+
+    public static final String DESTINATION_PREFIX = "/topic/cut-jobs/";
+
+    private static final AppLogger logger = AppLogger.getLogger(CutProgressPublisher.class);
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    private final CutOptimizationProperties properties;
+
+    public CutProgressPublisher(SimpMessageSendingOperations messagingTemplate, CutOptimizationProperties properties) {
+        this.messagingTemplate = messagingTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Announce that a worker started the job.
+     *
+     * @return the progress its searches report to
+     */
+    public CutProgress started(String jobId) {
+        send(new CutProgressDTO(jobId, CutJobStatus.RUNNING));
+        return new CutProgress(jobId, properties.getProgressIntervalMillis(), this::send);
+    }
+
+    /**
+     * Announce the status a job ended up in after its run: {@code DONE}, {@code FAILED} with
+     * the error of a cutting failure, or {@code QUEUED} again after an unexpected error.
+     */
+    public void finished(CutProgress progress, CutJobStatus status, RuntimeException failure) {
+        CutProgressDTO dto = new CutProgressDTO(progress.jobId(), status);
+        dto.setElapsedMillis(progress.elapsedMillis());
+        if (status == CutJobStatus.FAILED && failure instanceof CutOptimizationException) {
+            dto.setError(failure.getMessage());
+            if (failure instanceof InfeasibleCutException) {
+                dto.setCode(((InfeasibleCutException) failure).getCode().name());
+            }
+        }
+        send(dto);
+    }
+
+    private void send(CutProgressDTO dto) {
+        try {
+            messagingTemplate.convertAndSend(DESTINATION_PREFIX + dto.getJobId(), dto);
+        } catch (RuntimeException e) {
+            logger.warn("Could not send the progress of cut job {}: {}", dto.getJobId(), e.getMessage());
+        }
+    }
+}
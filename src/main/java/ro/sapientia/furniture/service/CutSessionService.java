@@ -0,0 +1,364 @@
+package ro.sapientia.furniture.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ro.sapientia.furniture.config.CutOptimizationProperties;
+import ro.sapientia.furniture.exception.CutOptimizationException;
+import ro.sapientia.furniture.exception.CutSessionNotFoundException;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
+import ro.sapientia.furniture.model.dto.CutSessionDTO;
+import ro.sapientia.furniture.model.dto.CutSessionRequestDTO;
+import ro.sapientia.furniture.model.dto.PlacedElementDTO;
+import ro.sapientia.furniture.model.dto.SheetSummaryDTO;
+import ro.sapientia.furniture.model.entities.CuttingSheet;
+import ro.sapientia.furniture.model.entities.PlacedElement;
+import ro.sapientia.furniture.repository.CuttingSheetRepository;
+import ro.sapientia.furniture.util.AppLogger;
+
+/**
+ * Online cutting sessions: parts are pushed as they arrive and placed at once by an
+ * {@link OnlineShelfPacker}, without repacking the parts already placed.
+ *
+ * A session keeps at most {@code furniture.cut.session-max-open-sheets} sheets open; when a
+ * part needs one more, the oldest open sheet counts as full and is closed, saved as a cutting
+ * sheet and its offcuts go into the {@link RemnantInventory}. Closing the session saves the
+ * sheets still open. The session forgets the placements of saved sheets, and a closed session
+ * goes away, only when the transaction commits; if it rolls back, the sheets are saved again
+ * by the next call on the session. Sessions live in memory on the instance that opened them;
+ * sessions idle for longer than {@code furniture.cut.session-idle-timeout-millis} are closed
+ * by the {@link CutSessionSweeper}. Calls on one session are serialized, different sessions
+ * run concurrently.
+ */
+@Service
+public class CutSessionService {
+
+    private static final AppLogger logger = AppLogger.getLogger(CutSessionService.class);
+
+    private final CuttingSheetRepository cuttingSheetRepository;
+
+    private final FurnitureBodyCatalog furnitureBodyCatalog;
+
+    private final RemnantInventory remnantInventory;
+
+    private final CutOptimizationProperties properties;
+
+    private final Map<String, CutSession> sessions = new ConcurrentHashMap<>();
+
+    public CutSessionService(CuttingSheetRepository cuttingSheetRepository, FurnitureBodyCatalog furnitureBodyCatalog,
+                             RemnantInventory remnantInventory, CutOptimizationProperties properties) {
+        this.cuttingSheetRepository = cuttingSheetRepository;
+        this.furnitureBodyCatalog = furnitureBodyCatalog;
+        this.remnantInventory = remnantInventory;
+        this.properties = properties;
+    }
+
+    /**
+     * Open a session for the sheet size and depth of the request.
+     */
+    public CutSessionDTO open(CutSessionRequestDTO request) {
+        int depth = request.getDepth() != null ? request.getDepth() : 0;
+        CutSession session = new CutSession(UUID.randomUUID().toString(),
+                new OnlineShelfPacker(request.getSheetWidth(), request.getSheetHeight()), depth);
+        sessions.put(session.id, session);
+        logger.info("Opened cutting session {} for {}x{} sheets of depth {}",
+                session.id, request.getSheetWidth(), request.getSheetHeight(), depth);
+        return toDTO(session, List.of(), List.of());
+    }
+
+    /**
+     * Place parts in the session, in the given order, closing and saving the sheets that fill up.
+     * Either all parts are placed or, when one of them can never fit, none is. If saving the
+     * sheets fails, the parts stay placed and their sheets are saved by the next call.
+     *
+     * @return the placements of the parts and the sheets closed on the way
+     * @throws CutSessionNotFoundException if the session does not exist or was closed
+     * @throws CutOptimizationException if a part has another depth or is larger than the sheet, or
+     *         there are more than {@code furniture.cut.max-parts} parts
+     */
+    @Transactional
+    public CutSessionDTO addParts(String sessionId, List<CutElementDTO> elements) {
+        CutSession session = find(sessionId);
+        synchronized (session) {
+            if (session.closed) {
+                throw new CutSessionNotFoundException(sessionId);
+            }
+            checkParts(session, elements);
+
+            OnlineShelfPacker packer = session.packer;
+            int maxOpenSheets = Math.max(1, properties.getSessionMaxOpenSheets());
+            List<PlacedElementDTO> placements = new ArrayList<>();
+            for (CutElementDTO element : elements) {
+                for (int copy = element.copies(); copy > 0; copy--) {
+                    packer.place(element.getWidth(), element.getHeight());
+                    if (packer.lastSheet() == session.sheets.size()) {
+                        session.sheets.add(new ArrayList<>());
+                    }
+                    PlacedElementDTO placement = new PlacedElementDTO(element.getId(), packer.lastX(), packer.lastY(),
+                            packer.lastWidth(), packer.lastHeight(), packer.lastSheet());
+                    session.sheets.get(packer.lastSheet()).add(placement);
+                    placements.add(placement);
+
+                    while (packer.openSheetCount() > maxOpenSheets) {
+                        session.unsaved.add(session.closeOldest());
+                    }
+                }
+            }
+            session.placedCount += placements.size();
+            session.touch();
+
+            return toDTO(session, placements, saveSheets(session));
+        }
+    }
+
+    /**
+     * Close the session, saving the sheets still open.
+     *
+     * @return the sheets saved by closing
+     * @throws CutSessionNotFoundException if the session does not exist or was closed
+     */
+    @Transactional
+    public CutSessionDTO close(String sessionId) {
+        CutSession session = find(sessionId);
+        synchronized (session) {
+            if (session.closed) {
+                throw new CutSessionNotFoundException(sessionId);
+            }
+            return toDTO(session, List.of(), closeSession(session));
+        }
+    }
+
+    /**
+     * Close the session if no parts came for longer than {@code furniture.cut.session-idle-timeout-millis}.
+     *
+     * @return whether the session was closed
+     */
+    @Transactional
+    public boolean closeIfIdle(String sessionId) {
+        long timeout = properties.getSessionIdleTimeoutMillis();
+        CutSession session = sessions.get(sessionId);
+        if (timeout <= 0 || session == null) {
+            return false;
+        }
+        synchronized (session) {
+            long idle = System.currentTimeMillis() - session.lastUsed;
+            if (session.closed || idle <= timeout) {
+                return false;
+            }
+            logger.info("Closing cutting session {} after {} ms without parts", session.id, idle);
+            closeSession(session);
+            return true;
+        }
+    }
+
+    /**
+     * Ids of the open sessions on this instance.
+     */
+    public List<String> sessionIds() {
+        return new ArrayList<>(sessions.keySet());
+    }
+
+    /**
+     * Number of open sessions on this instance.
+     */
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    private CutSession find(String sessionId) {
+        CutSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new CutSessionNotFoundException(sessionId);
+        }
+        return session;
+    }
+
+    private void checkParts(CutSession session, List<CutElementDTO> elements) {
+        PackingInput.checkPartCount(PackingInput.copyCount(elements), properties.getMaxParts());
+        for (CutElementDTO element : elements) {
+            if (element.getDepth() != session.depth) {
+                throw new CutOptimizationException(String.format(
+                        "Element %d has depth %d, but the session cuts depth %d",
+                        element.getId(), element.getDepth(), session.depth));
+            }
+            if (!session.packer.fits(element.getWidth(), element.getHeight())) {
+                throw new CutOptimizationException(String.format(
+                        "Element %d (%dx%d) does not fit on the %dx%d sheet",
+                        element.getId(), element.getWidth(), element.getHeight(),
+                        session.packer.sheetWidth(), session.packer.sheetHeight()));
+            }
+        }
+    }
+
+    private List<SheetSummaryDTO> closeSession(CutSession session) {
+        while (session.packer.openSheetCount() > 0) {
+            session.unsaved.add(session.closeOldest());
+        }
+        // Refuse further calls at once, but keep the session until its sheets are saved
+        session.closed = true;
+        List<SheetSummaryDTO> saved;
+        try {
+            saved = saveSheets(session);
+        } catch (RuntimeException e) {
+            session.closed = false;
+            throw e;
+        }
+        TransactionCallbacks.onCompletion(() -> {
+            sessions.remove(session.id);
+            logger.info("Closed cutting session {}: {} part(s) on {} sheet(s)",
+                    session.id, session.placedCount, session.sheets.size());
+        }, () -> {
+            synchronized (session) {
+                session.closed = false;
+            }
+        });
+        return saved;
+    }
+
+    /**
+     * Save the closed sheets of the session that are not saved yet with their placements, in
+     * one call to the repository, and record their offcuts as remnants. The session forgets
+     * their placements once the transaction commits and saves them again if it rolls back.
+     */
+    private List<SheetSummaryDTO> saveSheets(CutSession session) {
+        if (session.unsaved.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> sheetIndexes = new ArrayList<>(session.unsaved);
+        OnlineShelfPacker packer = session.packer;
+        int count = 0;
+        Set<Long> incomingIds = new HashSet<>();
+        for (int sheetIndex : sheetIndexes) {
+            count += session.sheets.get(sheetIndex).size();
+            for (PlacedElementDTO placement : session.sheets.get(sheetIndex)) {
+                incomingIds.add(placement.getId());
+            }
+        }
+        Set<Long> existingIds = furnitureBodyCatalog.existingIds(incomingIds);
+
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            PackingLayout layout = workspace.layout();
+            layout.clear(count);
+            List<CuttingSheet> sheets = new ArrayList<>(sheetIndexes.size());
+            List<SheetSummaryDTO> summaries = new ArrayList<>(sheetIndexes.size());
+            for (int sheetIndex : sheetIndexes) {
+                int layoutSheet = layout.addSheet(packer.sheetWidth(), packer.sheetHeight());
+                CuttingSheet sheet = new CuttingSheet();
+                sheet.setWidth(packer.sheetWidth());
+                sheet.setHeight(packer.sheetHeight());
+                sheet.setDepth(session.depth);
+
+                long placedArea = 0;
+                List<PlacedElementDTO> placements = session.sheets.get(sheetIndex);
+                for (PlacedElementDTO placement : placements) {
+                    Long incomingId = placement.getId();
+                    sheet.addPlacedElement(new PlacedElement(
+                            existingIds.contains(incomingId) ? incomingId : null,
+                            placement.getX(), placement.getY(), placement.getWidth(), placement.getHeight()));
+                    layout.add(layoutSheet, 0, placement.getX(), placement.getY(), placement.getWidth(), placement.getHeight());
+                    placedArea += (long) placement.getWidth() * placement.getHeight();
+                }
+                sheets.add(sheet);
+
+                long sheetArea = (long) packer.sheetWidth() * packer.sheetHeight();
+                summaries.add(new SheetSummaryDTO(sheetIndex, null, packer.sheetWidth(), packer.sheetHeight(),
+                        session.depth, placements.size(), (double) placedArea / sheetArea));
+            }
+
+            // Taken out of the session while saving, so a concurrent call cannot save them too
+            session.unsaved.clear();
+            try {
+                cuttingSheetRepository.saveAll(sheets);
+                remnantInventory.storeOffcuts(workspace, layout, sheets, properties.getRemnantMinSide());
+            } catch (RuntimeException e) {
+                session.unsaved.addAll(0, sheetIndexes);
+                throw e;
+            }
+            TransactionCallbacks.onCompletion(() -> {
+                // The session only needs the placements of open sheets
+                synchronized (session) {
+                    for (int sheetIndex : sheetIndexes) {
+                        session.sheets.set(sheetIndex, List.of());
+                    }
+                }
+            }, () -> {
+                synchronized (session) {
+                    session.unsaved.addAll(0, sheetIndexes);
+                }
+            });
+            for (int s = 0; s < sheets.size(); s++) {
+                summaries.get(s).setCuttingSheetId(sheets.get(s).getId());
+            }
+            logger.info("Cutting session {} saved {} full sheet(s)", session.id, sheets.size());
+            return summaries;
+        } finally {
+            workspace.release();
+        }
+    }
+
+    private static CutSessionDTO toDTO(CutSession session, List<PlacedElementDTO> placements, List<SheetSummaryDTO> closedSheets) {
+        CutSessionDTO dto = new CutSessionDTO();
+        dto.setSessionId(session.id);
+        dto.setSheetWidth(session.packer.sheetWidth());
+        dto.setSheetHeight(session.packer.sheetHeight());
+        dto.setDepth(session.depth);
+        dto.setPlacements(placements);
+        dto.setClosedSheets(closedSheets);
+        dto.setOpenSheetCount(session.packer.openSheetCount());
+        dto.setPlacedCount(session.placedCount);
+        dto.setClosed(session.closed);
+        return dto;
+    }
+
+    /**
+     * Packing state of one session; guarded by its own monitor.
+     */
+    private static final class CutSession {
+        final String id;
+        final OnlineShelfPacker packer;
+        final int depth;
+
+        // Placements per sheet of the session; emptied when the sheet is saved
+        final List<List<PlacedElementDTO>> sheets = new ArrayList<>();
+
+        // Sheets closed in the packer whose saving has not started or was rolled back
+        final List<Integer> unsaved = new ArrayList<>();
+
+        int oldestOpen;
+        int placedCount;
+        boolean closed;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        CutSession(String id, OnlineShelfPacker packer, int depth) {
+            this.id = id;
+            this.packer = packer;
+            this.depth = depth;
+        }
+
+        /**
+         * Close the oldest open sheet in the packer.
+         *
+         * @return its index
+         */
+        int closeOldest() {
+            while (!packer.isOpen(oldestOpen)) {
+                oldestOpen++;
+            }
+            packer.closeSheet(oldestOpen);
+            return oldestOpen;
+        }
+
+        void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ro.sapientia.furniture.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import ro.sapientia.furniture.util.AppLogger;
+
+/**
+ * Closes the cutting sessions of this instance that went idle, every
+ * {@code furniture.cut.session-sweep-millis}, each in its own transaction.
+ */
+@Service
+public class CutSessionSweeper {
+
+    private static final AppLogger logger = AppLogger.getLogger(CutSessionSweeper.class);
+
+    private final CutSessionService cutSessionService;
+
+    public CutSessionSweeper(CutSessionService cutSessionService) {
+        this.cutSessionService = cutSessionService;
+    }
+
+    @Scheduled(fixedDelayString = "${furniture.cut.session-sweep-millis:60000}")
+    public void closeIdleSessions() {
+        for (String sessionId : cutSessionService.sessionIds()) {
+            try {
+                cutSessionService.closeIfIdle(sessionId);
+            } catch (RuntimeException e) {
+                // The session stays open with its sheets and is tried again on the next sweep
+                logger.error("Could not close idle cutting session " + sessionId, e);
+            }
+        }
+    }
+}
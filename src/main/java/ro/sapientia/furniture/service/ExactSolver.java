@@ -0,0 +1,480 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import ro.sapientia.furniture.util.AppLogger;
+
+/**
+ * Branch-and-bound solver giving optimal layouts for small orders.
+ *
+ * Whether a set of elements fits into a bin is decided by the corner point search of Martello,
+ * Pisinger and Vigo: elements are placed one by one at the corner points of the staircase
+ * envelope of the elements placed so far, which reaches every feasible packing. A branch is cut
+ * when the area under the envelope plus the area of the elements left exceeds the bin, and
+ * (envelope, remaining elements) states already shown to fail are memoized; a failure stays
+ * valid for lower bins, so the memo is kept for the whole run. Of several identical elements
+ * (same size up to rotation) only the first one left is branched on.
+ *
+ * A single sheet is minimized in used height: starting from the incumbent layout the solver
+ * asks for a layout one unit lower than the best so far until that is infeasible or the bound
+ * is met. A multi-sheet plan is minimized in sheet count by assigning the elements to sheets in
+ * decreasing area order, identical elements to non-decreasing sheets, with the fit of every
+ * element subset memoized. When the node or time budget runs out the incumbent is kept.
+ * An instance keeps its state between runs and must only be used by one thread at a time.
+ */
+final class ExactSolver {
+
+    private static final AppLogger logger = AppLogger.getLogger(ExactSolver.class);
+
+    /**
+     * Largest order the solver accepts; subsets of the elements are kept in an int mask.
+     */
+    static final int MAX_ELEMENTS = 25;
+
+    private static final int MEMO_LIMIT = 1 << 20;
+    private static final int CHECK_INTERVAL = 1024;
+
+    private enum Outcome {
+        FEASIBLE, INFEASIBLE, UNKNOWN
+    }
+
+    private final PackingLayout candidate = new PackingLayout();
+
+    // Elements ordered by decreasing area; identical elements share a group and are adjacent
+    private int size;
+    private final int[] element = new int[MAX_ELEMENTS];
+    private final int[] width = new int[MAX_ELEMENTS];
+    private final int[] height = new int[MAX_ELEMENTS];
+    private final long[] area = new long[MAX_ELEMENTS];
+    private final int[] group = new int[MAX_ELEMENTS];
+
+    private int sheetWidth;
+    private int binHeight;
+
+    // Elements placed by the corner point search, in placement order
+    private int depth;
+    private final int[] placedItem = new int[MAX_ELEMENTS];
+    private final int[] placedX = new int[MAX_ELEMENTS];
+    private final int[] placedY = new int[MAX_ELEMENTS];
+    private final int[] placedWidth = new int[MAX_ELEMENTS];
+    private final int[] placedHeight = new int[MAX_ELEMENTS];
+    private final int[][] cornerX = new int[MAX_ELEMENTS + 1][MAX_ELEMENTS + 1];
+    private final int[][] cornerY = new int[MAX_ELEMENTS + 1][MAX_ELEMENTS + 1];
+    private final int[] sorted = new int[MAX_ELEMENTS];
+    private long envelopeArea;
+
+    private final Set<FailedState> failed = new HashSet<>();
+    private final Map<Integer, int[]> sheetPackings = new HashMap<>();
+
+    // Sheet assignment of the multi-sheet search
+    private final int[] binMask = new int[MAX_ELEMENTS];
+    private final int[] binOf = new int[MAX_ELEMENTS];
+    private final int[] bestBinMask = new int[MAX_ELEMENTS];
+    private int binCount;
+    private int bestBinCount;
+    private int sheetCountBound;
+
+    private SearchBudget budget;
+    private long maxNodes;
+    private long nodes;
+    private boolean aborted;
+
+    /**
+     * Improve the workspace layout, the incumbent, to an optimal one if the budget allows.
+     * Orders with more than {@link #MAX_ELEMENTS} elements or with elements that fit on the
+     * sheet in neither orientation are left alone.
+     *
+     * @return whether the resulting layout is proven optimal
+     */
+    boolean solve(PackingWorkspace workspace, boolean multiSheet, int sheetWidth, int sheetHeight,
+                  SearchBudget budget, long maxNodes) {
+        PackingInput input = workspace.input();
+        if (input.size() > MAX_ELEMENTS || !load(input, sheetWidth, sheetHeight)) {
+            logger.info("Exact search skipped for {} elements, keeping the incumbent", input.size());
+            return false;
+        }
+        this.sheetWidth = sheetWidth;
+        this.budget = budget;
+        this.maxNodes = maxNodes;
+        this.nodes = 0;
+        this.aborted = false;
+        failed.clear();
+        sheetPackings.clear();
+
+        LowerBounds bounds = LowerBounds.of(input, sheetWidth, sheetHeight);
+        PackingLayout layout = workspace.layout();
+        boolean optimal = multiSheet
+                ? solveSheets(layout, sheetHeight, bounds)
+                : solveHeight(layout, sheetHeight, bounds);
+        logger.info("Exact search {} after {} nodes: {}",
+                optimal ? "proved the optimum" : "stopped", nodes, PackingScore.of(layout));
+        return optimal;
+    }
+
+    /**
+     * Lower the used height of a single sheet one step at a time.
+     */
+    private boolean solveHeight(PackingLayout layout, int sheetHeight, LowerBounds bounds) {
+        PackingScore incumbent = PackingScore.of(layout);
+        int target = incumbent.placedCount() == size ? incumbent.lastSheetHeight() - 1 : sheetHeight;
+        int allElements = (1 << size) - 1;
+        while (target >= bounds.stripHeight()) {
+            Outcome outcome = fits(allElements, target);
+            if (outcome != Outcome.FEASIBLE) {
+                return outcome == Outcome.INFEASIBLE;
+            }
+            candidate.clear(size);
+            candidate.addSheet(sheetWidth, sheetHeight);
+            int used = 0;
+            for (int d = 0; d < depth; d++) {
+                candidate.add(element[placedItem[d]], placedX[d], placedY[d], placedWidth[d], placedHeight[d]);
+                used = Math.max(used, placedY[d] + placedHeight[d]);
+            }
+            layout.copyFrom(candidate);
+            budget.improved(layout);
+            target = used - 1;
+        }
+        return true;
+    }
+
+    /**
+     * Find the fewest sheets by assigning elements to sheets.
+     */
+    private boolean solveSheets(PackingLayout layout, int sheetHeight, LowerBounds bounds) {
+        PackingScore incumbent = PackingScore.of(layout);
+        binHeight = sheetHeight;
+        sheetCountBound = bounds.sheetCount();
+        bestBinCount = incumbent.placedCount() == size ? incumbent.sheetCount() : size + 1;
+        int incumbentCount = bestBinCount;
+        if (bestBinCount <= sheetCountBound) {
+            return true;
+        }
+
+        binCount = 0;
+        assign(0, 0);
+        if (bestBinCount < incumbentCount) {
+            writeSheets(layout, sheetHeight);
+        }
+        return !aborted || bestBinCount <= sheetCountBound;
+    }
+
+    private void assign(int k, long assignedArea) {
+        if (aborted || bestBinCount <= sheetCountBound) {
+            return;
+        }
+        if (k == size) {
+            bestBinCount = binCount;
+            System.arraycopy(binMask, 0, bestBinMask, 0, binCount);
+            budget.improved(null);
+            return;
+        }
+        long sheetArea = (long) sheetWidth * binHeight;
+        long remainingArea = 0;
+        for (int i = k; i < size; i++) {
+            remainingArea += area[i];
+        }
+        long overflow = remainingArea - (binCount * sheetArea - assignedArea);
+        long needed = binCount + (overflow > 0 ? (overflow + sheetArea - 1) / sheetArea : 0);
+        if (needed >= bestBinCount) {
+            return;
+        }
+
+        // Identical elements go to non-decreasing sheets
+        int first = k > 0 && group[k] == group[k - 1] ? binOf[k - 1] : 0;
+        for (int b = first; b < binCount && !aborted; b++) {
+            int mask = binMask[b] | (1 << k);
+            if (fitsOnSheet(mask)) {
+                binMask[b] = mask;
+                binOf[k] = b;
+                assign(k + 1, assignedArea + area[k]);
+                binMask[b] = mask & ~(1 << k);
+            }
+        }
+        if (binCount + 1 < bestBinCount && !aborted) {
+            binMask[binCount] = 1 << k;
+            binOf[k] = binCount++;
+            assign(k + 1, assignedArea + area[k]);
+            binCount--;
+        }
+    }
+
+    private boolean fitsOnSheet(int mask) {
+        if (sheetPackings.containsKey(mask)) {
+            return sheetPackings.get(mask) != null;
+        }
+        Outcome outcome = fits(mask, binHeight);
+        if (outcome == Outcome.UNKNOWN) {
+            return false;
+        }
+        int[] packing = null;
+        if (outcome == Outcome.FEASIBLE) {
+            packing = new int[5 * depth];
+            for (int d = 0; d < depth; d++) {
+                packing[5 * d] = placedItem[d];
+                packing[5 * d + 1] = placedX[d];
+                packing[5 * d + 2] = placedY[d];
+                packing[5 * d + 3] = placedWidth[d];
+                packing[5 * d + 4] = placedHeight[d];
+            }
+        }
+        if (sheetPackings.size() < MEMO_LIMIT) {
+            sheetPackings.put(mask, packing);
+        }
+        return packing != null;
+    }
+
+    /**
+     * Lay out the best assignment, the least used sheet last.
+     */
+    private void writeSheets(PackingLayout layout, int sheetHeight) {
+        long[] keys = new long[bestBinCount];
+        for (int b = 0; b < bestBinCount; b++) {
+            if (!fitsOnSheet(bestBinMask[b])) {
+                return;
+            }
+            int[] packing = sheetPackings.get(bestBinMask[b]);
+            int used = 0;
+            for (int p = 0; p < packing.length; p += 5) {
+                used = Math.max(used, packing[p + 2] + packing[p + 4]);
+            }
+            keys[b] = ((long) (Integer.MAX_VALUE - used) << 32) | b;
+        }
+        Arrays.sort(keys);
+
+        candidate.clear(size);
+        for (long key : keys) {
+            int[] packing = sheetPackings.get(bestBinMask[(int) key]);
+            candidate.addSheet(sheetWidth, sheetHeight);
+            for (int p = 0; p < packing.length; p += 5) {
+                candidate.add(element[packing[p]], packing[p + 1], packing[p + 2], packing[p + 3], packing[p + 4]);
+            }
+        }
+        if (PackingScore.of(candidate).isBetterThan(PackingScore.of(layout))) {
+            layout.copyFrom(candidate);
+        }
+    }
+
+    /**
+     * Decide whether the elements of {@code mask} fit into a bin of the sheet width and the given height.
+     * A feasible packing is left in the placed arrays.
+     */
+    private Outcome fits(int mask, int height) {
+        binHeight = height;
+        depth = 0;
+        if (search(mask)) {
+            return Outcome.FEASIBLE;
+        }
+        return aborted ? Outcome.UNKNOWN : Outcome.INFEASIBLE;
+    }
+
+    private boolean search(int remaining) {
+        if (remaining == 0) {
+            return true;
+        }
+        nodes++;
+        if (nodes >= maxNodes || nodes % CHECK_INTERVAL == 0 && budget.isExhausted()) {
+            aborted = true;
+        }
+        if (aborted) {
+            return false;
+        }
+
+        int corners = cornerPoints();
+        long remainingArea = 0;
+        for (int i = 0; i < size; i++) {
+            if ((remaining & (1 << i)) != 0) {
+                remainingArea += area[i];
+            }
+        }
+        if (envelopeArea + remainingArea > (long) sheetWidth * binHeight) {
+            return false;
+        }
+        FailedState state = new FailedState(remaining, cornerX[depth], cornerY[depth], corners);
+        if (failed.contains(state)) {
+            return false;
+        }
+
+        int d = depth;
+        int triedGroups = 0;
+        for (int i = 0; i < size; i++) {
+            if ((remaining & (1 << i)) == 0 || (triedGroups & (1 << group[i])) != 0) {
+                continue;
+            }
+            triedGroups |= 1 << group[i];
+            boolean placeable = false;
+            for (int rotation = 0; rotation < (width[i] != height[i] ? 2 : 1); rotation++) {
+                int w = rotation == 0 ? width[i] : height[i];
+                int h = rotation == 0 ? height[i] : width[i];
+                for (int c = 0; c < corners; c++) {
+                    int x = cornerX[d][c];
+                    int y = cornerY[d][c];
+                    if (x + w > sheetWidth || y + h > binHeight) {
+                        continue;
+                    }
+                    placeable = true;
+                    placedItem[d] = i;
+                    placedX[d] = x;
+                    placedY[d] = y;
+                    placedWidth[d] = w;
+                    placedHeight[d] = h;
+                    depth = d + 1;
+                    if (search(remaining & ~(1 << i))) {
+                        return true;
+                    }
+                    depth = d;
+                    if (aborted) {
+                        return false;
+                    }
+                }
+            }
+            if (!placeable) {
+                // The envelope only rises, so an element fitting at no corner now never will
+                break;
+            }
+        }
+        if (failed.size() < MEMO_LIMIT) {
+            failed.add(state);
+        }
+        return false;
+    }
+
+    /**
+     * Compute the corner points of the envelope of the placed elements and the area under it.
+     *
+     * @return the number of corner points, stored in {@code cornerX[depth]} and {@code cornerY[depth]}
+     */
+    private int cornerPoints() {
+        int[] xs = cornerX[depth];
+        int[] ys = cornerY[depth];
+        envelopeArea = 0;
+        if (depth == 0) {
+            xs[0] = 0;
+            ys[0] = 0;
+            return 1;
+        }
+
+        // Placed elements by decreasing top edge, then decreasing right edge
+        for (int p = 0; p < depth; p++) {
+            int q = p;
+            while (q > 0 && comesBefore(p, sorted[q - 1])) {
+                sorted[q] = sorted[q - 1];
+                q--;
+            }
+            sorted[q] = p;
+        }
+
+        // Extreme elements: each reaches further right than every element above it
+        int count = 0;
+        int lastRight = 0;
+        for (int s = 0; s < depth; s++) {
+            int p = sorted[s];
+            int right = placedX[p] + placedWidth[p];
+            if (right <= lastRight) {
+                continue;
+            }
+            int top = placedY[p] + placedHeight[p];
+            if (top < binHeight) {
+                xs[count] = lastRight;
+                ys[count++] = top;
+            }
+            envelopeArea += (long) (right - lastRight) * top;
+            lastRight = right;
+        }
+        if (lastRight < sheetWidth) {
+            xs[count] = lastRight;
+            ys[count++] = 0;
+        }
+        return count;
+    }
+
+    private boolean comesBefore(int a, int b) {
+        int topA = placedY[a] + placedHeight[a];
+        int topB = placedY[b] + placedHeight[b];
+        if (topA != topB) {
+            return topA > topB;
+        }
+        return placedX[a] + placedWidth[a] > placedX[b] + placedWidth[b];
+    }
+
+    /**
+     * Copy the elements in decreasing area order and group identical ones.
+     *
+     * @return false if an element fits on the sheet in neither orientation
+     */
+    private boolean load(PackingInput input, int sheetWidth, int sheetHeight) {
+        size = input.size();
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            int w = input.width(i);
+            int h = input.height(i);
+            if ((w > sheetWidth || h > sheetHeight) && (h > sheetWidth || w > sheetHeight)) {
+                return false;
+            }
+            order[i] = i;
+        }
+        // Decreasing area, then decreasing longer side, so identical elements end up next to each other
+        Arrays.sort(order, (a, b) -> compareElements(input, a, b));
+        for (int k = 0; k < size; k++) {
+            int e = order[k];
+            element[k] = e;
+            width[k] = input.width(e);
+            height[k] = input.height(e);
+            area[k] = (long) width[k] * height[k];
+            boolean same = k > 0 && Math.min(width[k], height[k]) == Math.min(width[k - 1], height[k - 1]) &&
+                    Math.max(width[k], height[k]) == Math.max(width[k - 1], height[k - 1]);
+            group[k] = same ? group[k - 1] : k;
+        }
+        return true;
+    }
+
+    private static int compareElements(PackingInput input, int a, int b) {
+        long areaA = (long) input.width(a) * input.height(a);
+        long areaB = (long) input.width(b) * input.height(b);
+        if (areaA != areaB) {
+            return Long.compare(areaB, areaA);
+        }
+        int longA = Math.max(input.width(a), input.height(a));
+        int longB = Math.max(input.width(b), input.height(b));
+        if (longA != longB) {
+            return Integer.compare(longB, longA);
+        }
+        return Integer.compare(a, b);
+    }
+
+    /**
+     * Remaining elements together with the envelope they would have to be placed above.
+     */
+    private static final class FailedState {
+        private final int remaining;
+        private final int[] corners;
+        private final int hash;
+
+        FailedState(int remaining, int[] xs, int[] ys, int count) {
+            this.remaining = remaining;
+            this.corners = new int[2 * count];
+            for (int c = 0; c < count; c++) {
+                corners[2 * c] = xs[c];
+                corners[2 * c + 1] = ys[c];
+            }
+            this.hash = 31 * remaining + Arrays.hashCode(corners);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof FailedState)) {
+                return false;
+            }
+            FailedState state = (FailedState) other;
+            return remaining == state.remaining && Arrays.equals(corners, state.corners);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ro.sapientia.furniture.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ro.sapientia.furniture.exception.CutErrorCode;
+import ro.sapientia.furniture.exception.InfeasibleCutException;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
+import ro.sapientia.furniture.model.dto.CutRequestDTO;
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+import ro.sapientia.furniture.model.dto.StockSheetDTO;
+
+/**
+ * Necessary conditions for a cutting request to be packable at all, checked in one pass over
+ * the elements of every depth before anything is packed, so that impossible requests are
+ * rejected in O(n) rather than after a failed packing attempt.
+ *
+ * Every element must fit on the sheet, inside the edge trim of guillotine plans, or on some
+ * stock board of its depth, in one orientation. When the elements of a depth must share a
+ * single sheet their area may not exceed it, and the elements wider than half the sheet in
+ * every orientation that fits, which can only stand above one another, may not be higher
+ * together than the sheet; symmetrically for the elements taller than half the sheet. Stock
+ * of limited count must have enough board area for the elements of its depth. Passing the
+ * screen does not promise that a layout exists.
+ */
+final class FeasibilityScreen {
+
+    private FeasibilityScreen() {
+    }
+
+    /**
+     * Screen the depth groups of a request, in their order.
+     *
+     * @throws InfeasibleCutException for the first group that cannot be packed
+     */
+    static void check(CutRequestDTO request, List<List<CutElementDTO>> groups) {
+        boolean multiSheet = Boolean.TRUE.equals(request.getMultiSheet());
+        // Remnants from stock take any share of the elements, so only the element sizes can be screened
+        boolean useRemnants = Boolean.TRUE.equals(request.getUseRemnants());
+        int trim = request.getAlgorithm() == PackingAlgorithm.GUILLOTINE && request.getEdgeTrim() != null
+                ? request.getEdgeTrim() : 0;
+        for (List<CutElementDTO> group : groups) {
+            if (request.hasStock()) {
+                checkStock(request.getStock(), group, !multiSheet && !useRemnants, multiSheet && !useRemnants);
+            } else {
+                checkSheet(group, request.getSheetWidth() - 2 * trim, request.getSheetHeight() - 2 * trim,
+                        !multiSheet && !useRemnants);
+            }
+        }
+    }
+
+    private static void checkSheet(List<CutElementDTO> group, int sheetWidth, int sheetHeight, boolean singleSheet) {
+        long area = 0;
+        long wideHeight = 0;
+        long tallWidth = 0;
+        for (CutElementDTO element : group) {
+            int w = element.getWidth();
+            int h = element.getHeight();
+            boolean normal = w <= sheetWidth && h <= sheetHeight;
+            boolean rotated = h <= sheetWidth && w <= sheetHeight;
+            if (!normal && !rotated) {
+                throw new InfeasibleCutException(CutErrorCode.ELEMENT_TOO_LARGE,
+                        "Element %d (%dx%d) is too large to fit on the sheet (%dx%d)",
+                        element.getId(), w, h, sheetWidth, sheetHeight);
+            }
+            // Narrowest width and lowest height over the orientations that fit
+            int minWidth = normal && rotated ? Math.min(w, h) : normal ? w : h;
+            int minHeight = normal && rotated ? Math.min(w, h) : normal ? h : w;
+            long copies = element.copies();
+            area += (long) w * h * copies;
+            if (2L * minWidth > sheetWidth) {
+                wideHeight += minHeight * copies;
+            }
+            if (2L * minHeight > sheetHeight) {
+                tallWidth += minWidth * copies;
+            }
+        }
+        if (!singleSheet) {
+            return;
+        }
+
+        int depth = group.get(0).getDepth();
+        long sheetArea = (long) sheetWidth * sheetHeight;
+        if (area > sheetArea) {
+            throw new InfeasibleCutException(CutErrorCode.AREA_EXCEEDS_SHEET,
+                    "The elements of depth %d cover %d mm², more than the %d mm² of the %dx%d sheet",
+                    depth, area, sheetArea, sheetWidth, sheetHeight);
+        }
+        if (wideHeight > sheetHeight) {
+            throw new InfeasibleCutException(CutErrorCode.WIDE_ELEMENTS_EXCEED_HEIGHT,
+                    "The elements of depth %d wider than half the sheet stack %d mm high, more than the sheet height %d",
+                    depth, wideHeight, sheetHeight);
+        }
+        if (tallWidth > sheetWidth) {
+            throw new InfeasibleCutException(CutErrorCode.TALL_ELEMENTS_EXCEED_WIDTH,
+                    "The elements of depth %d taller than half the sheet stand %d mm wide, more than the sheet width %d",
+                    depth, tallWidth, sheetWidth);
+        }
+    }
+
+    /**
+     * @param singleBoard whether all elements of the depth must go onto one board
+     * @param countsApply whether the board counts of the stock bound the area available
+     */
+    private static void checkStock(List<StockSheetDTO> stock, List<CutElementDTO> group,
+                                   boolean singleBoard, boolean countsApply) {
+        int depth = group.get(0).getDepth();
+        List<StockSheetDTO> boards = new ArrayList<>();
+        long largestArea = 0;
+        long stockArea = 0;
+        for (StockSheetDTO board : stock) {
+            if (board.getDepth() == null || board.getDepth() == depth) {
+                boards.add(board);
+                long boardArea = (long) board.getWidth() * board.getHeight();
+                largestArea = Math.max(largestArea, boardArea);
+                stockArea = board.getCount() == null || stockArea < 0 ? -1 : stockArea + boardArea * board.getCount();
+            }
+        }
+        if (boards.isEmpty()) {
+            throw new InfeasibleCutException(CutErrorCode.NO_STOCK_FOR_DEPTH,
+                    "No stock sheet is available for depth %d", depth);
+        }
+
+        long area = 0;
+        for (CutElementDTO element : group) {
+            int w = element.getWidth();
+            int h = element.getHeight();
+            if (!fitsAny(boards, w, h)) {
+                throw new InfeasibleCutException(CutErrorCode.ELEMENT_TOO_LARGE,
+                        "Element %d (%dx%d) does not fit on any stock sheet of depth %d",
+                        element.getId(), w, h, depth);
+            }
+            area += (long) w * h * element.copies();
+        }
+        if (singleBoard && area > largestArea) {
+            throw new InfeasibleCutException(CutErrorCode.AREA_EXCEEDS_SHEET,
+                    "The elements of depth %d cover %d mm², more than the %d mm² of the largest stock sheet",
+                    depth, area, largestArea);
+        }
+        if (countsApply && stockArea >= 0 && area > stockArea) {
+            throw new InfeasibleCutException(CutErrorCode.AREA_EXCEEDS_STOCK,
+                    "The elements of depth %d cover %d mm², more than the %d mm² of stock for that depth",
+                    depth, area, stockArea);
+        }
+    }
+
+    private static boolean fitsAny(List<StockSheetDTO> boards, int width, int height) {
+        for (StockSheetDTO board : boards) {
+            if (width <= board.getWidth() && height <= board.getHeight()
+                    || height <= board.getWidth() && width <= board.getHeight()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,183 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Arrays;
+
+/**
+ * First Fit Decreasing Height (FFDH) shelf packing kernel working on primitive arrays.
+ * The caller supplies the elements already sorted by decreasing height; every element goes
+ * to the first level that can hold it in its normal orientation or rotated by 90 degrees,
+ * and a new level is opened on top of the last one when none can.
+ *
+ * Levels are looked up through a {@link FirstFitIndex}. A run of identical elements (same width
+ * and height, next to each other in the order) is laid side by side on the level its first
+ * element went to, as far as the free width allows, with a single index update; first fit would
+ * put them there one by one anyway. In best fit mode (BFDH) the element instead goes to the level
+ * it leaves the least free width on, which needs a scan of the levels.
+ * An instance keeps its level buffers between runs and must only be used by one thread at a time.
+ */
+final class FfdhPacker implements SheetPacker {
+
+    private final boolean bestFit;
+    private final FirstFitIndex levelIndex = new FirstFitIndex();
+    private int[] levelY = new int[16];
+    private int levelCount;
+
+    FfdhPacker() {
+        this(false);
+    }
+
+    FfdhPacker(boolean bestFit) {
+        this.bestFit = bestFit;
+    }
+
+    @Override
+    public void pack(PackingInput input, int[] order, int count, int sheetWidth, int sheetHeight, PackingLayout layout) {
+        pack(input, order, count, sheetWidth, sheetHeight, layout, null);
+    }
+
+    @Override
+    public void pack(PackingInput input, int[] order, int count, int sheetWidth, int sheetHeight, PackingLayout layout,
+                     SearchBudget budget) {
+        reset();
+        pack(input, order, count, sheetWidth, sheetHeight, sheetHeight, 0, layout, budget);
+    }
+
+    /**
+     * Pack the first {@code count} elements of {@code order} onto a strip of unlimited height,
+     * opening only levels that are at most {@code maxLevelHeight} tall so every level fits on a sheet.
+     * Every placement lies at the y of its level.
+     */
+    void packStrip(PackingInput input, int[] order, int count, int stripWidth, int maxLevelHeight, PackingLayout layout) {
+        reset();
+        pack(input, order, count, stripWidth, Long.MAX_VALUE, maxLevelHeight, 0, layout, null);
+    }
+
+    /**
+     * Like {@link #packStrip}, but on a strip that already holds {@code levels} levels, filled
+     * from the left up to {@code levelUsedWidth}: the elements first go into the free width of
+     * those levels, in the given order, and new levels are opened from {@code nextY} up.
+     */
+    void fillStrip(PackingInput input, int[] order, int count, int stripWidth, int maxLevelHeight,
+                   int[] levelY, int[] levelUsedWidth, int[] levelHeight, int levels, int nextY, PackingLayout layout) {
+        reset();
+        for (int level = 0; level < levels; level++) {
+            addLevel(levelY[level], stripWidth - levelUsedWidth[level], levelHeight[level]);
+        }
+        pack(input, order, count, stripWidth, Long.MAX_VALUE, maxLevelHeight, nextY, layout, null);
+    }
+
+    private void reset() {
+        levelIndex.clear();
+        levelCount = 0;
+    }
+
+    private void pack(PackingInput input, int[] order, int count, int sheetWidth, long sheetHeight, int maxLevelHeight,
+                      int nextY, PackingLayout layout, SearchBudget budget) {
+        for (int i = 0; i < count; i++) {
+            if (budget != null && budget.isExhausted()) {
+                return;
+            }
+            int element = order[i];
+            int elementWidth = input.width(element);
+            int elementHeight = input.height(element);
+            int slot;
+
+            // First (or best) level where the element fits in either orientation; the original orientation wins on ties
+            int normalSlot = bestFit ? findBest(elementWidth, elementHeight) : levelIndex.findFirst(elementWidth, elementHeight);
+            int rotatedSlot = bestFit ? findBest(elementHeight, elementWidth) : levelIndex.findFirst(elementHeight, elementWidth);
+            if (bestFit && normalSlot >= 0 && rotatedSlot >= 0) {
+                // Compare the two best fits by the free width they leave; -1 keeps the better one
+                if (levelIndex.width(rotatedSlot) - elementHeight < levelIndex.width(normalSlot) - elementWidth) {
+                    normalSlot = -1;
+                } else {
+                    rotatedSlot = -1;
+                }
+            }
+
+            if (normalSlot >= 0 && (rotatedSlot < 0 || normalSlot <= rotatedSlot)) {
+                slot = normalSlot;
+                placeOnLevel(slot, element, elementWidth, elementHeight, sheetWidth, layout);
+            } else if (rotatedSlot >= 0) {
+                slot = rotatedSlot;
+                placeOnLevel(slot, element, elementHeight, elementWidth, sheetWidth, layout);
+            } else if (elementWidth <= sheetWidth && elementHeight <= maxLevelHeight &&
+                    (long) nextY + elementHeight <= sheetHeight) {
+                slot = levelCount;
+                openLevel(nextY, element, elementWidth, elementHeight, sheetWidth, layout);
+                nextY += elementHeight;
+            } else if (elementHeight <= sheetWidth && elementWidth <= maxLevelHeight &&
+                    (long) nextY + elementWidth <= sheetHeight) {
+                slot = levelCount;
+                openLevel(nextY, element, elementHeight, elementWidth, sheetWidth, layout);
+                nextY += elementWidth;
+            } else {
+                continue;
+            }
+            if (!bestFit) {
+                i += placeRun(input, order, i + 1, count, element, slot, sheetWidth, layout);
+            }
+        }
+    }
+
+    /**
+     * Lay the identical elements following {@code order[from - 1]} next to it on its level, in the
+     * same orientation, while they fit.
+     *
+     * @return the number of elements placed
+     */
+    private int placeRun(PackingInput input, int[] order, int from, int count, int first, int slot, int sheetWidth,
+                         PackingLayout layout) {
+        int last = layout.count() - 1;
+        int placedWidth = layout.width(last);
+        int placedHeight = layout.height(last);
+        int freeWidth = levelIndex.width(slot);
+        int x = sheetWidth - freeWidth;
+        int end = from;
+        while (end < count && freeWidth >= placedWidth
+                && input.width(order[end]) == input.width(first) && input.height(order[end]) == input.height(first)) {
+            layout.add(order[end], x, levelY[slot], placedWidth, placedHeight);
+            x += placedWidth;
+            freeWidth -= placedWidth;
+            end++;
+        }
+        if (end > from) {
+            levelIndex.update(slot, freeWidth);
+        }
+        return end - from;
+    }
+
+    /**
+     * The level leaving the least free width after placing the element, or -1 if none can hold it.
+     */
+    private int findBest(int width, int height) {
+        int best = -1;
+        int bestLeft = Integer.MAX_VALUE;
+        for (int level = 0; level < levelCount && bestLeft > 0; level++) {
+            int left = levelIndex.width(level) - width;
+            if (left >= 0 && left < bestLeft && levelIndex.height(level) >= height) {
+                best = level;
+                bestLeft = left;
+            }
+        }
+        return best;
+    }
+
+    private void placeOnLevel(int slot, int element, int placedWidth, int placedHeight, int sheetWidth, PackingLayout layout) {
+        int freeWidth = levelIndex.width(slot);
+        layout.add(element, sheetWidth - freeWidth, levelY[slot], placedWidth, placedHeight);
+        levelIndex.update(slot, freeWidth - placedWidth);
+    }
+
+    private void openLevel(int y, int element, int placedWidth, int placedHeight, int sheetWidth, PackingLayout layout) {
+        addLevel(y, sheetWidth - placedWidth, placedHeight);
+        layout.add(element, 0, y, placedWidth, placedHeight);
+    }
+
+    private void addLevel(int y, int freeWidth, int height) {
+        if (levelCount == levelY.length) {
+            levelY = Arrays.copyOf(levelY, levelCount << 1);
+        }
+        levelY[levelCount++] = y;
+        levelIndex.add(freeWidth, height);
+    }
+}
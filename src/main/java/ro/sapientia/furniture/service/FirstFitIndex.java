@@ -0,0 +1,245 @@
+package ro.sapientia.furniture.service;
+
+/**
+ * Index over an append-only list of slots, each with a width and a height capacity.
+ * Answers "first slot (in insertion order) whose width capacity is at least w and whose
+ * height capacity is at least h" without scanning every slot. The height of a slot is fixed
+ * when it is added; its width may change, and a slot of zero width holds nothing.
+ *
+ * The slots are the leaves of a merge sort tree: every complete block of 2^k consecutive
+ * slots (above a small size, which is scanned instead) keeps its slots sorted by decreasing
+ * height, with a segment tree of their widths in that order. Whether a block holds a w x h
+ * rectangle is then exact: a binary search finds the slots at least h high, a prefix
+ * maximum tells whether one of them is at least w wide. A query descends from the root into
+ * the first child that holds the rectangle, so it tests O(log n) blocks in O(log n) each,
+ * O(log^2 n) in all, whatever the shapes of the slots. Changing a width updates one segment
+ * tree per level in O(log^2 n); adding slots costs O(log n) amortized, the blocks being built
+ * by merging their halves when they fill up. The trees take O(n log n) memory.
+ */
+final class FirstFitIndex {
+
+    private static final int NONE = -1;
+
+    // Blocks of up to 2^SCAN_LEVEL slots are scanned rather than indexed
+    private static final int SCAN_LEVEL = 4;
+
+    private int levels;
+    private int size;
+    private int[] width;
+    private int[] height;
+
+    // Per level above SCAN_LEVEL, for every complete block of 2^level slots: its slots by
+    // decreasing height, the position of every slot in that order and the segment tree of the
+    // widths in that order (2 * 2^level entries per block, leaves in the upper half)
+    private int[][] byHeight;
+    private int[][] position;
+    private int[][] maxWidth;
+
+    FirstFitIndex() {
+        this(16);
+    }
+
+    FirstFitIndex(int expectedSlots) {
+        allocate(Math.max(SCAN_LEVEL, 32 - Integer.numberOfLeadingZeros(Math.max(1, expectedSlots - 1))));
+    }
+
+    /**
+     * Remove all slots, keeping the allocated trees for reuse.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Append a slot and return its index.
+     */
+    int add(int width, int height) {
+        if (size == 1 << levels) {
+            grow();
+        }
+        int slot = size++;
+        this.width[slot] = width;
+        this.height[slot] = height;
+        // The slot completes the block ending with it on every level whose block size divides the count
+        for (int level = SCAN_LEVEL + 1; level <= levels && (size & ((1 << level) - 1)) == 0; level++) {
+            build(level, size - (1 << level));
+        }
+        return slot;
+    }
+
+    /**
+     * Change the width capacity of an existing slot; zero empties it.
+     */
+    void update(int slot, int width) {
+        this.width[slot] = width;
+        for (int level = SCAN_LEVEL + 1; level <= levels; level++) {
+            int blockSize = 1 << level;
+            int start = slot & -blockSize;
+            if (start + blockSize > size) {
+                // Blocks are built once complete; the larger ones around this slot are not either
+                return;
+            }
+            int[] tree = maxWidth[level];
+            int base = 2 * start;
+            int node = blockSize + position[level][slot];
+            tree[base + node] = width;
+            for (node >>= 1; node > 0; node >>= 1) {
+                int max = Math.max(tree[base + 2 * node], tree[base + 2 * node + 1]);
+                if (tree[base + node] == max) {
+                    break;
+                }
+                tree[base + node] = max;
+            }
+        }
+    }
+
+    int width(int slot) {
+        return width[slot];
+    }
+
+    int height(int slot) {
+        return height[slot];
+    }
+
+    /**
+     * Find the first slot with width capacity >= width and height capacity >= height.
+     *
+     * @param width at least 1
+     * @return the slot index, or -1 if no slot can hold the rectangle
+     */
+    int findFirst(int width, int height) {
+        return size == 0 ? NONE : find(levels, 0, width, height);
+    }
+
+    private int find(int level, int start, int width, int height) {
+        if (start >= size) {
+            return NONE;
+        }
+        int blockSize = 1 << level;
+        if (level <= SCAN_LEVEL) {
+            int end = Math.min(start + blockSize, size);
+            for (int slot = start; slot < end; slot++) {
+                if (this.width[slot] >= width && this.height[slot] >= height) {
+                    return slot;
+                }
+            }
+            return NONE;
+        }
+        // A complete block is tested exactly, so only the child holding the first fit is entered;
+        // the last, incomplete block on every level is split into its halves instead
+        if (start + blockSize <= size && !holds(level, start, width, height)) {
+            return NONE;
+        }
+        int found = find(level - 1, start, width, height);
+        return found != NONE ? found : find(level - 1, start + blockSize / 2, width, height);
+    }
+
+    /**
+     * Whether a slot of the complete block is at least {@code width} wide and {@code height} high.
+     */
+    private boolean holds(int level, int start, int width, int height) {
+        int blockSize = 1 << level;
+        int[] sorted = byHeight[level];
+
+        // Number of slots at least as high as the rectangle, a prefix of the block order
+        int low = 0;
+        int high = blockSize;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.height[sorted[start + middle]] >= height) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int[] tree = maxWidth[level];
+        int base = 2 * start;
+        for (int left = blockSize, right = blockSize + low; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) != 0 && tree[base + left++] >= width) {
+                return true;
+            }
+            if ((right & 1) != 0 && tree[base + --right] >= width) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sort the complete block of 2^level slots starting at {@code start} by decreasing height and
+     * build the segment tree of its widths.
+     */
+    private void build(int level, int start) {
+        int blockSize = 1 << level;
+        int[] sorted = byHeight[level];
+        if (level - 1 > SCAN_LEVEL) {
+            int[] halves = byHeight[level - 1];
+            int left = start;
+            int middle = start + blockSize / 2;
+            int right = middle;
+            int end = start + blockSize;
+            for (int i = start; i < end; i++) {
+                if (right == end || left < middle && height[halves[left]] >= height[halves[right]]) {
+                    sorted[i] = halves[left++];
+                } else {
+                    sorted[i] = halves[right++];
+                }
+            }
+        } else {
+            // Insertion sort of the smallest indexed blocks
+            for (int i = 0; i < blockSize; i++) {
+                int slot = start + i;
+                int j = start + i;
+                while (j > start && height[sorted[j - 1]] < height[slot]) {
+                    sorted[j] = sorted[j - 1];
+                    j--;
+                }
+                sorted[j] = slot;
+            }
+        }
+
+        int[] tree = maxWidth[level];
+        int base = 2 * start;
+        for (int i = 0; i < blockSize; i++) {
+            int slot = sorted[start + i];
+            position[level][slot] = i;
+            tree[base + blockSize + i] = width[slot];
+        }
+        for (int node = blockSize - 1; node > 0; node--) {
+            tree[base + node] = Math.max(tree[base + 2 * node], tree[base + 2 * node + 1]);
+        }
+    }
+
+    private void grow() {
+        int[] oldWidth = width;
+        int[] oldHeight = height;
+        allocate(levels + 1);
+        System.arraycopy(oldWidth, 0, width, 0, size);
+        System.arraycopy(oldHeight, 0, height, 0, size);
+        for (int level = SCAN_LEVEL + 1; level <= levels; level++) {
+            for (int start = 0; start + (1 << level) <= size; start += 1 << level) {
+                build(level, start);
+            }
+        }
+    }
+
+    private void allocate(int levelCount) {
+        levels = levelCount;
+        int capacity = 1 << levelCount;
+        width = new int[capacity];
+        height = new int[capacity];
+        byHeight = new int[levelCount + 1][];
+        position = new int[levelCount + 1][];
+        maxWidth = new int[levelCount + 1][];
+        for (int level = SCAN_LEVEL + 1; level <= levelCount; level++) {
+            byHeight[level] = new int[capacity];
+            position[level] = new int[capacity];
+            maxWidth[level] = new int[2 * capacity];
+        }
+    }
+}
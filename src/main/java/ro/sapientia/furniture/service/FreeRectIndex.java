@@ -0,0 +1,346 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Arrays;
+
+/**
+ * Set of free rectangles of a sheet with the queries MaxRects packing needs: the best
+ * rectangle to place an element into, the rectangles overlapping a new placement and
+ * whether a rectangle is already covered by a larger free one.
+ *
+ * Rectangles live in reusable slots which are the leaves of a segment tree. Every inner node
+ * keeps the maximum width and height and the bounding box of its subtree, so fit queries skip
+ * subtrees without a rectangle large enough and overlap queries skip subtrees whose bounding
+ * box misses the query. Slots freed by {@link #remove(int)} are reused before new ones.
+ * An instance keeps its buffers between runs and must only be used by one thread at a time.
+ */
+final class FreeRectIndex {
+
+    private static final int NONE = -1;
+
+    private int leaves;
+    private int size;
+    private int[] x;
+    private int[] y;
+    private int[] w;
+    private int[] h;
+
+    // Per tree node: largest width/height and bounding box [minX, maxRight) x [minY, maxTop)
+    private int[] maxWidth;
+    private int[] maxHeight;
+    private int[] minX;
+    private int[] minY;
+    private int[] maxRight;
+    private int[] maxTop;
+
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+    private int liveCount;
+
+    private int[] found = new int[16];
+    private int foundCount;
+
+    // State of the running best fit search
+    private boolean bestAreaFit;
+    private int bestSlot;
+    private boolean bestRotated;
+    private long bestPrimary;
+    private int bestSecondary;
+
+    FreeRectIndex() {
+        allocate(16);
+    }
+
+    /**
+     * Remove all rectangles, keeping the allocated tree for reuse.
+     */
+    void clear() {
+        resetNodes(1, 2 * leaves);
+        size = 0;
+        freeSlotCount = 0;
+        liveCount = 0;
+    }
+
+    /**
+     * Number of free rectangles currently stored.
+     */
+    int count() {
+        return liveCount;
+    }
+
+    int add(int rectX, int rectY, int rectWidth, int rectHeight) {
+        int slot;
+        if (freeSlotCount > 0) {
+            slot = freeSlots[--freeSlotCount];
+        } else {
+            if (size == leaves) {
+                grow();
+            }
+            slot = size++;
+        }
+        x[slot] = rectX;
+        y[slot] = rectY;
+        w[slot] = rectWidth;
+        h[slot] = rectHeight;
+        int node = slot + leaves;
+        maxWidth[node] = rectWidth;
+        maxHeight[node] = rectHeight;
+        minX[node] = rectX;
+        minY[node] = rectY;
+        maxRight[node] = rectX + rectWidth;
+        maxTop[node] = rectY + rectHeight;
+        pull(node >> 1);
+        liveCount++;
+        return slot;
+    }
+
+    void remove(int slot) {
+        int node = slot + leaves;
+        resetNodes(node, node + 1);
+        pull(node >> 1);
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotCount << 1);
+        }
+        freeSlots[freeSlotCount++] = slot;
+        liveCount--;
+    }
+
+    int x(int slot) {
+        return x[slot];
+    }
+
+    int y(int slot) {
+        return y[slot];
+    }
+
+    int width(int slot) {
+        return w[slot];
+    }
+
+    int height(int slot) {
+        return h[slot];
+    }
+
+    /**
+     * Find the free rectangle that holds a {@code width} x {@code height} element best, trying both
+     * orientations. Best short side fit minimizes the smaller leftover side, best area fit the
+     * leftover area; ties go to the lower, then the leftmost rectangle, then the normal orientation.
+     *
+     * @return the slot, or -1 if the element fits nowhere; see {@link #bestRotated()}
+     */
+    int findBest(int width, int height, boolean areaFit) {
+        bestAreaFit = areaFit;
+        bestSlot = NONE;
+        bestRotated = false;
+        bestPrimary = Long.MAX_VALUE;
+        bestSecondary = Integer.MAX_VALUE;
+        if (size > 0) {
+            searchBest(1, width, height);
+        }
+        return bestSlot;
+    }
+
+    /**
+     * Find the stored rectangle with the largest area whose sides are both at least {@code minSide}.
+     * Scans every slot, so it is meant for the few rectangles left on a finished sheet.
+     *
+     * @return the slot, or -1 if no rectangle is large enough
+     */
+    int findLargest(int minSide) {
+        int largest = NONE;
+        long largestArea = -1;
+        for (int slot = 0; slot < size; slot++) {
+            // Removed slots have an empty leaf
+            int leafWidth = maxWidth[slot + leaves];
+            if (leafWidth == 0 || leafWidth < minSide || maxHeight[slot + leaves] < minSide) {
+                continue;
+            }
+            long area = (long) w[slot] * h[slot];
+            if (area > largestArea) {
+                largest = slot;
+                largestArea = area;
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * Whether the element has to be rotated for the rectangle returned by the last {@link #findBest}.
+     */
+    boolean bestRotated() {
+        return bestRotated;
+    }
+
+    /**
+     * Collect the slots of all rectangles sharing area with the given one.
+     *
+     * @return the number of slots collected; see {@link #found(int)}
+     */
+    int findOverlapping(int rectX, int rectY, int rectWidth, int rectHeight) {
+        foundCount = 0;
+        if (size > 0) {
+            collectOverlapping(1, rectX, rectY, rectX + rectWidth, rectY + rectHeight);
+        }
+        return foundCount;
+    }
+
+    int found(int index) {
+        return found[index];
+    }
+
+    /**
+     * Whether some stored rectangle contains the given one.
+     */
+    boolean isCovered(int rectX, int rectY, int rectWidth, int rectHeight) {
+        return size > 0 && searchCovering(1, rectX, rectY, rectX + rectWidth, rectY + rectHeight);
+    }
+
+    private void searchBest(int node, int width, int height) {
+        boolean normalFits = maxWidth[node] >= width && maxHeight[node] >= height;
+        boolean rotatedFits = maxWidth[node] >= height && maxHeight[node] >= width;
+        if (!normalFits && !rotatedFits) {
+            return;
+        }
+        if (node < leaves) {
+            searchBest(node << 1, width, height);
+            if (bestPrimary > 0 || bestSecondary > 0) {
+                searchBest((node << 1) + 1, width, height);
+            }
+            return;
+        }
+        int slot = node - leaves;
+        if (normalFits) {
+            consider(slot, width, height, false);
+        }
+        if (rotatedFits && width != height) {
+            consider(slot, height, width, true);
+        }
+    }
+
+    private void consider(int slot, int width, int height, boolean rotated) {
+        int leftoverWidth = w[slot] - width;
+        int leftoverHeight = h[slot] - height;
+        long primary;
+        int secondary;
+        if (bestAreaFit) {
+            primary = (long) w[slot] * h[slot] - (long) width * height;
+            secondary = Math.min(leftoverWidth, leftoverHeight);
+        } else {
+            primary = Math.min(leftoverWidth, leftoverHeight);
+            secondary = Math.max(leftoverWidth, leftoverHeight);
+        }
+        if (primary < bestPrimary || primary == bestPrimary && (secondary < bestSecondary ||
+                secondary == bestSecondary && isBefore(slot, rotated))) {
+            bestPrimary = primary;
+            bestSecondary = secondary;
+            bestSlot = slot;
+            bestRotated = rotated;
+        }
+    }
+
+    private boolean isBefore(int slot, boolean rotated) {
+        if (y[slot] != y[bestSlot]) {
+            return y[slot] < y[bestSlot];
+        }
+        if (x[slot] != x[bestSlot]) {
+            return x[slot] < x[bestSlot];
+        }
+        return bestRotated && !rotated;
+    }
+
+    private void collectOverlapping(int node, int left, int bottom, int right, int top) {
+        if (minX[node] >= right || maxRight[node] <= left || minY[node] >= top || maxTop[node] <= bottom) {
+            return;
+        }
+        if (node < leaves) {
+            collectOverlapping(node << 1, left, bottom, right, top);
+            collectOverlapping((node << 1) + 1, left, bottom, right, top);
+            return;
+        }
+        int slot = node - leaves;
+        if (x[slot] < right && x[slot] + w[slot] > left && y[slot] < top && y[slot] + h[slot] > bottom) {
+            if (foundCount == found.length) {
+                found = Arrays.copyOf(found, foundCount << 1);
+            }
+            found[foundCount++] = slot;
+        }
+    }
+
+    private boolean searchCovering(int node, int left, int bottom, int right, int top) {
+        if (maxWidth[node] < right - left || maxHeight[node] < top - bottom ||
+                minX[node] > left || maxRight[node] < right || minY[node] > bottom || maxTop[node] < top) {
+            return false;
+        }
+        if (node < leaves) {
+            return searchCovering(node << 1, left, bottom, right, top) ||
+                    searchCovering((node << 1) + 1, left, bottom, right, top);
+        }
+        int slot = node - leaves;
+        return x[slot] <= left && y[slot] <= bottom && x[slot] + w[slot] >= right && y[slot] + h[slot] >= top;
+    }
+
+    private void pull(int node) {
+        while (node > 0) {
+            int left = node << 1;
+            int right = left + 1;
+            maxWidth[node] = Math.max(maxWidth[left], maxWidth[right]);
+            maxHeight[node] = Math.max(maxHeight[left], maxHeight[right]);
+            minX[node] = Math.min(minX[left], minX[right]);
+            minY[node] = Math.min(minY[left], minY[right]);
+            maxRight[node] = Math.max(maxRight[left], maxRight[right]);
+            maxTop[node] = Math.max(maxTop[left], maxTop[right]);
+            node >>= 1;
+        }
+    }
+
+    private void resetNodes(int from, int to) {
+        Arrays.fill(maxWidth, from, to, 0);
+        Arrays.fill(maxHeight, from, to, 0);
+        Arrays.fill(minX, from, to, Integer.MAX_VALUE);
+        Arrays.fill(minY, from, to, Integer.MAX_VALUE);
+        Arrays.fill(maxRight, from, to, Integer.MIN_VALUE);
+        Arrays.fill(maxTop, from, to, Integer.MIN_VALUE);
+    }
+
+    private void grow() {
+        int oldLeaves = leaves;
+        int[][] oldNodes = {maxWidth, maxHeight, minX, minY, maxRight, maxTop};
+        int[] oldX = x;
+        int[] oldY = y;
+        int[] oldW = w;
+        int[] oldH = h;
+        allocate(oldLeaves << 1);
+        int[][] nodes = {maxWidth, maxHeight, minX, minY, maxRight, maxTop};
+        for (int i = 0; i < nodes.length; i++) {
+            System.arraycopy(oldNodes[i], oldLeaves, nodes[i], leaves, oldLeaves);
+        }
+        System.arraycopy(oldX, 0, x, 0, oldLeaves);
+        System.arraycopy(oldY, 0, y, 0, oldLeaves);
+        System.arraycopy(oldW, 0, w, 0, oldLeaves);
+        System.arraycopy(oldH, 0, h, 0, oldLeaves);
+        for (int node = leaves - 1; node > 0; node--) {
+            int left = node << 1;
+            int right = left + 1;
+            maxWidth[node] = Math.max(maxWidth[left], maxWidth[right]);
+            maxHeight[node] = Math.max(maxHeight[left], maxHeight[right]);
+            minX[node] = Math.min(minX[left], minX[right]);
+            minY[node] = Math.min(minY[left], minY[right]);
+            maxRight[node] = Math.max(maxRight[left], maxRight[right]);
+            maxTop[node] = Math.max(maxTop[left], maxTop[right]);
+        }
+    }
+
+    private void allocate(int leafCount) {
+        leaves = leafCount;
+        x = new int[leafCount];
+        y = new int[leafCount];
+        w = new int[leafCount];
+        h = new int[leafCount];
+        maxWidth = new int[2 * leafCount];
+        maxHeight = new int[2 * leafCount];
+        minX = new int[2 * leafCount];
+        minY = new int[2 * leafCount];
+        maxRight = new int[2 * leafCount];
+        maxTop = new int[2 * leafCount];
+        resetNodes(1, 2 * leafCount);
+    }
+}
@@ -0,0 +1,119 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import ro.sapientia.furniture.config.CutOptimizationProperties;
+import ro.sapientia.furniture.model.entities.FurnitureBody;
+import ro.sapientia.furniture.repository.FurnitureBodyRepository;
+
+/**
+ * Read-through cache of the furniture bodies referenced by cutting plans.
+ *
+ * The cache holds immutable copies of the dimensions of the bodies, never the JPA entities,
+ * so concurrent requests can share them. A lookup loads all ids missing from the cache with
+ * one repository call, however many it asks for, instead of one query per element. {@link FurnitureBodyService} evicts the bodies
+ * it changes; when the cache would grow past {@code furniture.cut.body-cache-size} it is
+ * emptied. Bodies changed directly in the database by another instance are seen after that.
+ */
+@Service
+public class FurnitureBodyCatalog {
+
+    private final FurnitureBodyRepository furnitureBodyRepository;
+
+    private final int capacity;
+
+    private final Map<Long, Body> cache = new ConcurrentHashMap<>();
+
+    public FurnitureBodyCatalog(FurnitureBodyRepository furnitureBodyRepository, CutOptimizationProperties properties) {
+        this.furnitureBodyRepository = furnitureBodyRepository;
+        this.capacity = properties.getBodyCacheSize();
+    }
+
+    /**
+     * The bodies with the given ids that exist, by id; {@code null} ids are ignored.
+     */
+    public Map<Long, Body> findAll(Collection<Long> ids) {
+        Map<Long, Body> found = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null) {
+                continue;
+            }
+            Body body = cache.get(id);
+            if (body != null) {
+                found.put(id, body);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            if (cache.size() + missing.size() > capacity) {
+                cache.clear();
+            }
+            for (FurnitureBody entity : furnitureBodyRepository.findAllById(missing)) {
+                Body body = new Body(entity.getId(), entity.getWidth(), entity.getHeight(), entity.getDepth());
+                found.put(body.getId(), body);
+                if (missing.size() <= capacity) {
+                    cache.put(body.getId(), body);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The given ids that belong to an existing body.
+     */
+    public Set<Long> existingIds(Collection<Long> ids) {
+        return findAll(ids).keySet();
+    }
+
+    /**
+     * Forget a body after it was changed or deleted.
+     */
+    public void evict(Long id) {
+        if (id != null) {
+            cache.remove(id);
+        }
+    }
+
+    /**
+     * The outer dimensions of a stored furniture body.
+     */
+    public static final class Body {
+        private final Long id;
+        private final int width;
+        private final int height;
+        private final int depth;
+
+        public Body(Long id, int width, int height, int depth) {
+            this.id = id;
+            this.width = width;
+            this.height = height;
+            this.depth = depth;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+    }
+}
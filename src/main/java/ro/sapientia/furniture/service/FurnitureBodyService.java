@@ -13,9 +13,13 @@ import ro.sapientia.furniture.repository.FurnitureBodyRepository;
 public class FurnitureBodyService {
 	
 	private final FurnitureBodyRepository furnitureBodyRepository;
+
+	private final FurnitureBodyCatalog furnitureBodyCatalog;
 	
-	public FurnitureBodyService(final FurnitureBodyRepository furnitureBodyRepository) {
+	public FurnitureBodyService(final FurnitureBodyRepository furnitureBodyRepository,
+								final FurnitureBodyCatalog furnitureBodyCatalog) {
 		this.furnitureBodyRepository = furnitureBodyRepository;
+		this.furnitureBodyCatalog = furnitureBodyCatalog;
 	}
 	
 	public List<FurnitureBodyDTO> findAllFurnitureBodies() {
@@ -37,11 +41,13 @@ public class FurnitureBodyService {
 	public FurnitureBodyDTO update(FurnitureBodyDTO furnitureBodyDTO) {
 		FurnitureBody entity = FurnitureBodyMapper.toEntity(furnitureBodyDTO);
 		FurnitureBody updatedEntity = this.furnitureBodyRepository.saveAndFlush(entity);
+		this.furnitureBodyCatalog.evict(entity.getId());
 		return FurnitureBodyMapper.toDTO(updatedEntity);
 	}
 
 	public void delete(Long id) {
 		this.furnitureBodyRepository.deleteById(id);
+		this.furnitureBodyCatalog.evict(id);
 	}
 
 }
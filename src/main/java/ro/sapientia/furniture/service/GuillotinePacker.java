@@ -0,0 +1,251 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Arrays;
+
+/**
+ * Guillotine packing kernel for panel saws, which can only cut a panel from edge to edge.
+ *
+ * The trimmed sheet is the root of a split tree. An element goes into the bottom-left corner of
+ * the first free region (in creation order) that holds it in either orientation; the region is
+ * then cut in two by an edge-to-edge cut along the shorter leftover side and the remainder by a
+ * second cut, each cut taking {@code kerf} of material. The free leaves of the tree are kept in
+ * a {@link FirstFitIndex}, so finding a region takes O(log^2 n) whatever the shapes of the
+ * regions, and inserting its children O(log n) amortized.
+ *
+ * Every cut is recorded with the cut that produced the region it divides, which gives the cut
+ * tree the saw operator follows. An instance keeps its buffers between runs and must only be
+ * used by one thread at a time.
+ */
+final class GuillotinePacker implements SheetPacker {
+
+    static final int HORIZONTAL = 0;
+    static final int VERTICAL = 1;
+
+    private static final int NO_CUT = -1;
+
+    private int kerf;
+    private int edgeTrim;
+
+    // Free regions, indexed like the slots of the first fit index
+    private final FirstFitIndex freeRegions = new FirstFitIndex();
+    private int[] regionX = new int[16];
+    private int[] regionY = new int[16];
+    private int[] regionCut = new int[16];
+
+    // Cuts in the order they are made
+    private int cutCount;
+    private int[] cutSheet = new int[16];
+    private int[] cutParent = new int[16];
+    private int[] cutOrientation = new int[16];
+    private int[] cutPosition = new int[16];
+    private int[] cutFrom = new int[16];
+    private int[] cutTo = new int[16];
+
+    private boolean[] placed = new boolean[0];
+    private int[] remaining = new int[0];
+
+    /**
+     * Set the blade thickness and the strip trimmed from every sheet edge for the next runs.
+     */
+    void configure(int kerf, int edgeTrim) {
+        this.kerf = kerf;
+        this.edgeTrim = edgeTrim;
+    }
+
+    @Override
+    public void pack(PackingInput input, int[] order, int count, int sheetWidth, int sheetHeight, PackingLayout layout) {
+        cutCount = 0;
+        packSheet(input, order, count, sheetWidth, sheetHeight, layout);
+    }
+
+    /**
+     * Pack the first {@code count} elements of {@code order} sheet by sheet, opening a new sheet in the
+     * layout while elements are left. Elements that do not fit on an empty sheet are skipped.
+     */
+    void packSheets(PackingInput input, int[] order, int count, int sheetWidth, int sheetHeight, PackingLayout layout) {
+        cutCount = 0;
+        if (remaining.length < count) {
+            remaining = new int[count];
+        }
+        System.arraycopy(order, 0, remaining, 0, count);
+        int remainingCount = count;
+        while (remainingCount > 0) {
+            layout.addSheet(sheetWidth, sheetHeight);
+            int before = layout.count();
+            packSheet(input, remaining, remainingCount, sheetWidth, sheetHeight, layout);
+            if (layout.count() == before) {
+                return;
+            }
+
+            // Keep the elements left over, in order
+            if (placed.length < input.size()) {
+                placed = new boolean[input.size()];
+            }
+            for (int i = before; i < layout.count(); i++) {
+                placed[layout.element(i)] = true;
+            }
+            int kept = 0;
+            for (int i = 0; i < remainingCount; i++) {
+                if (!placed[remaining[i]]) {
+                    remaining[kept++] = remaining[i];
+                }
+            }
+            for (int i = before; i < layout.count(); i++) {
+                placed[layout.element(i)] = false;
+            }
+            remainingCount = kept;
+        }
+    }
+
+    int cutCount() {
+        return cutCount;
+    }
+
+    int cutSheet(int cut) {
+        return cutSheet[cut];
+    }
+
+    /**
+     * The cut that produced the region divided by {@code cut}, or -1 if it divides the trimmed sheet.
+     */
+    int cutParent(int cut) {
+        return cutParent[cut];
+    }
+
+    /**
+     * {@link #HORIZONTAL} or {@link #VERTICAL}.
+     */
+    int cutOrientation(int cut) {
+        return cutOrientation[cut];
+    }
+
+    /**
+     * The y of a horizontal or the x of a vertical cut: the edge of the kept part where the blade starts.
+     */
+    int cutPosition(int cut) {
+        return cutPosition[cut];
+    }
+
+    /**
+     * Start of the cut along its direction.
+     */
+    int cutFrom(int cut) {
+        return cutFrom[cut];
+    }
+
+    /**
+     * End of the cut along its direction.
+     */
+    int cutTo(int cut) {
+        return cutTo[cut];
+    }
+
+    private void packSheet(PackingInput input, int[] order, int count, int sheetWidth, int sheetHeight,
+                           PackingLayout layout) {
+        int sheet = Math.max(0, layout.sheetCount() - 1);
+        freeRegions.clear();
+        int usableWidth = sheetWidth - 2 * edgeTrim;
+        int usableHeight = sheetHeight - 2 * edgeTrim;
+        if (usableWidth <= 0 || usableHeight <= 0) {
+            return;
+        }
+        addRegion(edgeTrim, edgeTrim, usableWidth, usableHeight, NO_CUT);
+
+        for (int i = 0; i < count; i++) {
+            int element = order[i];
+            int elementWidth = input.width(element);
+            int elementHeight = input.height(element);
+
+            int normalSlot = freeRegions.findFirst(elementWidth, elementHeight);
+            int rotatedSlot = elementWidth != elementHeight ? freeRegions.findFirst(elementHeight, elementWidth) : -1;
+            boolean rotated;
+            if (normalSlot < 0 && rotatedSlot < 0) {
+                continue;
+            } else if (normalSlot < 0 || rotatedSlot < 0) {
+                rotated = normalSlot < 0;
+            } else if (normalSlot != rotatedSlot) {
+                rotated = rotatedSlot < normalSlot;
+            } else {
+                // Same region: keep the orientation leaving the longer usable offcut
+                int width = freeRegions.width(normalSlot);
+                int height = freeRegions.height(normalSlot);
+                int normalLeft = Math.min(width - elementWidth, height - elementHeight);
+                int rotatedLeft = Math.min(width - elementHeight, height - elementWidth);
+                rotated = rotatedLeft < normalLeft;
+            }
+
+            int slot = rotated ? rotatedSlot : normalSlot;
+            int placedWidth = rotated ? elementHeight : elementWidth;
+            int placedHeight = rotated ? elementWidth : elementHeight;
+            layout.add(element, regionX[slot], regionY[slot], placedWidth, placedHeight);
+            split(sheet, slot, placedWidth, placedHeight);
+        }
+    }
+
+    /**
+     * Cut the element out of the bottom-left corner of a free region and keep the offcuts as new regions.
+     */
+    private void split(int sheet, int slot, int placedWidth, int placedHeight) {
+        int x = regionX[slot];
+        int y = regionY[slot];
+        int width = freeRegions.width(slot);
+        int height = freeRegions.height(slot);
+        int parent = regionCut[slot];
+        freeRegions.update(slot, 0);
+
+        int leftoverWidth = width - placedWidth;
+        int leftoverHeight = height - placedHeight;
+        if (leftoverWidth <= leftoverHeight) {
+            // Horizontal cut across the region first, then a vertical cut through the element's strip
+            int first = leftoverHeight > 0 ? addCut(sheet, parent, HORIZONTAL, y + placedHeight, x, x + width) : parent;
+            int second = leftoverWidth > 0 ? addCut(sheet, first, VERTICAL, x + placedWidth, y, y + placedHeight) : first;
+            if (leftoverWidth > kerf) {
+                addRegion(x + placedWidth + kerf, y, leftoverWidth - kerf, placedHeight, second);
+            }
+            if (leftoverHeight > kerf) {
+                addRegion(x, y + placedHeight + kerf, width, leftoverHeight - kerf, first);
+            }
+        } else {
+            // Vertical cut across the region first, then a horizontal cut through the element's strip
+            int first = leftoverWidth > 0 ? addCut(sheet, parent, VERTICAL, x + placedWidth, y, y + height) : parent;
+            int second = leftoverHeight > 0 ? addCut(sheet, first, HORIZONTAL, y + placedHeight, x, x + placedWidth) : first;
+            if (leftoverHeight > kerf) {
+                addRegion(x, y + placedHeight + kerf, placedWidth, leftoverHeight - kerf, second);
+            }
+            if (leftoverWidth > kerf) {
+                addRegion(x + placedWidth + kerf, y, leftoverWidth - kerf, height, first);
+            }
+        }
+    }
+
+    private void addRegion(int x, int y, int width, int height, int cut) {
+        int slot = freeRegions.add(width, height);
+        if (slot == regionX.length) {
+            regionX = Arrays.copyOf(regionX, slot << 1);
+            regionY = Arrays.copyOf(regionY, slot << 1);
+            regionCut = Arrays.copyOf(regionCut, slot << 1);
+        }
+        regionX[slot] = x;
+        regionY[slot] = y;
+        regionCut[slot] = cut;
+    }
+
+    private int addCut(int sheet, int parent, int orientation, int position, int from, int to) {
+        if (cutCount == cutSheet.length) {
+            int length = cutCount << 1;
+            cutSheet = Arrays.copyOf(cutSheet, length);
+            cutParent = Arrays.copyOf(cutParent, length);
+            cutOrientation = Arrays.copyOf(cutOrientation, length);
+            cutPosition = Arrays.copyOf(cutPosition, length);
+            cutFrom = Arrays.copyOf(cutFrom, length);
+            cutTo = Arrays.copyOf(cutTo, length);
+        }
+        cutSheet[cutCount] = sheet;
+        cutParent[cutCount] = parent;
+        cutOrientation[cutCount] = orientation;
+        cutPosition[cutCount] = position;
+        cutFrom[cutCount] = from;
+        cutTo[cutCount] = to;
+        return cutCount++;
+    }
+}
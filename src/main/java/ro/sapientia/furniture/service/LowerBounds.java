@@ -0,0 +1,236 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Arrays;
+
+/**
+ * Lower bounds on the sheets and the strip height any layout of an order needs, with rotation
+ * allowed. Elements that fit on the sheet in neither orientation are ignored.
+ *
+ * The strip height bound (a strip of the sheet width) is the largest of the area bound, the
+ * tallest element in its flattest orientation and a Martello-Monaci-Vigo style bound: elements
+ * wider than half the strip can never stand side by side, so their heights add up, and narrower
+ * elements that cannot stand next to the widest of them need room above or below.
+ *
+ * The sheet count bound is the largest of the area bound and the Martello-Toth L2 bound of the
+ * one-dimensional problem formed by the elements taller than half a sheet (which can only stand
+ * side by side, so their widths must fit the sheet width) and symmetrically by the elements
+ * wider than half a sheet.
+ */
+final class LowerBounds {
+
+    private final int sheetWidth;
+    private final int sheetHeight;
+    private final long totalArea;
+    private final int sheetCount;
+    private final int stripHeight;
+
+    private LowerBounds(int sheetWidth, int sheetHeight, long totalArea, int sheetCount, int stripHeight) {
+        this.sheetWidth = sheetWidth;
+        this.sheetHeight = sheetHeight;
+        this.totalArea = totalArea;
+        this.sheetCount = sheetCount;
+        this.stripHeight = stripHeight;
+    }
+
+    static LowerBounds of(PackingInput input, int sheetWidth, int sheetHeight) {
+        int[] elements = new int[input.size()];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = i;
+        }
+        return of(input, elements, elements.length, sheetWidth, sheetHeight);
+    }
+
+    /**
+     * Bounds for the first {@code count} elements of {@code elements}.
+     */
+    static LowerBounds of(PackingInput input, int[] elements, int count, int sheetWidth, int sheetHeight) {
+        // Narrowest width and lowest height over the orientations that fit on a sheet
+        int[] minWidth = new int[count];
+        int[] minHeight = new int[count];
+        long[] area = new long[count];
+        boolean[] tall = new boolean[count];
+        boolean[] wide = new boolean[count];
+        int size = 0;
+        long totalArea = 0;
+        int tallest = 0;
+        for (int i = 0; i < count; i++) {
+            int w = input.width(elements[i]);
+            int h = input.height(elements[i]);
+            boolean normal = w <= sheetWidth && h <= sheetHeight;
+            boolean rotated = h <= sheetWidth && w <= sheetHeight;
+            if (!normal && !rotated) {
+                continue;
+            }
+            minWidth[size] = normal && rotated ? Math.min(w, h) : normal ? w : h;
+            minHeight[size] = normal && rotated ? Math.min(w, h) : normal ? h : w;
+            area[size] = (long) w * h;
+            tall[size] = 2L * minHeight[size] > sheetHeight;
+            wide[size] = 2L * minWidth[size] > sheetWidth;
+            totalArea += area[size];
+            tallest = Math.max(tallest, minHeight[size]);
+            size++;
+        }
+
+        long sheetArea = (long) sheetWidth * sheetHeight;
+        long sheets = ceilDiv(totalArea, sheetArea);
+        sheets = Math.max(sheets, binPackingBound(select(minWidth, tall, size), sheetWidth));
+        sheets = Math.max(sheets, binPackingBound(select(minHeight, wide, size), sheetHeight));
+
+        long strip = Math.max(ceilDiv(totalArea, sheetWidth), tallest);
+        strip = Math.max(strip, stripBound(minWidth, minHeight, area, size, sheetWidth));
+
+        return new LowerBounds(sheetWidth, sheetHeight, totalArea,
+                (int) Math.min(Integer.MAX_VALUE, sheets), (int) Math.min(Integer.MAX_VALUE, strip));
+    }
+
+    /**
+     * Fewest sheets any layout needs.
+     */
+    int sheetCount() {
+        return sheetCount;
+    }
+
+    /**
+     * Least height any layout needs on a strip of the sheet width.
+     */
+    int stripHeight() {
+        return stripHeight;
+    }
+
+    long totalArea() {
+        return totalArea;
+    }
+
+    /**
+     * Whether a layout with this score places all {@code elementCount} elements and cannot be
+     * beaten: the fewest sheets possible, the last one used no higher than the area left for it.
+     */
+    boolean isMetBy(PackingScore score, int elementCount) {
+        if (score.placedCount() < elementCount || score.sheetCount() > Math.max(1, sheetCount)) {
+            return false;
+        }
+        long lastSheetBound = score.sheetCount() <= 1 ? stripHeight
+                : ceilDiv(totalArea - (score.sheetCount() - 1) * (long) sheetWidth * sheetHeight, sheetWidth);
+        return score.lastSheetHeight() <= lastSheetBound;
+    }
+
+    /**
+     * Relative distance of a layout from the bound of what it minimizes: the sheet count of a
+     * multi-sheet plan, the used height of a single sheet. 0 means the layout is optimal.
+     */
+    double gap(PackingScore score, boolean multiSheet) {
+        if (multiSheet) {
+            return sheetCount > 0 ? (double) score.sheetCount() / sheetCount - 1 : 0;
+        }
+        return stripHeight > 0 ? (double) score.lastSheetHeight() / stripHeight - 1 : 0;
+    }
+
+    /**
+     * Strip height bound over the thresholds {@code p}: elements narrower than {@code p} are
+     * ignored, elements wider than {@code W - p} leave no room beside them for the others, and
+     * elements wider than {@code W / 2} stack.
+     */
+    private static long stripBound(int[] minWidth, int[] minHeight, long[] area, int size, int stripWidth) {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) minWidth[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] width = new int[size];
+        long[] heightBefore = new long[size + 1];
+        long[] areaBefore = new long[size + 1];
+        for (int k = 0; k < size; k++) {
+            int i = (int) keys[k];
+            width[k] = minWidth[i];
+            heightBefore[k + 1] = heightBefore[k] + minHeight[i];
+            areaBefore[k + 1] = areaBefore[k] + area[i];
+        }
+
+        int half = stripWidth / 2;
+        int wideStart = upperBound(width, size, half);
+        long best = 0;
+        for (int k = 0; k <= wideStart; k++) {
+            // Thresholds worth trying: every distinct narrow width, and half the strip
+            if (k < wideStart && k > 0 && width[k] == width[k - 1]) {
+                continue;
+            }
+            int p = k < wideStart ? width[k] : half;
+            int bigStart = upperBound(width, size, stripWidth - p);
+            int narrowStart = k < wideStart ? k : wideStart;
+            long big = heightBefore[size] - heightBefore[bigStart];
+            long stacked = heightBefore[bigStart] - heightBefore[wideStart];
+            long rest = ceilDiv(areaBefore[bigStart] - areaBefore[narrowStart], stripWidth);
+            best = Math.max(best, big + Math.max(stacked, rest));
+        }
+        return best;
+    }
+
+    /**
+     * Martello-Toth L2 bound for packing the given sizes into bins of the given capacity.
+     */
+    static long binPackingBound(int[] sizes, int capacity) {
+        int count = sizes.length;
+        if (count == 0) {
+            return 0;
+        }
+        Arrays.sort(sizes);
+        long[] sumBefore = new long[count + 1];
+        for (int k = 0; k < count; k++) {
+            sumBefore[k + 1] = sumBefore[k] + sizes[k];
+        }
+
+        int half = capacity / 2;
+        int largeStart = upperBound(sizes, count, half);
+        long best = 0;
+        for (int k = 0; k <= largeStart; k++) {
+            if (k < largeStart && k > 0 && sizes[k] == sizes[k - 1]) {
+                continue;
+            }
+            int alpha = k < largeStart ? sizes[k] : 0;
+            int bigStart = upperBound(sizes, count, capacity - alpha);
+            long items = count - largeStart;
+            long mediumSpace = (long) (bigStart - largeStart) * capacity - (sumBefore[bigStart] - sumBefore[largeStart]);
+            long smallSize = k < largeStart ? sumBefore[largeStart] - sumBefore[k] : 0;
+            best = Math.max(best, items + Math.max(0, ceilDiv(smallSize - mediumSpace, capacity)));
+        }
+        return best;
+    }
+
+    private static int[] select(int[] values, boolean[] selected, int size) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (selected[i]) {
+                count++;
+            }
+        }
+        int[] result = new int[count];
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            if (selected[i]) {
+                result[next++] = values[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Index of the first of the sorted values above {@code limit}.
+     */
+    private static int upperBound(int[] sorted, int size, long limit) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= limit) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return value <= 0 ? 0 : (value + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,177 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Arrays;
+
+/**
+ * MaxRects packing kernel working on primitive arrays.
+ * The sheet is described by the maximal free rectangles left between the placements. Every
+ * element goes into the free rectangle chosen by the heuristic, in either orientation, at its
+ * bottom-left corner; the free rectangles it overlaps are then split into the up to four
+ * maximal rectangles around it, and pieces covered by another free rectangle are dropped.
+ *
+ * Free rectangles are kept in a {@link FreeRectIndex}, so both the fit search and the split
+ * only look at the part of the sheet that matters. An instance keeps its buffers between runs
+ * and must only be used by one thread at a time.
+ */
+final class MaxRectsPacker implements SheetPacker {
+
+    /**
+     * How the free rectangle for an element is chosen.
+     */
+    enum Heuristic {
+        /** Minimize the shorter leftover side. */
+        BEST_SHORT_SIDE_FIT,
+        /** Minimize the leftover area. */
+        BEST_AREA_FIT
+    }
+
+    private final Heuristic heuristic;
+    private final FreeRectIndex freeRects;
+
+    // Pieces produced by one split: x, y, width, height per piece
+    private int[] pieces = new int[64];
+    private int pieceCount;
+
+    MaxRectsPacker(Heuristic heuristic, FreeRectIndex freeRects) {
+        this.heuristic = heuristic;
+        this.freeRects = freeRects;
+    }
+
+    @Override
+    public void pack(PackingInput input, int[] order, int count, int sheetWidth, int sheetHeight, PackingLayout layout) {
+        pack(input, order, count, sheetWidth, sheetHeight, layout, null);
+    }
+
+    @Override
+    public void pack(PackingInput input, int[] order, int count, int sheetWidth, int sheetHeight, PackingLayout layout,
+                     SearchBudget budget) {
+        reset(sheetWidth, sheetHeight);
+        fill(input, order, count, layout, budget);
+    }
+
+    /**
+     * Pack the first {@code count} elements of {@code order} into the free space left on the
+     * sheet, e.g. after {@link #occupy} marked the placements it already holds; elements which
+     * cannot be placed are skipped.
+     */
+    void fill(PackingInput input, int[] order, int count, PackingLayout layout) {
+        fill(input, order, count, layout, null);
+    }
+
+    private void fill(PackingInput input, int[] order, int count, PackingLayout layout, SearchBudget budget) {
+        boolean areaFit = heuristic == Heuristic.BEST_AREA_FIT;
+
+        for (int i = 0; i < count; i++) {
+            if (budget != null && budget.isExhausted()) {
+                return;
+            }
+            int element = order[i];
+            int slot = freeRects.findBest(input.width(element), input.height(element), areaFit);
+            if (slot < 0) {
+                continue;
+            }
+            boolean rotated = freeRects.bestRotated();
+            int placedWidth = rotated ? input.height(element) : input.width(element);
+            int placedHeight = rotated ? input.width(element) : input.height(element);
+            int placedX = freeRects.x(slot);
+            int placedY = freeRects.y(slot);
+            layout.add(element, placedX, placedY, placedWidth, placedHeight);
+            place(placedX, placedY, placedWidth, placedHeight);
+        }
+    }
+
+    /**
+     * Start over with one free rectangle covering the whole sheet.
+     */
+    void reset(int sheetWidth, int sheetHeight) {
+        freeRects.clear();
+        freeRects.add(0, 0, sheetWidth, sheetHeight);
+    }
+
+    /**
+     * Mark a rectangle of the sheet as used without packing an element into it, e.g. a placement
+     * made by another engine.
+     */
+    void occupy(int rectX, int rectY, int rectWidth, int rectHeight) {
+        place(rectX, rectY, rectWidth, rectHeight);
+    }
+
+    /**
+     * Split every free rectangle overlapping the placement and keep the maximal pieces.
+     */
+    private void place(int placedX, int placedY, int placedWidth, int placedHeight) {
+        int placedRight = placedX + placedWidth;
+        int placedTop = placedY + placedHeight;
+        pieceCount = 0;
+
+        int overlapping = freeRects.findOverlapping(placedX, placedY, placedWidth, placedHeight);
+        for (int i = 0; i < overlapping; i++) {
+            int slot = freeRects.found(i);
+            int freeX = freeRects.x(slot);
+            int freeY = freeRects.y(slot);
+            int freeRight = freeX + freeRects.width(slot);
+            int freeTop = freeY + freeRects.height(slot);
+            freeRects.remove(slot);
+
+            if (placedX > freeX) {
+                addPiece(freeX, freeY, placedX - freeX, freeTop - freeY);
+            }
+            if (placedRight < freeRight) {
+                addPiece(placedRight, freeY, freeRight - placedRight, freeTop - freeY);
+            }
+            if (placedY > freeY) {
+                addPiece(freeX, freeY, freeRight - freeX, placedY - freeY);
+            }
+            if (placedTop < freeTop) {
+                addPiece(freeX, placedTop, freeRight - freeX, freeTop - placedTop);
+            }
+        }
+
+        // The free rectangles left untouched were maximal already, so only new pieces can be covered
+        for (int p = 0; p < pieceCount; p++) {
+            int base = 4 * p;
+            if (!isCoveredByPiece(p) &&
+                    !freeRects.isCovered(pieces[base], pieces[base + 1], pieces[base + 2], pieces[base + 3])) {
+                freeRects.add(pieces[base], pieces[base + 1], pieces[base + 2], pieces[base + 3]);
+            }
+        }
+    }
+
+    /**
+     * Whether another piece of the current split contains piece {@code p}; of two equal pieces the first one is kept.
+     */
+    private boolean isCoveredByPiece(int p) {
+        int base = 4 * p;
+        int left = pieces[base];
+        int bottom = pieces[base + 1];
+        int right = left + pieces[base + 2];
+        int top = bottom + pieces[base + 3];
+        for (int q = 0; q < pieceCount; q++) {
+            if (q == p) {
+                continue;
+            }
+            int other = 4 * q;
+            int otherRight = pieces[other] + pieces[other + 2];
+            int otherTop = pieces[other + 1] + pieces[other + 3];
+            if (pieces[other] <= left && pieces[other + 1] <= bottom && otherRight >= right && otherTop >= top) {
+                boolean equal = pieces[other] == left && pieces[other + 1] == bottom &&
+                        otherRight == right && otherTop == top;
+                if (!equal || q < p) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addPiece(int pieceX, int pieceY, int pieceWidth, int pieceHeight) {
+        if (4 * pieceCount == pieces.length) {
+            pieces = Arrays.copyOf(pieces, pieces.length << 1);
+        }
+        int base = 4 * pieceCount++;
+        pieces[base] = pieceX;
+        pieces[base + 1] = pieceY;
+        pieces[base + 2] = pieceWidth;
+        pieces[base + 3] = pieceHeight;
+    }
+}
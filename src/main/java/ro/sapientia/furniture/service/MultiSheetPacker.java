@@ -0,0 +1,249 @@
+package ro.sapientia.furniture.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+
+/**
+ * Packs elements onto as many identical sheets as needed.
+ *
+ * The elements are first packed with FFDH onto a strip of the sheet width and unlimited
+ * height, using only levels that fit on a sheet (in parallel height bands for very large orders,
+ * see {@link PartitionedStripPacker}), and optionally improved by local search. The levels are
+ * then distributed over sheets with first fit decreasing on their heights, which decides which elements go onto which
+ * sheet. From there on the sheets are independent: each one is repacked on its own with the
+ * requested algorithm (concurrently for large orders), and the repacked layout replaces the
+ * stacked levels when it places every element in less height.
+ */
+final class MultiSheetPacker {
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final PartitionedStripPacker stripPacker;
+    private final int partitionThreshold;
+
+    MultiSheetPacker(ForkJoinPool pool, int parallelThreshold) {
+        this(pool, parallelThreshold, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param partitionThreshold smallest order whose strip is packed in parallel bands
+     */
+    MultiSheetPacker(ForkJoinPool pool, int parallelThreshold, int partitionThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.stripPacker = new PartitionedStripPacker(pool);
+        this.partitionThreshold = partitionThreshold;
+    }
+
+    /**
+     * Pack the first {@code count} elements of the workspace order into the workspace layout.
+     * Elements that do not fit on an empty sheet in either orientation are left out.
+     */
+    void pack(PackingWorkspace workspace, PackingAlgorithm algorithm, int count, int sheetWidth, int sheetHeight) {
+        pack(workspace, algorithm, count, sheetWidth, sheetHeight, null, 0);
+    }
+
+    /**
+     * Like {@link #pack(PackingWorkspace, PackingAlgorithm, int, int, int)}, but when an improvement
+     * budget is given the levels of the strip are first improved by the {@link ShelfImprover}
+     * until the budget runs out, so fewer or lower levels are spread over the sheets.
+     */
+    void pack(PackingWorkspace workspace, PackingAlgorithm algorithm, int count, int sheetWidth, int sheetHeight,
+              SearchBudget improvement, long seed) {
+        pack(workspace, algorithm, count, sheetWidth, sheetHeight, improvement, seed, null);
+    }
+
+    /**
+     * Like {@link #pack(PackingWorkspace, PackingAlgorithm, int, int, int)}, but the sheets are only
+     * repacked while the budget lasts; a sheet whose repacking the budget cuts short keeps its
+     * stacked levels, so every element is still placed.
+     */
+    void packWithin(PackingWorkspace workspace, PackingAlgorithm algorithm, int count, int sheetWidth, int sheetHeight,
+                    SearchBudget budget) {
+        pack(workspace, algorithm, count, sheetWidth, sheetHeight, null, 0, budget);
+    }
+
+    private void pack(PackingWorkspace workspace, PackingAlgorithm algorithm, int count, int sheetWidth, int sheetHeight,
+                      SearchBudget improvement, long seed, SearchBudget budget) {
+        PackingInput input = workspace.input();
+        PackingLayout strip = workspace.stripLayout();
+        strip.clear(count);
+        strip.addSheet(sheetWidth, Integer.MAX_VALUE);
+        if (count >= partitionThreshold) {
+            stripPacker.packStrip(workspace, count, sheetWidth, sheetHeight, strip);
+        } else {
+            workspace.ffdhPacker().packStrip(input, workspace.order(), count, sheetWidth, sheetHeight, strip);
+        }
+        if (improvement != null) {
+            workspace.shelfImprover().improve(input, workspace.order(), count, strip, sheetHeight,
+                    improvement, Long.MAX_VALUE, seed);
+        }
+
+        // Every distinct y of the strip is a level, as tall as its tallest placement
+        int[] levelY = new int[strip.count()];
+        for (int p = 0; p < strip.count(); p++) {
+            levelY[p] = strip.y(p);
+        }
+        Arrays.sort(levelY);
+        int levels = 0;
+        for (int p = 0; p < levelY.length; p++) {
+            if (levels == 0 || levelY[p] != levelY[levels - 1]) {
+                levelY[levels++] = levelY[p];
+            }
+        }
+        levelY = Arrays.copyOf(levelY, levels);
+        int[] levelHeight = new int[levels];
+        for (int p = 0; p < strip.count(); p++) {
+            int level = Arrays.binarySearch(levelY, strip.y(p));
+            levelHeight[level] = Math.max(levelHeight[level], strip.height(p));
+        }
+
+        // Assign levels to sheets: first fit decreasing on the level heights
+        long[] keys = new long[levels];
+        for (int l = 0; l < levels; l++) {
+            keys[l] = ((long) (Integer.MAX_VALUE - levelHeight[l]) << 32) | l;
+        }
+        Arrays.sort(keys);
+        FirstFitIndex sheets = new FirstFitIndex();
+        int[] levelSheet = new int[levels];
+        int[] levelOffset = new int[levels];
+        for (long key : keys) {
+            int level = (int) key;
+            int sheet = sheets.findFirst(levelHeight[level], 1);
+            if (sheet < 0) {
+                sheet = sheets.add(sheetHeight, 1);
+            }
+            int freeHeight = sheets.width(sheet);
+            levelSheet[level] = sheet;
+            levelOffset[level] = sheetHeight - freeHeight;
+            sheets.update(sheet, freeHeight - levelHeight[level]);
+        }
+        int sheetCount = sheets.size();
+
+        // Group the strip placements by sheet, keeping their packing order
+        int[] placementLevel = new int[strip.count()];
+        int[] start = new int[sheetCount + 1];
+        for (int p = 0; p < strip.count(); p++) {
+            placementLevel[p] = Arrays.binarySearch(levelY, strip.y(p));
+            start[levelSheet[placementLevel[p]] + 1]++;
+        }
+        for (int s = 0; s < sheetCount; s++) {
+            start[s + 1] += start[s];
+        }
+        int[] members = new int[strip.count()];
+        int[] next = Arrays.copyOf(start, sheetCount);
+        for (int p = 0; p < strip.count(); p++) {
+            members[next[levelSheet[placementLevel[p]]]++] = p;
+        }
+
+        List<SheetTask> tasks = new ArrayList<>(sheetCount);
+        for (int s = 0; s < sheetCount; s++) {
+            int size = start[s + 1] - start[s];
+            int[] placements = Arrays.copyOfRange(members, start[s], start[s + 1]);
+            int[] offsets = new int[size];
+            for (int i = 0; i < size; i++) {
+                int level = placementLevel[placements[i]];
+                offsets[i] = levelOffset[level] - levelY[level];
+            }
+            tasks.add(new SheetTask(input, strip, placements, offsets, algorithm, sheetWidth, sheetHeight, budget));
+        }
+
+        if (sheetCount > 1 && count >= parallelThreshold) {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } else {
+            for (SheetTask task : tasks) {
+                task.complete(task.packSheet(workspace.packer(algorithm)));
+            }
+        }
+
+        PackingLayout layout = workspace.layout();
+        layout.clear(count);
+        for (int s = 0; s < sheetCount; s++) {
+            PackingLayout sheetLayout = tasks.get(s).join();
+            layout.addSheet(sheetWidth, sheetHeight);
+            for (int i = 0; i < sheetLayout.count(); i++) {
+                layout.add(s, sheetLayout.element(i), sheetLayout.x(i), sheetLayout.y(i),
+                        sheetLayout.width(i), sheetLayout.height(i));
+            }
+        }
+    }
+
+    /**
+     * Lays out the elements assigned to one sheet.
+     */
+    private static final class SheetTask extends RecursiveTask<PackingLayout> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient PackingInput input;
+        private final transient PackingLayout strip;
+        private final int[] placements;
+        private final int[] offsets;
+        private final PackingAlgorithm algorithm;
+        private final int sheetWidth;
+        private final int sheetHeight;
+        private final transient SearchBudget budget;
+
+        SheetTask(PackingInput input, PackingLayout strip, int[] placements, int[] offsets,
+                  PackingAlgorithm algorithm, int sheetWidth, int sheetHeight, SearchBudget budget) {
+            this.input = input;
+            this.strip = strip;
+            this.placements = placements;
+            this.offsets = offsets;
+            this.algorithm = algorithm;
+            this.sheetWidth = sheetWidth;
+            this.sheetHeight = sheetHeight;
+            this.budget = budget;
+        }
+
+        @Override
+        protected PackingLayout compute() {
+            PackingWorkspace workspace = PackingWorkspace.acquire();
+            try {
+                return packSheet(workspace.packer(algorithm));
+            } finally {
+                workspace.release();
+            }
+        }
+
+        /**
+         * Repack the sheet's elements, falling back to the levels stacked by the assignment.
+         */
+        PackingLayout packSheet(SheetPacker packer) {
+            int size = placements.length;
+            int stackedHeight = 0;
+            int[] elements = new int[size];
+            for (int i = 0; i < size; i++) {
+                int p = placements[i];
+                elements[i] = strip.element(p);
+                stackedHeight = Math.max(stackedHeight, strip.y(p) + offsets[i] + strip.height(p));
+            }
+
+            PackingLayout sheet = new PackingLayout();
+            sheet.clear(size);
+            sheet.addSheet(sheetWidth, sheetHeight);
+            packer.pack(input, elements, size, sheetWidth, sheetHeight, sheet, budget);
+            if (sheet.count() == size && sheet.usedHeight(0) < stackedHeight) {
+                return sheet;
+            }
+
+            sheet.clear(size);
+            sheet.addSheet(sheetWidth, sheetHeight);
+            for (int i = 0; i < size; i++) {
+                int p = placements[i];
+                sheet.add(strip.element(p), strip.x(p), strip.y(p) + offsets[i], strip.width(p), strip.height(p));
+            }
+            return sheet;
+        }
+    }
+}
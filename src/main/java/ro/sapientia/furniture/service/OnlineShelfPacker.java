@@ -0,0 +1,191 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Arrays;
+
+/**
+ * Shelf packing for parts that arrive one at a time, without knowing the parts still to come.
+ *
+ * A part goes onto the first open level, in creation order, with enough free width and
+ * height for it in either orientation. Otherwise a new level as high as the part (laid on
+ * its longer side when that fits the sheet width) is opened on the first open sheet with
+ * enough height left, or on a new sheet. Levels and sheets are slots of {@link FirstFitIndex}es,
+ * so a placement takes O(log^2 n) in the number of levels instead of scanning them. Closed
+ * sheets and their levels are emptied in the indexes and never receive parts again.
+ * An instance must only be used by one thread at a time.
+ */
+final class OnlineShelfPacker {
+
+    private static final int NONE = -1;
+
+    private final int sheetWidth;
+    private final int sheetHeight;
+
+    // Free width and height per level, remaining height per sheet (width 1 while open)
+    private final FirstFitIndex levels = new FirstFitIndex();
+    private final FirstFitIndex sheets = new FirstFitIndex();
+
+    private int[] levelSheet = new int[16];
+    private int[] levelY = new int[16];
+    private int[] levelHeight = new int[16];
+    private int[] levelFree = new int[16];
+    private int[] levelNext = new int[16];
+
+    private int[] sheetUsedHeight = new int[4];
+    private int[] sheetFirstLevel = new int[4];
+    private boolean[] sheetOpen = new boolean[4];
+    private int openSheets;
+
+    private int lastSheet;
+    private int lastX;
+    private int lastY;
+    private int lastWidth;
+    private int lastHeight;
+
+    OnlineShelfPacker(int sheetWidth, int sheetHeight) {
+        this.sheetWidth = sheetWidth;
+        this.sheetHeight = sheetHeight;
+    }
+
+    /**
+     * Whether a part fits on an empty sheet in either orientation.
+     */
+    boolean fits(int width, int height) {
+        return width <= sheetWidth && height <= sheetHeight || height <= sheetWidth && width <= sheetHeight;
+    }
+
+    /**
+     * Place a part; the placement is described by {@link #lastSheet()} and the other accessors.
+     *
+     * @return false if the part does not fit on an empty sheet
+     */
+    boolean place(int width, int height) {
+        if (!fits(width, height)) {
+            return false;
+        }
+        int normal = levels.findFirst(width, height);
+        int rotated = levels.findFirst(height, width);
+        int level = normal < 0 ? rotated : rotated < 0 ? normal : Math.min(normal, rotated);
+        if (level >= 0) {
+            boolean turn = level != normal;
+            placeOnLevel(level, turn ? height : width, turn ? width : height);
+            return true;
+        }
+
+        // New level, as low as possible: the longer side along the sheet width when it fits
+        int longer = Math.max(width, height);
+        int shorter = Math.min(width, height);
+        int placedWidth = longer <= sheetWidth && shorter <= sheetHeight ? longer : shorter;
+        int placedHeight = placedWidth == longer ? shorter : longer;
+        int sheet = sheets.findFirst(placedHeight, 1);
+        if (sheet < 0) {
+            sheet = openSheet();
+        }
+        level = openLevel(sheet, placedHeight);
+        placeOnLevel(level, placedWidth, placedHeight);
+        return true;
+    }
+
+    /**
+     * Take a sheet out of packing; its levels no longer receive parts.
+     */
+    void closeSheet(int sheet) {
+        if (!sheetOpen[sheet]) {
+            return;
+        }
+        sheetOpen[sheet] = false;
+        openSheets--;
+        sheets.update(sheet, 0);
+        for (int level = sheetFirstLevel[sheet]; level != NONE; level = levelNext[level]) {
+            levels.update(level, 0);
+        }
+    }
+
+    boolean isOpen(int sheet) {
+        return sheetOpen[sheet];
+    }
+
+    int openSheetCount() {
+        return openSheets;
+    }
+
+    /**
+     * Number of sheets opened so far, closed ones included.
+     */
+    int sheetCount() {
+        return sheets.size();
+    }
+
+    int sheetWidth() {
+        return sheetWidth;
+    }
+
+    int sheetHeight() {
+        return sheetHeight;
+    }
+
+    int lastSheet() {
+        return lastSheet;
+    }
+
+    int lastX() {
+        return lastX;
+    }
+
+    int lastY() {
+        return lastY;
+    }
+
+    int lastWidth() {
+        return lastWidth;
+    }
+
+    int lastHeight() {
+        return lastHeight;
+    }
+
+    private void placeOnLevel(int level, int placedWidth, int placedHeight) {
+        lastSheet = levelSheet[level];
+        lastX = sheetWidth - levelFree[level];
+        lastY = levelY[level];
+        lastWidth = placedWidth;
+        lastHeight = placedHeight;
+        levelFree[level] -= placedWidth;
+        levels.update(level, levelFree[level]);
+    }
+
+    private int openSheet() {
+        int sheet = sheets.add(sheetHeight, 1);
+        if (sheet == sheetOpen.length) {
+            int capacity = sheet << 1;
+            sheetUsedHeight = Arrays.copyOf(sheetUsedHeight, capacity);
+            sheetFirstLevel = Arrays.copyOf(sheetFirstLevel, capacity);
+            sheetOpen = Arrays.copyOf(sheetOpen, capacity);
+        }
+        sheetUsedHeight[sheet] = 0;
+        sheetFirstLevel[sheet] = NONE;
+        sheetOpen[sheet] = true;
+        openSheets++;
+        return sheet;
+    }
+
+    private int openLevel(int sheet, int height) {
+        int level = levels.add(sheetWidth, height);
+        if (level == levelSheet.length) {
+            int capacity = level << 1;
+            levelSheet = Arrays.copyOf(levelSheet, capacity);
+            levelY = Arrays.copyOf(levelY, capacity);
+            levelHeight = Arrays.copyOf(levelHeight, capacity);
+            levelFree = Arrays.copyOf(levelFree, capacity);
+            levelNext = Arrays.copyOf(levelNext, capacity);
+        }
+        levelSheet[level] = sheet;
+        levelY[level] = sheetUsedHeight[sheet];
+        levelHeight[level] = height;
+        levelFree[level] = sheetWidth;
+        levelNext[level] = sheetFirstLevel[sheet];
+        sheetFirstLevel[sheet] = level;
+        sheetUsedHeight[sheet] += height;
+        sheets.update(sheet, sheetHeight - sheetUsedHeight[sheet]);
+        return level;
+    }
+}
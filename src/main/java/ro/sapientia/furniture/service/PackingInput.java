@@ -0,0 +1,121 @@
+package ro.sapientia.furniture.service;
+
+import java.util.List;
+
+import ro.sapientia.furniture.exception.CutOptimizationException;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
+
+/**
+ * Struct-of-arrays view of the elements of a cutting request.
+ * Element {@code i} is described by {@code ids[i]}, {@code widths[i]} and {@code heights[i]};
+ * the arrays are reused between requests and may be longer than {@link #size()}.
+ * A request element with a quantity becomes that many consecutive elements with the same id,
+ * which FFDH lays out as runs of identical parts; the other kernels place them one by one.
+ */
+final class PackingInput {
+
+    /**
+     * Stored in place of a missing element id.
+     */
+    static final long NO_ID = Long.MIN_VALUE;
+
+    private int size;
+    private long[] ids = new long[0];
+    private int[] widths = new int[0];
+    private int[] heights = new int[0];
+
+    /**
+     * Copy the elements of a request into the arrays, one entry per copy. Callers check
+     * {@link #copyCount} against {@code furniture.cut.max-parts} first.
+     */
+    void load(List<CutElementDTO> elements) {
+        reset((int) copyCount(elements));
+        int index = 0;
+        for (CutElementDTO element : elements) {
+            Long id = element.getId();
+            int copies = element.copies();
+            for (int c = 0; c < copies; c++) {
+                set(index++, id != null ? id : NO_ID, element.getWidth(), element.getHeight());
+            }
+        }
+    }
+
+    /**
+     * Number of parts the elements stand for, counting every copy.
+     */
+    static long copyCount(List<CutElementDTO> elements) {
+        long count = 0;
+        for (CutElementDTO element : elements) {
+            count += element.copies();
+        }
+        return count;
+    }
+
+    /**
+     * Check the number of parts of a request against {@code furniture.cut.max-parts}, before
+     * any array is sized for them.
+     *
+     * @throws CutOptimizationException if there are more than {@code maxParts}
+     */
+    static void checkPartCount(long parts, int maxParts) {
+        if (parts > maxParts) {
+            throw new CutOptimizationException(String.format(
+                    "Too many parts requested for cutting: %d, at most %d at once", parts, maxParts));
+        }
+    }
+
+    /**
+     * Resize to the given number of elements, growing the arrays if needed.
+     */
+    void reset(int newSize) {
+        if (ids.length < newSize) {
+            ids = new long[newSize];
+            widths = new int[newSize];
+            heights = new int[newSize];
+        }
+        size = newSize;
+    }
+
+    /**
+     * Replace the contents with a copy of another input.
+     */
+    void copyFrom(PackingInput other) {
+        reset(other.size);
+        System.arraycopy(other.ids, 0, ids, 0, size);
+        System.arraycopy(other.widths, 0, widths, 0, size);
+        System.arraycopy(other.heights, 0, heights, 0, size);
+    }
+
+    void set(int index, long id, int width, int height) {
+        ids[index] = id;
+        widths[index] = width;
+        heights[index] = height;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return ids.length;
+    }
+
+    long id(int index) {
+        return ids[index];
+    }
+
+    /**
+     * The id of an element as it appears in DTOs and entities.
+     */
+    Long boxedId(int index) {
+        return ids[index] != NO_ID ? ids[index] : null;
+    }
+
+    int width(int index) {
+        return widths[index];
+    }
+
+    int height(int index) {
+        return heights[index];
+    }
+}
@@ -0,0 +1,146 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays result of a packing run.
+ * Entry {@code i} places element {@code element(i)} of the {@link PackingInput} on sheet
+ * {@code sheet(i)} at {@code (x(i), y(i))} with the given (possibly rotated) width and height.
+ * Entries are kept in placement order and the arrays are reused between requests.
+ */
+final class PackingLayout {
+
+    private int sheetCount;
+    private int[] sheetWidths = new int[1];
+    private int[] sheetHeights = new int[1];
+
+    private int count;
+    private int[] sheet = new int[0];
+    private int[] element = new int[0];
+    private int[] x = new int[0];
+    private int[] y = new int[0];
+    private int[] width = new int[0];
+    private int[] height = new int[0];
+
+    /**
+     * Drop all placements and make room for the given number of them.
+     */
+    void clear(int capacity) {
+        if (element.length < capacity) {
+            sheet = new int[capacity];
+            element = new int[capacity];
+            x = new int[capacity];
+            y = new int[capacity];
+            width = new int[capacity];
+            height = new int[capacity];
+        }
+        count = 0;
+        sheetCount = 0;
+    }
+
+    /**
+     * Replace the contents with a copy of another layout.
+     */
+    void copyFrom(PackingLayout other) {
+        clear(other.count);
+        for (int s = 0; s < other.sheetCount; s++) {
+            addSheet(other.sheetWidths[s], other.sheetHeights[s]);
+        }
+        System.arraycopy(other.sheet, 0, sheet, 0, other.count);
+        System.arraycopy(other.element, 0, element, 0, other.count);
+        System.arraycopy(other.x, 0, x, 0, other.count);
+        System.arraycopy(other.y, 0, y, 0, other.count);
+        System.arraycopy(other.width, 0, width, 0, other.count);
+        System.arraycopy(other.height, 0, height, 0, other.count);
+        count = other.count;
+    }
+
+    /**
+     * Open a new sheet; placements added afterwards without a sheet index go onto it.
+     *
+     * @return the index of the new sheet
+     */
+    int addSheet(int width, int height) {
+        if (sheetCount == sheetWidths.length) {
+            sheetWidths = Arrays.copyOf(sheetWidths, sheetCount << 1);
+            sheetHeights = Arrays.copyOf(sheetHeights, sheetCount << 1);
+        }
+        sheetWidths[sheetCount] = width;
+        sheetHeights[sheetCount] = height;
+        return sheetCount++;
+    }
+
+    /**
+     * Place an element on the most recently opened sheet.
+     */
+    void add(int elementIndex, int posX, int posY, int placedWidth, int placedHeight) {
+        add(Math.max(0, sheetCount - 1), elementIndex, posX, posY, placedWidth, placedHeight);
+    }
+
+    void add(int sheetIndex, int elementIndex, int posX, int posY, int placedWidth, int placedHeight) {
+        sheet[count] = sheetIndex;
+        element[count] = elementIndex;
+        x[count] = posX;
+        y[count] = posY;
+        width[count] = placedWidth;
+        height[count] = placedHeight;
+        count++;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int capacity() {
+        return element.length;
+    }
+
+    int sheetCount() {
+        return sheetCount;
+    }
+
+    int sheetWidth(int sheetIndex) {
+        return sheetWidths[sheetIndex];
+    }
+
+    int sheetHeight(int sheetIndex) {
+        return sheetHeights[sheetIndex];
+    }
+
+    /**
+     * Height from the bottom edge of a sheet to the top of its highest placement.
+     */
+    int usedHeight(int sheetIndex) {
+        int used = 0;
+        for (int i = 0; i < count; i++) {
+            if (sheet[i] == sheetIndex) {
+                used = Math.max(used, y[i] + height[i]);
+            }
+        }
+        return used;
+    }
+
+    int sheet(int index) {
+        return sheet[index];
+    }
+
+    int element(int index) {
+        return element[index];
+    }
+
+    int x(int index) {
+        return x[index];
+    }
+
+    int y(int index) {
+        return y[index];
+    }
+
+    int width(int index) {
+        return width[index];
+    }
+
+    int height(int index) {
+        return height[index];
+    }
+}
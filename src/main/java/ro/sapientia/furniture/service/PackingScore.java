@@ -0,0 +1,58 @@
+package ro.sapientia.furniture.service;
+
+/**
+ * Quality of a layout, used to pick the best of several. A layout is better when it places
+ * more elements, then when it needs fewer sheets, then when its last sheet is used to a lower
+ * height, which leaves the largest reusable offcut. For the same elements this orders layouts
+ * by sheet utilization.
+ */
+final class PackingScore {
+
+    private final int placedCount;
+    private final int sheetCount;
+    private final int lastSheetHeight;
+
+    private PackingScore(int placedCount, int sheetCount, int lastSheetHeight) {
+        this.placedCount = placedCount;
+        this.sheetCount = sheetCount;
+        this.lastSheetHeight = lastSheetHeight;
+    }
+
+    static PackingScore of(PackingLayout layout) {
+        int sheetCount = 0;
+        for (int i = 0; i < layout.count(); i++) {
+            sheetCount = Math.max(sheetCount, layout.sheet(i) + 1);
+        }
+        return new PackingScore(layout.count(), sheetCount, sheetCount > 0 ? layout.usedHeight(sheetCount - 1) : 0);
+    }
+
+    boolean isBetterThan(PackingScore other) {
+        if (other == null) {
+            return true;
+        }
+        if (placedCount != other.placedCount) {
+            return placedCount > other.placedCount;
+        }
+        if (sheetCount != other.sheetCount) {
+            return sheetCount < other.sheetCount;
+        }
+        return lastSheetHeight < other.lastSheetHeight;
+    }
+
+    int placedCount() {
+        return placedCount;
+    }
+
+    int sheetCount() {
+        return sheetCount;
+    }
+
+    int lastSheetHeight() {
+        return lastSheetHeight;
+    }
+
+    @Override
+    public String toString() {
+        return placedCount + " placed on " + sheetCount + " sheet(s), last used to " + lastSheetHeight;
+    }
+}
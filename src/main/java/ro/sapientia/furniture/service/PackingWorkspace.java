@@ -0,0 +1,222 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Arrays;
+
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+
+/**
+ * Per-thread buffers for one optimization run: the struct-of-arrays input, the element
+ * order, the output and scratch layouts and the packing kernels with their buffers.
+ * Kernels other than FFDH are created on first use.
+ *
+ * Workspaces are cached per thread and handed out with {@link #acquire()}; every acquire
+ * must be paired with {@link #release()}. A thread that is already using its workspace
+ * (e.g. a ForkJoin worker running a nested task) gets a temporary one instead. Workspaces
+ * that grew beyond {@link #RETAINED_CAPACITY} elements are not kept, so one huge order does
+ * not pin memory on every request thread.
+ */
+final class PackingWorkspace {
+
+    static final int RETAINED_CAPACITY = 1 << 14;
+
+    private static final ThreadLocal<PackingWorkspace> CURRENT = new ThreadLocal<>();
+
+    private final PackingInput input = new PackingInput();
+    private final PackingLayout layout = new PackingLayout();
+    private final PackingLayout stripLayout = new PackingLayout();
+    private final FfdhPacker ffdhPacker = new FfdhPacker();
+    private FfdhPacker bfdhPacker;
+    private FreeRectIndex freeRects;
+    private MaxRectsPacker maxRectsShortSide;
+    private MaxRectsPacker maxRectsArea;
+    private SkylinePacker skylineBottomLeft;
+    private SkylinePacker skylineMinWaste;
+    private GuillotinePacker guillotinePacker;
+    private ShelfImprover shelfImprover;
+    private ExactSolver exactSolver;
+    private RemnantExtractor remnantExtractor;
+    private long[] sortKeys = new long[0];
+    private int[] order = new int[0];
+    private boolean inUse;
+    private boolean cached;
+
+    private PackingWorkspace() {
+    }
+
+    /**
+     * Get the workspace of the current thread, or a temporary one if it is already in use.
+     */
+    static PackingWorkspace acquire() {
+        PackingWorkspace workspace = CURRENT.get();
+        if (workspace == null) {
+            workspace = new PackingWorkspace();
+            workspace.cached = true;
+            CURRENT.set(workspace);
+        } else if (workspace.inUse) {
+            workspace = new PackingWorkspace();
+        }
+        workspace.inUse = true;
+        return workspace;
+    }
+
+    /**
+     * Hand the workspace back to its thread.
+     */
+    void release() {
+        inUse = false;
+        if (cached && input.capacity() > RETAINED_CAPACITY) {
+            CURRENT.remove();
+        }
+    }
+
+    PackingInput input() {
+        return input;
+    }
+
+    PackingLayout layout() {
+        return layout;
+    }
+
+    /**
+     * Scratch layout for intermediate results, e.g. the strip packed before splitting it into sheets.
+     */
+    PackingLayout stripLayout() {
+        return stripLayout;
+    }
+
+    FfdhPacker ffdhPacker() {
+        return ffdhPacker;
+    }
+
+    /**
+     * Kernel for the given algorithm, sharing this workspace's buffers.
+     */
+    SheetPacker packer(PackingAlgorithm algorithm) {
+        switch (algorithm) {
+            case BFDH:
+                if (bfdhPacker == null) {
+                    bfdhPacker = new FfdhPacker(true);
+                }
+                return bfdhPacker;
+            case MAXRECTS_BSSF:
+                if (maxRectsShortSide == null) {
+                    maxRectsShortSide = new MaxRectsPacker(MaxRectsPacker.Heuristic.BEST_SHORT_SIDE_FIT, freeRects());
+                }
+                return maxRectsShortSide;
+            case MAXRECTS_BAF:
+                if (maxRectsArea == null) {
+                    maxRectsArea = new MaxRectsPacker(MaxRectsPacker.Heuristic.BEST_AREA_FIT, freeRects());
+                }
+                return maxRectsArea;
+            case SKYLINE_BL:
+                if (skylineBottomLeft == null) {
+                    skylineBottomLeft = new SkylinePacker(SkylinePacker.Heuristic.BOTTOM_LEFT);
+                }
+                return skylineBottomLeft;
+            case SKYLINE_MIN_WASTE:
+                if (skylineMinWaste == null) {
+                    skylineMinWaste = new SkylinePacker(SkylinePacker.Heuristic.MIN_WASTE);
+                }
+                return skylineMinWaste;
+            case GUILLOTINE:
+                return guillotinePacker();
+            default:
+                return ffdhPacker;
+        }
+    }
+
+    /**
+     * The MaxRects best area fit kernel, for filling the free space of a sheet around placements it already holds.
+     */
+    MaxRectsPacker areaFitPacker() {
+        return (MaxRectsPacker) packer(PackingAlgorithm.MAXRECTS_BAF);
+    }
+
+    GuillotinePacker guillotinePacker() {
+        if (guillotinePacker == null) {
+            guillotinePacker = new GuillotinePacker();
+        }
+        return guillotinePacker;
+    }
+
+    ShelfImprover shelfImprover() {
+        if (shelfImprover == null) {
+            shelfImprover = new ShelfImprover();
+        }
+        return shelfImprover;
+    }
+
+    ExactSolver exactSolver() {
+        if (exactSolver == null) {
+            exactSolver = new ExactSolver();
+        }
+        return exactSolver;
+    }
+
+    RemnantExtractor remnantExtractor() {
+        if (remnantExtractor == null) {
+            remnantExtractor = new RemnantExtractor();
+        }
+        return remnantExtractor;
+    }
+
+    private FreeRectIndex freeRects() {
+        if (freeRects == null) {
+            freeRects = new FreeRectIndex();
+        }
+        return freeRects;
+    }
+
+    int[] order() {
+        return order;
+    }
+
+    /**
+     * Order the input elements by decreasing height, keeping the input order among equal heights.
+     *
+     * @return the element indexes in packing order; only the first {@code input().size()} entries are valid
+     */
+    int[] sortByHeightDescending() {
+        return sortDescending(SortKey.HEIGHT);
+    }
+
+    /**
+     * Use the input order as packing order, for inputs loaded from an already sorted order.
+     *
+     * @return the element indexes in packing order; only the first {@code input().size()} entries are valid
+     */
+    int[] orderAsGiven() {
+        int size = input.size();
+        if (order.length < size) {
+            sortKeys = new long[size];
+            order = new int[size];
+        }
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Order the input elements by decreasing key, keeping the input order among equal keys.
+     * Each element is encoded as one primitive key (inverted key in the high half, element
+     * index in the low half), so the sort needs no comparator and no boxing.
+     *
+     * @return the element indexes in packing order; only the first {@code input().size()} entries are valid
+     */
+    int[] sortDescending(SortKey key) {
+        int size = input.size();
+        if (sortKeys.length < size) {
+            sortKeys = new long[size];
+            order = new int[size];
+        }
+        for (int i = 0; i < size; i++) {
+            sortKeys[i] = ((long) (Integer.MAX_VALUE - key.of(input.width(i), input.height(i))) << 32) | i;
+        }
+        Arrays.sort(sortKeys, 0, size);
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) sortKeys[i];
+        }
+        return order;
+    }
+}
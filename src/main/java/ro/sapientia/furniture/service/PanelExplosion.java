@@ -0,0 +1,51 @@
+package ro.sapientia.furniture.service;
+
+import java.util.List;
+
+import ro.sapientia.furniture.exception.CutOptimizationException;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
+
+/**
+ * Splits a furniture body, a carcass of the body's outer width, height and depth, into the
+ * panels cut for it from boards of one thickness: two sides of full height, a top and a
+ * bottom between the sides, and a back set in between all four. Every panel carries the id
+ * of its body and the board thickness as depth; the copies of a panel are one element with a
+ * quantity, so FFDH lays them out as runs of identical parts.
+ */
+final class PanelExplosion {
+
+    /**
+     * Panels cut for one body: two sides, a top, a bottom and a back.
+     */
+    static final int PANELS_PER_BODY = 5;
+
+    private PanelExplosion() {
+    }
+
+    /**
+     * The panels of {@code quantity} copies of the body.
+     *
+     * @throws CutOptimizationException if the body is too small for panels of that thickness
+     */
+    static List<CutElementDTO> explode(FurnitureBodyCatalog.Body body, int quantity, int thickness) {
+        int innerWidth = body.getWidth() - 2 * thickness;
+        int innerHeight = body.getHeight() - 2 * thickness;
+        if (innerWidth < 1 || innerHeight < 1 || body.getDepth() < 1) {
+            throw new CutOptimizationException(String.format(
+                    "Furniture body %d (%dx%dx%d) is too small for %d mm panels",
+                    body.getId(), body.getWidth(), body.getHeight(), body.getDepth(), thickness));
+        }
+        int pairs = Math.multiplyExact(2, quantity);
+        return List.of(
+                panel(body, body.getDepth(), body.getHeight(), pairs, thickness),
+                panel(body, innerWidth, body.getDepth(), pairs, thickness),
+                panel(body, innerWidth, innerHeight, quantity, thickness));
+    }
+
+    private static CutElementDTO panel(FurnitureBodyCatalog.Body body, int width, int height, int quantity, int thickness) {
+        CutElementDTO panel = new CutElementDTO(body.getId(), width, height);
+        panel.setDepth(thickness);
+        panel.setQuantity(quantity);
+        return panel;
+    }
+}
@@ -0,0 +1,197 @@
+package ro.sapientia.furniture.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * FFDH strip packing for very large orders, split into height bands packed in parallel.
+ *
+ * The elements, already sorted by decreasing height, are cut into contiguous bands of at least
+ * {@link #MIN_BAND_SIZE} elements, a few per worker of the pool. Each band is packed onto its own
+ * strip with FFDH; the strips are then stacked in band order. Stacking loses what sequential FFDH
+ * gains at the band boundaries, where the short elements of one band would fill the free width
+ * left on the levels of the band before, so the last {@link #REFINED_LEVELS} levels of every band
+ * are taken apart and their elements are packed again, first into the free width of all kept
+ * levels and then onto new levels on top.
+ */
+final class PartitionedStripPacker {
+
+    /**
+     * Smallest band worth a task of its own.
+     */
+    static final int MIN_BAND_SIZE = 4_096;
+
+    /**
+     * Top levels of every band that are repacked when the bands are merged.
+     */
+    static final int REFINED_LEVELS = 2;
+
+    private static final int BANDS_PER_WORKER = 2;
+
+    private final ForkJoinPool pool;
+
+    PartitionedStripPacker(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Pack the first {@code count} elements of the workspace order onto a strip, like
+     * {@link FfdhPacker#packStrip}. Orders too small for two bands are packed sequentially.
+     */
+    void packStrip(PackingWorkspace workspace, int count, int stripWidth, int maxLevelHeight, PackingLayout strip) {
+        PackingInput input = workspace.input();
+        int[] order = workspace.order();
+        int bandCount = Math.min(count / MIN_BAND_SIZE, pool.getParallelism() * BANDS_PER_WORKER);
+        if (bandCount < 2) {
+            workspace.ffdhPacker().packStrip(input, order, count, stripWidth, maxLevelHeight, strip);
+            return;
+        }
+
+        List<BandTask> tasks = new ArrayList<>(bandCount);
+        for (int b = 0; b < bandCount; b++) {
+            tasks.add(new BandTask(input, order, (int) ((long) count * b / bandCount),
+                    (int) ((long) count * (b + 1) / bandCount), stripWidth, maxLevelHeight));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        // Stack the kept levels of the bands; the elements of their top levels are refined below
+        int[] refined = new int[count];
+        int refinedCount = 0;
+        int levels = 0;
+        for (BandTask task : tasks) {
+            levels += task.join().keptLevels;
+        }
+        int[] levelY = new int[levels];
+        int[] levelUsedWidth = new int[levels];
+        int[] levelHeight = new int[levels];
+        levels = 0;
+        int offset = 0;
+        for (BandTask task : tasks) {
+            Band band = task.join();
+            PackingLayout layout = band.layout;
+            for (int p = 0; p < layout.count(); p++) {
+                int level = band.level[p];
+                if (level < band.keptLevels) {
+                    strip.add(layout.element(p), layout.x(p), layout.y(p) + offset, layout.width(p), layout.height(p));
+                } else {
+                    refined[refinedCount++] = layout.element(p);
+                }
+            }
+            for (int level = 0; level < band.keptLevels; level++) {
+                levelY[levels] = band.levelY[level] + offset;
+                levelUsedWidth[levels] = band.levelUsedWidth[level];
+                levelHeight[levels] = band.levelHeight[level];
+                levels++;
+            }
+            offset += band.keptHeight;
+        }
+
+        workspace.ffdhPacker().fillStrip(input, refined, refinedCount, stripWidth, maxLevelHeight,
+                levelY, levelUsedWidth, levelHeight, levels, offset, strip);
+    }
+
+    /**
+     * Pack onto a single sheet with FFDH. The partitioned strip is used when it fits on the sheet,
+     * otherwise the sheet is packed sequentially, which may still fit more elements.
+     */
+    void packSheet(PackingWorkspace workspace, int count, int sheetWidth, int sheetHeight, PackingLayout layout) {
+        PackingLayout strip = workspace.stripLayout();
+        strip.clear(count);
+        strip.addSheet(sheetWidth, Integer.MAX_VALUE);
+        packStrip(workspace, count, sheetWidth, sheetHeight, strip);
+        if (strip.count() == count && strip.usedHeight(0) <= sheetHeight) {
+            for (int p = 0; p < strip.count(); p++) {
+                layout.add(strip.element(p), strip.x(p), strip.y(p), strip.width(p), strip.height(p));
+            }
+        } else {
+            workspace.ffdhPacker().pack(workspace.input(), workspace.order(), count, sheetWidth, sheetHeight, layout);
+        }
+    }
+
+    /**
+     * The strip of one band with its levels, bottom up.
+     */
+    private static final class Band {
+        final PackingLayout layout;
+        final int[] level;
+        final int[] levelY;
+        final int[] levelUsedWidth;
+        final int[] levelHeight;
+        final int keptLevels;
+        final int keptHeight;
+
+        Band(PackingLayout layout) {
+            this.layout = layout;
+            int count = layout.count();
+            int[] ys = new int[count];
+            for (int p = 0; p < count; p++) {
+                ys[p] = layout.y(p);
+            }
+            Arrays.sort(ys);
+            int levels = 0;
+            for (int p = 0; p < count; p++) {
+                if (levels == 0 || ys[p] != ys[levels - 1]) {
+                    ys[levels++] = ys[p];
+                }
+            }
+            levelY = Arrays.copyOf(ys, levels);
+            levelUsedWidth = new int[levels];
+            levelHeight = new int[levels];
+            level = new int[count];
+            for (int p = 0; p < count; p++) {
+                level[p] = Arrays.binarySearch(levelY, layout.y(p));
+                levelUsedWidth[level[p]] = Math.max(levelUsedWidth[level[p]], layout.x(p) + layout.width(p));
+                levelHeight[level[p]] = Math.max(levelHeight[level[p]], layout.height(p));
+            }
+            keptLevels = Math.max(0, levels - REFINED_LEVELS);
+            keptHeight = keptLevels < levels ? levelY[keptLevels] : layout.usedHeight(0);
+        }
+    }
+
+    /**
+     * Packs the elements {@code from} (inclusive) to {@code to} (exclusive) of the order onto a strip.
+     */
+    private static final class BandTask extends RecursiveTask<Band> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient PackingInput input;
+        private final int[] order;
+        private final int from;
+        private final int to;
+        private final int stripWidth;
+        private final int maxLevelHeight;
+
+        BandTask(PackingInput input, int[] order, int from, int to, int stripWidth, int maxLevelHeight) {
+            this.input = input;
+            this.order = order;
+            this.from = from;
+            this.to = to;
+            this.stripWidth = stripWidth;
+            this.maxLevelHeight = maxLevelHeight;
+        }
+
+        @Override
+        protected Band compute() {
+            int[] elements = Arrays.copyOfRange(order, from, to);
+            PackingLayout layout = new PackingLayout();
+            layout.clear(elements.length);
+            layout.addSheet(stripWidth, Integer.MAX_VALUE);
+            PackingWorkspace workspace = PackingWorkspace.acquire();
+            try {
+                workspace.ffdhPacker().packStrip(input, elements, elements.length, stripWidth, maxLevelHeight, layout);
+            } finally {
+                workspace.release();
+            }
+            return new Band(layout);
+        }
+    }
+}
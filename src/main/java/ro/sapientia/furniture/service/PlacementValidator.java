@@ -0,0 +1,276 @@
+package ro.sapientia.furniture.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import ro.sapientia.furniture.exception.CutOptimizationException;
+
+/**
+ * Checks that the placements of a layout stay on their sheet and do not overlap.
+ *
+ * Overlaps are found with a sweep line over x: placements enter and leave the sweep at
+ * their left and right edges, and a segment tree over the compressed y coordinates counts
+ * how many active placements cover each y range. A placement that enters over a range
+ * already covered overlaps an active one. This is O(n log n) instead of comparing every pair.
+ *
+ * Every sheet is swept on its own. For layouts with at least {@code parallelThreshold}
+ * placements the sweeps run on the given pool, and sheets that large are further split into
+ * vertical stripes; a placement crossing a stripe border takes part in the sweep of every
+ * stripe it touches.
+ */
+final class PlacementValidator {
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    PlacementValidator(ForkJoinPool pool, int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Check bounds and overlaps on every sheet of the layout.
+     *
+     * @throws CutOptimizationException naming the first offending element(s)
+     */
+    void validate(PackingInput input, PackingLayout layout) {
+        validateBounds(input, layout);
+        validateOverlaps(input, layout);
+    }
+
+    /**
+     * Check that every placement lies within its sheet.
+     */
+    void validateBounds(PackingInput input, PackingLayout layout) {
+        for (int i = 0; i < layout.count(); i++) {
+            int sheet = layout.sheet(i);
+            if (layout.x(i) < 0 || layout.y(i) < 0 ||
+                    (long) layout.x(i) + layout.width(i) > layout.sheetWidth(sheet) ||
+                    (long) layout.y(i) + layout.height(i) > layout.sheetHeight(sheet)) {
+                throw new CutOptimizationException(
+                        "Element " + input.boxedId(layout.element(i)) + " is out of sheet bounds"
+                );
+            }
+        }
+    }
+
+    /**
+     * Check that no two placements on the same sheet overlap. Bounds must have been validated first.
+     */
+    void validateOverlaps(PackingInput input, PackingLayout layout) {
+        int count = layout.count();
+        int sheetCount = Math.max(1, layout.sheetCount());
+
+        // Group placements by sheet
+        int[] start = new int[sheetCount + 1];
+        for (int i = 0; i < count; i++) {
+            start[layout.sheet(i) + 1]++;
+        }
+        for (int s = 0; s < sheetCount; s++) {
+            start[s + 1] += start[s];
+        }
+        int[] members = new int[count];
+        int[] next = Arrays.copyOf(start, sheetCount);
+        for (int i = 0; i < count; i++) {
+            members[next[layout.sheet(i)]++] = i;
+        }
+
+        List<SheetSweep> tasks = new ArrayList<>();
+        for (int s = 0; s < sheetCount; s++) {
+            int[] sheetMembers = Arrays.copyOfRange(members, start[s], start[s + 1]);
+            int sheetWidth = layout.sheetCount() > 0 ? layout.sheetWidth(s) : 0;
+            int stripes = Math.min(pool.getParallelism() * 2, sheetWidth);
+            if (sheetMembers.length < parallelThreshold || stripes < 2) {
+                tasks.add(new SheetSweep(input, layout, sheetMembers, Integer.MIN_VALUE, Integer.MAX_VALUE));
+                continue;
+            }
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                int from = (int) ((long) sheetWidth * stripe / stripes);
+                int to = (int) ((long) sheetWidth * (stripe + 1) / stripes);
+                tasks.add(new SheetSweep(input, layout, sheetMembers, from, to));
+            }
+        }
+
+        if (tasks.size() > 1 && count >= parallelThreshold) {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } else {
+            for (SheetSweep task : tasks) {
+                task.compute();
+            }
+        }
+    }
+
+    /**
+     * Sweep the given placements from left to right.
+     */
+    private static void sweep(PackingInput input, PackingLayout layout, int[] members, int count) {
+        if (count < 2) {
+            return;
+        }
+
+        // Compressed y coordinates of all top and bottom edges
+        int[] ys = new int[2 * count];
+        for (int i = 0; i < count; i++) {
+            int p = members[i];
+            ys[2 * i] = layout.y(p);
+            ys[2 * i + 1] = layout.y(p) + layout.height(p);
+        }
+        Arrays.sort(ys);
+        int distinct = 0;
+        for (int i = 0; i < ys.length; i++) {
+            if (distinct == 0 || ys[distinct - 1] != ys[i]) {
+                ys[distinct++] = ys[i];
+            }
+        }
+
+        // Events: x in the high half, then leave (0) before enter (1) so touching edges do not overlap
+        long[] events = new long[2 * count];
+        for (int i = 0; i < count; i++) {
+            int p = members[i];
+            events[2 * i] = ((long) (layout.x(p) + layout.width(p)) << 32) | i;
+            events[2 * i + 1] = ((long) layout.x(p) << 32) | (1L << 31) | i;
+        }
+        Arrays.sort(events);
+
+        CoverageTree coverage = new CoverageTree(distinct - 1);
+        for (long event : events) {
+            int i = (int) (event & 0x7FFFFFFF);
+            int p = members[i];
+            int from = Arrays.binarySearch(ys, 0, distinct, layout.y(p));
+            int to = Arrays.binarySearch(ys, 0, distinct, layout.y(p) + layout.height(p));
+            if ((event & (1L << 31)) != 0) {
+                if (coverage.max(from, to) > 0) {
+                    throw overlapException(input, layout, members, count, i);
+                }
+                coverage.add(from, to, 1);
+            } else {
+                coverage.add(from, to, -1);
+            }
+        }
+    }
+
+    /**
+     * Build the overlap error for a placement known to overlap another member.
+     */
+    private static CutOptimizationException overlapException(PackingInput input, PackingLayout layout,
+                                                             int[] members, int count, int entering) {
+        int p1 = members[entering];
+        for (int j = 0; j < count; j++) {
+            int p2 = members[j];
+            if (p2 != p1 && overlap(layout, p1, p2)) {
+                int first = Math.min(p1, p2);
+                int second = Math.max(p1, p2);
+                return new CutOptimizationException(
+                        "Elements " + input.boxedId(layout.element(first)) + " and " +
+                                input.boxedId(layout.element(second)) + " overlap"
+                );
+            }
+        }
+        return new CutOptimizationException("Element " + input.boxedId(layout.element(p1)) + " overlaps another element");
+    }
+
+    private static boolean overlap(PackingLayout layout, int p1, int p2) {
+        return !(layout.x(p1) + layout.width(p1) <= layout.x(p2) ||
+                layout.x(p2) + layout.width(p2) <= layout.x(p1) ||
+                layout.y(p1) + layout.height(p1) <= layout.y(p2) ||
+                layout.y(p2) + layout.height(p2) <= layout.y(p1));
+    }
+
+    /**
+     * Sweep of the placements of one sheet, or of those touching one vertical stripe of it.
+     */
+    private static final class SheetSweep extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient PackingInput input;
+        private final transient PackingLayout layout;
+        private final int[] members;
+        private final int from;
+        private final int to;
+
+        SheetSweep(PackingInput input, PackingLayout layout, int[] members, int from, int to) {
+            this.input = input;
+            this.layout = layout;
+            this.members = members;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int[] stripe = new int[members.length];
+            int count = 0;
+            for (int i : members) {
+                if (layout.x(i) < to && layout.x(i) + layout.width(i) > from) {
+                    stripe[count++] = i;
+                }
+            }
+            sweep(input, layout, stripe, count);
+        }
+    }
+
+    /**
+     * Segment tree over elementary y intervals supporting range add and range max.
+     * Adds are kept on the nodes they cover instead of being pushed down.
+     */
+    private static final class CoverageTree {
+        private final int size;
+        private final int[] max;
+        private final int[] pending;
+
+        CoverageTree(int size) {
+            this.size = Math.max(1, size);
+            this.max = new int[4 * this.size];
+            this.pending = new int[4 * this.size];
+        }
+
+        /**
+         * Add to the elementary intervals [from, to).
+         */
+        void add(int from, int to, int delta) {
+            add(1, 0, size, from, to, delta);
+        }
+
+        /**
+         * Maximum coverage over the elementary intervals [from, to).
+         */
+        int max(int from, int to) {
+            return max(1, 0, size, from, to);
+        }
+
+        private void add(int node, int lo, int hi, int from, int to, int delta) {
+            if (to <= lo || hi <= from) {
+                return;
+            }
+            if (from <= lo && hi <= to) {
+                max[node] += delta;
+                pending[node] += delta;
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            add(node << 1, lo, mid, from, to, delta);
+            add((node << 1) + 1, mid, hi, from, to, delta);
+            max[node] = pending[node] + Math.max(max[node << 1], max[(node << 1) + 1]);
+        }
+
+        private int max(int node, int lo, int hi, int from, int to) {
+            if (to <= lo || hi <= from) {
+                return Integer.MIN_VALUE;
+            }
+            if (from <= lo && hi <= to) {
+                return max[node];
+            }
+            int mid = (lo + hi) >>> 1;
+            int child = Math.max(max(node << 1, lo, mid, from, to), max((node << 1) + 1, mid, hi, from, to));
+            return child == Integer.MIN_VALUE ? child : child + pending[node];
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package ro.sapientia.furniture.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+import ro.sapientia.furniture.util.AppLogger;
+
+/**
+ * Runs several packing strategies (engine and sort key) on the same order and keeps the best
+ * layout by {@link PackingScore}.
+ *
+ * The first strategy runs on the calling thread, so there is always a result. The others are
+ * taken from a shared queue by at most {@code concurrency} tasks on the pool, which bounds the
+ * cores one request can use. The search ends when every strategy ran, when the budget runs out
+ * or when a layout meets the {@link LowerBounds} and cannot be improved. The kernels of the
+ * strategies still running check the budget between placements and give up, and tasks not
+ * started yet are cancelled, so no strategy outlives the search; their layouts are dropped.
+ * Called from a pool worker, e.g. for one depth group of a concurrent plan, the solver helps
+ * running the tasks it waits for instead of blocking the worker.
+ */
+final class PortfolioSolver {
+
+    private static final AppLogger logger = AppLogger.getLogger(PortfolioSolver.class);
+
+    /**
+     * Strategies in the order they are started, cheap ones first.
+     */
+    static final List<Strategy> STRATEGIES = strategies();
+
+    private final ForkJoinPool pool;
+    private final MultiSheetPacker multiSheetPacker;
+    private final int concurrency;
+
+    PortfolioSolver(ForkJoinPool pool, MultiSheetPacker multiSheetPacker, int concurrency) {
+        this.pool = pool;
+        this.multiSheetPacker = multiSheetPacker;
+        this.concurrency = Math.max(1, Math.min(concurrency, pool.getParallelism()));
+    }
+
+    /**
+     * Pack the elements of the workspace input with every strategy the budget allows and leave
+     * the best layout in the workspace layout.
+     */
+    void solve(PackingWorkspace workspace, boolean multiSheet, int sheetWidth, int sheetHeight, SearchBudget budget) {
+        Run run = new Run(workspace.input(), multiSheet, sheetWidth, sheetHeight, budget);
+
+        runStrategy(run, STRATEGIES.get(0), null);
+        run.next.set(1);
+
+        int workers = Math.min(concurrency, STRATEGIES.size() - 1);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers && !budget.isExhausted(); w++) {
+            tasks.add(pool.submit(() -> work(run)));
+        }
+        boolean inPool = ForkJoinTask.inForkJoinPool();
+        try {
+            for (ForkJoinTask<?> task : tasks) {
+                if (inPool) {
+                    // The strategies stop at the deadline, so joining (and helping) is bounded by it too
+                    task.join();
+                } else {
+                    task.get(budget.remainingNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+        } catch (TimeoutException e) {
+            logger.debug("Portfolio deadline reached after {} strategies", run.finished.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("Portfolio worker failed", e.getCause());
+        } catch (RuntimeException e) {
+            logger.warn("Portfolio worker failed", e);
+        } finally {
+            budget.stop();
+            for (ForkJoinTask<?> task : tasks) {
+                task.cancel(false);
+            }
+        }
+
+        synchronized (run) {
+            workspace.layout().copyFrom(run.best);
+            logger.info("Portfolio picked {} ({}) after {} of {} strategies",
+                    run.bestStrategy, run.bestScore, run.finished.get(), STRATEGIES.size());
+        }
+    }
+
+    private void work(Run run) {
+        while (!run.budget.isExhausted()) {
+            int next = run.next.getAndIncrement();
+            if (next >= STRATEGIES.size()) {
+                return;
+            }
+            try {
+                runStrategy(run, STRATEGIES.get(next), run.budget);
+            } catch (RuntimeException e) {
+                logger.warn("Portfolio strategy " + STRATEGIES.get(next) + " failed", e);
+            }
+        }
+    }
+
+    /**
+     * Pack the order with one strategy and offer the layout to the run. With a budget the kernel
+     * gives up when it runs out, and the layout, which may then be cut short, is dropped.
+     */
+    private void runStrategy(Run run, Strategy strategy, SearchBudget budget) {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            PackingInput input = workspace.input();
+            input.copyFrom(run.input);
+            int[] order = workspace.sortDescending(strategy.key);
+            PackingLayout layout = workspace.layout();
+            if (run.multiSheet) {
+                multiSheetPacker.packWithin(workspace, strategy.algorithm, input.size(), run.sheetWidth, run.sheetHeight, budget);
+            } else {
+                layout.clear(input.size());
+                layout.addSheet(run.sheetWidth, run.sheetHeight);
+                workspace.packer(strategy.algorithm).pack(input, order, input.size(), run.sheetWidth, run.sheetHeight,
+                        layout, budget);
+            }
+            if (budget == null || !budget.isExhausted()) {
+                run.offer(layout, strategy);
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    private static List<Strategy> strategies() {
+        PackingAlgorithm[] algorithms = {
+                PackingAlgorithm.FFDH, PackingAlgorithm.BFDH, PackingAlgorithm.SKYLINE_BL,
+                PackingAlgorithm.SKYLINE_MIN_WASTE, PackingAlgorithm.MAXRECTS_BSSF, PackingAlgorithm.MAXRECTS_BAF
+        };
+        SortKey[] keys = {SortKey.HEIGHT, SortKey.AREA, SortKey.MAX_SIDE, SortKey.PERIMETER};
+        List<Strategy> strategies = new ArrayList<>(algorithms.length * keys.length);
+        for (PackingAlgorithm algorithm : algorithms) {
+            for (SortKey key : keys) {
+                strategies.add(new Strategy(algorithm, key));
+            }
+        }
+        return Collections.unmodifiableList(strategies);
+    }
+
+    /**
+     * A packing engine together with the order it receives the elements in.
+     */
+    static final class Strategy {
+        final PackingAlgorithm algorithm;
+        final SortKey key;
+
+        Strategy(PackingAlgorithm algorithm, SortKey key) {
+            this.algorithm = algorithm;
+            this.key = key;
+        }
+
+        @Override
+        public String toString() {
+            return algorithm + "/" + key;
+        }
+    }
+
+    /**
+     * State of one portfolio run, shared by its tasks.
+     */
+    private static final class Run {
+        final PackingInput input = new PackingInput();
+        final boolean multiSheet;
+        final int sheetWidth;
+        final int sheetHeight;
+        final SearchBudget budget;
+        final LowerBounds bounds;
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger finished = new AtomicInteger();
+
+        final PackingLayout best = new PackingLayout();
+        PackingScore bestScore;
+        Strategy bestStrategy;
+
+        Run(PackingInput source, boolean multiSheet, int sheetWidth, int sheetHeight, SearchBudget budget) {
+            // Private copy: the caller may reuse its workspace while stragglers still run
+            input.copyFrom(source);
+            this.multiSheet = multiSheet;
+            this.sheetWidth = sheetWidth;
+            this.sheetHeight = sheetHeight;
+            this.budget = budget;
+            this.bounds = LowerBounds.of(input, sheetWidth, sheetHeight);
+        }
+
+        synchronized void offer(PackingLayout layout, Strategy strategy) {
+            finished.incrementAndGet();
+            if (budget.isStopped() && bestScore != null) {
+                return;
+            }
+            PackingScore score = PackingScore.of(layout);
+            if (score.isBetterThan(bestScore)) {
+                best.copyFrom(layout);
+                bestScore = score;
+                bestStrategy = strategy;
+                budget.improved(best);
+                if (bounds.isMetBy(score, input.size())) {
+                    budget.stop();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Arrays;
+
+/**
+ * Finds the offcuts worth keeping on a finished sheet.
+ *
+ * The placements of the sheet are marked as used in a MaxRects free-rectangle set, which then
+ * holds the maximal free rectangles of the sheet. Those overlap, so the largest one with both
+ * sides at least the minimum is taken as a remnant and marked as used as well, until no free
+ * rectangle is large enough. The remnants of a sheet are therefore disjoint and sorted by
+ * decreasing area. An instance keeps its buffers between runs and must only be used by one
+ * thread at a time.
+ */
+final class RemnantExtractor {
+
+    private final FreeRectIndex freeRects = new FreeRectIndex();
+    private final MaxRectsPacker sheet = new MaxRectsPacker(MaxRectsPacker.Heuristic.BEST_AREA_FIT, freeRects);
+
+    // x, y, width, height per remnant
+    private int[] remnants = new int[64];
+    private int count;
+
+    /**
+     * Extract the remnants of one sheet of a layout.
+     *
+     * @param minSide shortest side a remnant may have
+     * @return the number of remnants found; see {@link #x(int)} and the other accessors
+     */
+    int extract(PackingLayout layout, int sheetIndex, int minSide) {
+        count = 0;
+        sheet.reset(layout.sheetWidth(sheetIndex), layout.sheetHeight(sheetIndex));
+        for (int p = 0; p < layout.count(); p++) {
+            if (layout.sheet(p) == sheetIndex) {
+                sheet.occupy(layout.x(p), layout.y(p), layout.width(p), layout.height(p));
+            }
+        }
+        int slot;
+        while ((slot = freeRects.findLargest(minSide)) >= 0) {
+            int rectX = freeRects.x(slot);
+            int rectY = freeRects.y(slot);
+            int rectWidth = freeRects.width(slot);
+            int rectHeight = freeRects.height(slot);
+            if (4 * count == remnants.length) {
+                remnants = Arrays.copyOf(remnants, remnants.length << 1);
+            }
+            int base = 4 * count++;
+            remnants[base] = rectX;
+            remnants[base + 1] = rectY;
+            remnants[base + 2] = rectWidth;
+            remnants[base + 3] = rectHeight;
+            sheet.occupy(rectX, rectY, rectWidth, rectHeight);
+        }
+        return count;
+    }
+
+    int x(int index) {
+        return remnants[4 * index];
+    }
+
+    int y(int index) {
+        return remnants[4 * index + 1];
+    }
+
+    int width(int index) {
+        return remnants[4 * index + 2];
+    }
+
+    int height(int index) {
+        return remnants[4 * index + 3];
+    }
+}
@@ -0,0 +1,145 @@
+package ro.sapientia.furniture.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import ro.sapientia.furniture.model.entities.Remnant;
+
+/**
+ * In-memory index of the remnants in stock, answering "smallest remnant of this depth that
+ * holds a {@code width} x {@code height} part in either orientation".
+ *
+ * The remnants of every depth are kept sorted by increasing area as the slots of a
+ * {@link FirstFitIndex}, so the first slot that fits is the smallest fitting remnant. The index
+ * answers whether a block of remnants holds the part exactly, from the remnants at least as
+ * high as the part and the widest of them, so a lookup takes O(log^2 n) even for the long,
+ * thin strips the extractor leaves, which are wide or high but rarely both;
+ * {@code RemnantIndexBenchmark} measures it with 50,000 of them. Claimed remnants are emptied
+ * in place; adding remnants or removing those of a sheet rebuilds the index of their depth,
+ * which happens once per cutting plan or sheet edit rather than per lookup.
+ * Not thread-safe; see {@link RemnantInventory}.
+ */
+final class RemnantIndex {
+
+    private static final Comparator<Remnant> BY_AREA = Comparator
+            .comparingLong((Remnant remnant) -> (long) remnant.getWidth() * remnant.getHeight())
+            .thenComparing(Remnant::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final Map<Integer, DepthIndex> depths = new HashMap<>();
+
+    private int size;
+
+    /**
+     * Number of remnants in the index.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Add remnants to the index; a remnant whose id is indexed already is left out.
+     */
+    void addAll(Collection<Remnant> remnants) {
+        Map<Integer, List<Remnant>> added = new HashMap<>();
+        for (Remnant remnant : remnants) {
+            added.computeIfAbsent(remnant.getDepth(), depth -> new ArrayList<>()).add(remnant);
+        }
+        for (Map.Entry<Integer, List<Remnant>> entry : added.entrySet()) {
+            List<Remnant> all = new ArrayList<>();
+            DepthIndex old = depths.get(entry.getKey());
+            if (old != null) {
+                old.collectLive(all);
+                size -= old.live;
+            }
+            Set<Long> ids = new HashSet<>();
+            for (Remnant remnant : all) {
+                ids.add(remnant.getId());
+            }
+            for (Remnant remnant : entry.getValue()) {
+                if (remnant.getId() == null || ids.add(remnant.getId())) {
+                    all.add(remnant);
+                }
+            }
+            all.sort(BY_AREA);
+            depths.put(entry.getKey(), new DepthIndex(all));
+            size += all.size();
+        }
+    }
+
+    /**
+     * Remove and return the smallest remnant of the depth that holds the part, in either orientation.
+     *
+     * @return the remnant, or {@code null} if none is large enough
+     */
+    Remnant claim(int depth, int width, int height) {
+        DepthIndex index = depths.get(depth);
+        if (index == null) {
+            return null;
+        }
+        int normal = index.fit.findFirst(width, height);
+        int rotated = index.fit.findFirst(height, width);
+        int slot = normal < 0 ? rotated : rotated < 0 ? normal : Math.min(normal, rotated);
+        if (slot < 0) {
+            return null;
+        }
+        Remnant remnant = index.remnants[slot];
+        index.remnants[slot] = null;
+        index.fit.update(slot, 0);
+        index.live--;
+        size--;
+        return remnant;
+    }
+
+    /**
+     * Remove and return the remnants of the depth cut off the given sheet.
+     */
+    List<Remnant> removeFromSheet(int depth, Long sheetId) {
+        DepthIndex index = depths.get(depth);
+        List<Remnant> removed = new ArrayList<>();
+        if (index == null) {
+            return removed;
+        }
+        List<Remnant> kept = new ArrayList<>(index.live);
+        for (Remnant remnant : index.remnants) {
+            if (remnant != null) {
+                (Objects.equals(remnant.getSourceSheetId(), sheetId) ? removed : kept).add(remnant);
+            }
+        }
+        if (!removed.isEmpty()) {
+            // Still sorted by area, so the index of the depth is rebuilt without sorting
+            depths.put(depth, new DepthIndex(kept));
+            size -= removed.size();
+        }
+        return removed;
+    }
+
+    private static final class DepthIndex {
+        final Remnant[] remnants;
+        final FirstFitIndex fit;
+        int live;
+
+        DepthIndex(List<Remnant> sorted) {
+            remnants = sorted.toArray(new Remnant[0]);
+            fit = new FirstFitIndex(remnants.length);
+            for (Remnant remnant : remnants) {
+                fit.add(remnant.getWidth(), remnant.getHeight());
+            }
+            live = remnants.length;
+        }
+
+        void collectLive(List<Remnant> into) {
+            for (Remnant remnant : remnants) {
+                if (remnant != null) {
+                    into.add(remnant);
+                }
+            }
+        }
+    }
+}
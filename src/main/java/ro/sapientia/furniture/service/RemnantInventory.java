@@ -0,0 +1,221 @@
+package ro.sapientia.furniture.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import ro.sapientia.furniture.model.entities.CuttingSheet;
+import ro.sapientia.furniture.model.entities.Remnant;
+import ro.sapientia.furniture.repository.RemnantRepository;
+import ro.sapientia.furniture.util.AppLogger;
+
+/**
+ * Stock of offcuts left over by earlier cutting plans.
+ *
+ * The remnants are stored in the database and mirrored in a {@link RemnantIndex}, loaded on
+ * first use, so looking one up for a part does not touch the database. A claimed remnant leaves
+ * the index at once and is marked as used in the database by a conditional update committed
+ * on its own, so neither concurrent plans nor other instances sharing the database get the same
+ * one. When the update finds the remnant already used, the index missed changes made by another
+ * instance: it is reloaded and the next candidate is tried. Remnants of a plan that is not saved,
+ * or whose transaction rolls back, are marked unused and go back into the index. New remnants
+ * are indexed once their transaction commits; those stored by other instances come in when the
+ * index is reloaded, every {@code furniture.cut.remnant-refresh-millis}. Editing a sheet
+ * withdraws its remnants in stock, which are extracted again from the edited sheet. A remnant
+ * claimed by an instance that stops before saving or releasing it stays marked as used.
+ * Without a repository the inventory lives in memory only.
+ */
+@Service
+public class RemnantInventory {
+
+    private static final AppLogger logger = AppLogger.getLogger(RemnantInventory.class);
+
+    private final RemnantRepository remnantRepository;
+
+    private RemnantIndex index = new RemnantIndex();
+
+    private boolean loaded;
+
+    public RemnantInventory(RemnantRepository remnantRepository) {
+        this.remnantRepository = remnantRepository;
+        this.loaded = remnantRepository == null;
+    }
+
+    /**
+     * Number of remnants in stock.
+     */
+    public synchronized int size() {
+        ensureLoaded();
+        return index.size();
+    }
+
+    /**
+     * Take the smallest remnant of the depth that holds the part in either orientation out of
+     * stock, in the index and in the database. The caller must either {@link #consume} or
+     * {@link #release} it.
+     *
+     * @return the remnant, or {@code null} if none is large enough
+     */
+    Remnant claim(int depth, int width, int height) {
+        while (true) {
+            Remnant remnant;
+            synchronized (this) {
+                ensureLoaded();
+                remnant = index.claim(depth, width, height);
+            }
+            if (remnant == null || remnantRepository == null || remnantRepository.markUsed(remnant.getId()) == 1) {
+                return remnant;
+            }
+            logger.info("Remnant {} was taken by another instance; reloading the remnant index", remnant.getId());
+            invalidate();
+        }
+    }
+
+    /**
+     * Put claimed remnants that were not used back into stock.
+     */
+    void release(List<Remnant> remnants) {
+        if (remnants.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(remnants.size());
+        for (Remnant remnant : remnants) {
+            remnant.setUsed(false);
+            ids.add(remnant.getId());
+        }
+        if (remnantRepository != null) {
+            remnantRepository.markUnused(ids);
+        }
+        addStored(remnants);
+    }
+
+    /**
+     * Keep claimed remnants as used by the current transaction; they are released again if it
+     * rolls back. Used remnants stay in the database as the record of the area cut from their
+     * source sheet.
+     */
+    void consume(List<Remnant> remnants) {
+        if (remnants.isEmpty()) {
+            return;
+        }
+        for (Remnant remnant : remnants) {
+            remnant.setUsed(true);
+        }
+        TransactionCallbacks.onCompletion(null, () -> release(remnants));
+        logger.info("Used {} remnant(s) from stock", remnants.size());
+    }
+
+    /**
+     * Reload the index from the database on its next use, picking up the remnants other
+     * instances stored or used meanwhile.
+     */
+    @Scheduled(fixedDelayString = "${furniture.cut.remnant-refresh-millis:60000}")
+    public void refresh() {
+        if (remnantRepository != null) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Take the remnants in stock cut off a sheet out of stock before the sheet is edited; they
+     * are deleted in the current transaction and released again if it rolls back.
+     *
+     * @return the other remnants of the sheet, used or claimed by a plan, whose area is gone from the sheet
+     */
+    List<Remnant> withdrawOffcuts(CuttingSheet sheet) {
+        List<Remnant> withdrawn;
+        synchronized (this) {
+            ensureLoaded();
+            withdrawn = index.removeFromSheet(sheet.getDepth(), sheet.getId());
+        }
+        List<Remnant> gone = new ArrayList<>();
+        if (remnantRepository != null) {
+            Set<Long> withdrawnIds = new HashSet<>();
+            for (Remnant remnant : withdrawn) {
+                withdrawnIds.add(remnant.getId());
+            }
+            for (Remnant remnant : remnantRepository.findBySourceSheetId(sheet.getId())) {
+                if (!withdrawnIds.contains(remnant.getId())) {
+                    gone.add(remnant);
+                }
+            }
+            remnantRepository.deleteAll(withdrawn);
+        }
+        TransactionCallbacks.onCompletion(null, () -> release(withdrawn));
+        return gone;
+    }
+
+    /**
+     * Save new remnants in the current transaction and index them once it commits.
+     */
+    void store(List<Remnant> remnants) {
+        if (remnants.isEmpty()) {
+            return;
+        }
+        if (remnantRepository != null) {
+            remnantRepository.saveAll(remnants);
+        }
+        TransactionCallbacks.onCompletion(() -> addStored(remnants), null);
+        logger.info("Stored {} new remnant(s)", remnants.size());
+    }
+
+    /**
+     * Record the offcuts of every saved sheet of a layout with both sides of at least
+     * {@code minSide} as remnants in stock; none when {@code minSide} is not positive.
+     *
+     * @param sheets the saved sheets, indexed like the layout's sheets
+     */
+    void storeOffcuts(PackingWorkspace workspace, PackingLayout layout, List<CuttingSheet> sheets, int minSide) {
+        store(offcuts(workspace, layout, sheets, minSide));
+    }
+
+    /**
+     * The offcuts of every saved sheet of a layout with both sides of at least {@code minSide},
+     * as remnants not stored yet; none when {@code minSide} is not positive.
+     *
+     * @param sheets the saved sheets, indexed like the layout's sheets
+     */
+    List<Remnant> offcuts(PackingWorkspace workspace, PackingLayout layout, List<CuttingSheet> sheets, int minSide) {
+        List<Remnant> remnants = new ArrayList<>();
+        if (minSide <= 0) {
+            return remnants;
+        }
+        RemnantExtractor extractor = workspace.remnantExtractor();
+        for (int s = 0; s < layout.sheetCount(); s++) {
+            int found = extractor.extract(layout, s, minSide);
+            for (int r = 0; r < found; r++) {
+                Remnant remnant = new Remnant(extractor.width(r), extractor.height(r), sheets.get(s).getDepth());
+                remnant.setSourceSheetId(sheets.get(s).getId());
+                remnant.setX(extractor.x(r));
+                remnant.setY(extractor.y(r));
+                remnants.add(remnant);
+            }
+        }
+        return remnants;
+    }
+
+    private synchronized void addStored(List<Remnant> remnants) {
+        // Before the next load the stored remnants come in with the rest from the database
+        if (loaded) {
+            index.addAll(remnants);
+        }
+    }
+
+    private synchronized void invalidate() {
+        loaded = false;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            List<Remnant> remnants = remnantRepository.findByUsedFalse();
+            index = new RemnantIndex();
+            index.addAll(remnants);
+            loaded = true;
+            logger.info("Loaded {} remnant(s) into the remnant index", remnants.size());
+        }
+    }
+}
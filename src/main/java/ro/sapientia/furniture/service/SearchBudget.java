@@ -0,0 +1,78 @@
+package ro.sapientia.furniture.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget shared by the tasks of one search. The search ends when the deadline passes or
+ * when any task calls {@link #stop()}, e.g. after finding a layout that cannot be improved.
+ * Searches report the layouts they improve to through {@link #improved}, which hands them to
+ * the {@link SearchProgress} of the budget, if any.
+ * Safe to use from several threads.
+ */
+final class SearchBudget {
+
+    private final long start;
+    private final long deadline;
+    private final SearchProgress progress;
+    private volatile boolean stopped;
+
+    private SearchBudget(long start, long deadline, SearchProgress progress) {
+        this.start = start;
+        this.deadline = deadline;
+        this.progress = progress;
+    }
+
+    /**
+     * A budget ending {@code millis} milliseconds from now.
+     */
+    static SearchBudget ofMillis(long millis) {
+        return ofMillis(millis, null);
+    }
+
+    /**
+     * A budget ending {@code millis} milliseconds from now that reports improvements to {@code progress}.
+     */
+    static SearchBudget ofMillis(long millis, SearchProgress progress) {
+        long now = System.nanoTime();
+        return new SearchBudget(now, now + TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis)), progress);
+    }
+
+    /**
+     * A budget with the same deadline and progress that can be stopped on its own, for one of
+     * several searches sharing the time of a request.
+     */
+    SearchBudget branch() {
+        return new SearchBudget(start, deadline, progress);
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Whether the search should end: stopped, or past the deadline.
+     */
+    boolean isExhausted() {
+        return stopped || System.nanoTime() - deadline >= 0;
+    }
+
+    long remainingNanos() {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    /**
+     * Report a better layout than any before, or only that the search improved when {@code best}
+     * is {@code null}. The layout is only read during the call.
+     */
+    void improved(PackingLayout best) {
+        if (progress != null && progress.isDue()) {
+            long span = deadline - start;
+            double used = span > 0 ? Math.min(1.0, (double) (System.nanoTime() - start) / span) : 1.0;
+            progress.improved(best, used);
+        }
+    }
+}
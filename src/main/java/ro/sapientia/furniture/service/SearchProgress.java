@@ -0,0 +1,21 @@
+package ro.sapientia.furniture.service;
+
+/**
+ * Receives the improvements of a running search, e.g. to show the best layout so far to a
+ * client. Called from the search threads, so implementations must be thread-safe, and they
+ * decide through {@link #isDue()} how often they take an improvement.
+ */
+interface SearchProgress {
+
+    /**
+     * Whether an improvement reported now would be taken.
+     */
+    boolean isDue();
+
+    /**
+     * @param best the best layout so far, only valid during the call; {@code null} when the
+     *             search has no layout at hand
+     * @param budgetUsed share of the time budget used, from 0 to 1
+     */
+    void improved(PackingLayout best, double budgetUsed);
+}
@@ -0,0 +1,333 @@
+package ro.sapientia.furniture.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ro.sapientia.furniture.config.CutOptimizationProperties;
+import ro.sapientia.furniture.exception.CutOptimizationException;
+import ro.sapientia.furniture.exception.CuttingSheetNotFoundException;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
+import ro.sapientia.furniture.model.dto.CuttingSheetDTO;
+import ro.sapientia.furniture.model.dto.GuillotineCutDTO;
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+import ro.sapientia.furniture.model.dto.PlacedElementDTO;
+import ro.sapientia.furniture.model.dto.SheetChangeDTO;
+import ro.sapientia.furniture.model.dto.SheetSummaryDTO;
+import ro.sapientia.furniture.model.entities.CuttingSheet;
+import ro.sapientia.furniture.model.entities.PlacedElement;
+import ro.sapientia.furniture.model.entities.Remnant;
+import ro.sapientia.furniture.repository.CuttingSheetRepository;
+import ro.sapientia.furniture.util.AppLogger;
+
+/**
+ * Adds elements to and removes elements from saved cutting sheets without replanning the order.
+ *
+ * Removed elements simply free their area. Added elements go into the free space of the sheet
+ * by MaxRects best area fit, around the placements it holds and the remnants already cut from
+ * it, so no element that is on the sheet moves. Only when the added elements do not fit there
+ * is the whole sheet repacked; the elements that moved are then updated in place. Just the
+ * changed placement rows are written, and the offcuts of the sheet are extracted again.
+ * A sheet planned by the guillotine engine has no free space a part could be added to without
+ * breaking its edge-to-edge cuts, so adding to it always repacks it with the guillotine engine,
+ * with the kerf and edge trim it was planned with, and returns the new cuts; once remnants have
+ * been cut from such a sheet, elements can only be removed from it.
+ * Placements are removed by their id, so one of several copies of an element, or a placement
+ * without a furniture element, can be taken off. The sheet row stays locked while it is
+ * edited, so concurrent edits of one sheet run one after the other.
+ */
+@Service
+public class SheetEditService {
+
+    private static final AppLogger logger = AppLogger.getLogger(SheetEditService.class);
+
+    private final CuttingSheetRepository cuttingSheetRepository;
+
+    private final FurnitureBodyCatalog furnitureBodyCatalog;
+
+    private final RemnantInventory remnantInventory;
+
+    private final CutOptimizationProperties properties;
+
+    public SheetEditService(CuttingSheetRepository cuttingSheetRepository, FurnitureBodyCatalog furnitureBodyCatalog,
+                            RemnantInventory remnantInventory, CutOptimizationProperties properties) {
+        this.cuttingSheetRepository = cuttingSheetRepository;
+        this.furnitureBodyCatalog = furnitureBodyCatalog;
+        this.remnantInventory = remnantInventory;
+        this.properties = properties;
+    }
+
+    /**
+     * A saved sheet with its placements and their placement ids.
+     *
+     * @throws CuttingSheetNotFoundException if the sheet does not exist
+     */
+    @Transactional(readOnly = true)
+    public CuttingSheetDTO findSheet(Long sheetId) {
+        CuttingSheet sheet = cuttingSheetRepository.findById(sheetId)
+                .orElseThrow(() -> new CuttingSheetNotFoundException(sheetId));
+        List<PlacedElementDTO> placements = new ArrayList<>(sheet.getPlacedElements().size());
+        for (PlacedElement placement : sheet.getPlacedElements()) {
+            placements.add(toDTO(placement));
+        }
+        return new CuttingSheetDTO(toSummary(sheet), placements);
+    }
+
+    /**
+     * Place further elements on a saved sheet.
+     *
+     * @throws CuttingSheetNotFoundException if the sheet does not exist
+     * @throws CutOptimizationException if an element has another depth, there are more than
+     *         {@code furniture.cut.max-parts} parts, the elements do not fit even after repacking
+     *         or the sheet is a guillotine sheet remnants have been cut from
+     */
+    @Transactional
+    public SheetChangeDTO addElements(Long sheetId, List<CutElementDTO> elements) {
+        return edit(sheetId, elements, List.of());
+    }
+
+    /**
+     * Take the placements with the given placement ids off a saved sheet.
+     *
+     * @throws CuttingSheetNotFoundException if the sheet does not exist
+     * @throws CutOptimizationException if a placement is not on the sheet
+     */
+    @Transactional
+    public SheetChangeDTO removePlacements(Long sheetId, List<Long> placementIds) {
+        return edit(sheetId, List.of(), placementIds);
+    }
+
+    private SheetChangeDTO edit(Long sheetId, List<CutElementDTO> added, List<Long> removedIds) {
+        CuttingSheet sheet = cuttingSheetRepository.findLocked(sheetId)
+                .orElseThrow(() -> new CuttingSheetNotFoundException(sheetId));
+        PackingInput.checkPartCount(PackingInput.copyCount(added), properties.getMaxParts());
+        checkElements(sheet, added);
+
+        List<PlacedElement> kept = new ArrayList<>(sheet.getPlacedElements().size());
+        Set<PlacedElement> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Long> removing = new HashSet<>(removedIds);
+        Set<Long> found = new HashSet<>();
+        for (PlacedElement placement : sheet.getPlacedElements()) {
+            if (placement.getId() != null && removing.contains(placement.getId())) {
+                removed.add(placement);
+                found.add(placement.getId());
+            } else {
+                kept.add(placement);
+            }
+        }
+        for (Long placementId : removing) {
+            if (!found.contains(placementId)) {
+                throw new CutOptimizationException(String.format(
+                        "Placement %d is not on cutting sheet %d", placementId, sheetId));
+            }
+        }
+
+        // The area of remnants cut from the sheet is gone; the ones in stock are extracted again below
+        List<Remnant> gone = remnantInventory.withdrawOffcuts(sheet);
+        boolean guillotine = sheet.getAlgorithm() == PackingAlgorithm.GUILLOTINE;
+        if (guillotine && !added.isEmpty() && !gone.isEmpty()) {
+            throw new CutOptimizationException(String.format(
+                    "Cutting sheet %d is cut by guillotine and remnants have been cut from it, so elements can only be removed",
+                    sheetId));
+        }
+
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            PackingInput input = workspace.input();
+            PackingLayout layout = workspace.layout();
+            input.load(added);
+            workspace.sortByHeightDescending();
+            boolean repacked;
+            if (guillotine && !added.isEmpty()) {
+                repacked = true;
+            } else {
+                fillFreeSpace(workspace, sheet, kept, gone);
+                repacked = layout.count() < input.size();
+            }
+
+            int keptInInput = 0;
+            List<GuillotineCutDTO> cuts = null;
+            if (repacked) {
+                keptInInput = kept.size();
+                repack(workspace, sheet, kept, added, gone);
+                if (guillotine) {
+                    cuts = CutOptimizationService.toCutDTOs(workspace.guillotinePacker());
+                }
+                if (layout.count() < input.size()) {
+                    throw new CutOptimizationException(String.format(
+                            "Failed to place all elements. %d of %d elements fit on cutting sheet %d",
+                            layout.count(), input.size(), sheetId));
+                }
+            }
+
+            sheet.getPlacedElements().removeIf(removed::contains);
+            Set<Long> incomingIds = new HashSet<>();
+            for (CutElementDTO element : added) {
+                incomingIds.add(element.getId());
+            }
+            Set<Long> existingIds = furnitureBodyCatalog.existingIds(incomingIds);
+            List<PlacedElementDTO> addedPlacements = new ArrayList<>();
+            List<PlacedElement> addedElements = new ArrayList<>();
+            List<PlacedElementDTO> moved = new ArrayList<>();
+            for (int i = 0; i < layout.count(); i++) {
+                int element = layout.element(i);
+                if (element < keptInInput) {
+                    PlacedElement placement = kept.get(element);
+                    if (!placement.getX().equals(layout.x(i)) || !placement.getY().equals(layout.y(i))
+                            || !placement.getWidth().equals(layout.width(i))) {
+                        placement.setX(layout.x(i));
+                        placement.setY(layout.y(i));
+                        placement.setWidth(layout.width(i));
+                        placement.setHeight(layout.height(i));
+                        moved.add(toDTO(placement));
+                    }
+                } else {
+                    Long incomingId = input.boxedId(element);
+                    PlacedElement placement = new PlacedElement(
+                            existingIds.contains(incomingId) ? incomingId : null,
+                            layout.x(i), layout.y(i), layout.width(i), layout.height(i));
+                    sheet.addPlacedElement(placement);
+                    addedElements.add(placement);
+                    addedPlacements.add(new PlacedElementDTO(incomingId, layout.x(i), layout.y(i),
+                            layout.width(i), layout.height(i), 0));
+                }
+            }
+            // The locked sheet is managed; flushing writes the changed rows and assigns the new placement ids
+            cuttingSheetRepository.flush();
+            for (int i = 0; i < addedElements.size(); i++) {
+                addedPlacements.get(i).setPlacementId(addedElements.get(i).getId());
+            }
+            storeOffcuts(workspace, sheet, gone);
+
+            logger.info("Cutting sheet {}: added {}, removed {}, moved {} placement(s){}",
+                    sheetId, addedPlacements.size(), removed.size(), moved.size(), repacked ? " after repacking" : "");
+
+            SheetChangeDTO change = new SheetChangeDTO();
+            change.setSheet(toSummary(sheet));
+            change.setAdded(addedPlacements);
+            change.setMoved(moved);
+            change.setRemovedCount(removed.size());
+            change.setRepacked(repacked);
+            change.setCuts(cuts);
+            return change;
+        } finally {
+            workspace.release();
+        }
+    }
+
+    private static void checkElements(CuttingSheet sheet, List<CutElementDTO> elements) {
+        for (CutElementDTO element : elements) {
+            if (element.getDepth() != sheet.getDepth()) {
+                throw new CutOptimizationException(String.format(
+                        "Element %d has depth %d, but cutting sheet %d has depth %d",
+                        element.getId(), element.getDepth(), sheet.getId(), sheet.getDepth()));
+            }
+            boolean fits = element.getWidth() <= sheet.getWidth() && element.getHeight() <= sheet.getHeight()
+                    || element.getHeight() <= sheet.getWidth() && element.getWidth() <= sheet.getHeight();
+            if (!fits) {
+                throw new CutOptimizationException(String.format(
+                        "Element %d (%dx%d) is too large to fit on the sheet (%dx%d)",
+                        element.getId(), element.getWidth(), element.getHeight(), sheet.getWidth(), sheet.getHeight()));
+            }
+        }
+    }
+
+    /**
+     * Pack the workspace input into the area of the sheet not covered by the kept placements or gone remnants.
+     */
+    private static void fillFreeSpace(PackingWorkspace workspace, CuttingSheet sheet, List<PlacedElement> kept, List<Remnant> gone) {
+        MaxRectsPacker packer = workspace.areaFitPacker();
+        PackingLayout layout = workspace.layout();
+        layout.clear(workspace.input().size());
+        layout.addSheet(sheet.getWidth(), sheet.getHeight());
+        packer.reset(sheet.getWidth(), sheet.getHeight());
+        for (PlacedElement placement : kept) {
+            packer.occupy(placement.getX(), placement.getY(), placement.getWidth(), placement.getHeight());
+        }
+        for (Remnant remnant : gone) {
+            packer.occupy(remnant.getX(), remnant.getY(), remnant.getWidth(), remnant.getHeight());
+        }
+        packer.fill(workspace.input(), workspace.order(), workspace.input().size(), layout);
+    }
+
+    /**
+     * Pack the kept placements, as elements {@code 0..kept.size()-1}, and the added elements
+     * together onto the sheet, around the gone remnants, or with the guillotine engine and the
+     * cut settings of a guillotine sheet.
+     */
+    private static void repack(PackingWorkspace workspace, CuttingSheet sheet, List<PlacedElement> kept,
+                               List<CutElementDTO> added, List<Remnant> gone) {
+        PackingInput input = workspace.input();
+        int keptCount = kept.size();
+        int addedCount = input.size();
+        long[] addedIds = new long[addedCount];
+        int[] addedWidths = new int[addedCount];
+        int[] addedHeights = new int[addedCount];
+        for (int i = 0; i < addedCount; i++) {
+            addedIds[i] = input.id(i);
+            addedWidths[i] = input.width(i);
+            addedHeights[i] = input.height(i);
+        }
+        input.reset(keptCount + addedCount);
+        for (int i = 0; i < keptCount; i++) {
+            PlacedElement placement = kept.get(i);
+            Long id = placement.getFurnitureBodyId();
+            input.set(i, id != null ? id : PackingInput.NO_ID, placement.getWidth(), placement.getHeight());
+        }
+        for (int i = 0; i < addedCount; i++) {
+            input.set(keptCount + i, addedIds[i], addedWidths[i], addedHeights[i]);
+        }
+        workspace.sortByHeightDescending();
+        if (sheet.getAlgorithm() == PackingAlgorithm.GUILLOTINE) {
+            PackingLayout layout = workspace.layout();
+            GuillotinePacker packer = workspace.guillotinePacker();
+            packer.configure(sheet.getKerf(), sheet.getEdgeTrim());
+            layout.clear(input.size());
+            layout.addSheet(sheet.getWidth(), sheet.getHeight());
+            packer.pack(input, workspace.order(), input.size(), sheet.getWidth(), sheet.getHeight(), layout);
+        } else {
+            fillFreeSpace(workspace, sheet, List.of(), gone);
+        }
+    }
+
+    /**
+     * Record the offcuts of the edited sheet, leaving out the area of gone remnants.
+     */
+    private void storeOffcuts(PackingWorkspace workspace, CuttingSheet sheet, List<Remnant> gone) {
+        PackingLayout offcuts = workspace.stripLayout();
+        offcuts.clear(sheet.getPlacedElements().size() + gone.size());
+        offcuts.addSheet(sheet.getWidth(), sheet.getHeight());
+        for (PlacedElement placement : sheet.getPlacedElements()) {
+            offcuts.add(0, placement.getX(), placement.getY(), placement.getWidth(), placement.getHeight());
+        }
+        for (Remnant remnant : gone) {
+            offcuts.add(0, remnant.getX(), remnant.getY(), remnant.getWidth(), remnant.getHeight());
+        }
+        remnantInventory.storeOffcuts(workspace, offcuts, List.of(sheet), properties.getRemnantMinSide());
+    }
+
+    private static PlacedElementDTO toDTO(PlacedElement placement) {
+        PlacedElementDTO dto = new PlacedElementDTO(placement.getFurnitureBodyId(), placement.getX(), placement.getY(),
+                placement.getWidth(), placement.getHeight(), 0);
+        dto.setPlacementId(placement.getId());
+        return dto;
+    }
+
+    private static SheetSummaryDTO toSummary(CuttingSheet sheet) {
+        long placedArea = 0;
+        for (PlacedElement placement : sheet.getPlacedElements()) {
+            placedArea += (long) placement.getWidth() * placement.getHeight();
+        }
+        long sheetArea = (long) sheet.getWidth() * sheet.getHeight();
+        SheetSummaryDTO summary = new SheetSummaryDTO(0, sheet.getId(), sheet.getWidth(), sheet.getHeight(), sheet.getDepth(),
+                sheet.getPlacedElements().size(), sheetArea > 0 ? (double) placedArea / sheetArea : 0.0);
+        summary.setRemnantId(sheet.getRemnantId());
+        return summary;
+    }
+}
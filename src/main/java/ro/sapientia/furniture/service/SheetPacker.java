@@ -0,0 +1,25 @@
+package ro.sapientia.furniture.service;
+
+/**
+ * Packing kernel that lays out elements on one sheet.
+ * Implementations work on the primitive arrays of a {@link PackingWorkspace} and keep their
+ * buffers between runs, so an instance must only be used by one thread at a time.
+ */
+interface SheetPacker {
+
+    /**
+     * Pack the first {@code count} elements of {@code order} onto the most recently opened sheet of the layout.
+     * Elements which cannot be placed are skipped and do not appear in the layout.
+     */
+    void pack(PackingInput input, int[] order, int count, int sheetWidth, int sheetHeight, PackingLayout layout);
+
+    /**
+     * Like {@link #pack(PackingInput, int[], int, int, int, PackingLayout)}, but stops placing elements
+     * once the budget is exhausted, leaving only the elements placed so far in the layout.
+     * Kernels that always finish quickly may ignore the budget.
+     */
+    default void pack(PackingInput input, int[] order, int count, int sheetWidth, int sheetHeight, PackingLayout layout,
+                      SearchBudget budget) {
+        pack(input, order, count, sheetWidth, sheetHeight, layout);
+    }
+}
@@ -0,0 +1,439 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Anytime improvement of a shelf layout (FFDH, BFDH or a multi-sheet strip) by simulated annealing.
+ *
+ * The state is an assignment of elements to shelves with an orientation each; a shelf is as
+ * tall as its tallest element and its elements must fit side by side in the sheet width. The
+ * cost is the total shelf height minus a small reward for well-filled shelves, which drives
+ * elements out of nearly empty shelves until those disappear. Moves relocate an element to
+ * another (or a new) shelf, swap two elements of different shelves or rotate one in place.
+ *
+ * Every shelf keeps its used width and its two highest element heights, so a move is scored
+ * in constant time; only accepted moves touch the members of the shelves involved. The best
+ * assignment seen is kept, so whenever the budget runs out the result is at least as good as
+ * the starting layout; the search ends early when the shelves reach the strip height
+ * {@link LowerBounds lower bound}. Runs with the same seed and iteration limit give the same
+ * result. An instance keeps its buffers between runs and must only be used by one thread at a time.
+ */
+final class ShelfImprover {
+
+    /**
+     * Weight of the fill reward. A move changes the squared fill ratio of two shelves by at most 1 each,
+     * so the reward never outweighs a change of the total height, which is a whole number.
+     */
+    private static final double FILL_WEIGHT = 0.25;
+
+    private static final int CHECK_INTERVAL = 256;
+    private static final double FINAL_TEMPERATURE_RATIO = 1e-3;
+    private static final double NEW_SHELF_RATE = 0.02;
+
+    private final PackingLayout candidate = new PackingLayout();
+
+    private PackingInput input;
+    private int sheetWidth;
+    private int maxShelfHeight;
+    private SplittableRandom random;
+
+    // Elements taking part, indexed by k
+    private int size;
+    private int[] element = new int[0];
+    private int[] shelf = new int[0];
+    private int[] position = new int[0];
+    private boolean[] rotated = new boolean[0];
+    private int[] bestShelf = new int[0];
+    private boolean[] bestRotated = new boolean[0];
+
+    // Shelves, at most one per element; the first activeCount entries of shelfOrder are not empty
+    private int[][] members = new int[0][];
+    private int[] memberCount = new int[0];
+    private int[] usedWidth = new int[0];
+    private int[] top = new int[0];
+    private int[] topCount = new int[0];
+    private int[] secondTop = new int[0];
+    private double[] fill = new double[0];
+    private int[] shelfOrder = new int[0];
+    private int[] orderPosition = new int[0];
+    private int activeCount;
+
+    private long heightSum;
+
+    /**
+     * Try to improve a one-sheet shelf layout until the budget or the iteration limit runs out.
+     * Every placement of the layout must lie on the shelf given by its y; elements among the
+     * first {@code count} of {@code order} that the layout left out start on shelves of their own.
+     * Shelves are at most {@code maxShelfHeight} tall and are stacked tallest first; shelves above
+     * the sheet height are left out.
+     *
+     * @return whether the layout was replaced by a better one by {@link PackingScore}
+     */
+    boolean improve(PackingInput input, int[] order, int count, PackingLayout layout, int maxShelfHeight,
+                    SearchBudget budget, long maxIterations, long seed) {
+        this.input = input;
+        this.sheetWidth = layout.sheetWidth(0);
+        this.maxShelfHeight = maxShelfHeight;
+        this.random = new SplittableRandom(seed);
+        load(order, count, layout);
+        if (size == 0) {
+            return false;
+        }
+        search(budget, maxIterations);
+
+        restore(bestShelf, bestRotated);
+        write(layout.sheetHeight(0));
+        if (PackingScore.of(candidate).isBetterThan(PackingScore.of(layout))) {
+            layout.copyFrom(candidate);
+            return true;
+        }
+        return false;
+    }
+
+    private void search(SearchBudget budget, long maxIterations) {
+        long heights = 0;
+        for (int k = 0; k < size; k++) {
+            heights += height(k);
+        }
+        long lowerBound = LowerBounds.of(input, element, size, sheetWidth, maxShelfHeight).stripHeight();
+        long bestHeightSum = heightSum;
+
+        // Cool down geometrically over each cycle, then start the next one from the best assignment
+        double startTemperature = Math.max(1.0, 0.1 * heights / size / Math.sqrt(activeCount));
+        long cycleLength = Math.max(20_000L, 50L * size);
+        double cooling = Math.pow(FINAL_TEMPERATURE_RATIO, 1.0 / cycleLength);
+        double temperature = startTemperature;
+
+        for (long iteration = 0; iteration < maxIterations && bestHeightSum > lowerBound; iteration++) {
+            if (iteration % CHECK_INTERVAL == 0 && budget.isExhausted()) {
+                break;
+            }
+            if (iteration % cycleLength == 0 && iteration > 0) {
+                restore(bestShelf, bestRotated);
+                temperature = startTemperature;
+            }
+            step(temperature);
+            temperature *= cooling;
+            if (heightSum < bestHeightSum) {
+                bestHeightSum = heightSum;
+                System.arraycopy(shelf, 0, bestShelf, 0, size);
+                System.arraycopy(rotated, 0, bestRotated, 0, size);
+                // Laying out the assignment would reorder shelf members and change the run, so no layout
+                budget.improved(null);
+            }
+        }
+    }
+
+    /**
+     * Propose one random move and apply it if the annealing criterion accepts it.
+     */
+    private void step(double temperature) {
+        int k = random.nextInt(size);
+        int source = shelf[k];
+        double move = random.nextDouble();
+
+        if (move < 0.4 && activeCount > 1) {
+            // Swap with an element of another shelf
+            int other = random.nextInt(size);
+            int target = shelf[other];
+            if (target == source) {
+                return;
+            }
+            boolean flip = random.nextBoolean();
+            boolean otherFlip = random.nextBoolean();
+            int w = placedWidth(k, flip);
+            int h = placedHeight(k, flip);
+            int otherW = placedWidth(other, otherFlip);
+            int otherH = placedHeight(other, otherFlip);
+            int sourceUsed = usedWidth[source] - width(k) + otherW;
+            int targetUsed = usedWidth[target] - width(other) + w;
+            if (sourceUsed > sheetWidth || targetUsed > sheetWidth || h > maxShelfHeight || otherH > maxShelfHeight) {
+                return;
+            }
+            int sourceTop = Math.max(topWithout(source, height(k)), otherH);
+            int targetTop = Math.max(topWithout(target, height(other)), h);
+            if (accept(source, sourceTop, sourceUsed, target, targetTop, targetUsed, temperature)) {
+                moveTo(k, target, flip);
+                moveTo(other, source, otherFlip);
+                refresh(source);
+                refresh(target);
+            }
+        } else if (move < 0.9) {
+            // Relocate to another shelf, or to a new one
+            int target;
+            if (activeCount < size && (activeCount == 1 || random.nextDouble() < NEW_SHELF_RATE)) {
+                target = shelfOrder[activeCount];
+            } else {
+                target = shelfOrder[random.nextInt(activeCount)];
+            }
+            if (target == source) {
+                return;
+            }
+            boolean flip = random.nextBoolean();
+            int w = placedWidth(k, flip);
+            int h = placedHeight(k, flip);
+            int targetUsed = usedWidth[target] + w;
+            if (targetUsed > sheetWidth || h > maxShelfHeight) {
+                return;
+            }
+            int sourceTop = topWithout(source, height(k));
+            int targetTop = Math.max(top[target], h);
+            if (accept(source, sourceTop, usedWidth[source] - width(k), target, targetTop, targetUsed, temperature)) {
+                moveTo(k, target, flip);
+                refresh(source);
+                refresh(target);
+            }
+        } else {
+            // Rotate in place
+            int w = placedWidth(k, true);
+            int h = placedHeight(k, true);
+            int sourceUsed = usedWidth[source] - width(k) + w;
+            if (sourceUsed > sheetWidth || h > maxShelfHeight) {
+                return;
+            }
+            int sourceTop = Math.max(topWithout(source, height(k)), h);
+            double delta = (sourceTop - top[source]) - FILL_WEIGHT * (fillOf(sourceUsed) - fill[source]);
+            if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                usedWidth[source] = sourceUsed;
+                rotated[k] = !rotated[k];
+                refresh(source);
+            }
+        }
+    }
+
+    private boolean accept(int source, int sourceTop, int sourceUsed, int target, int targetTop, int targetUsed,
+                           double temperature) {
+        double delta = (sourceTop - top[source]) + (targetTop - top[target]) -
+                FILL_WEIGHT * (fillOf(sourceUsed) - fill[source] + fillOf(targetUsed) - fill[target]);
+        return delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature);
+    }
+
+    /**
+     * Height of a shelf after removing one element of the given height.
+     */
+    private int topWithout(int s, int removedHeight) {
+        return removedHeight == top[s] && topCount[s] == 1 ? secondTop[s] : top[s];
+    }
+
+    private double fillOf(int used) {
+        double ratio = (double) used / sheetWidth;
+        return ratio * ratio;
+    }
+
+    /**
+     * Move an element to another shelf, optionally rotating it. The shelves' heights are updated by {@link #refresh}.
+     */
+    private void moveTo(int k, int target, boolean flip) {
+        int source = shelf[k];
+        int last = members[source][--memberCount[source]];
+        members[source][position[k]] = last;
+        position[last] = position[k];
+        usedWidth[source] -= width(k);
+
+        if (flip) {
+            rotated[k] = !rotated[k];
+        }
+        if (memberCount[target] == members[target].length) {
+            members[target] = Arrays.copyOf(members[target], Math.max(4, memberCount[target] << 1));
+        }
+        position[k] = memberCount[target];
+        members[target][memberCount[target]++] = k;
+        usedWidth[target] += width(k);
+        shelf[k] = target;
+    }
+
+    /**
+     * Recompute the height statistics of a shelf after its members changed and update the cost.
+     */
+    private void refresh(int s) {
+        heightSum -= top[s];
+        int first = 0;
+        int firstCount = 0;
+        int second = 0;
+        for (int i = 0; i < memberCount[s]; i++) {
+            int h = height(members[s][i]);
+            if (h > first) {
+                second = first;
+                first = h;
+                firstCount = 1;
+            } else if (h == first) {
+                firstCount++;
+            } else if (h > second) {
+                second = h;
+            }
+        }
+        top[s] = first;
+        topCount[s] = firstCount;
+        secondTop[s] = second;
+        fill[s] = fillOf(usedWidth[s]);
+        heightSum += top[s];
+
+        boolean active = orderPosition[s] < activeCount;
+        if (memberCount[s] == 0 && active) {
+            swapOrder(s, shelfOrder[--activeCount]);
+        } else if (memberCount[s] > 0 && !active) {
+            swapOrder(s, shelfOrder[activeCount++]);
+        }
+    }
+
+    private void swapOrder(int a, int b) {
+        int positionA = orderPosition[a];
+        int positionB = orderPosition[b];
+        shelfOrder[positionA] = b;
+        shelfOrder[positionB] = a;
+        orderPosition[a] = positionB;
+        orderPosition[b] = positionA;
+    }
+
+    /**
+     * Build the starting state from the layout's shelves and the elements it left out.
+     */
+    private void load(int[] order, int count, PackingLayout layout) {
+        ensureCapacity(count);
+        size = 0;
+        boolean[] placed = new boolean[input.size()];
+
+        // Placements ordered by y; each distinct y is a shelf
+        long[] keys = new long[layout.count()];
+        for (int p = 0; p < layout.count(); p++) {
+            keys[p] = ((long) layout.y(p) << 32) | p;
+        }
+        Arrays.sort(keys);
+        int[] initialShelf = new int[count];
+        int shelves = 0;
+        int previousY = -1;
+        for (long key : keys) {
+            int p = (int) key;
+            int y = (int) (key >>> 32);
+            if (y != previousY) {
+                shelves++;
+                previousY = y;
+            }
+            int e = layout.element(p);
+            placed[e] = true;
+            element[size] = e;
+            rotated[size] = layout.width(p) != input.width(e);
+            initialShelf[size++] = shelves - 1;
+        }
+        for (int i = 0; i < count; i++) {
+            int e = order[i];
+            if (placed[e]) {
+                continue;
+            }
+            boolean normalFits = input.width(e) <= sheetWidth && input.height(e) <= maxShelfHeight;
+            boolean rotatedFits = input.height(e) <= sheetWidth && input.width(e) <= maxShelfHeight;
+            if (normalFits || rotatedFits) {
+                element[size] = e;
+                rotated[size] = !normalFits;
+                initialShelf[size++] = shelves++;
+            }
+        }
+
+        activeCount = 0;
+        for (int s = 0; s < size; s++) {
+            shelfOrder[s] = s;
+            orderPosition[s] = s;
+        }
+        System.arraycopy(initialShelf, 0, bestShelf, 0, size);
+        System.arraycopy(rotated, 0, bestRotated, 0, size);
+        restore(bestShelf, bestRotated);
+    }
+
+    /**
+     * Rebuild the shelves from an assignment.
+     */
+    private void restore(int[] assignment, boolean[] orientation) {
+        heightSum = 0;
+        for (int s = 0; s < size; s++) {
+            memberCount[s] = 0;
+            usedWidth[s] = 0;
+            top[s] = 0;
+        }
+        for (int k = 0; k < size; k++) {
+            int s = assignment[k];
+            shelf[k] = s;
+            rotated[k] = orientation[k];
+            if (memberCount[s] == members[s].length) {
+                members[s] = Arrays.copyOf(members[s], Math.max(4, memberCount[s] << 1));
+            }
+            position[k] = memberCount[s];
+            members[s][memberCount[s]++] = k;
+            usedWidth[s] += width(k);
+        }
+        for (int s = 0; s < size; s++) {
+            refresh(s);
+        }
+    }
+
+    /**
+     * Lay the current shelves out in the candidate layout, tallest first, members in their original order.
+     */
+    private void write(int sheetHeight) {
+        candidate.clear(size);
+        candidate.addSheet(sheetWidth, sheetHeight);
+        long[] keys = new long[activeCount];
+        for (int i = 0; i < activeCount; i++) {
+            int s = shelfOrder[i];
+            keys[i] = ((long) (Integer.MAX_VALUE - top[s]) << 32) | s;
+        }
+        Arrays.sort(keys);
+
+        long y = 0;
+        for (long key : keys) {
+            int s = (int) key;
+            if (y + top[s] > sheetHeight) {
+                continue;
+            }
+            Arrays.sort(members[s], 0, memberCount[s]);
+            int x = 0;
+            for (int i = 0; i < memberCount[s]; i++) {
+                int k = members[s][i];
+                candidate.add(element[k], x, (int) y, width(k), height(k));
+                x += width(k);
+            }
+            y += top[s];
+        }
+    }
+
+    private int width(int k) {
+        return placedWidth(k, false);
+    }
+
+    private int height(int k) {
+        return placedHeight(k, false);
+    }
+
+    private int placedWidth(int k, boolean flip) {
+        return rotated[k] != flip ? input.height(element[k]) : input.width(element[k]);
+    }
+
+    private int placedHeight(int k, boolean flip) {
+        return rotated[k] != flip ? input.width(element[k]) : input.height(element[k]);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (element.length >= capacity) {
+            return;
+        }
+        element = new int[capacity];
+        shelf = new int[capacity];
+        position = new int[capacity];
+        rotated = new boolean[capacity];
+        bestShelf = new int[capacity];
+        bestRotated = new boolean[capacity];
+        int[][] grown = Arrays.copyOf(members, capacity);
+        for (int s = members.length; s < capacity; s++) {
+            grown[s] = new int[4];
+        }
+        members = grown;
+        memberCount = new int[capacity];
+        usedWidth = new int[capacity];
+        top = new int[capacity];
+        topCount = new int[capacity];
+        secondTop = new int[capacity];
+        fill = new double[capacity];
+        shelfOrder = new int[capacity];
+        orderPosition = new int[capacity];
+    }
+}
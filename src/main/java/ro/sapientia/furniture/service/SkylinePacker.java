@@ -0,0 +1,224 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Arrays;
+
+/**
+ * Skyline packing kernel working on primitive arrays.
+ * The used part of the sheet is described by its skyline: a left-to-right list of horizontal
+ * segments, each with the height of the highest placement below it. Every element is put on
+ * top of the skyline at the position chosen by the heuristic, in either orientation, and the
+ * segments under it are replaced by one segment at its top edge.
+ *
+ * The segments are kept in parallel arrays. For one element size all positions are scored in
+ * a single pass: a monotonic deque gives the highest segment under a sliding window and prefix
+ * sums give the area below it, so the search is linear in the number of segments. An instance
+ * keeps its buffers between runs and must only be used by one thread at a time.
+ */
+final class SkylinePacker implements SheetPacker {
+
+    /**
+     * How the position of an element is chosen.
+     */
+    enum Heuristic {
+        /** Lowest top edge, then leftmost. */
+        BOTTOM_LEFT,
+        /** Least area wasted below the element without raising the skyline's peak, then lowest top edge. */
+        MIN_WASTE
+    }
+
+    private final Heuristic heuristic;
+
+    // Segments ordered by x; together they span the sheet width
+    private int segmentCount;
+    private int[] segmentX = new int[16];
+    private int[] segmentY = new int[16];
+    private int[] segmentWidth = new int[16];
+
+    // Scratch for the position search
+    private long[] areaBefore = new long[17];
+    private int[] window = new int[16];
+    private int peak;
+
+    // Result of the last search
+    private int foundX;
+    private int foundY;
+    private long foundWaste;
+
+    SkylinePacker(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    public void pack(PackingInput input, int[] order, int count, int sheetWidth, int sheetHeight, PackingLayout layout) {
+        pack(input, order, count, sheetWidth, sheetHeight, layout, null);
+    }
+
+    @Override
+    public void pack(PackingInput input, int[] order, int count, int sheetWidth, int sheetHeight, PackingLayout layout,
+                     SearchBudget budget) {
+        segmentCount = 1;
+        segmentX[0] = 0;
+        segmentY[0] = 0;
+        segmentWidth[0] = sheetWidth;
+
+        for (int i = 0; i < count; i++) {
+            if (budget != null && budget.isExhausted()) {
+                return;
+            }
+            int element = order[i];
+            int elementWidth = input.width(element);
+            int elementHeight = input.height(element);
+
+            prepareSearch();
+            boolean normalFits = findPosition(elementWidth, elementHeight, sheetWidth, sheetHeight);
+            int normalX = foundX;
+            int normalY = foundY;
+            long normalWaste = foundWaste;
+            boolean rotatedFits = elementWidth != elementHeight &&
+                    findPosition(elementHeight, elementWidth, sheetWidth, sheetHeight);
+
+            // The original orientation wins on ties
+            if (normalFits && (!rotatedFits ||
+                    !isBetter(foundX, foundY + elementWidth, foundWaste, normalX, normalY + elementHeight, normalWaste))) {
+                layout.add(element, normalX, normalY, elementWidth, elementHeight);
+                place(normalX, normalY + elementHeight, elementWidth);
+            } else if (rotatedFits) {
+                layout.add(element, foundX, foundY, elementHeight, elementWidth);
+                place(foundX, foundY + elementWidth, elementHeight);
+            }
+        }
+    }
+
+    /**
+     * Compute the prefix sums of the area below the skyline and its highest point.
+     */
+    private void prepareSearch() {
+        if (areaBefore.length <= segmentCount) {
+            areaBefore = new long[segmentCount + 1];
+            window = new int[segmentCount];
+        }
+        peak = 0;
+        for (int s = 0; s < segmentCount; s++) {
+            areaBefore[s + 1] = areaBefore[s] + (long) segmentY[s] * segmentWidth[s];
+            peak = Math.max(peak, segmentY[s]);
+        }
+    }
+
+    /**
+     * Find the best position for a {@code width} x {@code height} rectangle whose left edge is at a segment start.
+     *
+     * @return whether any position fits; the position is left in {@code foundX}, {@code foundY} and {@code foundWaste}
+     */
+    private boolean findPosition(int width, int height, int sheetWidth, int sheetHeight) {
+        boolean found = false;
+        int head = 0;
+        int tail = 0;
+        int last = -1;
+        for (int first = 0; first < segmentCount; first++) {
+            int left = segmentX[first];
+            int right = left + width;
+            if (right > sheetWidth) {
+                break;
+            }
+            // Extend the window to the last segment starting left of the right edge
+            while (last + 1 < segmentCount && segmentX[last + 1] < right) {
+                last++;
+                while (tail > head && segmentY[window[tail - 1]] <= segmentY[last]) {
+                    tail--;
+                }
+                window[tail++] = last;
+            }
+            while (window[head] < first) {
+                head++;
+            }
+
+            int y = segmentY[window[head]];
+            if (y + height > sheetHeight) {
+                continue;
+            }
+            long below = areaBefore[last] - areaBefore[first] + (long) segmentY[last] * (right - segmentX[last]);
+            long waste = (long) y * width - below;
+            if (!found || isBetter(left, y + height, waste, foundX, foundY + height, foundWaste)) {
+                found = true;
+                foundX = left;
+                foundY = y;
+                foundWaste = waste;
+            }
+        }
+        return found;
+    }
+
+    private boolean isBetter(int x, int top, long waste, int bestX, int bestTop, long bestWaste) {
+        if (heuristic == Heuristic.MIN_WASTE) {
+            // Positions below the current peak are equally good; above it, lower is better
+            int raised = Math.max(top, peak);
+            int bestRaised = Math.max(bestTop, peak);
+            if (raised != bestRaised) {
+                return raised < bestRaised;
+            }
+            if (waste != bestWaste) {
+                return waste < bestWaste;
+            }
+        }
+        if (top != bestTop) {
+            return top < bestTop;
+        }
+        return x < bestX;
+    }
+
+    /**
+     * Raise the skyline over {@code [x, x + width)} to {@code top}.
+     */
+    private void place(int x, int top, int width) {
+        int right = x + width;
+        int first = 0;
+        while (segmentX[first] + segmentWidth[first] <= x) {
+            first++;
+        }
+        // Segments fully covered are dropped, a segment sticking out on the right is shortened
+        int end = first;
+        while (end < segmentCount && segmentX[end] + segmentWidth[end] <= right) {
+            end++;
+        }
+        if (end < segmentCount && segmentX[end] < right) {
+            segmentWidth[end] -= right - segmentX[end];
+            segmentX[end] = right;
+        }
+
+        ensureCapacity(segmentCount + 1);
+        int removed = end - first;
+        System.arraycopy(segmentX, end, segmentX, first + 1, segmentCount - end);
+        System.arraycopy(segmentY, end, segmentY, first + 1, segmentCount - end);
+        System.arraycopy(segmentWidth, end, segmentWidth, first + 1, segmentCount - end);
+        segmentCount += 1 - removed;
+        segmentX[first] = x;
+        segmentY[first] = top;
+        segmentWidth[first] = width;
+
+        // Merge with neighbours of the same height
+        if (first + 1 < segmentCount && segmentY[first + 1] == top) {
+            segmentWidth[first] += segmentWidth[first + 1];
+            removeSegment(first + 1);
+        }
+        if (first > 0 && segmentY[first - 1] == top) {
+            segmentWidth[first - 1] += segmentWidth[first];
+            removeSegment(first);
+        }
+    }
+
+    private void removeSegment(int index) {
+        System.arraycopy(segmentX, index + 1, segmentX, index, segmentCount - index - 1);
+        System.arraycopy(segmentY, index + 1, segmentY, index, segmentCount - index - 1);
+        System.arraycopy(segmentWidth, index + 1, segmentWidth, index, segmentCount - index - 1);
+        segmentCount--;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (segmentX.length < capacity) {
+            int length = Math.max(capacity, segmentX.length << 1);
+            segmentX = Arrays.copyOf(segmentX, length);
+            segmentY = Arrays.copyOf(segmentY, length);
+            segmentWidth = Arrays.copyOf(segmentWidth, length);
+        }
+    }
+}
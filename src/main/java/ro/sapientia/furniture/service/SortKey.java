@@ -0,0 +1,30 @@
+package ro.sapientia.furniture.service;
+
+/**
+ * Key the elements are sorted by, in decreasing order, before a packing kernel runs.
+ */
+enum SortKey {
+    HEIGHT,
+    WIDTH,
+    AREA,
+    MAX_SIDE,
+    PERIMETER;
+
+    /**
+     * The key of a {@code width} x {@code height} element, capped to fit the sort encoding.
+     */
+    int of(int width, int height) {
+        switch (this) {
+            case WIDTH:
+                return width;
+            case AREA:
+                return (int) Math.min((long) width * height, Integer.MAX_VALUE);
+            case MAX_SIDE:
+                return Math.max(width, height);
+            case PERIMETER:
+                return (int) Math.min((long) width + height, Integer.MAX_VALUE);
+            default:
+                return height;
+        }
+    }
+}
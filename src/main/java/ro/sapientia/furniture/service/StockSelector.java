@@ -0,0 +1,359 @@
+package ro.sapientia.furniture.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import ro.sapientia.furniture.util.AppLogger;
+
+/**
+ * Chooses board sizes from a stock list for an order, minimizing the total cost.
+ *
+ * Every stock size is tried as the primary size in its own task on the pool. A single-sheet
+ * plan only needs the elements to fit on one board of that size. A multi-sheet plan packs the
+ * elements onto the primary size; when its count runs out, the fullest boards are kept and the
+ * rest of the elements go onto the other sizes, cheapest per area first. Finally the emptiest
+ * board is moved to a cheaper size if its elements fit there. The cheapest plan wins, then the
+ * one with fewer boards.
+ *
+ * The tasks read the input and the sorted order of the caller's workspace without changing
+ * them; the elements of a sub-order are copied into the task's workspace in that order, so
+ * nothing is sorted again.
+ */
+final class StockSelector {
+
+    private static final AppLogger logger = AppLogger.getLogger(StockSelector.class);
+
+    /**
+     * Packs the input of a workspace, in its order, onto boards of the given size. Called for
+     * every candidate and sub-order, from several threads at once, so any search in it should
+     * share one deadline across the calls.
+     */
+    interface SheetPacking {
+        void pack(PackingWorkspace workspace, int sheetWidth, int sheetHeight, boolean multiSheet);
+    }
+
+    /**
+     * A board size in stock.
+     */
+    static final class Stock {
+        final int width;
+        final int height;
+        final int count;
+        final double cost;
+
+        /**
+         * @param count boards available, {@link Integer#MAX_VALUE} for unlimited
+         */
+        Stock(int width, int height, int count, double cost) {
+            this.width = width;
+            this.height = height;
+            this.count = count;
+            this.cost = cost;
+        }
+
+        double costPerArea() {
+            return cost / ((double) width * height);
+        }
+
+        @Override
+        public String toString() {
+            return width + "x" + height;
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    StockSelector(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Pack the first {@code input().size()} elements of the workspace order onto the cheapest
+     * combination of the stock and leave it in the workspace layout, every board with its own size.
+     *
+     * @return the total cost, or a negative value when no combination holds every element
+     *         (the workspace layout is then left unchanged)
+     */
+    double select(PackingWorkspace workspace, List<Stock> stock, boolean multiSheet, SheetPacking packing) {
+        PackingInput input = workspace.input();
+        int[] order = workspace.order();
+        List<ForkJoinTask<Candidate>> tasks = new ArrayList<>(stock.size());
+        for (int s = 0; s < stock.size(); s++) {
+            int primary = s;
+            tasks.add(ForkJoinTask.adapt(() -> {
+                PackingWorkspace taskWorkspace = PackingWorkspace.acquire();
+                try {
+                    return multiSheet
+                            ? combine(taskWorkspace, input, order, stock, primary, packing)
+                            : single(taskWorkspace, input, order, stock, primary, packing);
+                } finally {
+                    taskWorkspace.release();
+                }
+            }));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        Candidate best = null;
+        for (ForkJoinTask<Candidate> task : tasks) {
+            Candidate candidate = task.join();
+            if (candidate != null && (best == null || candidate.cost < best.cost
+                    || candidate.cost == best.cost && candidate.layout.sheetCount() < best.layout.sheetCount())) {
+                best = candidate;
+            }
+        }
+        if (best == null) {
+            logger.info("No stock combination holds all {} elements", input.size());
+            return -1;
+        }
+        workspace.layout().copyFrom(best.layout);
+        logger.info("Stock plan uses {} board(s) for {} elements at cost {}",
+                best.layout.sheetCount(), input.size(), best.cost);
+        return best.cost;
+    }
+
+    /**
+     * One board of the primary size, if it holds every element.
+     */
+    private static Candidate single(PackingWorkspace workspace, PackingInput input, int[] order, List<Stock> stock,
+                                    int primary, SheetPacking packing) {
+        Stock size = stock.get(primary);
+        if (size.count < 1) {
+            return null;
+        }
+        PackingLayout packed = packSubset(workspace, input, order, input.size(), size, false, packing);
+        if (packed.count() < input.size()) {
+            return null;
+        }
+        PackingLayout layout = new PackingLayout();
+        layout.clear(input.size());
+        layout.addSheet(size.width, size.height);
+        for (int p = 0; p < packed.count(); p++) {
+            layout.add(0, order[packed.element(p)], packed.x(p), packed.y(p), packed.width(p), packed.height(p));
+        }
+        return new Candidate(layout, size.cost);
+    }
+
+    /**
+     * Boards of the primary size as far as its count allows, then of the other sizes, cheapest
+     * per area first; finally the emptiest board moves to a cheaper size where possible.
+     */
+    private static Candidate combine(PackingWorkspace workspace, PackingInput input, int[] order, List<Stock> stock,
+                                     int primary, SheetPacking packing) {
+        List<Integer> sizes = new ArrayList<>(stock.size());
+        for (int s = 0; s < stock.size(); s++) {
+            if (s != primary) {
+                sizes.add(s);
+            }
+        }
+        sizes.sort((a, b) -> Double.compare(stock.get(a).costPerArea(), stock.get(b).costPerArea()));
+        sizes.add(0, primary);
+
+        int count = input.size();
+        int[] remaining = new int[count];
+        System.arraycopy(order, 0, remaining, 0, count);
+        int remainingCount = count;
+        int[] used = new int[stock.size()];
+        List<Integer> boardStock = new ArrayList<>();
+        PackingLayout layout = new PackingLayout();
+        layout.clear(count);
+
+        for (int s : sizes) {
+            Stock size = stock.get(s);
+            if (remainingCount == 0) {
+                break;
+            }
+            if (size.count < 1) {
+                continue;
+            }
+            PackingLayout packed = packSubset(workspace, input, remaining, remainingCount, size, true, packing);
+
+            // Keep every board, or the fullest ones when the count does not allow them all
+            int boards = packed.sheetCount();
+            long[] filled = new long[boards];
+            for (int p = 0; p < packed.count(); p++) {
+                filled[packed.sheet(p)] += (long) packed.width(p) * packed.height(p);
+            }
+            int[] target = new int[boards];
+            int kept = Math.min(boards, size.count);
+            boolean[] keep = fullest(filled, kept);
+            for (int b = 0; b < boards; b++) {
+                if (keep[b]) {
+                    target[b] = layout.addSheet(size.width, size.height);
+                    boardStock.add(s);
+                }
+            }
+            used[s] += kept;
+
+            boolean[] placed = new boolean[remainingCount];
+            for (int p = 0; p < packed.count(); p++) {
+                if (keep[packed.sheet(p)]) {
+                    int element = packed.element(p);
+                    placed[element] = true;
+                    layout.add(target[packed.sheet(p)], remaining[element], packed.x(p), packed.y(p),
+                            packed.width(p), packed.height(p));
+                }
+            }
+            int left = 0;
+            for (int i = 0; i < remainingCount; i++) {
+                if (!placed[i]) {
+                    remaining[left++] = remaining[i];
+                }
+            }
+            remainingCount = left;
+        }
+        if (remainingCount > 0) {
+            return null;
+        }
+
+        double cost = 0;
+        for (int s : boardStock) {
+            cost += stock.get(s).cost;
+        }
+        Candidate candidate = new Candidate(layout, cost);
+        downsizeEmptiest(workspace, input, order, stock, used, boardStock, candidate, packing);
+        return candidate;
+    }
+
+    /**
+     * Repack the elements of the least filled board onto the cheapest size, with boards left,
+     * that holds them all.
+     */
+    private static void downsizeEmptiest(PackingWorkspace workspace, PackingInput input, int[] order, List<Stock> stock,
+                                         int[] used, List<Integer> boardStock, Candidate candidate, SheetPacking packing) {
+        PackingLayout layout = candidate.layout;
+        int boards = layout.sheetCount();
+        long[] filled = new long[boards];
+        int[] members = new int[boards];
+        for (int p = 0; p < layout.count(); p++) {
+            filled[layout.sheet(p)] += (long) layout.width(p) * layout.height(p);
+            members[layout.sheet(p)]++;
+        }
+        int emptiest = 0;
+        for (int b = 1; b < boards; b++) {
+            if ((double) filled[b] / ((long) layout.sheetWidth(b) * layout.sheetHeight(b))
+                    < (double) filled[emptiest] / ((long) layout.sheetWidth(emptiest) * layout.sheetHeight(emptiest))) {
+                emptiest = b;
+            }
+        }
+        // The board's elements in the packing order of the caller
+        int[] rank = new int[input.size()];
+        for (int i = 0; i < input.size(); i++) {
+            rank[order[i]] = i;
+        }
+        long[] keys = new long[members[emptiest]];
+        int memberCount = 0;
+        for (int p = 0; p < layout.count(); p++) {
+            if (layout.sheet(p) == emptiest) {
+                keys[memberCount++] = ((long) rank[layout.element(p)] << 32) | layout.element(p);
+            }
+        }
+        Arrays.sort(keys);
+        int[] elements = new int[memberCount];
+        for (int i = 0; i < memberCount; i++) {
+            elements[i] = (int) keys[i];
+        }
+
+        Stock current = stock.get(boardStock.get(emptiest));
+        double bestCost = current.cost;
+        int bestStock = -1;
+        PackingLayout bestPacked = null;
+        for (int s = 0; s < stock.size(); s++) {
+            Stock option = stock.get(s);
+            if (option.cost >= bestCost || used[s] >= option.count) {
+                continue;
+            }
+            PackingLayout packed = packSubset(workspace, input, elements, memberCount, option, false, packing);
+            if (packed.count() == memberCount) {
+                bestCost = option.cost;
+                bestStock = s;
+                bestPacked = new PackingLayout();
+                bestPacked.copyFrom(packed);
+            }
+        }
+        if (bestStock < 0) {
+            return;
+        }
+
+        PackingLayout moved = new PackingLayout();
+        moved.clear(layout.count());
+        for (int b = 0; b < boards; b++) {
+            if (b != emptiest) {
+                moved.addSheet(layout.sheetWidth(b), layout.sheetHeight(b));
+            }
+        }
+        for (int p = 0; p < layout.count(); p++) {
+            int sheet = layout.sheet(p);
+            if (sheet != emptiest) {
+                moved.add(sheet < emptiest ? sheet : sheet - 1, layout.element(p), layout.x(p), layout.y(p),
+                        layout.width(p), layout.height(p));
+            }
+        }
+        Stock smaller = stock.get(bestStock);
+        int sheet = moved.addSheet(smaller.width, smaller.height);
+        for (int p = 0; p < bestPacked.count(); p++) {
+            moved.add(sheet, elements[bestPacked.element(p)], bestPacked.x(p), bestPacked.y(p),
+                    bestPacked.width(p), bestPacked.height(p));
+        }
+        layout.copyFrom(moved);
+        candidate.cost += smaller.cost - current.cost;
+    }
+
+    /**
+     * Pack the given elements of the input, in the given order, onto boards of one size.
+     * The placements of the returned layout refer to positions in {@code elements}.
+     */
+    private static PackingLayout packSubset(PackingWorkspace workspace, PackingInput input, int[] elements, int count,
+                                            Stock size, boolean multiSheet, SheetPacking packing) {
+        PackingInput subset = workspace.input();
+        subset.reset(count);
+        for (int i = 0; i < count; i++) {
+            int element = elements[i];
+            subset.set(i, input.id(element), input.width(element), input.height(element));
+        }
+        workspace.orderAsGiven();
+        packing.pack(workspace, size.width, size.height, multiSheet);
+        return workspace.layout();
+    }
+
+    /**
+     * Mark the {@code kept} boards with the most filled area.
+     */
+    private static boolean[] fullest(long[] filled, int kept) {
+        boolean[] keep = new boolean[filled.length];
+        if (kept >= filled.length) {
+            Arrays.fill(keep, true);
+            return keep;
+        }
+        Integer[] boards = new Integer[filled.length];
+        for (int b = 0; b < boards.length; b++) {
+            boards[b] = b;
+        }
+        Arrays.sort(boards, (a, b) -> Long.compare(filled[b], filled[a]));
+        for (int k = 0; k < kept; k++) {
+            keep[boards[k]] = true;
+        }
+        return keep;
+    }
+
+    /**
+     * A complete plan, its placements referring to the caller's input.
+     */
+    private static final class Candidate {
+        final PackingLayout layout;
+        double cost;
+
+        Candidate(PackingLayout layout, double cost) {
+            this.layout = layout;
+            this.cost = cost;
+        }
+    }
+}
@@ -16,8 +16,8 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import ro.sapientia.furniture.model.dto.CutElementDTO;
 import ro.sapientia.furniture.model.dto.CutRequestDTO;
-import ro.sapientia.furniture.model.dto.FurnitureBodyDTO;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -31,8 +31,8 @@ public class FurnitureCutEndpointIT {
 
     @Test
     void cutEndpoint_placesTwoElements() throws Exception {
-        FurnitureBodyDTO e1 = new FurnitureBodyDTO(); e1.setId(1L); e1.setWidth(10); e1.setHeight(10);
-        FurnitureBodyDTO e2 = new FurnitureBodyDTO(); e2.setId(2L); e2.setWidth(15); e2.setHeight(10);
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(10); e1.setHeight(10);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(15); e2.setHeight(10);
         CutRequestDTO req = new CutRequestDTO();
         req.setSheetWidth(30); req.setSheetHeight(20);
         req.setElements(List.of(e1, e2));
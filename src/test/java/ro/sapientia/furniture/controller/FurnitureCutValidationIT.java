@@ -16,8 +16,8 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import ro.sapientia.furniture.model.dto.CutElementDTO;
 import ro.sapientia.furniture.model.dto.CutRequestDTO;
-import ro.sapientia.furniture.model.dto.FurnitureBodyDTO;
 
 /**
  * Integration tests for validation on the /cut endpoint.
@@ -39,7 +39,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(null);
         req.setSheetHeight(100);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(10);
         element.setHeight(10);
@@ -61,7 +61,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(100);
         req.setSheetHeight(null);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(10);
         element.setHeight(10);
@@ -83,7 +83,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(0);
         req.setSheetHeight(100);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(10);
         element.setHeight(10);
@@ -105,7 +105,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(-10);
         req.setSheetHeight(100);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(10);
         element.setHeight(10);
@@ -127,7 +127,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(100);
         req.setSheetHeight(0);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(10);
         element.setHeight(10);
@@ -149,7 +149,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(100);
         req.setSheetHeight(-20);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(10);
         element.setHeight(10);
@@ -188,7 +188,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(100);
         req.setSheetHeight(100);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(0);
         element.setHeight(10);
@@ -210,7 +210,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(100);
         req.setSheetHeight(100);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(-5);
         element.setHeight(10);
@@ -232,7 +232,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(100);
         req.setSheetHeight(100);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(10);
         element.setHeight(0);
@@ -254,7 +254,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(100);
         req.setSheetHeight(100);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(10);
         element.setHeight(-15);
@@ -276,7 +276,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(100);
         req.setSheetHeight(100);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(null);
         element.setWidth(10);
         element.setHeight(10);
@@ -298,7 +298,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(-10); // Invalid
         req.setSheetHeight(0);   // Invalid
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(null);     // Invalid
         element.setWidth(-5);    // Invalid
         element.setHeight(0);    // Invalid
@@ -320,7 +320,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(100);
         req.setSheetHeight(100);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(10);
         element.setHeight(10);
@@ -342,7 +342,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(100);
         req.setSheetHeight(100);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(10);
         element.setHeight(10);
@@ -363,7 +363,7 @@ public class FurnitureCutValidationIT {
         req.setSheetWidth(100);
         req.setSheetHeight(100);
 
-        FurnitureBodyDTO element = new FurnitureBodyDTO();
+        CutElementDTO element = new CutElementDTO();
         element.setId(1L);
         element.setWidth(10);
         element.setHeight(10);
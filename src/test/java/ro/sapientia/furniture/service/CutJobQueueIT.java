@@ -0,0 +1,146 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ro.sapientia.furniture.FurnitureApplication;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
+import ro.sapientia.furniture.model.dto.CutJobDTO;
+import ro.sapientia.furniture.model.dto.CutJobStatus;
+import ro.sapientia.furniture.model.dto.CutRequestDTO;
+import ro.sapientia.furniture.model.dto.CutResponseDTO;
+import ro.sapientia.furniture.model.entities.CutJob;
+import ro.sapientia.furniture.repository.CutJobRepository;
+
+/**
+ * Three application contexts share one database, like three instances of the service: the
+ * first only accepts jobs, the other two run them. Uses an in-memory H2 database by default;
+ * run it against a local PostgreSQL with {@code -Dcutjob.it.url=jdbc:postgresql://localhost:5432/furniture}
+ * and {@code -Dcutjob.it.username} / {@code -Dcutjob.it.password}.
+ */
+public class CutJobQueueIT {
+
+    private static final String URL = System.getProperty("cutjob.it.url", "jdbc:h2:mem:cutjobs;DB_CLOSE_DELAY=-1");
+
+    private static ConfigurableApplicationContext front;
+    private static ConfigurableApplicationContext firstWorker;
+    private static ConfigurableApplicationContext secondWorker;
+
+    @BeforeAll
+    static void startInstances() {
+        front = startInstance(0);
+        firstWorker = startInstance(2);
+        secondWorker = startInstance(2);
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        for (ConfigurableApplicationContext context : List.of(secondWorker, firstWorker, front)) {
+            context.close();
+        }
+    }
+
+    @Test
+    void jobsAcceptedByOneInstanceRunOnceOnTheOthers() throws InterruptedException {
+        CutJobService jobs = front.getBean(CutJobService.class);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            ids.add(jobs.submit(request(1000, 1000, element(i + 1L, 400, 300, 6))).getJobId());
+        }
+
+        Set<Long> sheetIds = new HashSet<>();
+        for (String id : ids) {
+            CutJobDTO job = awaitFinished(jobs, id);
+            assertEquals(CutJobStatus.DONE, job.getStatus());
+            assertEquals(1, job.getAttempts());
+            CutResponseDTO result = jobs.result(id);
+            assertEquals(6, result.getPlacements().size());
+            assertEquals(result.getSheets().size(), job.getCuttingSheetIds().size());
+            sheetIds.addAll(job.getCuttingSheetIds());
+        }
+        // No job was planned twice, so no sheet is linked to two jobs
+        assertEquals(12, sheetIds.size());
+    }
+
+    @Test
+    void jobWithExpiredLeaseIsClaimedAgain() throws Exception {
+        CutJob abandoned = new CutJob(UUID.randomUUID().toString(),
+                front.getBean(ObjectMapper.class).writeValueAsString(request(1000, 1000, element(1L, 400, 300, 1))),
+                LocalDateTime.now());
+        abandoned.setStatus(CutJobStatus.RUNNING);
+        abandoned.setWorkerId("gone-0");
+        abandoned.setAttempts(1);
+        abandoned.setLeaseExpiresAt(LocalDateTime.now().minusSeconds(1));
+        front.getBean(CutJobRepository.class).save(abandoned);
+
+        CutJobDTO job = awaitFinished(front.getBean(CutJobService.class), abandoned.getId());
+
+        assertEquals(CutJobStatus.DONE, job.getStatus());
+        assertEquals(2, job.getAttempts());
+        assertTrue(!"gone-0".equals(job.getWorkerId()));
+    }
+
+    private static ConfigurableApplicationContext startInstance(int workers) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + URL,
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--spring.batch.jdbc.initialize-schema=always",
+                "--furniture.cut.job-workers=" + workers,
+                "--furniture.cut.job-poll-millis=20",
+                "--furniture.cut.job-lease-millis=2000"
+        ));
+        if (URL.startsWith("jdbc:h2:")) {
+            args.add("--spring.datasource.username=sa");
+            args.add("--spring.datasource.password=");
+            args.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        } else {
+            args.add("--spring.datasource.username=" + System.getProperty("cutjob.it.username", "sapi"));
+            args.add("--spring.datasource.password=" + System.getProperty("cutjob.it.password", "sapi"));
+        }
+        return new SpringApplicationBuilder(FurnitureApplication.class).run(args.toArray(new String[0]));
+    }
+
+    private static CutJobDTO awaitFinished(CutJobService jobs, String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        CutJobDTO job = jobs.status(id);
+        while ((job.getStatus() == CutJobStatus.QUEUED || job.getStatus() == CutJobStatus.RUNNING)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            job = jobs.status(id);
+        }
+        return job;
+    }
+
+    private static CutRequestDTO request(int sheetWidth, int sheetHeight, CutElementDTO... elements) {
+        CutRequestDTO request = new CutRequestDTO();
+        request.setSheetWidth(sheetWidth);
+        request.setSheetHeight(sheetHeight);
+        request.setElements(List.of(elements));
+        return request;
+    }
+
+    private static CutElementDTO element(Long id, int width, int height, int quantity) {
+        CutElementDTO element = new CutElementDTO();
+        element.setId(id);
+        element.setWidth(width);
+        element.setHeight(height);
+        element.setQuantity(quantity);
+        return element;
+    }
+}
@@ -0,0 +1,260 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ro.sapientia.furniture.config.CutOptimizationProperties;
+import ro.sapientia.furniture.exception.CutErrorCode;
+import ro.sapientia.furniture.exception.CutJobNotFinishedException;
+import ro.sapientia.furniture.exception.CutJobNotFoundException;
+import ro.sapientia.furniture.exception.CutJobRejectedException;
+import ro.sapientia.furniture.exception.InfeasibleCutException;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
+import ro.sapientia.furniture.model.dto.CutJobDTO;
+import ro.sapientia.furniture.model.dto.CutJobStatus;
+import ro.sapientia.furniture.model.dto.CutRequestDTO;
+import ro.sapientia.furniture.model.entities.CutJob;
+import ro.sapientia.furniture.repository.CutJobRepository;
+import ro.sapientia.furniture.repository.CutJobSheetRepository;
+import ro.sapientia.furniture.repository.CuttingSheetRepository;
+import ro.sapientia.furniture.repository.FurnitureBodyRepository;
+
+public class CutJobServiceTest {
+
+    private CutJobService service;
+
+    private CutJobQueue queue;
+
+    private ThreadPoolExecutor executor;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private CutJobRepository cutJobRepository;
+
+    @Mock
+    private CutJobSheetRepository cutJobSheetRepository;
+
+    @Mock
+    private CuttingSheetRepository cuttingSheetRepository;
+
+    @Mock
+    private FurnitureBodyRepository furnitureBodyRepository;
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        CutOptimizationProperties properties = new CutOptimizationProperties();
+        queue = new CutJobQueue(cutJobRepository, cutJobSheetRepository, cuttingSheetRepository,
+                new CutOptimizationService(cuttingSheetRepository, new FurnitureBodyCatalog(furnitureBodyRepository, properties),
+                        new RemnantInventory(null), properties, ForkJoinPool.commonPool()),
+                objectMapper, properties);
+        // Workers are not started; the tests drive the queue themselves
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        service = new CutJobService(queue, executor, new CutProgressPublisher(messagingTemplate, properties), properties);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void submit_queuesTheRequest() {
+        when(cutJobRepository.countByStatus(any())).thenReturn(0L);
+
+        CutJobDTO job = service.submit(request(100, 100, element(1L, 50, 50)));
+
+        assertEquals(CutJobStatus.QUEUED, job.getStatus());
+        assertEquals(36, job.getJobId().length());
+    }
+
+    @Test
+    void stop_shutsTheLeaseRenewerDownOnceTheWorkersReturned() throws InterruptedException {
+        service.start();
+        assertFalse(service.isLeaseRenewerShutDown());
+
+        service.stop();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!service.isLeaseRenewerShutDown() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(service.isLeaseRenewerShutDown());
+    }
+
+    @Test
+    void submit_rejectsJobsWhenTheQueueIsFull() {
+        when(cutJobRepository.countByStatus(any())).thenReturn(100L);
+
+        assertThrows(CutJobRejectedException.class, () -> service.submit(request(100, 100, element(1L, 50, 50))));
+    }
+
+    /**
+     * A job still running on an expired lease belongs to a worker that died; it is claimed again.
+     */
+    @Test
+    void claim_takesOverAJobWhoseLeaseExpired() {
+        CutJob job = job(CutJobStatus.RUNNING, request(100, 100, element(1L, 50, 50)));
+        job.setWorkerId("gone-0");
+        job.setAttempts(1);
+        job.setLeaseExpiresAt(LocalDateTime.now().minusSeconds(1));
+        when(cutJobRepository.findClaimable(any())).thenReturn(Optional.of(job));
+
+        CutJob claimed = queue.claim("worker-0").orElseThrow();
+
+        assertEquals(CutJobStatus.RUNNING, claimed.getStatus());
+        assertEquals("worker-0", claimed.getWorkerId());
+        assertEquals(2, claimed.getAttempts());
+        assertTrue(claimed.getLeaseExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void complete_recordsThePlanOfAHeldJob() {
+        CutJob job = job(CutJobStatus.RUNNING, request(100, 100, element(1L, 50, 50)));
+        job.setWorkerId("worker-0");
+        when(cutJobRepository.findLocked(any())).thenReturn(Optional.of(job));
+
+        CutOptimizationService.PendingPlan plan = queue.plan(job, null);
+        assertTrue(queue.complete(job.getId(), "worker-0", plan));
+
+        assertEquals(CutJobStatus.DONE, job.getStatus());
+        assertEquals(1, queue.readResult(job).getPlacements().size());
+        // Discarding a saved plan changes nothing
+        queue.discard(plan);
+        assertEquals(CutJobStatus.DONE, job.getStatus());
+    }
+
+    /**
+     * A worker that lost the lease while planning leaves the job to the worker that took it over.
+     */
+    @Test
+    void complete_leavesAJobClaimedByAnotherWorker() {
+        CutJob job = job(CutJobStatus.RUNNING, request(100, 100, element(1L, 50, 50)));
+        job.setWorkerId("worker-0");
+        when(cutJobRepository.findLocked(any())).thenReturn(Optional.of(job));
+
+        CutOptimizationService.PendingPlan plan = queue.plan(job, null);
+        job.setWorkerId("other-0");
+
+        assertFalse(queue.complete(job.getId(), "worker-0", plan));
+        assertEquals(CutJobStatus.RUNNING, job.getStatus());
+        assertNull(job.getResult());
+    }
+
+    @Test
+    void renewLease_extendsTheLeaseOfAHeldJobOnly() {
+        CutJob job = job(CutJobStatus.RUNNING, request(100, 100, element(1L, 50, 50)));
+        job.setWorkerId("worker-0");
+        LocalDateTime expiring = LocalDateTime.now().plusSeconds(1);
+        job.setLeaseExpiresAt(expiring);
+        when(cutJobRepository.findLocked(any())).thenReturn(Optional.of(job));
+
+        assertTrue(queue.renewLease(job.getId(), "worker-0"));
+        assertTrue(job.getLeaseExpiresAt().isAfter(expiring));
+
+        LocalDateTime renewed = job.getLeaseExpiresAt();
+        assertFalse(queue.renewLease(job.getId(), "other-0"));
+        assertEquals(renewed, job.getLeaseExpiresAt());
+    }
+
+    /**
+     * Unexpected errors put the job back into the queue; cutting failures end it with their error code.
+     */
+    @Test
+    void fail_requeuesUnexpectedErrorsAndRecordsCuttingFailures() {
+        CutJob job = job(CutJobStatus.RUNNING, request(100, 100, element(1L, 50, 50)));
+        job.setWorkerId("worker-0");
+        job.setAttempts(1);
+        when(cutJobRepository.findLocked(any())).thenReturn(Optional.of(job));
+
+        queue.fail(job.getId(), "worker-0", new IllegalStateException("connection lost"));
+        assertEquals(CutJobStatus.QUEUED, job.getStatus());
+
+        job.setStatus(CutJobStatus.RUNNING);
+        job.setWorkerId("worker-0");
+        queue.fail(job.getId(), "worker-0", new InfeasibleCutException(CutErrorCode.AREA_EXCEEDS_SHEET, "too much"));
+        assertEquals(CutJobStatus.FAILED, job.getStatus());
+        assertEquals("AREA_EXCEEDS_SHEET", job.getErrorCode());
+    }
+
+    @Test
+    void result_rethrowsTheRecordedFailure() {
+        CutJob job = job(CutJobStatus.FAILED, request(100, 100, element(1L, 150, 150)));
+        job.setError("Element 1 (150x150) is too large to fit on the sheet (100x100)");
+        job.setErrorCode("ELEMENT_TOO_LARGE");
+        when(cutJobRepository.findById(any())).thenReturn(Optional.of(job));
+
+        InfeasibleCutException e = assertThrows(InfeasibleCutException.class, () -> service.result(job.getId()));
+        assertEquals(CutErrorCode.ELEMENT_TOO_LARGE, e.getCode());
+        assertEquals(job.getError(), e.getMessage());
+    }
+
+    @Test
+    void result_throwsWhileTheJobIsQueued() {
+        CutJob job = job(CutJobStatus.QUEUED, request(100, 100, element(1L, 50, 50)));
+        when(cutJobRepository.findById(any())).thenReturn(Optional.of(job));
+
+        assertThrows(CutJobNotFinishedException.class, () -> service.result(job.getId()));
+    }
+
+    @Test
+    void status_throwsForUnknownJob() {
+        when(cutJobRepository.findById(any())).thenReturn(Optional.empty());
+
+        assertThrows(CutJobNotFoundException.class, () -> service.status("missing"));
+    }
+
+    private CutJob job(CutJobStatus status, CutRequestDTO request) {
+        try {
+            CutJob job = new CutJob("0b5c1f9e-2d4a-4e7b-8c3f-6a1d9e2b7c40", objectMapper.writeValueAsString(request),
+                    LocalDateTime.now());
+            job.setStatus(status);
+            return job;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CutRequestDTO request(int sheetWidth, int sheetHeight, CutElementDTO... elements) {
+        CutRequestDTO request = new CutRequestDTO();
+        request.setSheetWidth(sheetWidth);
+        request.setSheetHeight(sheetHeight);
+        request.setElements(List.of(elements));
+        return request;
+    }
+
+    private static CutElementDTO element(Long id, int width, int height) {
+        CutElementDTO element = new CutElementDTO();
+        element.setId(id);
+        element.setWidth(width);
+        element.setHeight(height);
+        return element;
+    }
+}
@@ -1,6 +1,7 @@
 package ro.sapientia.furniture.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -8,18 +9,31 @@ import static org.mockito.Mockito.when;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import ro.sapientia.furniture.config.CutOptimizationProperties;
 import ro.sapientia.furniture.exception.CutOptimizationException;
+import ro.sapientia.furniture.model.dto.CutBatchResponseDTO;
+import ro.sapientia.furniture.model.dto.CutBodyDTO;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
 import ro.sapientia.furniture.model.dto.CutRequestDTO;
 import ro.sapientia.furniture.model.dto.CutResponseDTO;
-import ro.sapientia.furniture.model.dto.FurnitureBodyDTO;
+import ro.sapientia.furniture.model.dto.GuillotineCutDTO;
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
 import ro.sapientia.furniture.model.dto.PlacedElementDTO;
+import ro.sapientia.furniture.model.dto.StockSheetDTO;
+import ro.sapientia.furniture.model.entities.FurnitureBody;
+import ro.sapientia.furniture.model.entities.Remnant;
 import ro.sapientia.furniture.repository.CuttingSheetRepository;
 import ro.sapientia.furniture.repository.FurnitureBodyRepository;
 
@@ -36,14 +50,16 @@ public class CutOptimizationServiceTest {
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        when(furnitureBodyRepository.existsById(any())).thenReturn(true);
-        service = new CutOptimizationService(cuttingSheetRepository, furnitureBodyRepository);
+        when(furnitureBodyRepository.findAllById(any())).thenReturn(List.of(new FurnitureBody(5L, 600, 720, 560)));
+        CutOptimizationProperties properties = new CutOptimizationProperties();
+        service = new CutOptimizationService(cuttingSheetRepository, new FurnitureBodyCatalog(furnitureBodyRepository, properties),
+                new RemnantInventory(null), properties, ForkJoinPool.commonPool());
     }
 
     @Test
     void optimizeCutting_placesAllWithoutRotation() {
-        FurnitureBodyDTO e1 = new FurnitureBodyDTO(); e1.setId(1L); e1.setWidth(10); e1.setHeight(10);
-        FurnitureBodyDTO e2 = new FurnitureBodyDTO(); e2.setId(2L); e2.setWidth(15); e2.setHeight(10);
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(10); e1.setHeight(10);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(15); e2.setHeight(10);
         CutRequestDTO req = new CutRequestDTO();
         req.setSheetWidth(30); req.setSheetHeight(20);
         req.setElements(List.of(e1, e2));
@@ -56,8 +72,8 @@ public class CutOptimizationServiceTest {
 
     @Test
     void optimizeCutting_usesRotationWhenNeeded() {
-        FurnitureBodyDTO e1 = new FurnitureBodyDTO(); e1.setId(1L); e1.setWidth(20); e1.setHeight(10);
-        FurnitureBodyDTO e2 = new FurnitureBodyDTO(); e2.setId(2L); e2.setWidth(15); e2.setHeight(20);
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(20); e1.setHeight(10);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(15); e2.setHeight(20);
         CutRequestDTO req = new CutRequestDTO();
         req.setSheetWidth(20); req.setSheetHeight(40);
         req.setElements(List.of(e1, e2));
@@ -80,7 +96,7 @@ public class CutOptimizationServiceTest {
 
     @Test
     void optimizeCutting_throwsTooLargeForSheet() {
-        FurnitureBodyDTO e1 = new FurnitureBodyDTO(); e1.setId(1L); e1.setWidth(100); e1.setHeight(100);
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(100); e1.setHeight(100);
         CutRequestDTO req = new CutRequestDTO();
         req.setSheetWidth(50); req.setSheetHeight(50);
         req.setElements(List.of(e1));
@@ -98,8 +114,8 @@ public class CutOptimizationServiceTest {
         // Element 1: 6x10 (Area: 60)
         // Element 2: 6x10 (Area: 60)
         // Total 120, so impossible to place, but valid individually.
-        FurnitureBodyDTO e1 = new FurnitureBodyDTO(); e1.setId(1L); e1.setWidth(6); e1.setHeight(10);
-        FurnitureBodyDTO e2 = new FurnitureBodyDTO(); e2.setId(2L); e2.setWidth(6); e2.setHeight(10);
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(6); e1.setHeight(10);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(6); e2.setHeight(10);
 
         CutRequestDTO req = new CutRequestDTO();
         req.setSheetWidth(10); req.setSheetHeight(10);
@@ -114,16 +130,24 @@ public class CutOptimizationServiceTest {
      */
     @Test
     void validatePlacements_throwsOnOverlap_viaReflection() throws Exception {
-        // Two elements starting at the same position (0,0) -> Overlap!
-        PlacedElementDTO p1 = new PlacedElementDTO(1L, 0, 0, 10, 10);
-        PlacedElementDTO p2 = new PlacedElementDTO(2L, 5, 5, 10, 10);
+        // Two elements overlapping in the (5,5)-(10,10) area -> Overlap!
+        PackingInput input = new PackingInput();
+        input.reset(2);
+        input.set(0, 1L, 10, 10);
+        input.set(1, 2L, 10, 10);
+        PackingLayout layout = new PackingLayout();
+        layout.clear(2);
+        layout.addSheet(100, 100);
+        layout.add(0, 0, 0, 10, 10);
+        layout.add(1, 5, 5, 10, 10);
 
         // Reflection call
-        Method method = CutOptimizationService.class.getDeclaredMethod("validatePlacements", List.class, int.class, int.class);
+        Method method = CutOptimizationService.class.getDeclaredMethod("validatePlacements",
+                PackingInput.class, PackingLayout.class);
         method.setAccessible(true); // Making private method accessible
 
         InvocationTargetException exception = assertThrows(InvocationTargetException.class, () -> {
-            method.invoke(service, List.of(p1, p2), 100, 100);
+            method.invoke(service, input, layout);
         });
 
         // Verify that the wrapped exception is indeed CutOptimizationException
@@ -138,14 +162,21 @@ public class CutOptimizationServiceTest {
     @Test
     void validatePlacements_throwsOutOfBounds_viaReflection() throws Exception {
         // Element beyond the sheet edge (X=95, Width=10 -> End=105, Sheet=100)
-        PlacedElementDTO p1 = new PlacedElementDTO(1L, 95, 0, 10, 10);
+        PackingInput input = new PackingInput();
+        input.reset(1);
+        input.set(0, 1L, 10, 10);
+        PackingLayout layout = new PackingLayout();
+        layout.clear(1);
+        layout.addSheet(100, 100);
+        layout.add(0, 95, 0, 10, 10);
 
         // Reflection call
-        Method method = CutOptimizationService.class.getDeclaredMethod("validatePlacements", List.class, int.class, int.class);
+        Method method = CutOptimizationService.class.getDeclaredMethod("validatePlacements",
+                PackingInput.class, PackingLayout.class);
         method.setAccessible(true);
 
         InvocationTargetException exception = assertThrows(InvocationTargetException.class, () -> {
-            method.invoke(service, List.of(p1), 100, 100);
+            method.invoke(service, input, layout);
         });
 
         assertTrue(exception.getCause() instanceof CutOptimizationException);
@@ -160,8 +191,8 @@ public class CutOptimizationServiceTest {
      */
     @Test
     void optimizeCutting_forcesRotationInSameLevel() {
-        FurnitureBodyDTO e1 = new FurnitureBodyDTO(); e1.setId(1L); e1.setWidth(50); e1.setHeight(100);
-        FurnitureBodyDTO e2 = new FurnitureBodyDTO(); e2.setId(2L); e2.setWidth(100); e2.setHeight(50);
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(50); e1.setHeight(100);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(100); e2.setHeight(50);
 
         CutRequestDTO req = new CutRequestDTO();
         req.setSheetWidth(100); req.setSheetHeight(100);
@@ -186,8 +217,8 @@ public class CutOptimizationServiceTest {
      */
     @Test
     void optimizeCutting_forcesRotationInNewLevel() {
-        FurnitureBodyDTO e1 = new FurnitureBodyDTO(); e1.setId(1L); e1.setWidth(10); e1.setHeight(10);
-        FurnitureBodyDTO e2 = new FurnitureBodyDTO(); e2.setId(2L); e2.setWidth(15); e2.setHeight(5);
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(10); e1.setHeight(10);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(15); e2.setHeight(5);
 
         CutRequestDTO req = new CutRequestDTO();
         req.setSheetWidth(10); req.setSheetHeight(30);
@@ -206,4 +237,433 @@ public class CutOptimizationServiceTest {
         // Check that it was placed in a new level (Y >= 10)
         assertTrue(p2.getY() >= 10);
     }
-}
\ No newline at end of file
+
+    /**
+     * FFDH cannot use the space above the short element of a shelf, MaxRects can.
+     * Sheet: 100x60
+     * Element 1: 50x60 (fills the left half)
+     * Elements 2 and 3: 50x30 (stacked in the right half)
+     */
+    @Test
+    void optimizeCutting_maxRectsFillsSpaceAboveShortElements() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(50); e1.setHeight(60);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(50); e2.setHeight(30);
+        CutElementDTO e3 = new CutElementDTO(); e3.setId(3L); e3.setWidth(50); e3.setHeight(30);
+
+        CutRequestDTO req = new CutRequestDTO();
+        req.setSheetWidth(100); req.setSheetHeight(60);
+        req.setElements(List.of(e1, e2, e3));
+
+        assertThrows(CutOptimizationException.class, () -> service.optimizeCutting(req));
+
+        req.setAlgorithm(PackingAlgorithm.MAXRECTS_BSSF);
+        CutResponseDTO resp = service.optimizeCutting(req);
+
+        assertEquals(3, resp.getPlacements().size());
+        PlacedElementDTO p3 = resp.getPlacements().get(2);
+        assertEquals(3L, p3.getId());
+        assertEquals(50, p3.getX());
+        assertEquals(30, p3.getY());
+        assertEquals(1.0, resp.getSheets().get(0).getUtilization());
+    }
+
+    @Test
+    void optimizeCutting_portfolioPlacesWhatFfdhCannot() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(50); e1.setHeight(60);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(50); e2.setHeight(30);
+        CutElementDTO e3 = new CutElementDTO(); e3.setId(3L); e3.setWidth(50); e3.setHeight(30);
+
+        CutRequestDTO req = new CutRequestDTO();
+        req.setSheetWidth(100); req.setSheetHeight(60);
+        req.setElements(List.of(e1, e2, e3));
+        req.setAlgorithm(PackingAlgorithm.PORTFOLIO);
+
+        CutResponseDTO resp = service.optimizeCutting(req);
+
+        assertEquals(3, resp.getPlacements().size());
+        assertEquals(1.0, resp.getSheets().get(0).getUtilization());
+    }
+
+    /**
+     * FFDH leaves the 30x40 part without room on the 100x100 sheet; with a search budget the
+     * shelves are regrouped so that every part fits.
+     */
+    @Test
+    void optimizeCutting_maxMillisImprovesShelfLayout() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(80); e1.setHeight(20);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(50); e2.setHeight(80);
+        CutElementDTO e3 = new CutElementDTO(); e3.setId(3L); e3.setWidth(30); e3.setHeight(60);
+        CutElementDTO e4 = new CutElementDTO(); e4.setId(4L); e4.setWidth(30); e4.setHeight(40);
+
+        CutRequestDTO req = new CutRequestDTO();
+        req.setSheetWidth(100); req.setSheetHeight(100);
+        req.setElements(List.of(e1, e2, e3, e4));
+
+        assertThrows(CutOptimizationException.class, () -> service.optimizeCutting(req));
+
+        req.setMaxMillis(500);
+        CutResponseDTO resp = service.optimizeCutting(req);
+
+        assertEquals(4, resp.getPlacements().size());
+        assertEquals(1, resp.getSheets().size());
+    }
+
+    @Test
+    void optimizeCutting_reportsLowerBoundsAndGap() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(50); e1.setHeight(50);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(50); e2.setHeight(50);
+        CutElementDTO e3 = new CutElementDTO(); e3.setId(3L); e3.setWidth(100); e3.setHeight(50);
+
+        CutRequestDTO req = new CutRequestDTO();
+        req.setSheetWidth(100); req.setSheetHeight(100);
+        req.setElements(List.of(e1, e2, e3));
+
+        CutResponseDTO resp = service.optimizeCutting(req);
+
+        assertEquals(1, resp.getSheetCountLowerBound());
+        assertEquals(100, resp.getHeightLowerBound());
+        assertEquals(0.0, resp.getOptimalityGap());
+    }
+
+    /**
+     * An 18mm and an 8mm part never share a board, even when both would fit on one sheet.
+     */
+    @Test
+    void optimizeCutting_packsEveryDepthOnItsOwnSheets() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(50); e1.setHeight(50); e1.setDepth(18);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(50); e2.setHeight(50); e2.setDepth(8);
+        CutElementDTO e3 = new CutElementDTO(); e3.setId(3L); e3.setWidth(50); e3.setHeight(50); e3.setDepth(18);
+
+        CutRequestDTO req = new CutRequestDTO();
+        req.setSheetWidth(100); req.setSheetHeight(100);
+        req.setElements(List.of(e1, e2, e3));
+
+        CutResponseDTO resp = service.optimizeCutting(req);
+
+        assertEquals(2, resp.getSheets().size());
+        assertEquals(8, resp.getSheets().get(0).getDepth());
+        assertEquals(18, resp.getSheets().get(1).getDepth());
+        assertEquals(2, resp.getGroups().size());
+        assertEquals(2, resp.getGroups().get(1).getPlacedCount());
+        assertEquals(List.of(1), resp.getGroups().get(1).getSheetIndexes());
+        for (PlacedElementDTO placement : resp.getPlacements()) {
+            assertEquals(placement.getId() == 2L ? 0 : 1, placement.getSheetIndex());
+        }
+    }
+
+    /**
+     * Only one 100x100 board is in stock: it takes four of the six parts, the cheaper
+     * half boards take the other two.
+     */
+    @Test
+    void optimizeCutting_choosesTheCheapestStock() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(50); e1.setHeight(50); e1.setQuantity(6);
+        StockSheetDTO full = new StockSheetDTO(100, 100); full.setCount(1); full.setCost(4.0);
+        StockSheetDTO half = new StockSheetDTO(100, 50); half.setCost(3.0);
+
+        CutRequestDTO req = new CutRequestDTO();
+        req.setStock(List.of(full, half));
+        req.setMultiSheet(true);
+        req.setElements(List.of(e1));
+
+        CutResponseDTO resp = service.optimizeCutting(req);
+
+        assertEquals(6, resp.getPlacements().size());
+        assertEquals(2, resp.getSheets().size());
+        assertEquals(100, resp.getSheets().get(0).getHeight());
+        assertEquals(50, resp.getSheets().get(1).getHeight());
+        assertEquals(7.0, resp.getStockCost());
+        assertEquals(7.0, resp.getGroups().get(0).getStockCost());
+    }
+
+    /**
+     * Every stock size is tried with several sub-orders, each improved by search; together they
+     * must still stay close to the time of the request.
+     */
+    @Test
+    void optimizeCutting_stockSearchSharesTheTimeOfTheRequest() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(30); e1.setHeight(20); e1.setQuantity(40);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(45); e2.setHeight(35); e2.setQuantity(20);
+        StockSheetDTO large = new StockSheetDTO(200, 200); large.setCount(1); large.setCost(10.0);
+        StockSheetDTO medium = new StockSheetDTO(150, 100); medium.setCount(1); medium.setCost(5.0);
+        StockSheetDTO small = new StockSheetDTO(100, 100); small.setCost(4.0);
+        StockSheetDTO strip = new StockSheetDTO(100, 50); strip.setCost(2.5);
+
+        CutRequestDTO req = new CutRequestDTO();
+        req.setStock(List.of(large, medium, small, strip));
+        req.setMultiSheet(true);
+        req.setMaxMillis(200);
+        req.setElements(List.of(e1, e2));
+
+        long start = System.nanoTime();
+        CutResponseDTO resp = service.optimizeCutting(req);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(60, resp.getPlacements().size());
+        assertTrue(millis < 600, "Stock search took " + millis + " ms for a 200 ms request");
+    }
+
+    /**
+     * The first plan leaves a 400x1000 offcut, which the second plan fills instead of a new board.
+     */
+    @Test
+    void optimizeCutting_reusesRemnantsOfEarlierPlans() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(600); e1.setHeight(1000); e1.setDepth(18);
+        CutRequestDTO first = new CutRequestDTO(1000, 1000, List.of(e1));
+        service.optimizeCutting(first);
+
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(900); e2.setHeight(300); e2.setDepth(18);
+        CutElementDTO e3 = new CutElementDTO(); e3.setId(3L); e3.setWidth(500); e3.setHeight(500); e3.setDepth(18);
+        CutRequestDTO second = new CutRequestDTO(1000, 1000, List.of(e2, e3));
+        second.setUseRemnants(true);
+
+        CutResponseDTO resp = service.optimizeCutting(second);
+
+        // The 500x500 part needs a new board, the rotated 900x300 part goes onto the remnant after it
+        assertEquals(2, resp.getSheets().size());
+        assertEquals(1000, resp.getSheets().get(0).getWidth());
+        assertEquals(400, resp.getSheets().get(1).getWidth());
+        for (PlacedElementDTO placement : resp.getPlacements()) {
+            assertEquals(placement.getId() == 2L ? 1 : 0, placement.getSheetIndex());
+        }
+    }
+
+    /**
+     * A remnant that reaches the stock after the 100x100 part found none is claimed for the next
+     * part but filled with the 100x100 part; that part must not be placed again on the next remnant.
+     */
+    @Test
+    void optimizeCutting_placesEveryPartOnceWhenRemnantsArriveDuringTheFill() {
+        List<Remnant> arriving = new ArrayList<>(List.of(new Remnant(100, 100, 18), new Remnant(200, 200, 18)));
+        RemnantInventory inventory = new RemnantInventory(null) {
+            private boolean first = true;
+
+            @Override
+            Remnant claim(int depth, int width, int height) {
+                if (first) {
+                    first = false;
+                    return null;
+                }
+                return arriving.isEmpty() ? null : arriving.remove(0);
+            }
+        };
+        CutOptimizationProperties properties = new CutOptimizationProperties();
+        CutOptimizationService racing = new CutOptimizationService(cuttingSheetRepository,
+                new FurnitureBodyCatalog(furnitureBodyRepository, properties), inventory, properties, ForkJoinPool.commonPool());
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(100); e1.setHeight(100); e1.setDepth(18);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(90); e2.setHeight(90); e2.setDepth(18);
+        CutElementDTO e3 = new CutElementDTO(); e3.setId(3L); e3.setWidth(80); e3.setHeight(80); e3.setDepth(18);
+        CutRequestDTO req = new CutRequestDTO(1000, 1000, List.of(e1, e2, e3));
+        req.setUseRemnants(true);
+
+        CutResponseDTO resp = racing.optimizeCutting(req);
+
+        assertEquals(3, resp.getPlacements().size());
+        assertEquals(Set.of(1L, 2L, 3L), resp.getPlacements().stream().map(PlacedElementDTO::getId).collect(Collectors.toSet()));
+    }
+
+    /**
+     * Two 600x720x560 cabinets become four sides, four tops and bottoms and two backs of 18 mm board.
+     */
+    @Test
+    void optimizeCutting_explodesBodiesIntoPanels() {
+        CutRequestDTO req = new CutRequestDTO();
+        req.setSheetWidth(2800); req.setSheetHeight(2070);
+        req.setBodies(List.of(new CutBodyDTO(5L, 2)));
+
+        CutResponseDTO resp = service.optimizeCutting(req);
+
+        assertEquals(10, resp.getPlacements().size());
+        long backs = resp.getPlacements().stream()
+                .filter(p -> p.getWidth() * p.getHeight() == 564 * 684)
+                .count();
+        assertEquals(2, backs);
+        for (PlacedElementDTO placement : resp.getPlacements()) {
+            assertEquals(5L, placement.getId());
+        }
+        assertEquals(18, resp.getGroups().get(0).getDepth());
+    }
+
+    @Test
+    void optimizeCutting_rejectsMorePartsThanTheLimitBeforePacking() {
+        CutElementDTO e1 = new CutElementDTO(1L, 10, 10);
+        e1.setQuantity(Integer.MAX_VALUE);
+        CutRequestDTO req = new CutRequestDTO();
+        req.setSheetWidth(2800); req.setSheetHeight(2070);
+        req.setMultiSheet(true);
+        req.setElements(List.of(e1));
+        assertThrows(CutOptimizationException.class, () -> service.optimizeCutting(req));
+
+        CutRequestDTO bodies = new CutRequestDTO();
+        bodies.setSheetWidth(2800); bodies.setSheetHeight(2070);
+        bodies.setMultiSheet(true);
+        bodies.setBodies(List.of(new CutBodyDTO(5L, Integer.MAX_VALUE)));
+        assertThrows(CutOptimizationException.class, () -> service.optimizeCutting(bodies));
+    }
+
+    @Test
+    void optimizeCutting_throwsForUnknownBodies() {
+        CutRequestDTO req = new CutRequestDTO();
+        req.setSheetWidth(2800); req.setSheetHeight(2070);
+        req.setBodies(List.of(new CutBodyDTO(6L, null)));
+
+        assertThrows(CutOptimizationException.class, () -> service.optimizeCutting(req));
+    }
+
+    /**
+     * Quantity 4 of a 50x50 part fills a 100x100 sheet; every copy is placed under the same id.
+     */
+    @Test
+    void optimizeCutting_expandsQuantities() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(50); e1.setHeight(50); e1.setQuantity(4);
+
+        CutRequestDTO req = new CutRequestDTO();
+        req.setSheetWidth(100); req.setSheetHeight(100);
+        req.setElements(List.of(e1));
+
+        CutResponseDTO resp = service.optimizeCutting(req);
+
+        assertEquals(4, resp.getPlacements().size());
+        assertEquals(50, resp.getPlacements().get(1).getX());
+        assertEquals(50, resp.getPlacements().get(3).getY());
+        for (PlacedElementDTO placement : resp.getPlacements()) {
+            assertEquals(1L, placement.getId());
+        }
+    }
+
+    /**
+     * Pinwheel on a 100x100 sheet: four 60x40 parts around a 20x20 one fill the sheet exactly,
+     * which only the exact search finds.
+     */
+    @Test
+    void optimizeCutting_exactFindsPinwheel() {
+        int[][] sizes = {{60, 40}, {40, 60}, {60, 40}, {40, 60}, {20, 20}};
+        List<CutElementDTO> elements = new ArrayList<>();
+        for (int i = 0; i < sizes.length; i++) {
+            CutElementDTO e = new CutElementDTO();
+            e.setId(i + 1L); e.setWidth(sizes[i][0]); e.setHeight(sizes[i][1]);
+            elements.add(e);
+        }
+
+        CutRequestDTO req = new CutRequestDTO();
+        req.setSheetWidth(100); req.setSheetHeight(100);
+        req.setElements(elements);
+        req.setAlgorithm(PackingAlgorithm.EXACT);
+
+        CutResponseDTO resp = service.optimizeCutting(req);
+
+        assertEquals(5, resp.getPlacements().size());
+        assertEquals(0.0, resp.getOptimalityGap());
+    }
+
+    /**
+     * Guillotine plan on a 110x110 sheet with 5mm trim and 10mm kerf:
+     * two 45x100 parts side by side, separated by one vertical cut.
+     */
+    @Test
+    void optimizeCutting_guillotineReturnsCuts() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(45); e1.setHeight(100);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(45); e2.setHeight(100);
+
+        CutRequestDTO req = new CutRequestDTO();
+        req.setSheetWidth(110); req.setSheetHeight(110);
+        req.setElements(List.of(e1, e2));
+        req.setAlgorithm(PackingAlgorithm.GUILLOTINE);
+        req.setKerf(10);
+        req.setEdgeTrim(5);
+
+        CutResponseDTO resp = service.optimizeCutting(req);
+
+        assertEquals(2, resp.getPlacements().size());
+        assertEquals(60, resp.getPlacements().get(1).getX());
+        assertEquals(1, resp.getCuts().size());
+        assertEquals(GuillotineCutDTO.Orientation.VERTICAL, resp.getCuts().get(0).getOrientation());
+        assertEquals(50, resp.getCuts().get(0).getPosition());
+    }
+
+    /**
+     * The streamed placements match the plan of the same request, sheet by sheet; the saved
+     * plan only summarizes it.
+     */
+    @Test
+    void streamCutting_streamsPlacementsSheetBySheetBeforeTheSummary() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(50); e1.setHeight(50); e1.setQuantity(6);
+        CutRequestDTO req = new CutRequestDTO(100, 100, List.of(e1));
+        req.setMultiSheet(true);
+
+        List<PlacedElementDTO> streamed = new ArrayList<>();
+        List<Integer> sheetEnds = new ArrayList<>();
+        CutOptimizationService.PendingPlan plan = service.streamCutting(req, placement -> streamed.add(new PlacedElementDTO(
+                placement.getId(), placement.getX(), placement.getY(), placement.getWidth(), placement.getHeight(),
+                placement.getSheetIndex())), () -> sheetEnds.add(streamed.size()));
+        CutResponseDTO resp = service.save(plan);
+
+        assertNull(resp.getPlacements());
+        assertEquals(2, resp.getSheets().size());
+        assertEquals(List.of(4, 6), sheetEnds);
+        CutRequestDTO same = new CutRequestDTO(100, 100, List.of(e1));
+        same.setMultiSheet(true);
+        List<PlacedElementDTO> planned = service.optimizeCutting(same).getPlacements();
+        planned.sort(Comparator.comparingInt(PlacedElementDTO::getSheetIndex));
+        assertEquals(planned.size(), streamed.size());
+        for (int i = 0; i < planned.size(); i++) {
+            assertEquals(planned.get(i).getX(), streamed.get(i).getX());
+            assertEquals(planned.get(i).getY(), streamed.get(i).getY());
+            assertEquals(planned.get(i).getSheetIndex(), streamed.get(i).getSheetIndex());
+        }
+        assertThrows(IllegalStateException.class, () -> service.save(plan));
+    }
+
+    /**
+     * The middle order of three cannot fit its part on the sheet; it fails on its own while
+     * the orders around it, one of them with two depths, are planned and saved.
+     */
+    @Test
+    void saveBatch_reportsFailedOrdersNextToPlannedOnes() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(50); e1.setHeight(50); e1.setQuantity(4);
+        CutElementDTO e2 = new CutElementDTO(); e2.setId(2L); e2.setWidth(150); e2.setHeight(150);
+        CutElementDTO e3 = new CutElementDTO(); e3.setId(3L); e3.setWidth(50); e3.setHeight(50); e3.setDepth(18);
+        CutElementDTO e4 = new CutElementDTO(); e4.setId(4L); e4.setWidth(50); e4.setHeight(50); e4.setDepth(8);
+
+        CutBatchResponseDTO resp = service.saveBatch(service.planBatch(List.of(
+                new CutRequestDTO(100, 100, List.of(e1)),
+                new CutRequestDTO(100, 100, List.of(e2)),
+                new CutRequestDTO(100, 100, List.of(e3, e4)))));
+
+        assertEquals(2, resp.getSucceeded());
+        assertEquals(1, resp.getFailed());
+        assertEquals(3, resp.getResults().size());
+        assertEquals(4, resp.getResults().get(0).getResult().getPlacements().size());
+        assertEquals(1, resp.getResults().get(0).getResult().getSheets().size());
+
+        assertEquals(1, resp.getResults().get(1).getIndex());
+        assertNull(resp.getResults().get(1).getResult());
+        assertEquals("ELEMENT_TOO_LARGE", resp.getResults().get(1).getCode());
+
+        CutResponseDTO third = resp.getResults().get(2).getResult();
+        assertEquals(2, third.getPlacements().size());
+        assertEquals(2, third.getSheets().size());
+        assertEquals(8, third.getSheets().get(0).getDepth());
+        assertEquals(List.of(1), third.getGroups().get(1).getSheetIndexes());
+    }
+
+    @Test
+    void planBatch_throwsAboveTheOrderLimit() {
+        List<CutRequestDTO> orders = new ArrayList<>();
+        for (int i = 0; i <= 500; i++) {
+            orders.add(new CutRequestDTO());
+        }
+
+        assertThrows(CutOptimizationException.class, () -> service.planBatch(orders));
+    }
+
+    @Test
+    void saveBatch_refusesADiscardedBatch() {
+        CutElementDTO e1 = new CutElementDTO(); e1.setId(1L); e1.setWidth(50); e1.setHeight(50);
+        CutOptimizationService.PendingBatch batch = service.planBatch(List.of(new CutRequestDTO(100, 100, List.of(e1))));
+
+        service.discardBatch(batch);
+
+        assertThrows(IllegalStateException.class, () -> service.saveBatch(batch));
+    }
+}
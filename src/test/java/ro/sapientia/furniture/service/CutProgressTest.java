@@ -0,0 +1,94 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.config.CutOptimizationProperties;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
+import ro.sapientia.furniture.model.dto.CutJobStatus;
+import ro.sapientia.furniture.model.dto.CutProgressDTO;
+import ro.sapientia.furniture.model.dto.CutRequestDTO;
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+import ro.sapientia.furniture.repository.CuttingSheetRepository;
+import ro.sapientia.furniture.repository.FurnitureBodyRepository;
+
+public class CutProgressTest {
+
+    /**
+     * Two 50x40 parts side by side use a 100x100 sheet up to 40: the used area is fully covered.
+     */
+    @Test
+    void improved_publishesTheLayoutWithItsUtilization() {
+        List<CutProgressDTO> sent = new ArrayList<>();
+        CutProgress progress = new CutProgress("job-1", 0, sent::add);
+        PackingInput input = new PackingInput();
+        input.reset(2);
+        input.set(0, 7, 50, 40);
+        input.set(1, 8, 50, 40);
+        PackingLayout layout = new PackingLayout();
+        layout.clear(2);
+        layout.addSheet(100, 100);
+        layout.add(0, 0, 0, 50, 40);
+        layout.add(1, 50, 0, 50, 40);
+
+        progress.forGroup(18, input).improved(layout, 0.25);
+
+        assertEquals(1, sent.size());
+        CutProgressDTO dto = sent.get(0);
+        assertEquals("job-1", dto.getJobId());
+        assertEquals(CutJobStatus.RUNNING, dto.getStatus());
+        assertEquals(18, dto.getDepth());
+        assertEquals(0.25, dto.getBudgetUsed());
+        assertEquals(40, dto.getUsedHeight());
+        assertEquals(1.0, dto.getUtilization());
+        assertEquals(8L, dto.getPlacements().get(1).getId());
+        assertEquals(50, dto.getPlacements().get(1).getX());
+    }
+
+    @Test
+    void improved_dropsReportsWithinTheInterval() {
+        List<CutProgressDTO> sent = new ArrayList<>();
+        CutProgress progress = new CutProgress("job-1", 60_000, sent::add);
+        SearchProgress search = progress.forGroup(0, new PackingInput());
+
+        search.improved(null, 0.1);
+        assertFalse(search.isDue());
+        search.improved(null, 0.2);
+
+        assertEquals(1, sent.size());
+        assertNull(sent.get(0).getPlacements());
+    }
+
+    @Test
+    void plan_reportsPortfolioLayouts() {
+        List<CutElementDTO> elements = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            CutElementDTO e = new CutElementDTO();
+            e.setId(i + 1L); e.setWidth(20 + i * 3); e.setHeight(90 - i * 2);
+            elements.add(e);
+        }
+        CutRequestDTO req = new CutRequestDTO(500, 500, elements);
+        req.setAlgorithm(PackingAlgorithm.PORTFOLIO);
+        req.setMaxMillis(200);
+
+        List<CutProgressDTO> sent = new ArrayList<>();
+        CutOptimizationProperties properties = new CutOptimizationProperties();
+        CutOptimizationService service = new CutOptimizationService(mock(CuttingSheetRepository.class),
+                new FurnitureBodyCatalog(mock(FurnitureBodyRepository.class), properties), new RemnantInventory(null),
+                properties, ForkJoinPool.commonPool());
+        service.save(service.plan(req, new CutProgress("job-2", 0, sent::add)));
+
+        assertTrue(sent.size() >= 1);
+        assertEquals(20, sent.get(0).getPlacements().size());
+        assertEquals("job-2", sent.get(0).getJobId());
+    }
+}
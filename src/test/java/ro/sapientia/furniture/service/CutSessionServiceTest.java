@@ -0,0 +1,153 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ro.sapientia.furniture.config.CutOptimizationProperties;
+import ro.sapientia.furniture.exception.CutOptimizationException;
+import ro.sapientia.furniture.exception.CutSessionNotFoundException;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
+import ro.sapientia.furniture.model.dto.CutSessionDTO;
+import ro.sapientia.furniture.model.dto.CutSessionRequestDTO;
+import ro.sapientia.furniture.repository.CuttingSheetRepository;
+import ro.sapientia.furniture.repository.FurnitureBodyRepository;
+
+public class CutSessionServiceTest {
+
+    private CutSessionService service;
+
+    private RemnantInventory remnantInventory;
+
+    private CutOptimizationProperties properties;
+
+    @Mock
+    private CuttingSheetRepository cuttingSheetRepository;
+
+    @Mock
+    private FurnitureBodyRepository furnitureBodyRepository;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        properties = new CutOptimizationProperties();
+        properties.setSessionMaxOpenSheets(1);
+        remnantInventory = new RemnantInventory(null);
+        service = new CutSessionService(cuttingSheetRepository, new FurnitureBodyCatalog(furnitureBodyRepository, properties), remnantInventory, properties);
+    }
+
+    @Test
+    void addParts_closesTheOldestSheetWhenTooManyAreOpen() {
+        CutSessionDTO session = service.open(new CutSessionRequestDTO(300, 300));
+
+        CutSessionDTO first = service.addParts(session.getSessionId(), List.of(part(1L, 300, 180)));
+        assertEquals(0, first.getPlacements().get(0).getSheetIndex());
+        assertTrue(first.getClosedSheets().isEmpty());
+
+        // Every further 300x180 part needs a new sheet, which closes the one before
+        CutElementDTO copies = part(2L, 300, 180);
+        copies.setQuantity(2);
+        CutSessionDTO second = service.addParts(session.getSessionId(), List.of(copies));
+        assertEquals(2, second.getPlacements().size());
+        assertEquals(2, second.getPlacements().get(1).getSheetIndex());
+        assertEquals(2, second.getClosedSheets().size());
+        assertEquals(0, second.getClosedSheets().get(0).getIndex());
+        assertEquals(0.6, second.getClosedSheets().get(1).getUtilization(), 1e-9);
+        assertEquals(1, second.getOpenSheetCount());
+        assertEquals(3, second.getPlacedCount());
+        // Each closed sheet leaves a 300x120 offcut
+        assertEquals(2, remnantInventory.size());
+    }
+
+    @Test
+    void close_savesTheOpenSheetsAndEndsTheSession() {
+        CutSessionDTO session = service.open(new CutSessionRequestDTO(100, 100));
+        service.addParts(session.getSessionId(), List.of(part(1L, 50, 50)));
+
+        CutSessionDTO closed = service.close(session.getSessionId());
+
+        assertTrue(closed.getClosed());
+        assertEquals(1, closed.getClosedSheets().size());
+        assertEquals(1, closed.getClosedSheets().get(0).getPlacedCount());
+        assertEquals(0, service.sessionCount());
+        assertThrows(CutSessionNotFoundException.class,
+                () -> service.addParts(session.getSessionId(), List.of(part(2L, 10, 10))));
+    }
+
+    @Test
+    void addParts_placesNothingWhenAPartIsRejected() {
+        CutSessionDTO session = service.open(new CutSessionRequestDTO(100, 100));
+        CutElementDTO thick = part(2L, 10, 10);
+        thick.setDepth(18);
+
+        assertThrows(CutOptimizationException.class,
+                () -> service.addParts(session.getSessionId(), List.of(part(1L, 10, 10), thick)));
+        assertThrows(CutOptimizationException.class,
+                () -> service.addParts(session.getSessionId(), List.of(part(1L, 10, 10), part(3L, 200, 10))));
+
+        CutSessionDTO next = service.addParts(session.getSessionId(), List.of(part(4L, 10, 10)));
+        assertEquals(1, next.getPlacedCount());
+        assertEquals(0, next.getPlacements().get(0).getX());
+    }
+
+    @Test
+    void addParts_rejectsMorePartsThanTheLimit() {
+        CutSessionDTO session = service.open(new CutSessionRequestDTO(100, 100));
+        CutElementDTO many = part(1L, 10, 10);
+        many.setQuantity(Integer.MAX_VALUE);
+
+        assertThrows(CutOptimizationException.class, () -> service.addParts(session.getSessionId(), List.of(many)));
+        assertEquals(0, service.addParts(session.getSessionId(), List.of()).getPlacedCount());
+    }
+
+    @Test
+    void addParts_keepsTheSheetsWhoseSavingFailed() {
+        when(cuttingSheetRepository.saveAll(any()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        CutSessionDTO session = service.open(new CutSessionRequestDTO(300, 300));
+        service.addParts(session.getSessionId(), List.of(part(1L, 300, 180)));
+
+        // The second part closes the first sheet, which cannot be saved
+        assertThrows(IllegalStateException.class,
+                () -> service.addParts(session.getSessionId(), List.of(part(2L, 300, 180))));
+
+        CutSessionDTO closed = service.close(session.getSessionId());
+        assertEquals(2, closed.getClosedSheets().size());
+        assertEquals(0, closed.getClosedSheets().get(0).getIndex());
+        assertEquals(1, closed.getClosedSheets().get(0).getPlacedCount());
+        assertEquals(0, service.sessionCount());
+    }
+
+    @Test
+    void sweeper_closesIdleSessions() throws InterruptedException {
+        properties.setSessionIdleTimeoutMillis(20);
+        CutSessionDTO idle = service.open(new CutSessionRequestDTO(100, 100));
+        service.addParts(idle.getSessionId(), List.of(part(1L, 50, 50)));
+        Thread.sleep(50);
+        CutSessionDTO active = service.open(new CutSessionRequestDTO(100, 100));
+
+        new CutSessionSweeper(service).closeIdleSessions();
+
+        assertEquals(List.of(active.getSessionId()), service.sessionIds());
+        assertThrows(CutSessionNotFoundException.class,
+                () -> service.addParts(idle.getSessionId(), List.of(part(2L, 10, 10))));
+    }
+
+    private static CutElementDTO part(Long id, int width, int height) {
+        CutElementDTO part = new CutElementDTO();
+        part.setId(id);
+        part.setWidth(width);
+        part.setHeight(height);
+        return part;
+    }
+}
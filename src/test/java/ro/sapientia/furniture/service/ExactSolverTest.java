@@ -0,0 +1,146 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ro.sapientia.furniture.service.PackingFixtures.load;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+
+public class ExactSolverTest {
+
+    /**
+     * Four 60x40 parts around a 20x20 part tile a 100x100 sheet as a pinwheel, which no shelf layout can.
+     */
+    private static final int[][] PINWHEEL = {{60, 40}, {40, 60}, {60, 40}, {40, 60}, {20, 20}};
+
+    private final PlacementValidator validator = new PlacementValidator(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+    @Test
+    void solve_findsLayoutsShelvesCannot() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            packFfdh(workspace, PINWHEEL, 100, 100);
+            assertTrue(workspace.layout().count() < PINWHEEL.length);
+
+            assertTrue(solve(workspace, false, 100, 100, Long.MAX_VALUE));
+
+            PackingLayout layout = workspace.layout();
+            assertEquals(PINWHEEL.length, layout.count());
+            assertEquals(100, layout.usedHeight(0));
+            assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void solve_minimizesTheSheetCount() {
+        int[][] sizes = new int[2 * PINWHEEL.length][];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = PINWHEEL[i % PINWHEEL.length];
+        }
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            load(workspace, sizes);
+            workspace.sortByHeightDescending();
+            new MultiSheetPacker(ForkJoinPool.commonPool(), Integer.MAX_VALUE)
+                    .pack(workspace, PackingAlgorithm.FFDH, sizes.length, 100, 100);
+            assertTrue(workspace.layout().sheetCount() > 2);
+
+            assertTrue(solve(workspace, true, 100, 100, Long.MAX_VALUE));
+
+            PackingLayout layout = workspace.layout();
+            assertEquals(sizes.length, layout.count());
+            assertEquals(2, layout.sheetCount());
+            assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void solve_isNeverWorseThanTheIncumbent() {
+        Random random = new Random(51);
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            for (int round = 0; round < 30; round++) {
+                int[][] sizes = new int[2 + random.nextInt(7)][];
+                for (int i = 0; i < sizes.length; i++) {
+                    sizes[i] = new int[]{100 + random.nextInt(500), 100 + random.nextInt(500)};
+                }
+                packFfdh(workspace, sizes, 1000, 3000);
+                PackingScore incumbent = PackingScore.of(workspace.layout());
+
+                boolean optimal = solve(workspace, false, 1000, 3000, 200_000);
+
+                PackingLayout layout = workspace.layout();
+                assertFalse(incumbent.isBetterThan(PackingScore.of(layout)));
+                assertEquals(sizes.length, layout.count());
+                assertTrue(layout.usedHeight(0) >= LowerBounds.of(workspace.input(), 1000, 3000).stripHeight());
+                assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+                if (optimal) {
+                    assertTrue(layout.usedHeight(0) <= incumbent.lastSheetHeight());
+                }
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void solve_keepsTheIncumbentWhenOutOfNodes() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            packFfdh(workspace, PINWHEEL, 100, 100);
+            int placed = workspace.layout().count();
+
+            assertFalse(solve(workspace, false, 100, 100, 1));
+
+            assertEquals(placed, workspace.layout().count());
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void solve_skipsLargeOrders() {
+        Random random = new Random(52);
+        int[][] sizes = new int[ExactSolver.MAX_ELEMENTS + 1][];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = new int[]{10 + random.nextInt(50), 10 + random.nextInt(50)};
+        }
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            packFfdh(workspace, sizes, 1000, 1000);
+            int used = workspace.layout().usedHeight(0);
+
+            assertFalse(solve(workspace, false, 1000, 1000, Long.MAX_VALUE));
+
+            assertEquals(used, workspace.layout().usedHeight(0));
+        } finally {
+            workspace.release();
+        }
+    }
+
+    private static boolean solve(PackingWorkspace workspace, boolean multiSheet, int sheetWidth, int sheetHeight,
+                                 long maxNodes) {
+        return new ExactSolver().solve(workspace, multiSheet, sheetWidth, sheetHeight,
+                SearchBudget.ofMillis(60_000), maxNodes);
+    }
+
+    private static void packFfdh(PackingWorkspace workspace, int[][] sizes, int sheetWidth, int sheetHeight) {
+        load(workspace, sizes);
+        int[] order = workspace.sortByHeightDescending();
+        PackingLayout layout = workspace.layout();
+        layout.clear(sizes.length);
+        layout.addSheet(sheetWidth, sheetHeight);
+        workspace.ffdhPacker().pack(workspace.input(), order, sizes.length, sheetWidth, sheetHeight, layout);
+    }
+}
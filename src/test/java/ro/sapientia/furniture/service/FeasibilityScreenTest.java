@@ -0,0 +1,141 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.exception.CutErrorCode;
+import ro.sapientia.furniture.exception.InfeasibleCutException;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
+import ro.sapientia.furniture.model.dto.CutRequestDTO;
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+import ro.sapientia.furniture.model.dto.StockSheetDTO;
+
+public class FeasibilityScreenTest {
+
+    @Test
+    void check_passesPackableOrder() {
+        CutRequestDTO request = request(100, 100, element(1L, 50, 50, 4));
+
+        FeasibilityScreen.check(request, List.of(request.getElements()));
+    }
+
+    /**
+     * A 120x40 part is wider than the sheet but fits it rotated.
+     */
+    @Test
+    void check_allowsRotatedFit() {
+        CutRequestDTO request = request(100, 200, element(1L, 120, 40, 1));
+
+        FeasibilityScreen.check(request, List.of(request.getElements()));
+    }
+
+    @Test
+    void check_rejectsElementTooLarge() {
+        CutRequestDTO request = request(100, 100, element(1L, 120, 50, 1));
+
+        assertCode(CutErrorCode.ELEMENT_TOO_LARGE, request);
+    }
+
+    /**
+     * The edge trim of guillotine plans narrows the sheet an element must fit.
+     */
+    @Test
+    void check_rejectsElementInsideEdgeTrim() {
+        CutRequestDTO request = request(100, 100, element(1L, 95, 95, 1));
+        request.setAlgorithm(PackingAlgorithm.GUILLOTINE);
+        request.setEdgeTrim(5);
+
+        assertCode(CutErrorCode.ELEMENT_TOO_LARGE, request);
+    }
+
+    @Test
+    void check_rejectsAreaOfSingleSheet() {
+        CutRequestDTO request = request(100, 100, element(1L, 50, 50, 5));
+
+        assertCode(CutErrorCode.AREA_EXCEEDS_SHEET, request);
+
+        request.setMultiSheet(true);
+        FeasibilityScreen.check(request, List.of(request.getElements()));
+    }
+
+    /**
+     * Two 60x60 parts cover a third of the sheet, but neither can stand beside the other.
+     */
+    @Test
+    void check_rejectsWideElementsHigherThanSheet() {
+        CutRequestDTO request = request(100, 100, element(1L, 60, 60, 2));
+
+        assertCode(CutErrorCode.WIDE_ELEMENTS_EXCEED_HEIGHT, request);
+    }
+
+    @Test
+    void check_rejectsTallElementsWiderThanSheet() {
+        CutRequestDTO request = request(200, 100, element(1L, 80, 60, 4));
+
+        assertCode(CutErrorCode.TALL_ELEMENTS_EXCEED_WIDTH, request);
+    }
+
+    @Test
+    void check_rejectsStockWithoutBoardForDepthOrSize() {
+        CutRequestDTO request = request(null, null, element(1L, 150, 50, 1));
+        StockSheetDTO board = new StockSheetDTO(100, 100);
+        board.setDepth(19);
+        request.setStock(List.of(board));
+
+        assertCode(CutErrorCode.NO_STOCK_FOR_DEPTH, request);
+
+        board.setDepth(null);
+        assertCode(CutErrorCode.ELEMENT_TOO_LARGE, request);
+    }
+
+    @Test
+    void check_rejectsAreaBeyondLimitedStock() {
+        CutRequestDTO request = request(null, null, element(1L, 50, 50, 9));
+        request.setMultiSheet(true);
+        StockSheetDTO board = new StockSheetDTO(100, 100);
+        board.setCount(2);
+        request.setStock(List.of(board));
+
+        assertCode(CutErrorCode.AREA_EXCEEDS_STOCK, request);
+
+        board.setCount(null);
+        FeasibilityScreen.check(request, List.of(request.getElements()));
+    }
+
+    @Test
+    void infeasibleCutException_hasNoStackTrace() {
+        InfeasibleCutException e = new InfeasibleCutException(CutErrorCode.ELEMENT_TOO_LARGE, "Element %d", 7L);
+
+        assertEquals(0, e.getStackTrace().length);
+        assertNull(e.getCause());
+        assertEquals("Element 7", e.getMessage());
+    }
+
+    private static void assertCode(CutErrorCode code, CutRequestDTO request) {
+        InfeasibleCutException e = assertThrows(InfeasibleCutException.class,
+                () -> FeasibilityScreen.check(request, List.of(request.getElements())));
+        assertEquals(code, e.getCode());
+    }
+
+    private static CutRequestDTO request(Integer sheetWidth, Integer sheetHeight, CutElementDTO... elements) {
+        CutRequestDTO request = new CutRequestDTO();
+        request.setSheetWidth(sheetWidth);
+        request.setSheetHeight(sheetHeight);
+        request.setElements(List.of(elements));
+        return request;
+    }
+
+    private static CutElementDTO element(Long id, int width, int height, int quantity) {
+        CutElementDTO element = new CutElementDTO();
+        element.setId(id);
+        element.setWidth(width);
+        element.setHeight(height);
+        element.setQuantity(quantity);
+        return element;
+    }
+}
@@ -0,0 +1,126 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scaling benchmark for the FFDH packing kernel.
+ * Packs kitchen-sized random orders of growing size and checks that doubling the order
+ * size does not come close to quadrupling the packing time. A second case measures the level
+ * index on the shapes that defeat per-subtree maxima of width and height, where its queries
+ * must stay polylogarithmic.
+ *
+ * Not part of the default test run; start it explicitly with
+ * {@code mvn -Dtest=FfdhPackingScalingBenchmark test}.
+ */
+public class FfdhPackingScalingBenchmark {
+
+    private static final int SHEET_WIDTH = 2800;
+    private static final int SHEET_HEIGHT = Integer.MAX_VALUE / 2;
+    private static final int[] SIZES = {5_000, 10_000, 20_000, 40_000};
+
+    @Test
+    void ffdhPacking_growsSubQuadratically() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            // Warm up the JIT before measuring
+            for (int i = 0; i < 3; i++) {
+                pack(workspace, SIZES[1], i);
+            }
+
+            long[] nanos = new long[SIZES.length];
+            for (int s = 0; s < SIZES.length; s++) {
+                long best = Long.MAX_VALUE;
+                for (int run = 0; run < 3; run++) {
+                    best = Math.min(best, pack(workspace, SIZES[s], 42));
+                    assertEquals(SIZES[s], workspace.layout().count());
+                }
+                nanos[s] = best;
+                System.out.printf("FFDH %6d parts: %8.2f ms%n", SIZES[s], best / 1_000_000.0);
+            }
+
+            for (int s = 1; s < SIZES.length; s++) {
+                double ratio = (double) nanos[s] / nanos[s - 1];
+                System.out.printf("FFDH %6d -> %6d parts: x%.2f%n", SIZES[s - 1], SIZES[s], ratio);
+                // Quadratic growth would be x4 per doubling, n log n stays slightly above x2
+                assertTrue(ratio < 3.5, "Packing time grew by x" + ratio + " when doubling the order size");
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void firstFitIndex_adversarialQueriesStayPolylogarithmic() {
+        int queries = 2_000;
+        // Warm up the JIT before measuring
+        for (int i = 0; i < 3; i++) {
+            query(adversarialIndex(SIZES[1]), queries);
+        }
+
+        long[] nanos = new long[SIZES.length];
+        for (int s = 0; s < SIZES.length; s++) {
+            FirstFitIndex index = adversarialIndex(SIZES[s]);
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < 3; run++) {
+                best = Math.min(best, query(index, queries));
+            }
+            nanos[s] = best;
+            System.out.printf("Adversarial index %6d levels: %8.2f us per query%n",
+                    SIZES[s], best / 1_000.0 / queries);
+        }
+
+        for (int s = 1; s < SIZES.length; s++) {
+            double ratio = (double) nanos[s] / nanos[s - 1];
+            System.out.printf("Adversarial index %6d -> %6d levels: x%.2f%n", SIZES[s - 1], SIZES[s], ratio);
+            // O(log^2 n) adds about 15% per doubling; a scan of the levels would double the time
+            assertTrue(ratio < 1.6, "Query time grew by x" + ratio + " when doubling the level count");
+        }
+    }
+
+    /**
+     * Wide levels one unit high alternating with full tall levels: every block of levels has both
+     * a large free width and a large height, but no level holds a 1x2 element.
+     */
+    private static FirstFitIndex adversarialIndex(int levels) {
+        FirstFitIndex index = new FirstFitIndex(levels);
+        for (int i = 0; i < levels; i++) {
+            if (i % 2 == 0) {
+                index.add(SHEET_WIDTH, 1);
+            } else {
+                index.add(0, 800);
+            }
+        }
+        return index;
+    }
+
+    private static long query(FirstFitIndex index, int queries) {
+        long start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            assertEquals(-1, index.findFirst(1, 2));
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Load a random order, then sort and pack it, returning the elapsed nanoseconds.
+     */
+    private static long pack(PackingWorkspace workspace, int size, long seed) {
+        Random random = new Random(seed);
+        PackingInput input = workspace.input();
+        input.reset(size);
+        for (int i = 0; i < size; i++) {
+            input.set(i, i, 50 + random.nextInt(750), 50 + random.nextInt(750));
+        }
+
+        long start = System.nanoTime();
+        int[] order = workspace.sortByHeightDescending();
+        workspace.layout().clear(size);
+        workspace.ffdhPacker().pack(input, order, size, SHEET_WIDTH, SHEET_HEIGHT, workspace.layout());
+        return System.nanoTime() - start;
+    }
+}
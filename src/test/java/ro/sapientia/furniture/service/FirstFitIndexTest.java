@@ -0,0 +1,59 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class FirstFitIndexTest {
+
+    @Test
+    void findFirst_skipsSlotsThatAreWideOrHighButNotBoth() {
+        FirstFitIndex index = new FirstFitIndex();
+        for (int i = 0; i < 1_000; i++) {
+            index.add(i % 2 == 0 ? 2800 : 0, i % 2 == 0 ? 1 : 800);
+        }
+        assertEquals(-1, index.findFirst(1, 2));
+
+        index.add(5, 5);
+        assertEquals(1_000, index.findFirst(1, 2));
+        index.update(1_000, 0);
+        assertEquals(-1, index.findFirst(1, 2));
+    }
+
+    @Test
+    void findFirst_matchesLinearScanWhileSlotsAreAddedAndChanged() {
+        Random random = new Random(7);
+        FirstFitIndex index = new FirstFitIndex();
+        for (int round = 0; round < 3; round++) {
+            index.clear();
+            List<int[]> slots = new ArrayList<>();
+            for (int step = 0; step < 3_000; step++) {
+                int action = random.nextInt(10);
+                if (action < 4 || slots.isEmpty()) {
+                    int[] slot = {random.nextInt(1000), 1 + random.nextInt(1000)};
+                    assertEquals(slots.size(), index.add(slot[0], slot[1]));
+                    slots.add(slot);
+                } else if (action < 6) {
+                    int slot = random.nextInt(slots.size());
+                    slots.get(slot)[0] = random.nextInt(1000);
+                    index.update(slot, slots.get(slot)[0]);
+                } else {
+                    int width = 1 + random.nextInt(1000);
+                    int height = 1 + random.nextInt(1000);
+                    int expected = -1;
+                    for (int slot = 0; slot < slots.size() && expected < 0; slot++) {
+                        if (slots.get(slot)[0] >= width && slots.get(slot)[1] >= height) {
+                            expected = slot;
+                        }
+                    }
+                    assertEquals(expected, index.findFirst(width, height));
+                }
+            }
+            assertEquals(slots.size(), index.size());
+        }
+    }
+}
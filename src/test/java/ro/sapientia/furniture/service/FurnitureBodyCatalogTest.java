@@ -0,0 +1,61 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ro.sapientia.furniture.config.CutOptimizationProperties;
+import ro.sapientia.furniture.model.entities.FurnitureBody;
+import ro.sapientia.furniture.repository.FurnitureBodyRepository;
+
+public class FurnitureBodyCatalogTest {
+
+    private FurnitureBodyCatalog catalog;
+
+    private FurnitureBody entity;
+
+    @Mock
+    private FurnitureBodyRepository furnitureBodyRepository;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        entity = new FurnitureBody(5L, 600, 720, 560);
+        when(furnitureBodyRepository.findAllById(any())).thenReturn(List.of(entity));
+        catalog = new FurnitureBodyCatalog(furnitureBodyRepository, new CutOptimizationProperties());
+    }
+
+    @Test
+    void findAll_keepsTheDimensionsOfTheBodyAsLoaded() {
+        Map<Long, FurnitureBodyCatalog.Body> first = catalog.findAll(Arrays.asList(5L, null));
+        assertEquals(600, first.get(5L).getWidth());
+
+        // Changing the entity, as a later persistence context could, does not reach the cache
+        entity.setWidth(900);
+        FurnitureBodyCatalog.Body cached = catalog.findAll(List.of(5L)).get(5L);
+        assertEquals(600, cached.getWidth());
+        assertEquals(720, cached.getHeight());
+        assertEquals(560, cached.getDepth());
+    }
+
+    @Test
+    void evict_reloadsTheBodyOnTheNextLookup() {
+        catalog.findAll(List.of(5L));
+        entity.setWidth(900);
+
+        catalog.evict(5L);
+
+        assertEquals(900, catalog.findAll(List.of(5L)).get(5L).getWidth());
+        assertTrue(catalog.existingIds(List.of(5L, 6L)).contains(5L));
+    }
+}
@@ -10,6 +10,7 @@ import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import ro.sapientia.furniture.config.CutOptimizationProperties;
 import ro.sapientia.furniture.model.dto.FurnitureBodyDTO;
 import ro.sapientia.furniture.repository.FurnitureBodyRepository;
 
@@ -22,7 +23,8 @@ public class FurnitureBodyDTOServiceTest {
 	@BeforeEach
 	public void setUp() {
 		repositoryMock = mock(FurnitureBodyRepository.class);
-		service = new FurnitureBodyService(repositoryMock);
+		service = new FurnitureBodyService(repositoryMock,
+				new FurnitureBodyCatalog(repositoryMock, new CutOptimizationProperties()));
 	}
 
 	@Test
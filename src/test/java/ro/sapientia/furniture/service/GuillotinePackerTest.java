@@ -0,0 +1,137 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ro.sapientia.furniture.service.PackingFixtures.loadSorted;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class GuillotinePackerTest {
+
+    private final PlacementValidator validator = new PlacementValidator(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+    @Test
+    void pack_leavesKerfAndTrim() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            // 2 x 45 + 10 kerf + 2 x 5 trim = 110
+            GuillotinePacker packer = workspace.guillotinePacker();
+            packer.configure(10, 5);
+            PackingLayout layout = pack(workspace, new int[][]{{45, 100}, {45, 100}}, 110, 110, false);
+
+            assertEquals(2, layout.count());
+            assertEquals(5, layout.x(0));
+            assertEquals(5, layout.y(0));
+            assertEquals(60, layout.x(1));
+            assertEquals(1, packer.cutCount());
+            assertEquals(GuillotinePacker.VERTICAL, packer.cutOrientation(0));
+            assertEquals(50, packer.cutPosition(0));
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void pack_producesGuillotineLayoutsWithKerf() {
+        Random random = new Random(13);
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            for (int round = 0; round < 100; round++) {
+                int kerf = random.nextInt(6);
+                int trim = random.nextInt(20);
+                int sheetWidth = 300 + random.nextInt(700);
+                int sheetHeight = 300 + random.nextInt(700);
+                int[][] sizes = new int[1 + random.nextInt(60)][];
+                for (int i = 0; i < sizes.length; i++) {
+                    sizes[i] = new int[]{1 + random.nextInt(250), 1 + random.nextInt(250)};
+                }
+                GuillotinePacker packer = workspace.guillotinePacker();
+                packer.configure(kerf, trim);
+                PackingLayout layout = pack(workspace, sizes, sheetWidth, sheetHeight, true);
+                assertEquals(sizes.length, layout.count());
+
+                // Growing every part by the kerf must keep the trimmed sheets free of overlaps
+                PackingLayout withKerf = new PackingLayout();
+                withKerf.clear(layout.count());
+                for (int s = 0; s < layout.sheetCount(); s++) {
+                    withKerf.addSheet(sheetWidth - trim + kerf, sheetHeight - trim + kerf);
+                }
+                for (int i = 0; i < layout.count(); i++) {
+                    assertTrue(layout.x(i) >= trim && layout.y(i) >= trim);
+                    withKerf.add(layout.sheet(i), layout.element(i), layout.x(i), layout.y(i),
+                            layout.width(i) + kerf, layout.height(i) + kerf);
+                }
+                assertDoesNotThrow(() -> validator.validate(workspace.input(), withKerf));
+
+                for (int s = 0; s < layout.sheetCount(); s++) {
+                    List<int[]> parts = new ArrayList<>();
+                    for (int i = 0; i < layout.count(); i++) {
+                        if (layout.sheet(i) == s) {
+                            parts.add(new int[]{layout.x(i), layout.y(i), layout.x(i) + layout.width(i), layout.y(i) + layout.height(i)});
+                        }
+                    }
+                    assertTrue(isGuillotine(parts), "Sheet " + s + " needs a non edge-to-edge cut");
+                }
+                for (int c = 0; c < packer.cutCount(); c++) {
+                    int parent = packer.cutParent(c);
+                    assertTrue(parent < c);
+                    assertTrue(parent < 0 || packer.cutSheet(parent) == packer.cutSheet(c));
+                }
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    /**
+     * Whether the parts can be separated by recursive edge-to-edge cuts.
+     */
+    private static boolean isGuillotine(List<int[]> parts) {
+        if (parts.size() <= 1) {
+            return true;
+        }
+        for (int axis = 0; axis < 2; axis++) {
+            for (int[] part : parts) {
+                int line = part[axis + 2];
+                List<int[]> before = new ArrayList<>();
+                List<int[]> after = new ArrayList<>();
+                boolean crossed = false;
+                for (int[] other : parts) {
+                    if (other[axis + 2] <= line) {
+                        before.add(other);
+                    } else if (other[axis] >= line) {
+                        after.add(other);
+                    } else {
+                        crossed = true;
+                        break;
+                    }
+                }
+                if (!crossed && !after.isEmpty()) {
+                    return isGuillotine(before) && isGuillotine(after);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static PackingLayout pack(PackingWorkspace workspace, int[][] sizes, int sheetWidth, int sheetHeight,
+                                      boolean multiSheet) {
+        int[] order = loadSorted(workspace, sizes);
+        PackingInput input = workspace.input();
+        PackingLayout layout = workspace.layout();
+        layout.clear(sizes.length);
+        if (multiSheet) {
+            workspace.guillotinePacker().packSheets(input, order, sizes.length, sheetWidth, sheetHeight, layout);
+        } else {
+            layout.addSheet(sheetWidth, sheetHeight);
+            workspace.guillotinePacker().pack(input, order, sizes.length, sheetWidth, sheetHeight, layout);
+        }
+        return layout;
+    }
+}
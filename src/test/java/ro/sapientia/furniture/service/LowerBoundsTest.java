@@ -0,0 +1,116 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+
+public class LowerBoundsTest {
+
+    @Test
+    void of_areaBound() {
+        PackingInput input = input(new int[][]{{50, 50}, {50, 50}, {50, 50}, {50, 50}, {10, 10}});
+
+        LowerBounds bounds = LowerBounds.of(input, 100, 100);
+
+        assertEquals(2, bounds.sheetCount());
+        assertEquals(101, bounds.stripHeight());
+        assertEquals(10_100, bounds.totalArea());
+    }
+
+    /**
+     * Parts wider than half the sheet in both orientations cannot stand side by side,
+     * and parts taller than half the sheet cannot share it either.
+     */
+    @Test
+    void of_wideElementsStack() {
+        PackingInput input = input(new int[][]{{60, 70}, {70, 60}, {60, 70}});
+
+        LowerBounds bounds = LowerBounds.of(input, 100, 100);
+
+        assertEquals(3, bounds.sheetCount());
+        assertEquals(180, bounds.stripHeight());
+    }
+
+    @Test
+    void of_ignoresElementsThatDoNotFit() {
+        PackingInput input = input(new int[][]{{120, 120}, {40, 30}});
+
+        LowerBounds bounds = LowerBounds.of(input, 100, 100);
+
+        assertEquals(1, bounds.sheetCount());
+        assertEquals(30, bounds.stripHeight());
+    }
+
+    @Test
+    void binPackingBound_beatsTheAreaBound() {
+        assertEquals(3, LowerBounds.binPackingBound(new int[]{6, 6, 6}, 10));
+        assertEquals(0, LowerBounds.binPackingBound(new int[0], 10));
+    }
+
+    @Test
+    void isMetBy_exactTiling() {
+        PackingInput input = input(new int[][]{{50, 50}, {50, 50}, {50, 50}, {50, 50}});
+        PackingLayout layout = new PackingLayout();
+        layout.clear(4);
+        layout.addSheet(100, 100);
+        layout.add(0, 0, 0, 50, 50);
+        layout.add(1, 50, 0, 50, 50);
+        layout.add(2, 0, 50, 50, 50);
+
+        LowerBounds bounds = LowerBounds.of(input, 100, 100);
+        assertFalse(bounds.isMetBy(PackingScore.of(layout), 4));
+
+        layout.add(3, 50, 50, 50, 50);
+        assertTrue(bounds.isMetBy(PackingScore.of(layout), 4));
+        assertEquals(0.0, bounds.gap(PackingScore.of(layout), false));
+    }
+
+    @Test
+    void of_neverExceedsAPackedLayout() {
+        Random random = new Random(41);
+        MultiSheetPacker multiSheetPacker = new MultiSheetPacker(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            for (int round = 0; round < 300; round++) {
+                int sheetWidth = 200 + random.nextInt(2800);
+                int sheetHeight = 200 + random.nextInt(2000);
+                int count = 1 + random.nextInt(60);
+                PackingInput input = workspace.input();
+                input.reset(count);
+                for (int i = 0; i < count; i++) {
+                    input.set(i, i + 1, 1 + random.nextInt(sheetWidth), 1 + random.nextInt(sheetHeight));
+                }
+                LowerBounds bounds = LowerBounds.of(input, sheetWidth, sheetHeight);
+
+                for (PackingAlgorithm algorithm : new PackingAlgorithm[]{PackingAlgorithm.FFDH, PackingAlgorithm.MAXRECTS_BSSF}) {
+                    workspace.sortByHeightDescending();
+                    multiSheetPacker.pack(workspace, algorithm, count, sheetWidth, sheetHeight);
+                    PackingLayout layout = workspace.layout();
+                    assertEquals(count, layout.count());
+                    assertTrue(layout.sheetCount() >= bounds.sheetCount());
+                    if (layout.sheetCount() == 1) {
+                        assertTrue(layout.usedHeight(0) >= bounds.stripHeight());
+                    }
+                }
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    private static PackingInput input(int[][] sizes) {
+        PackingInput input = new PackingInput();
+        input.reset(sizes.length);
+        for (int i = 0; i < sizes.length; i++) {
+            input.set(i, i + 1, sizes[i][0], sizes[i][1]);
+        }
+        return input;
+    }
+}
@@ -0,0 +1,96 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ro.sapientia.furniture.service.PackingFixtures.loadSorted;
+import static ro.sapientia.furniture.service.PackingFixtures.randomSizes;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+
+public class MaxRectsPackerTest {
+
+    private final PlacementValidator validator = new PlacementValidator(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+    @Test
+    void pack_fillsExactTiling() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            // A 3x3 grid of 20x20 squares plus one rotated 60x20 strip exactly fills 60x80
+            int[][] sizes = new int[10][];
+            for (int i = 0; i < 9; i++) {
+                sizes[i] = new int[]{20, 20};
+            }
+            sizes[9] = new int[]{20, 60};
+            for (PackingAlgorithm algorithm : new PackingAlgorithm[]{PackingAlgorithm.MAXRECTS_BSSF, PackingAlgorithm.MAXRECTS_BAF}) {
+                PackingLayout layout = pack(workspace, algorithm, sizes, 60, 80);
+                assertEquals(10, layout.count(), algorithm.name());
+                assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void pack_producesValidLayoutsOnRandomOrders() {
+        Random random = new Random(3);
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            for (int round = 0; round < 100; round++) {
+                int count = 1 + random.nextInt(200);
+                int sheetWidth = 200 + random.nextInt(1000);
+                int sheetHeight = 200 + random.nextInt(1000);
+                int[][] sizes = new int[count][];
+                for (int i = 0; i < count; i++) {
+                    sizes[i] = new int[]{1 + random.nextInt(300), 1 + random.nextInt(300)};
+                }
+                for (PackingAlgorithm algorithm : new PackingAlgorithm[]{PackingAlgorithm.MAXRECTS_BSSF, PackingAlgorithm.MAXRECTS_BAF}) {
+                    PackingLayout layout = pack(workspace, algorithm, sizes, sheetWidth, sheetHeight);
+                    assertTrue(layout.count() > 0);
+                    assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+                }
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void pack_usesMoreOfTheSheetThanFfdh() {
+        Random random = new Random(5);
+        long[] placedArea = new long[2];
+        PackingAlgorithm[] algorithms = {PackingAlgorithm.FFDH, PackingAlgorithm.MAXRECTS_BSSF};
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            for (int round = 0; round < 50; round++) {
+                int[][] sizes = randomSizes(random, 60, 800, 800);
+                for (int a = 0; a < algorithms.length; a++) {
+                    PackingLayout layout = pack(workspace, algorithms[a], sizes, 2800, 2070);
+                    for (int i = 0; i < layout.count(); i++) {
+                        placedArea[a] += (long) layout.width(i) * layout.height(i);
+                    }
+                }
+            }
+        } finally {
+            workspace.release();
+        }
+        assertTrue(placedArea[1] > placedArea[0], "MaxRects placed " + placedArea[1] + ", FFDH " + placedArea[0]);
+    }
+
+    private static PackingLayout pack(PackingWorkspace workspace, PackingAlgorithm algorithm, int[][] sizes,
+                                      int sheetWidth, int sheetHeight) {
+        int[] order = loadSorted(workspace, sizes);
+        PackingInput input = workspace.input();
+        PackingLayout layout = workspace.layout();
+        layout.clear(sizes.length);
+        layout.addSheet(sheetWidth, sheetHeight);
+        workspace.packer(algorithm).pack(input, order, sizes.length, sheetWidth, sheetHeight, layout);
+        return layout;
+    }
+}
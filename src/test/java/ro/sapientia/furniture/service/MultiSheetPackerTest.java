@@ -0,0 +1,95 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ro.sapientia.furniture.service.PackingFixtures.loadSorted;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+
+public class MultiSheetPackerTest {
+
+    private final PlacementValidator validator = new PlacementValidator(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+    @Test
+    void pack_spillsOntoAdditionalSheets() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            // Four 60x60 squares: only one fits on a 100x100 sheet
+            loadSorted(workspace, new int[][]{{60, 60}, {60, 60}, {60, 60}, {60, 60}});
+            new MultiSheetPacker(ForkJoinPool.commonPool(), Integer.MAX_VALUE).pack(workspace, PackingAlgorithm.FFDH, 4, 100, 100);
+
+            PackingLayout layout = workspace.layout();
+            assertEquals(4, layout.count());
+            assertEquals(4, layout.sheetCount());
+            assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void pack_sameResultSequentialAndParallel() {
+        Random random = new Random(11);
+        int count = 2_000;
+        int[][] sizes = new int[count][];
+        for (int i = 0; i < count; i++) {
+            sizes[i] = new int[]{10 + random.nextInt(200), 10 + random.nextInt(200)};
+        }
+
+        long[] digests = new long[2];
+        int[] thresholds = {Integer.MAX_VALUE, 0};
+        for (int run = 0; run < 2; run++) {
+            PackingWorkspace workspace = PackingWorkspace.acquire();
+            try {
+                loadSorted(workspace, sizes);
+                new MultiSheetPacker(new ForkJoinPool(4), thresholds[run]).pack(workspace, PackingAlgorithm.MAXRECTS_BSSF, count, 500, 400);
+
+                PackingLayout layout = workspace.layout();
+                assertEquals(count, layout.count());
+                assertTrue(layout.sheetCount() > 1);
+                assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+                long digest = layout.sheetCount();
+                for (int i = 0; i < layout.count(); i++) {
+                    digest = digest * 31 + layout.sheet(i);
+                    digest = digest * 31 + layout.element(i);
+                    digest = digest * 31 + layout.x(i);
+                    digest = digest * 31 + layout.y(i);
+                }
+                digests[run] = digest;
+            } finally {
+                workspace.release();
+            }
+        }
+        assertEquals(digests[0], digests[1]);
+    }
+
+    @Test
+    void packWithin_keepsTheStackedLevelsWhenTheBudgetRunsOut() {
+        Random random = new Random(12);
+        int count = 500;
+        int[][] sizes = new int[count][];
+        for (int i = 0; i < count; i++) {
+            sizes[i] = new int[]{10 + random.nextInt(200), 10 + random.nextInt(200)};
+        }
+        SearchBudget budget = SearchBudget.ofMillis(0);
+
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            loadSorted(workspace, sizes);
+            new MultiSheetPacker(ForkJoinPool.commonPool(), Integer.MAX_VALUE)
+                    .packWithin(workspace, PackingAlgorithm.MAXRECTS_BSSF, count, 500, 400, budget);
+
+            PackingLayout layout = workspace.layout();
+            assertEquals(count, layout.count());
+            assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+        } finally {
+            workspace.release();
+        }
+    }
+}
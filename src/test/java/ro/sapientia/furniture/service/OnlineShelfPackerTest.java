@@ -0,0 +1,108 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class OnlineShelfPackerTest {
+
+    @Test
+    void place_fillsTheFirstLevelBeforeOpeningANewOne() {
+        OnlineShelfPacker packer = new OnlineShelfPacker(100, 100);
+
+        // 30x60 is laid on its longer side, opening a level 30 high
+        assertTrue(packer.place(30, 60));
+        assertPlaced(packer, 0, 0, 0, 60, 30);
+        assertTrue(packer.place(30, 30));
+        assertPlaced(packer, 0, 60, 0, 30, 30);
+        // 10 mm are left on the first level, so 20x40 opens the next one
+        assertTrue(packer.place(20, 40));
+        assertPlaced(packer, 0, 0, 30, 40, 20);
+        // 5x25 fits the rest of the first level upright
+        assertTrue(packer.place(25, 5));
+        assertPlaced(packer, 0, 90, 0, 5, 25);
+        assertEquals(1, packer.sheetCount());
+    }
+
+    @Test
+    void place_opensANewSheetWhenNoSheetHasHeightLeft() {
+        OnlineShelfPacker packer = new OnlineShelfPacker(100, 100);
+        packer.place(100, 70);
+        packer.place(100, 40);
+
+        assertPlaced(packer, 1, 0, 0, 100, 40);
+        // The 30 mm left on the first sheet still take a new level
+        packer.place(100, 30);
+        assertPlaced(packer, 0, 0, 70, 100, 30);
+        assertEquals(2, packer.openSheetCount());
+    }
+
+    @Test
+    void closeSheet_keepsPartsOffTheClosedSheet() {
+        OnlineShelfPacker packer = new OnlineShelfPacker(100, 100);
+        packer.place(50, 50);
+        packer.closeSheet(0);
+
+        assertFalse(packer.isOpen(0));
+        assertTrue(packer.place(10, 10));
+        assertEquals(1, packer.lastSheet());
+        assertEquals(1, packer.openSheetCount());
+        assertEquals(2, packer.sheetCount());
+    }
+
+    @Test
+    void place_rejectsPartsLargerThanTheSheet() {
+        OnlineShelfPacker packer = new OnlineShelfPacker(100, 50);
+
+        assertTrue(packer.fits(40, 90));
+        assertFalse(packer.fits(60, 60));
+        assertFalse(packer.place(60, 60));
+        assertEquals(0, packer.sheetCount());
+    }
+
+    @Test
+    void place_neverOverlapsOrLeavesTheSheet() {
+        Random random = new Random(5);
+        OnlineShelfPacker packer = new OnlineShelfPacker(1000, 600);
+        List<int[]> placed = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            assertTrue(packer.place(1 + random.nextInt(400), 1 + random.nextInt(400)));
+            int[] part = {packer.lastSheet(), packer.lastX(), packer.lastY(), packer.lastWidth(), packer.lastHeight()};
+            assertTrue(packer.isOpen(part[0]));
+            assertTrue(part[1] >= 0 && part[2] >= 0 && part[1] + part[3] <= 1000 && part[2] + part[4] <= 600);
+            placed.add(part);
+            if (packer.openSheetCount() > 3) {
+                for (int s = 0; ; s++) {
+                    if (packer.isOpen(s)) {
+                        packer.closeSheet(s);
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < placed.size(); i++) {
+            for (int j = i + 1; j < placed.size(); j++) {
+                int[] a = placed.get(i);
+                int[] b = placed.get(j);
+                if (a[0] == b[0]) {
+                    assertFalse(a[1] < b[1] + b[3] && b[1] < a[1] + a[3] && a[2] < b[2] + b[4] && b[2] < a[2] + a[4],
+                            "Parts " + i + " and " + j + " overlap");
+                }
+            }
+        }
+    }
+
+    private static void assertPlaced(OnlineShelfPacker packer, int sheet, int x, int y, int width, int height) {
+        assertEquals(sheet, packer.lastSheet());
+        assertEquals(x, packer.lastX());
+        assertEquals(y, packer.lastY());
+        assertEquals(width, packer.lastWidth());
+        assertEquals(height, packer.lastHeight());
+    }
+}
@@ -0,0 +1,44 @@
+package ro.sapientia.furniture.service;
+
+import java.util.Random;
+
+/**
+ * Part lists shared by the tests of the packing kernels.
+ */
+final class PackingFixtures {
+
+    private PackingFixtures() {
+    }
+
+    /**
+     * Load one part per {width, height} pair into the workspace input, with ids from 1 in the given order.
+     */
+    static void load(PackingWorkspace workspace, int[][] sizes) {
+        PackingInput input = workspace.input();
+        input.reset(sizes.length);
+        for (int i = 0; i < sizes.length; i++) {
+            input.set(i, i + 1, sizes[i][0], sizes[i][1]);
+        }
+    }
+
+    /**
+     * Load the parts like {@link #load} and sort them by decreasing height.
+     *
+     * @return the workspace order
+     */
+    static int[] loadSorted(PackingWorkspace workspace, int[][] sizes) {
+        load(workspace, sizes);
+        return workspace.sortByHeightDescending();
+    }
+
+    /**
+     * Random part sizes from 100 up to, but not including, {@code maxWidth} x {@code maxHeight}.
+     */
+    static int[][] randomSizes(Random random, int count, int maxWidth, int maxHeight) {
+        int[][] sizes = new int[count][];
+        for (int i = 0; i < count; i++) {
+            sizes[i] = new int[]{100 + random.nextInt(maxWidth - 100), 100 + random.nextInt(maxHeight - 100)};
+        }
+        return sizes;
+    }
+}
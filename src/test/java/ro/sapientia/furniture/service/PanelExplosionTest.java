@@ -0,0 +1,42 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.exception.CutOptimizationException;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
+
+public class PanelExplosionTest {
+
+    @Test
+    void explode_cutsSidesTopBottomAndBack() {
+        List<CutElementDTO> panels = PanelExplosion.explode(new FurnitureBodyCatalog.Body(3L, 800, 2000, 600), 3, 18);
+
+        assertEquals(3, panels.size());
+        assertPanel(panels.get(0), 600, 2000, 6);
+        assertPanel(panels.get(1), 764, 600, 6);
+        assertPanel(panels.get(2), 764, 1964, 3);
+        for (CutElementDTO panel : panels) {
+            assertEquals(3L, panel.getId());
+            assertEquals(18, panel.getDepth());
+        }
+    }
+
+    @Test
+    void explode_rejectsBodiesNarrowerThanTwoPanels() {
+        assertThrows(CutOptimizationException.class,
+                () -> PanelExplosion.explode(new FurnitureBodyCatalog.Body(3L, 30, 2000, 600), 1, 18));
+        assertThrows(CutOptimizationException.class,
+                () -> PanelExplosion.explode(new FurnitureBodyCatalog.Body(3L, 800, 2000, 0), 1, 18));
+    }
+
+    private static void assertPanel(CutElementDTO panel, int width, int height, int quantity) {
+        assertEquals(width, panel.getWidth());
+        assertEquals(height, panel.getHeight());
+        assertEquals(quantity, panel.getQuantity());
+    }
+}
@@ -0,0 +1,117 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+
+public class PartitionedStripPackerTest {
+
+    private final PlacementValidator validator = new PlacementValidator(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+    @Test
+    void packStrip_staysCloseToSequentialFfdh() {
+        Random random = new Random(61);
+        int count = 40_000;
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            load(workspace, count, random, 2800, 2070);
+            PackingLayout sequential = new PackingLayout();
+            sequential.clear(count);
+            sequential.addSheet(2800, Integer.MAX_VALUE);
+            workspace.ffdhPacker().packStrip(workspace.input(), workspace.order(), count, 2800, 2070, sequential);
+
+            PackingLayout strip = new PackingLayout();
+            strip.clear(count);
+            strip.addSheet(2800, Integer.MAX_VALUE);
+            new PartitionedStripPacker(new ForkJoinPool(4)).packStrip(workspace, count, 2800, 2070, strip);
+
+            assertEquals(count, strip.count());
+            assertDoesNotThrow(() -> validator.validate(workspace.input(), strip));
+            assertTrue(strip.usedHeight(0) <= sequential.usedHeight(0) * 1.02);
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void packStrip_packsSmallOrdersSequentially() {
+        Random random = new Random(62);
+        int count = PartitionedStripPacker.MIN_BAND_SIZE;
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            load(workspace, count, random, 1000, 1000);
+            PackingLayout sequential = new PackingLayout();
+            sequential.clear(count);
+            sequential.addSheet(1000, Integer.MAX_VALUE);
+            workspace.ffdhPacker().packStrip(workspace.input(), workspace.order(), count, 1000, 1000, sequential);
+
+            PackingLayout strip = new PackingLayout();
+            strip.clear(count);
+            strip.addSheet(1000, Integer.MAX_VALUE);
+            new PartitionedStripPacker(new ForkJoinPool(4)).packStrip(workspace, count, 1000, 1000, strip);
+
+            assertEquals(sequential.count(), strip.count());
+            for (int i = 0; i < strip.count(); i++) {
+                assertEquals(sequential.element(i), strip.element(i));
+                assertEquals(sequential.x(i), strip.x(i));
+                assertEquals(sequential.y(i), strip.y(i));
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void packSheet_placesEverythingOnOneSheet() {
+        Random random = new Random(64);
+        int count = 20_000;
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            load(workspace, count, random, 300, 300);
+            PackingLayout layout = workspace.layout();
+            layout.clear(count);
+            layout.addSheet(10_000, 100_000);
+            new PartitionedStripPacker(new ForkJoinPool(4)).packSheet(workspace, count, 10_000, 100_000, layout);
+
+            assertEquals(count, layout.count());
+            assertEquals(1, layout.sheetCount());
+            assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void pack_multiSheetPlansUseTheBands() {
+        Random random = new Random(63);
+        int count = 20_000;
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            load(workspace, count, random, 2800, 2070);
+            new MultiSheetPacker(new ForkJoinPool(4), 0, 0).pack(workspace, PackingAlgorithm.FFDH, count, 2800, 2070);
+
+            PackingLayout layout = workspace.layout();
+            assertEquals(count, layout.count());
+            assertTrue(layout.sheetCount() > 1);
+            assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+        } finally {
+            workspace.release();
+        }
+    }
+
+    private static void load(PackingWorkspace workspace, int count, Random random, int maxWidth, int maxHeight) {
+        PackingInput input = workspace.input();
+        input.reset(count);
+        for (int i = 0; i < count; i++) {
+            input.set(i, i + 1, 10 + random.nextInt(maxWidth / 3), 10 + random.nextInt(maxHeight / 3));
+        }
+        workspace.sortByHeightDescending();
+    }
+}
@@ -0,0 +1,141 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.exception.CutOptimizationException;
+
+public class PlacementValidatorTest {
+
+    private final PlacementValidator sequential = new PlacementValidator(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+    private final PlacementValidator striped = new PlacementValidator(new ForkJoinPool(4), 0);
+
+    @Test
+    void validate_acceptsElementsTouchingAtEdges() {
+        PackingInput input = input(4);
+        PackingLayout layout = new PackingLayout();
+        layout.clear(4);
+        layout.addSheet(20, 20);
+        layout.add(0, 0, 0, 10, 10);
+        layout.add(1, 10, 0, 10, 10);
+        layout.add(2, 0, 10, 10, 10);
+        layout.add(3, 10, 10, 10, 10);
+
+        assertDoesNotThrow(() -> sequential.validate(input, layout));
+        assertDoesNotThrow(() -> striped.validate(input, layout));
+    }
+
+    @Test
+    void validate_detectsElementInsideAnother() {
+        PackingInput input = input(2);
+        PackingLayout layout = new PackingLayout();
+        layout.clear(2);
+        layout.addSheet(100, 100);
+        layout.add(0, 0, 0, 50, 50);
+        layout.add(1, 20, 20, 5, 5);
+
+        CutOptimizationException exception = assertThrows(CutOptimizationException.class,
+                () -> sequential.validate(input, layout));
+        assertEquals("Elements 1 and 2 overlap", exception.getMessage());
+    }
+
+    @Test
+    void validate_detectsCrossingElementsAcrossStripes() {
+        PackingInput input = input(2);
+        PackingLayout layout = new PackingLayout();
+        layout.clear(2);
+        layout.addSheet(100, 100);
+        // A wide element spanning every stripe crossed by a tall one
+        layout.add(0, 0, 40, 100, 10);
+        layout.add(1, 70, 0, 5, 100);
+
+        CutOptimizationException exception = assertThrows(CutOptimizationException.class,
+                () -> striped.validate(input, layout));
+        assertTrue(exception.getMessage().contains("overlap"));
+    }
+
+    @Test
+    void validate_checksEachSheetOnItsOwn() {
+        PackingInput input = input(3);
+        PackingLayout layout = new PackingLayout();
+        layout.clear(3);
+        layout.addSheet(100, 100);
+        layout.addSheet(50, 50);
+        layout.add(0, 0, 0, 0, 50, 50);
+        layout.add(1, 1, 0, 0, 50, 50);
+
+        assertDoesNotThrow(() -> sequential.validate(input, layout));
+        assertDoesNotThrow(() -> striped.validate(input, layout));
+
+        layout.add(1, 2, 40, 0, 20, 20);
+        CutOptimizationException exception = assertThrows(CutOptimizationException.class,
+                () -> sequential.validate(input, layout));
+        assertEquals("Element 3 is out of sheet bounds", exception.getMessage());
+    }
+
+    /**
+     * Compares the sweep line against the pairwise check on random grids with a few displaced elements.
+     */
+    @Test
+    void validate_agreesWithPairwiseCheck() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            int columns = 1 + random.nextInt(12);
+            int rows = 1 + random.nextInt(12);
+            int count = columns * rows;
+            PackingInput input = input(count);
+            PackingLayout layout = new PackingLayout();
+            layout.clear(count);
+            layout.addSheet(columns * 10, rows * 10);
+            for (int i = 0; i < count; i++) {
+                int x = (i % columns) * 10;
+                int y = (i / columns) * 10;
+                if (random.nextInt(20) == 0) {
+                    x = Math.max(0, x - 1 - random.nextInt(9));
+                }
+                layout.add(i, x, y, 10, 10);
+            }
+
+            boolean expectOverlap = hasPairwiseOverlap(layout);
+            for (PlacementValidator validator : new PlacementValidator[]{sequential, striped}) {
+                if (expectOverlap) {
+                    assertThrows(CutOptimizationException.class, () -> validator.validate(input, layout));
+                } else {
+                    assertDoesNotThrow(() -> validator.validate(input, layout));
+                }
+            }
+        }
+    }
+
+    private static PackingInput input(int count) {
+        PackingInput input = new PackingInput();
+        input.reset(count);
+        for (int i = 0; i < count; i++) {
+            input.set(i, i + 1, 10, 10);
+        }
+        return input;
+    }
+
+    private static boolean hasPairwiseOverlap(PackingLayout layout) {
+        for (int i = 0; i < layout.count(); i++) {
+            for (int j = i + 1; j < layout.count(); j++) {
+                boolean separated = layout.x(i) + layout.width(i) <= layout.x(j) ||
+                        layout.x(j) + layout.width(j) <= layout.x(i) ||
+                        layout.y(i) + layout.height(i) <= layout.y(j) ||
+                        layout.y(j) + layout.height(j) <= layout.y(i);
+                if (!separated) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,147 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ro.sapientia.furniture.service.PackingFixtures.load;
+import static ro.sapientia.furniture.service.PackingFixtures.randomSizes;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class PortfolioSolverTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    private final PortfolioSolver solver = new PortfolioSolver(pool, new MultiSheetPacker(pool, Integer.MAX_VALUE), 2);
+
+    private final PlacementValidator validator = new PlacementValidator(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+    @Test
+    void solve_isAtLeastAsGoodAsEveryStrategy() {
+        Random random = new Random(21);
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            for (int round = 0; round < 20; round++) {
+                int[][] sizes = randomSizes(random, 40, 800, 800);
+                boolean multiSheet = round % 2 == 0;
+                load(workspace, sizes);
+                solver.solve(workspace, multiSheet, 2800, 2070, SearchBudget.ofMillis(60_000));
+                PackingLayout layout = workspace.layout();
+                assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+                PackingScore portfolio = PackingScore.of(layout);
+
+                for (PortfolioSolver.Strategy strategy : PortfolioSolver.STRATEGIES) {
+                    PackingScore single = PackingScore.of(pack(strategy, sizes, multiSheet));
+                    assertFalse(single.isBetterThan(portfolio), strategy + " beat the portfolio: " + single + " vs " + portfolio);
+                }
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void solve_stopsAtTheAreaBound() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            // Four squares tile the sheet exactly, which the first strategy already finds
+            load(workspace, new int[][]{{50, 50}, {50, 50}, {50, 50}, {50, 50}});
+            SearchBudget budget = SearchBudget.ofMillis(60_000);
+            solver.solve(workspace, false, 100, 100, budget);
+
+            assertEquals(4, workspace.layout().count());
+            assertTrue(budget.isStopped());
+            assertTrue(budget.remainingNanos() > 0);
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void solve_returnsTheFirstStrategyWhenOutOfTime() {
+        Random random = new Random(22);
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            int[][] sizes = randomSizes(random, 500, 800, 800);
+            load(workspace, sizes);
+            solver.solve(workspace, true, 2800, 2070, SearchBudget.ofMillis(0));
+
+            PackingLayout layout = workspace.layout();
+            assertEquals(sizes.length, layout.count());
+            assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void strategies_produceValidLayouts() {
+        Random random = new Random(23);
+        for (int round = 0; round < 10; round++) {
+            int[][] sizes = randomSizes(random, 100, 800, 800);
+            for (PortfolioSolver.Strategy strategy : PortfolioSolver.STRATEGIES) {
+                PackingWorkspace workspace = PackingWorkspace.acquire();
+                try {
+                    load(workspace, sizes);
+                    workspace.sortDescending(strategy.key);
+                    PackingLayout layout = workspace.layout();
+                    layout.clear(sizes.length);
+                    layout.addSheet(2800, 2070);
+                    workspace.packer(strategy.algorithm).pack(workspace.input(), workspace.order(), sizes.length, 2800, 2070, layout);
+                    assertTrue(layout.count() > 0);
+                    assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+                } finally {
+                    workspace.release();
+                }
+            }
+        }
+    }
+
+    @Test
+    void strategies_stopWhenTheBudgetRunsOut() {
+        Random random = new Random(24);
+        int[][] sizes = randomSizes(random, 100, 800, 800);
+        SearchBudget budget = SearchBudget.ofMillis(60_000);
+        budget.stop();
+        for (PortfolioSolver.Strategy strategy : PortfolioSolver.STRATEGIES) {
+            PackingWorkspace workspace = PackingWorkspace.acquire();
+            try {
+                load(workspace, sizes);
+                workspace.sortDescending(strategy.key);
+                PackingLayout layout = workspace.layout();
+                layout.clear(sizes.length);
+                layout.addSheet(2800, 2070);
+                workspace.packer(strategy.algorithm).pack(workspace.input(), workspace.order(), sizes.length, 2800, 2070,
+                        layout, budget);
+                assertEquals(0, layout.count(), strategy.toString());
+            } finally {
+                workspace.release();
+            }
+        }
+    }
+
+    private PackingLayout pack(PortfolioSolver.Strategy strategy, int[][] sizes, boolean multiSheet) {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            load(workspace, sizes);
+            int[] order = workspace.sortDescending(strategy.key);
+            PackingLayout layout = workspace.layout();
+            if (multiSheet) {
+                new MultiSheetPacker(pool, Integer.MAX_VALUE).pack(workspace, strategy.algorithm, sizes.length, 2800, 2070);
+            } else {
+                layout.clear(sizes.length);
+                layout.addSheet(2800, 2070);
+                workspace.packer(strategy.algorithm).pack(workspace.input(), order, sizes.length, 2800, 2070, layout);
+            }
+            PackingLayout copy = new PackingLayout();
+            copy.copyFrom(layout);
+            return copy;
+        } finally {
+            workspace.release();
+        }
+    }
+}
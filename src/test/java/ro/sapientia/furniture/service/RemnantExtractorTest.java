@@ -0,0 +1,52 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class RemnantExtractorTest {
+
+    @Test
+    void extract_returnsTheFreeStripBesideAPart() {
+        PackingLayout layout = new PackingLayout();
+        layout.clear(1);
+        layout.addSheet(100, 100);
+        layout.add(0, 0, 0, 60, 100);
+
+        RemnantExtractor extractor = new RemnantExtractor();
+        assertEquals(1, extractor.extract(layout, 0, 10));
+        assertEquals(60, extractor.x(0));
+        assertEquals(0, extractor.y(0));
+        assertEquals(40, extractor.width(0));
+        assertEquals(100, extractor.height(0));
+    }
+
+    @Test
+    void extract_returnsDisjointRemnantsCoveringTheFreeArea() {
+        PackingLayout layout = new PackingLayout();
+        layout.clear(2);
+        layout.addSheet(100, 100);
+        layout.addSheet(100, 100);
+        layout.add(0, 0, 0, 0, 60, 60);
+        layout.add(1, 1, 0, 0, 100, 95);
+
+        RemnantExtractor extractor = new RemnantExtractor();
+        int count = extractor.extract(layout, 0, 10);
+        assertEquals(2, count);
+        long area = 0;
+        for (int r = 0; r < count; r++) {
+            area += (long) extractor.width(r) * extractor.height(r);
+            for (int q = 0; q < r; q++) {
+                assertTrue(extractor.x(r) >= extractor.x(q) + extractor.width(q)
+                        || extractor.x(q) >= extractor.x(r) + extractor.width(r)
+                        || extractor.y(r) >= extractor.y(q) + extractor.height(q)
+                        || extractor.y(q) >= extractor.y(r) + extractor.height(r));
+            }
+        }
+        assertEquals(100 * 100 - 60 * 60, area);
+
+        // The 100x5 strip left on the second sheet is too narrow to keep
+        assertEquals(0, extractor.extract(layout, 1, 10));
+    }
+}
@@ -0,0 +1,91 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.model.entities.Remnant;
+
+/**
+ * Measures remnant lookups in a large stock of the long, thin strips the remnant extractor
+ * leaves along the edges of a sheet, lying in both orientations. Such strips are wide or high
+ * but rarely both, the shapes that would make a search by subtree maxima visit every remnant.
+ * A lookup must stay under a millisecond with 50,000 remnants and grow polylogarithmically.
+ *
+ * Not part of the default test run; start it explicitly with
+ * {@code mvn -Dtest=RemnantIndexBenchmark test}.
+ */
+public class RemnantIndexBenchmark {
+
+    private static final int DEPTH = 18;
+    private static final int[] SIZES = {12_500, 25_000, 50_000};
+    private static final int QUERIES = 10_000;
+
+    @Test
+    void claim_staysUnderAMillisecondWithFiftyThousandStrips() {
+        // Warm up the JIT before measuring
+        for (int i = 0; i < 5; i++) {
+            measure(SIZES[1]);
+        }
+
+        long[] nanos = new long[SIZES.length];
+        for (int s = 0; s < SIZES.length; s++) {
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < 5; run++) {
+                best = Math.min(best, measure(SIZES[s]));
+            }
+            nanos[s] = best;
+            System.out.printf("Remnant index %6d strips: %8.2f us per claim%n", SIZES[s], best / 1_000.0 / QUERIES);
+        }
+
+        double perClaimMillis = nanos[SIZES.length - 1] / 1_000_000.0 / QUERIES;
+        assertTrue(perClaimMillis < 1.0, "A claim took " + perClaimMillis + " ms with 50000 remnants");
+        for (int s = 1; s < SIZES.length; s++) {
+            System.out.printf("Remnant index %6d -> %6d strips: x%.2f%n", SIZES[s - 1], SIZES[s],
+                    (double) nanos[s] / nanos[s - 1]);
+        }
+        // A scan of the remnants would take four times as long with four times the stock
+        double ratio = (double) nanos[SIZES.length - 1] / nanos[0];
+        assertTrue(ratio < 3.0, "Claim time grew by x" + ratio + " with four times the stock");
+    }
+
+    /**
+     * Alternately look for a part no strip holds and claim one that long strips of either orientation hold,
+     * returning the elapsed nanoseconds.
+     */
+    private static long measure(int strips) {
+        RemnantIndex index = new RemnantIndex();
+        index.addAll(strips(strips, new Random(strips)));
+
+        long start = System.nanoTime();
+        for (int q = 0; q < QUERIES; q++) {
+            if (q % 2 == 0) {
+                assertNull(index.claim(DEPTH, 400, 400));
+            } else {
+                assertNotNull(index.claim(DEPTH, 1_500, 60));
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Strips along the long and along the short edge of a 2800x2070 sheet, in both orientations, at most 300 mm thin.
+     */
+    private static List<Remnant> strips(int count, Random random) {
+        List<Remnant> remnants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = 1_000 + random.nextInt(1_800);
+            int thickness = 50 + random.nextInt(250);
+            Remnant remnant = i % 2 == 0 ? new Remnant(length, thickness, DEPTH) : new Remnant(thickness, length, DEPTH);
+            remnant.setId((long) i);
+            remnants.add(remnant);
+        }
+        return remnants;
+    }
+}
@@ -0,0 +1,80 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.model.entities.Remnant;
+
+public class RemnantIndexTest {
+
+    @Test
+    void claim_returnsTheSmallestFittingRemnantInEitherOrientation() {
+        Remnant large = new Remnant(500, 500, 18);
+        Remnant narrow = new Remnant(100, 400, 18);
+        Remnant small = new Remnant(50, 50, 18);
+        RemnantIndex index = new RemnantIndex();
+        index.addAll(List.of(large, narrow, small));
+
+        // 300x80 only fits the narrow remnant when rotated
+        assertSame(narrow, index.claim(18, 300, 80));
+        assertSame(large, index.claim(18, 300, 80));
+        assertNull(index.claim(18, 300, 80));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void claim_onlyLooksAtTheRequestedDepth() {
+        RemnantIndex index = new RemnantIndex();
+        index.addAll(List.of(new Remnant(500, 500, 8)));
+
+        assertNull(index.claim(18, 100, 100));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void claim_matchesLinearScanAfterClaimsAndAdds() {
+        Random random = new Random(11);
+        RemnantIndex index = new RemnantIndex();
+        List<Remnant> stock = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            List<Remnant> added = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                added.add(new Remnant(1 + random.nextInt(1000), 1 + random.nextInt(1000), 18));
+            }
+            index.addAll(added);
+            stock.addAll(added);
+            for (int i = 0; i < 30; i++) {
+                int width = 1 + random.nextInt(1000);
+                int height = 1 + random.nextInt(1000);
+                Remnant claimed = index.claim(18, width, height);
+                Remnant expected = null;
+                for (Remnant remnant : stock) {
+                    boolean fits = remnant.getWidth() >= width && remnant.getHeight() >= height
+                            || remnant.getWidth() >= height && remnant.getHeight() >= width;
+                    if (fits && (expected == null || area(remnant) < area(expected))) {
+                        expected = remnant;
+                    }
+                }
+                if (expected == null) {
+                    assertNull(claimed);
+                } else {
+                    assertEquals(area(expected), area(claimed));
+                    assertTrue(stock.remove(claimed));
+                }
+            }
+            assertEquals(stock.size(), index.size());
+        }
+    }
+
+    private static long area(Remnant remnant) {
+        return (long) remnant.getWidth() * remnant.getHeight();
+    }
+}
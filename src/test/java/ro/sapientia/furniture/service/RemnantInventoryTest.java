@@ -0,0 +1,80 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ro.sapientia.furniture.model.entities.Remnant;
+import ro.sapientia.furniture.repository.RemnantRepository;
+
+public class RemnantInventoryTest {
+
+    private RemnantInventory inventory;
+
+    private Remnant small;
+
+    private Remnant large;
+
+    @Mock
+    private RemnantRepository remnantRepository;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        small = remnant(1L, 100, 100);
+        large = remnant(2L, 300, 300);
+        inventory = new RemnantInventory(remnantRepository);
+    }
+
+    /**
+     * Another instance took the smallest fitting remnant: the index is reloaded and the next
+     * candidate is taken instead.
+     */
+    @Test
+    void claim_takesTheNextRemnantWhenAnotherInstanceWonTheRace() {
+        when(remnantRepository.findByUsedFalse()).thenReturn(List.of(small, large)).thenReturn(List.of(large));
+        when(remnantRepository.markUsed(any())).thenAnswer(invocation -> large.getId().equals(invocation.getArgument(0)) ? 1 : 0);
+
+        assertSame(large, inventory.claim(18, 50, 50));
+        assertNull(inventory.claim(18, 50, 50));
+        assertEquals(0, inventory.size());
+    }
+
+    @Test
+    void release_putsTheRemnantBackOnceOnly() {
+        List<List<Long>> unmarked = new ArrayList<>();
+        when(remnantRepository.findByUsedFalse()).thenReturn(List.of(small));
+        when(remnantRepository.markUsed(any())).thenReturn(1);
+        when(remnantRepository.markUnused(any())).thenAnswer(invocation -> {
+            unmarked.add(new ArrayList<>(invocation.getArgument(0)));
+            return 1;
+        });
+
+        Remnant claimed = inventory.claim(18, 50, 50);
+        // A reload after the remnant went back into stock in the database already holds it
+        inventory.refresh();
+        assertEquals(1, inventory.size());
+        inventory.release(List.of(claimed));
+
+        assertEquals(List.of(List.of(1L)), unmarked);
+        assertEquals(1, inventory.size());
+        assertSame(small, inventory.claim(18, 50, 50));
+        assertNull(inventory.claim(18, 50, 50));
+    }
+
+    private static Remnant remnant(Long id, int width, int height) {
+        Remnant remnant = new Remnant(width, height, 18);
+        remnant.setId(id);
+        return remnant;
+    }
+}
@@ -0,0 +1,201 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ro.sapientia.furniture.config.CutOptimizationProperties;
+import ro.sapientia.furniture.exception.CutOptimizationException;
+import ro.sapientia.furniture.exception.CuttingSheetNotFoundException;
+import ro.sapientia.furniture.model.dto.CutElementDTO;
+import ro.sapientia.furniture.model.dto.CuttingSheetDTO;
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+import ro.sapientia.furniture.model.dto.PlacedElementDTO;
+import ro.sapientia.furniture.model.dto.SheetChangeDTO;
+import ro.sapientia.furniture.model.entities.CuttingSheet;
+import ro.sapientia.furniture.model.entities.PlacedElement;
+import ro.sapientia.furniture.model.entities.Remnant;
+import ro.sapientia.furniture.repository.CuttingSheetRepository;
+import ro.sapientia.furniture.repository.FurnitureBodyRepository;
+import ro.sapientia.furniture.repository.RemnantRepository;
+
+public class SheetEditServiceTest {
+
+    private SheetEditService service;
+
+    private CuttingSheet sheet;
+
+    @Mock
+    private CuttingSheetRepository cuttingSheetRepository;
+
+    @Mock
+    private FurnitureBodyRepository furnitureBodyRepository;
+
+    @Mock
+    private RemnantRepository remnantRepository;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        sheet = new CuttingSheet();
+        sheet.setId(7L);
+        sheet.setWidth(100);
+        sheet.setHeight(100);
+        when(cuttingSheetRepository.findLocked(any())).thenReturn(Optional.of(sheet));
+        when(cuttingSheetRepository.findById(any())).thenReturn(Optional.of(sheet));
+        CutOptimizationProperties properties = new CutOptimizationProperties();
+        service = new SheetEditService(cuttingSheetRepository, new FurnitureBodyCatalog(furnitureBodyRepository, properties),
+                new RemnantInventory(null), properties);
+    }
+
+    @Test
+    void addElements_fillsTheFreeSpaceWithoutMovingPlacements() {
+        sheet.addPlacedElement(new PlacedElement(1L, 0, 0, 100, 50));
+        sheet.addPlacedElement(new PlacedElement(2L, 0, 50, 50, 50));
+
+        SheetChangeDTO change = service.addElements(7L, List.of(part(3L, 50, 50)));
+
+        assertFalse(change.getRepacked());
+        assertTrue(change.getMoved().isEmpty());
+        assertEquals(1, change.getAdded().size());
+        assertEquals(50, change.getAdded().get(0).getX());
+        assertEquals(50, change.getAdded().get(0).getY());
+        assertEquals(3, sheet.getPlacedElements().size());
+        assertEquals(1.0, change.getSheet().getUtilization(), 1e-9);
+    }
+
+    @Test
+    void addElements_repacksTheSheetWhenTheFreeSpaceIsTooSmall() {
+        sheet.addPlacedElement(new PlacedElement(1L, 20, 20, 60, 60));
+
+        // Only 20 mm strips are free around the centered part
+        SheetChangeDTO change = service.addElements(7L, List.of(part(2L, 100, 40)));
+
+        assertTrue(change.getRepacked());
+        assertEquals(1, change.getMoved().size());
+        PlacedElementDTO moved = change.getMoved().get(0);
+        assertEquals(1L, moved.getId());
+        assertEquals(0, moved.getX());
+        assertEquals(0, moved.getY());
+        // The new part stands upright in the 40 mm strip right of the moved one
+        assertEquals(60, change.getAdded().get(0).getX());
+        assertEquals(40, change.getAdded().get(0).getWidth());
+        assertEquals(0, sheet.getPlacedElements().get(0).getX());
+    }
+
+    @Test
+    void addElements_failsWhenTheSheetIsFull() {
+        sheet.addPlacedElement(new PlacedElement(1L, 0, 0, 100, 80));
+
+        assertThrows(CutOptimizationException.class, () -> service.addElements(7L, List.of(part(2L, 100, 40))));
+        assertEquals(1, sheet.getPlacedElements().size());
+    }
+
+    @Test
+    void addElements_repacksAGuillotineSheetWithItsKerf() {
+        sheet.setAlgorithm(PackingAlgorithm.GUILLOTINE);
+        sheet.setKerf(4);
+        sheet.addPlacedElement(new PlacedElement(1L, 0, 0, 50, 100));
+
+        SheetChangeDTO change = service.addElements(7L, List.of(part(2L, 40, 90)));
+
+        // The free space starts at x = 50, but the blade takes 4 mm of it
+        assertTrue(change.getRepacked());
+        assertTrue(change.getMoved().isEmpty());
+        assertEquals(54, change.getAdded().get(0).getX());
+        assertEquals(0, change.getAdded().get(0).getY());
+        assertFalse(change.getCuts().isEmpty());
+        assertEquals(50, change.getCuts().get(0).getPosition());
+    }
+
+    @Test
+    void removePlacements_keepsTheCutsOfAGuillotineSheet() {
+        sheet.setAlgorithm(PackingAlgorithm.GUILLOTINE);
+        sheet.addPlacedElement(placement(10L, 1L, 0, 0, 50, 100));
+        sheet.addPlacedElement(placement(11L, 2L, 50, 0, 50, 100));
+
+        SheetChangeDTO change = service.removePlacements(7L, List.of(11L));
+
+        assertFalse(change.getRepacked());
+        assertNull(change.getCuts());
+        assertEquals(1, change.getSheet().getPlacedCount());
+    }
+
+    @Test
+    void addElements_failsForAGuillotineSheetRemnantsWereCutFrom() {
+        sheet.setAlgorithm(PackingAlgorithm.GUILLOTINE);
+        sheet.addPlacedElement(new PlacedElement(1L, 0, 0, 50, 100));
+        Remnant cut = new Remnant(50, 100, 0);
+        cut.setId(3L);
+        cut.setUsed(true);
+        when(remnantRepository.findBySourceSheetId(any())).thenReturn(List.of(cut));
+        CutOptimizationProperties properties = new CutOptimizationProperties();
+        SheetEditService withRemnants = new SheetEditService(cuttingSheetRepository,
+                new FurnitureBodyCatalog(furnitureBodyRepository, properties), new RemnantInventory(remnantRepository), properties);
+
+        assertThrows(CutOptimizationException.class, () -> withRemnants.addElements(7L, List.of(part(2L, 40, 90))));
+        assertEquals(1, sheet.getPlacedElements().size());
+    }
+
+    @Test
+    void removePlacements_takesOffOnlyTheGivenPlacements() {
+        sheet.addPlacedElement(placement(10L, 1L, 0, 0, 50, 50));
+        sheet.addPlacedElement(placement(11L, 1L, 50, 0, 50, 50));
+        sheet.addPlacedElement(placement(12L, null, 0, 50, 50, 50));
+
+        // One of two copies of element 1, and a placement without a furniture element
+        SheetChangeDTO change = service.removePlacements(7L, List.of(11L, 12L));
+
+        assertEquals(2, change.getRemovedCount());
+        assertEquals(1, change.getSheet().getPlacedCount());
+        assertEquals(10L, sheet.getPlacedElements().get(0).getId());
+        assertThrows(CutOptimizationException.class, () -> service.removePlacements(7L, List.of(11L)));
+    }
+
+    @Test
+    void findSheet_listsThePlacementIds() {
+        sheet.addPlacedElement(placement(10L, 1L, 0, 0, 50, 50));
+        sheet.addPlacedElement(placement(11L, null, 50, 0, 50, 50));
+
+        CuttingSheetDTO found = service.findSheet(7L);
+
+        assertEquals(2, found.getSheet().getPlacedCount());
+        assertEquals(10L, found.getPlacements().get(0).getPlacementId());
+        assertEquals(1L, found.getPlacements().get(0).getId());
+        assertEquals(11L, found.getPlacements().get(1).getPlacementId());
+        assertEquals(50, found.getPlacements().get(1).getX());
+    }
+
+    @Test
+    void edit_failsForAnUnknownSheet() {
+        when(cuttingSheetRepository.findLocked(any())).thenReturn(Optional.empty());
+
+        assertThrows(CuttingSheetNotFoundException.class, () -> service.removePlacements(8L, List.of(1L)));
+    }
+
+    private static PlacedElement placement(Long placementId, Long elementId, int x, int y, int width, int height) {
+        PlacedElement placement = new PlacedElement(elementId, x, y, width, height);
+        placement.setId(placementId);
+        return placement;
+    }
+
+    private static CutElementDTO part(Long id, int width, int height) {
+        CutElementDTO part = new CutElementDTO();
+        part.setId(id);
+        part.setWidth(width);
+        part.setHeight(height);
+        return part;
+    }
+}
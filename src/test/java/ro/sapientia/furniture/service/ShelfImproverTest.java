@@ -0,0 +1,133 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ro.sapientia.furniture.service.PackingFixtures.load;
+import static ro.sapientia.furniture.service.PackingFixtures.randomSizes;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class ShelfImproverTest {
+
+    private final PlacementValidator validator = new PlacementValidator(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+    /**
+     * FFDH puts the 50x80 and 30x60 parts on one shelf and has no room left for the 30x40 part;
+     * regrouping the shelves fits all four parts on the 100x100 sheet.
+     */
+    @Test
+    void improve_fitsElementsFfdhLeftOut() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            load(workspace, new int[][]{{80, 20}, {50, 80}, {30, 60}, {30, 40}});
+            int[] order = workspace.sortByHeightDescending();
+            PackingLayout layout = workspace.layout();
+            layout.clear(4);
+            layout.addSheet(100, 100);
+            workspace.ffdhPacker().pack(workspace.input(), order, 4, 100, 100, layout);
+            assertEquals(3, layout.count());
+
+            assertTrue(improver().improve(workspace.input(), order, 4, layout, 100,
+                    SearchBudget.ofMillis(60_000), 200_000, 42));
+
+            assertEquals(4, layout.count());
+            assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void improve_neverMakesTheStripTaller() {
+        Random random = new Random(31);
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            for (int round = 0; round < 20; round++) {
+                int count = 10 + random.nextInt(100);
+                int[] order = packStrip(workspace, randomSizes(random, count, 1000, 800));
+                PackingLayout strip = workspace.layout();
+                int ffdhHeight = strip.usedHeight(0);
+
+                boolean improved = improver().improve(workspace.input(), order, count, strip, 2070,
+                        SearchBudget.ofMillis(60_000), 20_000, round);
+
+                assertEquals(count, strip.count());
+                assertEquals(improved, strip.usedHeight(0) < ffdhHeight);
+                assertTrue(strip.usedHeight(0) <= ffdhHeight);
+                assertDoesNotThrow(() -> validator.validate(workspace.input(), strip));
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void improve_isReproducibleWithTheSameSeed() {
+        int[][] sizes = randomSizes(new Random(32), 60, 1000, 800);
+        int[][] first = improvedPlacements(sizes, 7);
+        int[][] second = improvedPlacements(sizes, 7);
+
+        for (int i = 0; i < first.length; i++) {
+            assertArrayEquals(first[i], second[i]);
+        }
+    }
+
+    @Test
+    void improve_keepsTheLayoutWhenOutOfTime() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            int[] order = packStrip(workspace, randomSizes(new Random(33), 100, 1000, 800));
+            PackingLayout strip = workspace.layout();
+            PackingLayout before = new PackingLayout();
+            before.copyFrom(strip);
+
+            assertFalse(improver().improve(workspace.input(), order, 100, strip, 2070,
+                    SearchBudget.ofMillis(0), Long.MAX_VALUE, 42));
+
+            assertEquals(before.count(), strip.count());
+            for (int i = 0; i < strip.count(); i++) {
+                assertEquals(before.x(i), strip.x(i));
+                assertEquals(before.y(i), strip.y(i));
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    private static ShelfImprover improver() {
+        return new ShelfImprover();
+    }
+
+    private static int[][] improvedPlacements(int[][] sizes, long seed) {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            int[] order = packStrip(workspace, sizes);
+            PackingLayout strip = workspace.layout();
+            improver().improve(workspace.input(), order, sizes.length, strip, 2070,
+                    SearchBudget.ofMillis(60_000), 50_000, seed);
+            int[][] placements = new int[strip.count()][];
+            for (int i = 0; i < strip.count(); i++) {
+                placements[i] = new int[]{strip.element(i), strip.x(i), strip.y(i), strip.width(i), strip.height(i)};
+            }
+            return placements;
+        } finally {
+            workspace.release();
+        }
+    }
+
+    private static int[] packStrip(PackingWorkspace workspace, int[][] sizes) {
+        load(workspace, sizes);
+        int[] order = workspace.sortByHeightDescending();
+        PackingLayout strip = workspace.layout();
+        strip.clear(sizes.length);
+        strip.addSheet(2800, Integer.MAX_VALUE);
+        workspace.ffdhPacker().packStrip(workspace.input(), order, sizes.length, 2800, 2070, strip);
+        return order;
+    }
+}
@@ -0,0 +1,88 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ro.sapientia.furniture.service.PackingFixtures.loadSorted;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+
+public class SkylinePackerTest {
+
+    private static final PackingAlgorithm[] SKYLINES = {PackingAlgorithm.SKYLINE_BL, PackingAlgorithm.SKYLINE_MIN_WASTE};
+
+    private final PlacementValidator validator = new PlacementValidator(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+    /**
+     * Sheet: 100x60
+     * Element 1: 60x60 (fills the left side)
+     * Elements 2 and 3: 40x30 (stacked on the skyline of the right side)
+     */
+    @Test
+    void pack_stacksOnTheSkyline() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            for (PackingAlgorithm algorithm : SKYLINES) {
+                PackingLayout layout = pack(workspace, algorithm, new int[][]{{60, 60}, {40, 30}, {40, 30}}, 100, 60);
+                assertEquals(3, layout.count(), algorithm.name());
+                assertEquals(60, layout.x(2));
+                assertEquals(30, layout.y(2));
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void pack_rotatesToStayLow() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            // 40x100 lying flat keeps the skyline at 40
+            PackingLayout layout = pack(workspace, PackingAlgorithm.SKYLINE_BL, new int[][]{{40, 100}}, 100, 100);
+            assertEquals(100, layout.width(0));
+            assertEquals(40, layout.height(0));
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void pack_producesValidLayoutsOnRandomOrders() {
+        Random random = new Random(9);
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            for (int round = 0; round < 100; round++) {
+                int count = 1 + random.nextInt(300);
+                int sheetWidth = 200 + random.nextInt(1000);
+                int sheetHeight = 200 + random.nextInt(1000);
+                int[][] sizes = new int[count][];
+                for (int i = 0; i < count; i++) {
+                    sizes[i] = new int[]{1 + random.nextInt(300), 1 + random.nextInt(300)};
+                }
+                for (PackingAlgorithm algorithm : SKYLINES) {
+                    PackingLayout layout = pack(workspace, algorithm, sizes, sheetWidth, sheetHeight);
+                    assertTrue(layout.count() > 0);
+                    assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+                }
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    static PackingLayout pack(PackingWorkspace workspace, PackingAlgorithm algorithm, int[][] sizes,
+                              int sheetWidth, int sheetHeight) {
+        int[] order = loadSorted(workspace, sizes);
+        PackingInput input = workspace.input();
+        PackingLayout layout = workspace.layout();
+        layout.clear(sizes.length);
+        layout.addSheet(sheetWidth, sheetHeight);
+        workspace.packer(algorithm).pack(input, order, sizes.length, sheetWidth, sheetHeight, layout);
+        return layout;
+    }
+}
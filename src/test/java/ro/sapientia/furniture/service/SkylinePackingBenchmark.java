@@ -0,0 +1,112 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ro.sapientia.furniture.service.PackingFixtures.randomSizes;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+
+/**
+ * Compares the skyline engines with FFDH on packing time and sheet utilization.
+ * Time is measured on growing orders packed onto one strip of unlimited height, utilization
+ * on many kitchen-sized orders that do not all fit on one standard 2800x2070 board.
+ *
+ * Not part of the default test run; start it explicitly with
+ * {@code mvn -Dtest=SkylinePackingBenchmark test}.
+ */
+public class SkylinePackingBenchmark {
+
+    private static final PackingAlgorithm[] ALGORITHMS = {
+            PackingAlgorithm.FFDH, PackingAlgorithm.SKYLINE_BL, PackingAlgorithm.SKYLINE_MIN_WASTE
+    };
+    private static final int STRIP_WIDTH = 2800;
+    private static final int STRIP_HEIGHT = Integer.MAX_VALUE / 2;
+    private static final int[] SIZES = {5_000, 10_000, 20_000, 40_000};
+
+    @Test
+    void skyline_scalesLikeFfdh() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            for (PackingAlgorithm algorithm : ALGORITHMS) {
+                // Warm up the JIT before measuring
+                for (int i = 0; i < 3; i++) {
+                    packStrip(workspace, algorithm, SIZES[1], i);
+                }
+
+                long[] nanos = new long[SIZES.length];
+                for (int s = 0; s < SIZES.length; s++) {
+                    long best = Long.MAX_VALUE;
+                    for (int run = 0; run < 3; run++) {
+                        best = Math.min(best, packStrip(workspace, algorithm, SIZES[s], 42));
+                        assertEquals(SIZES[s], workspace.layout().count());
+                    }
+                    nanos[s] = best;
+                    PackingLayout layout = workspace.layout();
+                    System.out.printf("%-17s %6d parts: %8.2f ms, strip utilization %.4f%n", algorithm, SIZES[s],
+                            best / 1_000_000.0, (double) placedArea(layout) / ((long) STRIP_WIDTH * layout.usedHeight(0)));
+                }
+
+                for (int s = 1; s < SIZES.length; s++) {
+                    double ratio = (double) nanos[s] / nanos[s - 1];
+                    assertTrue(ratio < 3.5, algorithm + " packing time grew by x" + ratio + " when doubling the order size");
+                }
+            }
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void skyline_usesSheetsBetterThanFfdh() {
+        long[] placed = new long[ALGORITHMS.length];
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            for (int round = 0; round < 500; round++) {
+                Random random = new Random(round);
+                int[][] sizes = randomSizes(random, 60, 800, 800);
+                for (int a = 0; a < ALGORITHMS.length; a++) {
+                    placed[a] += placedArea(SkylinePackerTest.pack(workspace, ALGORITHMS[a], sizes, 2800, 2070));
+                }
+            }
+        } finally {
+            workspace.release();
+        }
+
+        for (int a = 0; a < ALGORITHMS.length; a++) {
+            System.out.printf("%-17s sheet utilization %.4f%n", ALGORITHMS[a], placed[a] / (500 * 2800.0 * 2070));
+        }
+        assertTrue(placed[1] > placed[0], "Skyline bottom-left placed less than FFDH");
+        assertTrue(placed[2] > placed[0], "Skyline min-waste placed less than FFDH");
+    }
+
+    /**
+     * Load a random order, then sort and pack it onto one strip, returning the elapsed nanoseconds.
+     */
+    private static long packStrip(PackingWorkspace workspace, PackingAlgorithm algorithm, int size, long seed) {
+        Random random = new Random(seed);
+        PackingInput input = workspace.input();
+        input.reset(size);
+        for (int i = 0; i < size; i++) {
+            input.set(i, i, 50 + random.nextInt(750), 50 + random.nextInt(750));
+        }
+
+        long start = System.nanoTime();
+        int[] order = workspace.sortByHeightDescending();
+        workspace.layout().clear(size);
+        workspace.layout().addSheet(STRIP_WIDTH, STRIP_HEIGHT);
+        workspace.packer(algorithm).pack(input, order, size, STRIP_WIDTH, STRIP_HEIGHT, workspace.layout());
+        return System.nanoTime() - start;
+    }
+
+    private static long placedArea(PackingLayout layout) {
+        long area = 0;
+        for (int i = 0; i < layout.count(); i++) {
+            area += (long) layout.width(i) * layout.height(i);
+        }
+        return area;
+    }
+}
@@ -0,0 +1,93 @@
+package ro.sapientia.furniture.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ro.sapientia.furniture.service.PackingFixtures.loadSorted;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import ro.sapientia.furniture.model.dto.PackingAlgorithm;
+
+public class StockSelectorTest {
+
+    private final PlacementValidator validator = new PlacementValidator(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+    private final MultiSheetPacker multiSheetPacker = new MultiSheetPacker(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+    private final StockSelector.SheetPacking ffdh = (workspace, sheetWidth, sheetHeight, multiSheet) -> {
+        if (multiSheet) {
+            multiSheetPacker.pack(workspace, PackingAlgorithm.FFDH, workspace.input().size(), sheetWidth, sheetHeight);
+        } else {
+            PackingLayout layout = workspace.layout();
+            layout.clear(workspace.input().size());
+            layout.addSheet(sheetWidth, sheetHeight);
+            workspace.ffdhPacker().pack(workspace.input(), workspace.order(), workspace.input().size(),
+                    sheetWidth, sheetHeight, layout);
+        }
+    };
+
+    @Test
+    void select_picksTheCheapestBoardThatHoldsEverything() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            loadSorted(workspace, new int[][]{{50, 50}, {50, 50}});
+            List<StockSelector.Stock> stock = List.of(
+                    new StockSelector.Stock(100, 100, Integer.MAX_VALUE, 10),
+                    new StockSelector.Stock(100, 50, Integer.MAX_VALUE, 6),
+                    new StockSelector.Stock(50, 50, Integer.MAX_VALUE, 1));
+
+            double cost = new StockSelector(new ForkJoinPool(2)).select(workspace, stock, false, ffdh);
+
+            PackingLayout layout = workspace.layout();
+            assertEquals(6.0, cost);
+            assertEquals(1, layout.sheetCount());
+            assertEquals(50, layout.sheetHeight(0));
+            assertEquals(2, layout.count());
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void select_overflowsOntoOtherSizesWhenTheCountRunsOut() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            int[][] sizes = new int[10][];
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = new int[]{50, 50};
+            }
+            loadSorted(workspace, sizes);
+            List<StockSelector.Stock> stock = List.of(
+                    new StockSelector.Stock(100, 100, 1, 4),
+                    new StockSelector.Stock(100, 50, Integer.MAX_VALUE, 3));
+
+            double cost = new StockSelector(new ForkJoinPool(2)).select(workspace, stock, true, ffdh);
+
+            // One 100x100 board for four parts, three 100x50 boards for the other six
+            PackingLayout layout = workspace.layout();
+            assertEquals(13.0, cost);
+            assertEquals(4, layout.sheetCount());
+            assertEquals(10, layout.count());
+            assertDoesNotThrow(() -> validator.validate(workspace.input(), layout));
+        } finally {
+            workspace.release();
+        }
+    }
+
+    @Test
+    void select_failsWhenNoBoardHoldsAnElement() {
+        PackingWorkspace workspace = PackingWorkspace.acquire();
+        try {
+            loadSorted(workspace, new int[][]{{80, 80}});
+            List<StockSelector.Stock> stock = List.of(new StockSelector.Stock(50, 100, Integer.MAX_VALUE, 1));
+
+            assertTrue(new StockSelector(new ForkJoinPool(2)).select(workspace, stock, true, ffdh) < 0);
+        } finally {
+            workspace.release();
+        }
+    }
+}